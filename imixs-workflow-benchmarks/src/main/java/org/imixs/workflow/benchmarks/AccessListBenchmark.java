@@ -0,0 +1,106 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+
+import org.imixs.workflow.ItemCollection;
+import org.imixs.workflow.engine.adapters.AccessAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the unique merge of large multi value items like $readaccess,
+ * $writeaccess and $participants. The lists contain 50% duplicates.
+ * 
+ * @author rsoika
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AccessListBenchmark {
+
+    @Param({ "100", "10000" })
+    private int size;
+
+    private List<Object> acl;
+    private List<String> fieldList;
+    private ItemCollection workitem;
+    private AccessAdapter accessAdapter;
+
+    @Setup
+    public void setup() {
+        acl = new ArrayList<Object>();
+        for (int i = 0; i < size; i++) {
+            acl.add("user" + (i % (size / 2)));
+        }
+        workitem = new ItemCollection();
+        workitem.setItemValue("$participants", new ArrayList<Object>(acl));
+        workitem.setItemValue("namteam", new ArrayList<Object>(acl));
+        fieldList = new ArrayList<String>();
+        fieldList.add("namteam");
+        accessAdapter = new AccessAdapter();
+    }
+
+    /**
+     * Appends a single participant to a large unique item
+     */
+    @Benchmark
+    public ItemCollection appendItemValueUnique() {
+        return workitem.appendItemValueUnique("$participants", "user" + size);
+    }
+
+    /**
+     * Replaces a large unique item
+     */
+    @Benchmark
+    public ItemCollection setItemValueUnique() {
+        return workitem.setItemValueUnique("$readaccess", new ArrayList<Object>(acl));
+    }
+
+    /**
+     * Removes the duplicates of a large ACL
+     */
+    @Benchmark
+    public List<?> uniqueList() {
+        return accessAdapter.uniqueList(acl);
+    }
+
+    /**
+     * Merges a large mapped field into a large ACL
+     */
+    @Benchmark
+    public List<Object> mergeFieldList() {
+        List<Object> valueList = new Vector<Object>(acl);
+        accessAdapter.mergeFieldList(workitem, valueList, fieldList);
+        return valueList;
+    }
+}
@@ -0,0 +1,79 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.benchmarks;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.imixs.workflow.ItemCollection;
+import org.imixs.workflow.engine.TextEvent;
+import org.imixs.workflow.engine.handler.TextItemValueAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the rendering of text templates with {@code <itemvalue>} tags as
+ * done by {@code WorkflowService.adaptText}. Outside of a container the
+ * TextEvent is passed to the {@link TextItemValueAdapter} directly.
+ *
+ * @author rsoika
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AdaptTextBenchmark {
+
+    private static final String TEMPLATE = "<p>Dear <itemvalue>_name</itemvalue>,</p>"
+            + "<p>the invoice <itemvalue>_invoicenumber</itemvalue> from "
+            + "<itemvalue format=\"dd.MM.yyyy\">$created</itemvalue> with an amount of "
+            + "<itemvalue format=\"#,##0.00\" locale=\"de_DE\">_amount</itemvalue> EUR "
+            + "was approved by <itemvalue separator=\", \">_approvers</itemvalue>.</p>"
+            + "<p>Status: <itemvalue>$workflowstatus</itemvalue></p>";
+
+    private TextItemValueAdapter adapter;
+    private ItemCollection workitem;
+
+    @Setup
+    public void setup() {
+        adapter = new TextItemValueAdapter();
+        workitem = new ItemCollection().model("1.0.0").task(1000).event(10);
+        workitem.setItemValue("_name", "Anna");
+        workitem.setItemValue("_invoicenumber", "R-2024-0815");
+        workitem.setItemValue("$created", new Date());
+        workitem.setItemValue("_amount", 1500.50);
+        workitem.setItemValue("_approvers", Arrays.asList("manfred", "anna", "eddy"));
+        workitem.setItemValue("$workflowstatus", "Approved");
+    }
+
+    @Benchmark
+    public String adaptText() {
+        TextEvent event = new TextEvent(TEMPLATE, workitem);
+        adapter.onEvent(event);
+        return event.getText();
+    }
+}
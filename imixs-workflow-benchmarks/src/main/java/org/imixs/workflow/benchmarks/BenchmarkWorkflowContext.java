@@ -0,0 +1,142 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.imixs.workflow.ItemCollection;
+import org.imixs.workflow.WorkflowContext;
+import org.imixs.workflow.WorkflowKernel;
+import org.imixs.workflow.bpmn.BPMNTransitionTable;
+import org.imixs.workflow.bpmn.BPMNUtil;
+import org.imixs.workflow.exceptions.ModelException;
+import org.imixs.workflow.exceptions.PluginException;
+import org.openbpmn.bpmn.BPMNModel;
+import org.openbpmn.bpmn.exceptions.BPMNModelException;
+import org.openbpmn.bpmn.util.BPMNModelFactory;
+
+/**
+ * A minimal {@link WorkflowContext} running the {@link WorkflowKernel} outside
+ * of a Jakarta EE container. Models are loaded from the classpath. Like the
+ * engine ModelService, the context shares one {@link BPMNTransitionTable} per
+ * model version.
+ * <p>
+ * The context is not thread save and should be used by one benchmark thread
+ * only.
+ *
+ * @author rsoika
+ */
+public class BenchmarkWorkflowContext implements WorkflowContext {
+
+    private final Map<String, BPMNModel> modelStore = new ConcurrentHashMap<>();
+    private final Map<String, BPMNTransitionTable> transitionTables = new ConcurrentHashMap<>();
+    private final WorkflowKernel workflowKernel;
+
+    public BenchmarkWorkflowContext() {
+        workflowKernel = new WorkflowKernel(this);
+    }
+
+    public WorkflowKernel getWorkflowKernel() {
+        return workflowKernel;
+    }
+
+    /**
+     * Loads a BPMN model from the classpath
+     *
+     * @param modelPath - e.g. /bpmn/simple.bpmn
+     * @return the model version
+     */
+    public String loadModel(String modelPath) {
+        try {
+            BPMNModel model = BPMNModelFactory.read(modelPath);
+            String version = BPMNUtil.getVersion(model);
+            modelStore.put(version, model);
+            transitionTables.put(version, new BPMNTransitionTable(version));
+            return version;
+        } catch (BPMNModelException e) {
+            throw new IllegalStateException("Failed to load model " + modelPath + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public BPMNModel fetchModel(String version) throws ModelException {
+        BPMNModel model = modelStore.get(version);
+        if (model == null) {
+            throw new ModelException(ModelException.UNDEFINED_MODEL_VERSION,
+                    "$modelversion '" + version + "' not found");
+        }
+        return model;
+    }
+
+    @Override
+    public BPMNTransitionTable findTransitionTable(String version) {
+        return transitionTables.get(version);
+    }
+
+    @Override
+    public String findModelVersionByWorkitem(ItemCollection workitem) throws ModelException {
+        String version = workitem.getModelVersion();
+        if (modelStore.containsKey(version)) {
+            return version;
+        }
+        throw new ModelException(ModelException.UNDEFINED_MODEL_VERSION, "$modelversion '" + version + "' not found");
+    }
+
+    @Override
+    public String findModelVersionByRegEx(String modelRegex) throws ModelException {
+        throw new ModelException(ModelException.UNDEFINED_MODEL_VERSION,
+                "no matching model version found for regex: '" + modelRegex + "'");
+    }
+
+    @Override
+    public String findModelVersionByGroup(String group) throws ModelException {
+        throw new ModelException(ModelException.UNDEFINED_MODEL_VERSION,
+                "no matching model version found for workflow group: '" + group + "'");
+    }
+
+    @Override
+    public ItemCollection getWorkItem(String uniqueid) {
+        return null;
+    }
+
+    @Override
+    public ItemCollection processWorkItem(ItemCollection workitem) throws PluginException, ModelException {
+        return workflowKernel.process(workitem);
+    }
+
+    @Override
+    public ItemCollection evalNextTask(ItemCollection workitem) throws PluginException, ModelException {
+        return workflowKernel.eval(workitem);
+    }
+
+    @Override
+    public ItemCollection evalWorkflowResult(ItemCollection event, String xmlTag, ItemCollection documentContext,
+            boolean resolveItemValues) throws PluginException {
+        return null;
+    }
+
+    @Override
+    public ItemCollection evalWorkflowResult(ItemCollection event, String tag, ItemCollection documentContext)
+            throws PluginException {
+        return null;
+    }
+
+    @Override
+    public String evalConditionalExpression(String expression, ItemCollection workitem) {
+        return expression;
+    }
+}
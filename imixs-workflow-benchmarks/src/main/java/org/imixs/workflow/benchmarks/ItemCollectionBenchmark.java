@@ -0,0 +1,139 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.imixs.workflow.ItemCollection;
+import org.imixs.workflow.ItemName;
+import org.imixs.workflow.WorkflowKernel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures typical get/set mixes of an ItemCollection as they occur during the
+ * processing of a workitem. The benchmarks compare plain String item names with
+ * pre-normalized {@link ItemName} keys.
+ * 
+ * @author rsoika
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ItemCollectionBenchmark {
+
+    private ItemCollection workitem;
+    private List<Object> participants;
+
+    @Setup
+    public void setup() {
+        workitem = new ItemCollection();
+        workitem.model("1.0.0").task(1000).event(10);
+        workitem.setItemValue(WorkflowKernel.UNIQUEID, "6f2c9a1e-4b1d-4c1a-8f1e-5a2b3c4d5e6f");
+        workitem.setItemValue(WorkflowKernel.WORKFLOWGROUP, "Invoice");
+        workitem.setItemValue(WorkflowKernel.WORKFLOWSTATUS, "Open");
+        workitem.setItemValue(WorkflowKernel.TYPE, "workitem");
+        workitem.setItemValue(WorkflowKernel.CREATED, new Date());
+        participants = new ArrayList<Object>();
+        for (int i = 0; i < 20; i++) {
+            participants.add("user" + i);
+        }
+        workitem.setItemValue("$participants", participants);
+    }
+
+    /**
+     * Reads the kernel items with plain String names
+     */
+    @Benchmark
+    public void getByString(Blackhole bh) {
+        bh.consume(workitem.getItemValueInteger(WorkflowKernel.TASKID));
+        bh.consume(workitem.getItemValueInteger(WorkflowKernel.EVENTID));
+        bh.consume(workitem.getItemValueString(WorkflowKernel.MODELVERSION));
+        bh.consume(workitem.getItemValueString(WorkflowKernel.WORKFLOWGROUP));
+        bh.consume(workitem.getItemValueString(WorkflowKernel.UNIQUEID));
+        bh.consume(workitem.getItemValue("$participants"));
+    }
+
+    /**
+     * Reads the kernel items with pre-normalized ItemName keys
+     */
+    @Benchmark
+    public void getByItemName(Blackhole bh) {
+        bh.consume(workitem.getValueInteger(ItemName.TASKID));
+        bh.consume(workitem.getValueInteger(ItemName.EVENTID));
+        bh.consume(workitem.getValueString(ItemName.MODELVERSION));
+        bh.consume(workitem.getValueString(ItemName.WORKFLOWGROUP));
+        bh.consume(workitem.getValueString(ItemName.UNIQUEID));
+        bh.consume(workitem.getValue(ItemName.PARTICIPANTS));
+    }
+
+    /**
+     * A typical mix of 4 reads and 1 write per event
+     */
+    @Benchmark
+    public void getSetMix(Blackhole bh) {
+        int taskID = workitem.getTaskID();
+        bh.consume(workitem.getEventID());
+        bh.consume(workitem.getModelVersion());
+        bh.consume(workitem.getItemValueString(WorkflowKernel.WORKFLOWSTATUS));
+        workitem.setItemValue(WorkflowKernel.LASTTASK, taskID);
+    }
+
+    /**
+     * Deep copy of a workitem as done by the WorkflowKernel and the ModelManager
+     */
+    @Benchmark
+    public ItemCollection cloneWorkitem() {
+        return (ItemCollection) workitem.clone();
+    }
+
+    /**
+     * Replaces a multi value item. This includes the value validation.
+     */
+    @Benchmark
+    public void setMultiValue() {
+        workitem.replaceItemValue("$participants", participants);
+    }
+
+    /**
+     * Sets a set of single value items with mixed types
+     */
+    @Benchmark
+    public ItemCollection setSingleValues() {
+        ItemCollection doc = new ItemCollection();
+        doc.setItemValue("txtname", "Anna");
+        doc.setItemValue("numamount", 100.50);
+        doc.setItemValue("datdue", new Date());
+        doc.setItemValue("keyapproved", true);
+        doc.setValue(ItemName.TASKID, 1000);
+        return doc;
+    }
+}
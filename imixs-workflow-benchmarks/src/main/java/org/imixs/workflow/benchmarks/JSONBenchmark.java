@@ -0,0 +1,170 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.imixs.workflow.ItemCollection;
+import org.imixs.workflow.WorkflowKernel;
+import org.imixs.workflow.util.ImixsJSONBuilder;
+import org.imixs.workflow.util.ImixsJSONParser;
+import org.imixs.workflow.util.ImixsJSONReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the conversion of workitems from and into the Imixs JSON format. The
+ * benchmarks compare the list based {@link ImixsJSONParser} with the streaming
+ * {@link ImixsJSONReader} and the String based
+ * {@link ImixsJSONBuilder#build(ItemCollection)} with the stream variants. The results are reported per document. The allocation per document
+ * is reported by the GC profiler:
+ * 
+ * <pre>
+ * java -jar target/benchmarks.jar JSONBenchmark -prof gc
+ * </pre>
+ *
+ * @author rsoika
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JSONBenchmark {
+
+    private static final int DOCUMENTS = 100;
+
+    private List<ItemCollection> documents;
+    private byte[] json;
+
+    @Setup
+    public void setup() throws IOException {
+        documents = new ArrayList<>();
+        for (int i = 0; i < DOCUMENTS; i++) {
+            ItemCollection workitem = new ItemCollection().model("1.0.0").task(1000).event(10);
+            workitem.setItemValue(WorkflowKernel.UNIQUEID, "benchmark-" + i);
+            workitem.setItemValue(WorkflowKernel.WORKFLOWGROUP, "Invoice");
+            workitem.setItemValue(WorkflowKernel.WORKFLOWSTATUS, "Open");
+            workitem.setItemValue(WorkflowKernel.CREATED, new Date());
+            workitem.setItemValue("_subject", "Invoice \"benchmark\" " + i);
+            workitem.setItemValue("_amount", 100.0 + i);
+            workitem.setItemValue("$readaccess", Arrays.asList("anna", "manfred", "eddy"));
+            documents.add(workitem);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImixsJSONBuilder.build(documents, out);
+        json = out.toByteArray();
+    }
+
+    /**
+     * Parses the data element into a list of documents
+     */
+    @Benchmark
+    @OperationsPerInvocation(DOCUMENTS)
+    public List<ItemCollection> parse() throws ParseException, IOException {
+        return ImixsJSONParser.parse(new ByteArrayInputStream(json));
+    }
+
+    /**
+     * Reads the documents of the data element one by one
+     */
+    @Benchmark
+    @OperationsPerInvocation(DOCUMENTS)
+    public void read(Blackhole bh) {
+        try (ImixsJSONReader reader = new ImixsJSONReader(new ByteArrayInputStream(json))) {
+            while (reader.hasNext()) {
+                bh.consume(reader.next());
+            }
+        }
+    }
+
+    /**
+     * Builds a JSON String per document and writes it into a stream
+     */
+    @Benchmark
+    @OperationsPerInvocation(DOCUMENTS)
+    public void buildString(Blackhole bh) throws ParseException, IOException {
+        OutputStream out = new Blackholed(bh);
+        for (ItemCollection document : documents) {
+            out.write(ImixsJSONBuilder.build(document).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Writes the documents one by one directly into a stream
+     */
+    @Benchmark
+    @OperationsPerInvocation(DOCUMENTS)
+    public void buildStream(Blackhole bh) throws IOException {
+        Writer out = new OutputStreamWriter(new Blackholed(bh), StandardCharsets.UTF_8);
+        for (ItemCollection document : documents) {
+            ImixsJSONBuilder.build(document, out);
+        }
+    }
+
+    /**
+     * Writes the documents as one data element directly into a stream
+     */
+    @Benchmark
+    @OperationsPerInvocation(DOCUMENTS)
+    public void buildCollection(Blackhole bh) throws IOException {
+        ImixsJSONBuilder.build(documents, new Blackholed(bh));
+    }
+
+    /**
+     * An output stream passing all bytes to the Blackhole
+     */
+    private static class Blackholed extends OutputStream {
+        private final Blackhole bh;
+
+        Blackholed(Blackhole bh) {
+            this.bh = bh;
+        }
+
+        @Override
+        public void write(int b) {
+            bh.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bh.consume(b);
+        }
+    }
+}
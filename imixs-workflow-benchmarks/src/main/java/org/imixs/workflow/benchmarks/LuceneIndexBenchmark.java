@@ -0,0 +1,234 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.benchmarks;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import org.apache.lucene.analysis.standard.ClassicAnalyzer;
+import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyWriter;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.FSDirectory;
+import org.imixs.workflow.ItemCollection;
+import org.imixs.workflow.WorkflowKernel;
+import org.imixs.workflow.engine.DocumentService;
+import org.imixs.workflow.engine.index.Aggregate;
+import org.imixs.workflow.engine.index.DefaultOperator;
+import org.imixs.workflow.engine.index.SchemaService;
+import org.imixs.workflow.engine.lucene.LuceneIndexService;
+import org.imixs.workflow.engine.lucene.LuceneItemAdapter;
+import org.imixs.workflow.engine.lucene.LuceneSearchService;
+import org.imixs.workflow.exceptions.QueryException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a Lucene round trip - indexing a block of workitems and searching
+ * or aggregating them - with the {@link LuceneIndexService} and the
+ * {@link LuceneSearchService}.
+ * <p>
+ * The services are wired by hand outside of a container. The DocumentService
+ * grants manager access, so the search term is not extended by access terms.
+ * The index is written into a temporary directory and contains an initial
+ * population of 1000 workitems.
+ *
+ * @author rsoika
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LuceneIndexBenchmark {
+
+    private static final int BLOCK_SIZE = 100;
+    private static final List<String> GROUP_BY = Arrays.asList("$workflowgroup", "$workflowstatus");
+    private static final List<Aggregate> MEASURES = Arrays.asList(new Aggregate("_amount", Aggregate.SUM),
+            new Aggregate("_amount", Aggregate.COUNT, "count"), new Aggregate("$modified", Aggregate.MAX));
+
+    // keep a reference to avoid the logger to be garbage collected
+    private static final Logger indexLogger = Logger.getLogger(LuceneIndexService.class.getName());
+
+    private Path indexDir;
+    private LuceneIndexService indexService;
+    private LuceneSearchService searchService;
+    private List<ItemCollection> documents;
+    private int block;
+
+    @Setup
+    public void setup() throws Exception {
+        // no CDI events are fired outside a container
+        indexLogger.setLevel(java.util.logging.Level.SEVERE);
+        indexDir = Files.createTempDirectory("imixs-benchmark-index");
+        // create an empty index and taxonomy to avoid a rebuild job
+        try (IndexWriter writer = new IndexWriter(FSDirectory.open(indexDir),
+                new IndexWriterConfig(new ClassicAnalyzer()))) {
+            writer.commit();
+        }
+        try (DirectoryTaxonomyWriter taxonomyWriter = new DirectoryTaxonomyWriter(
+                FSDirectory.open(Path.of(indexDir + "_tax")))) {
+            taxonomyWriter.commit();
+        }
+
+        DocumentService documentService = new DocumentService() {
+            @Override
+            public boolean isUserInRole(String rolename) {
+                return true;
+            }
+
+            @Override
+            public boolean isAuthor(ItemCollection itemcol) {
+                return true;
+            }
+        };
+
+        SchemaService schemaService = new SchemaService();
+        inject(schemaService, "indexFields", Optional.of("_subject,_name"));
+        inject(schemaService, "indexFieldsAnalyze", Optional.empty());
+        inject(schemaService, "indexFieldsNoAnalyze", Optional.of("_invoicenumber,_amount"));
+        inject(schemaService, "indexFieldsStore", Optional.of("_subject"));
+        inject(schemaService, "indexFieldsCategory", Optional.empty());
+        inject(schemaService, "documentService", documentService);
+        Method init = SchemaService.class.getDeclaredMethod("init");
+        init.setAccessible(true);
+        init.invoke(schemaService);
+
+        indexService = new LuceneIndexService();
+        indexService.setLuceneIndexDir(indexDir.toString());
+        indexService.setLuceneAnalyzerClass(LuceneIndexService.DEFAULT_ANALYZER);
+        inject(indexService, "luceneItemAdapter", new LuceneItemAdapter());
+        inject(indexService, "schemaService", schemaService);
+
+        searchService = new LuceneSearchService();
+        inject(searchService, "luceneIndexService", indexService);
+        inject(searchService, "schemaService", schemaService);
+        inject(searchService, "documentService", documentService);
+
+        // initial population for the search and aggregation benchmarks
+        for (int i = 0; i < 10; i++) {
+            createDocuments();
+            indexService.indexDocuments(documents);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void createDocuments() {
+        documents = new ArrayList<>();
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            ItemCollection workitem = new ItemCollection().model("1.0.0").task(1000).event(10);
+            workitem.setItemValue(WorkflowKernel.UNIQUEID, "benchmark-" + block + "-" + i);
+            workitem.setItemValue(WorkflowKernel.TYPE, "workitem");
+            workitem.setItemValue(WorkflowKernel.WORKFLOWGROUP, "Invoice");
+            workitem.setItemValue(WorkflowKernel.WORKFLOWSTATUS, i % 2 == 0 ? "Open" : "Closed");
+            workitem.setItemValue(WorkflowKernel.MODIFIED, new Date());
+            workitem.setItemValue("_subject", "Invoice benchmark " + i);
+            workitem.setItemValue("_name", "Anna");
+            workitem.setItemValue("_invoicenumber", "R-" + block + "-" + i);
+            workitem.setItemValue("_amount", 100.0 + i);
+            documents.add(workitem);
+        }
+        block++;
+    }
+
+    @TearDown
+    public void cleanup() throws IOException {
+        try (Stream<Path> files = Files.walk(indexDir.getParent(), 1)) {
+            files.filter(p -> p.getFileName().toString().startsWith(indexDir.getFileName().toString()))
+                    .forEach(LuceneIndexBenchmark::delete);
+        }
+    }
+
+    /**
+     * Indexes a block of workitems
+     */
+    @Benchmark
+    public void index() {
+        indexService.indexDocuments(documents);
+    }
+
+    /**
+     * Indexes a block of workitems and searches the first page of document stubs
+     */
+    @Benchmark
+    public List<ItemCollection> indexAndSearch() throws QueryException {
+        indexService.indexDocuments(documents);
+        return searchService.search("(type:\"workitem\" AND $workflowgroup:\"Invoice\")", 10, 0, null,
+                DefaultOperator.AND, true);
+    }
+
+    /**
+     * Counts the documents matching a query
+     */
+    @Benchmark
+    public int totalHits() throws QueryException {
+        return searchService.getTotalHits("(type:\"workitem\" AND _name:anna)", 1000, DefaultOperator.AND);
+    }
+
+    /**
+     * Aggregates the amounts of all workitems grouped by workflow group and status
+     */
+    @Benchmark
+    public List<ItemCollection> aggregate() throws QueryException {
+        return searchService.aggregate("(type:\"workitem\")", GROUP_BY, MEASURES, DefaultOperator.AND);
+    }
+
+    private static void inject(Object target, String fieldName, Object value) throws ReflectiveOperationException {
+        Class<?> clazz = target.getClass();
+        while (clazz != null) {
+            try {
+                Field field = clazz.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                field.set(target, value);
+                return;
+            } catch (NoSuchFieldException e) {
+                clazz = clazz.getSuperclass();
+            }
+        }
+        throw new NoSuchFieldException(fieldName);
+    }
+
+    private static void delete(Path root) {
+        try (Stream<Path> files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            indexLogger.log(java.util.logging.Level.WARNING, "failed to delete {0}", root);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.imixs.workflow.ItemCollection;
+import org.imixs.workflow.ModelManager;
+import org.imixs.workflow.exceptions.ModelException;
+import org.openbpmn.bpmn.BPMNModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the model lookups of the {@link ModelManager} used by the
+ * WorkflowKernel in each processing step. The lookups are resolved from the
+ * shared transition table of the model version.
+ *
+ * @author rsoika
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelManagerBenchmark {
+
+    private BenchmarkWorkflowContext context;
+    private ModelManager modelManager;
+    private BPMNModel model;
+    private ItemCollection workitem;
+    private ItemCollection event;
+
+    @Setup
+    public void setup() throws ModelException {
+        context = new BenchmarkWorkflowContext();
+        String version = context.loadModel("/bpmn/conditional_complex_event0.bpmn");
+        modelManager = new ModelManager(context);
+        model = modelManager.getModel(version);
+        workitem = new ItemCollection().model(version).task(2000).event(20);
+        workitem.setItemValue("_capacity", 90);
+        event = modelManager.loadEvent(workitem, model);
+    }
+
+    @Benchmark
+    public ItemCollection findTaskByID() {
+        return modelManager.findTaskByID(model, 2000);
+    }
+
+    @Benchmark
+    public ItemCollection loadEvent() throws ModelException {
+        return modelManager.loadEvent(workitem, model);
+    }
+
+    @Benchmark
+    public List<ItemCollection> findEventsByTask() {
+        return modelManager.findEventsByTask(model, 2000);
+    }
+
+    /**
+     * Resolves the next element including the evaluation of the gateway conditions
+     */
+    @Benchmark
+    public ItemCollection nextModelElement() throws ModelException {
+        return modelManager.nextModelElement(model, event, workitem);
+    }
+
+    /**
+     * The WorkflowKernel creates a new ModelManager for each processing call. The
+     * new instance resolves the shared transition table of the context.
+     */
+    @Benchmark
+    public ItemCollection nextModelElementNewManager() throws ModelException {
+        ModelManager manager = new ModelManager(context);
+        return manager.nextModelElement(manager.getModel(workitem.getModelVersion()), event, workitem);
+    }
+}
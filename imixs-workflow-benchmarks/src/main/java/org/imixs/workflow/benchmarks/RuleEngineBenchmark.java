@@ -0,0 +1,80 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.imixs.workflow.ItemCollection;
+import org.imixs.workflow.RuleEngine;
+import org.imixs.workflow.exceptions.PluginException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the evaluation of conditions and business rules by the
+ * {@link RuleEngine}. Conditions are evaluated for each conditional sequence
+ * flow, business rules by the RulePlugin.
+ *
+ * @author rsoika
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RuleEngineBenchmark {
+
+    private static final String CONDITION = "workitem._budget && workitem._budget[0] > 100";
+    private static final String BUSINESS_RULE = "var result={}; if (workitem._budget[0] > 100) "
+            + "{ result.approver='manager'; } else { result.approver='team'; }";
+
+    private RuleEngine ruleEngine;
+    private ItemCollection workitem;
+    private ItemCollection event;
+
+    @Setup
+    public void setup() {
+        ruleEngine = new RuleEngine();
+        workitem = new ItemCollection().model("1.0.0").task(1000).event(10);
+        workitem.setItemValue("_budget", 1500);
+        event = new ItemCollection();
+    }
+
+    /**
+     * Evaluates a condition with a shared RuleEngine as done by the ModelManager
+     */
+    @Benchmark
+    public boolean evaluateCondition() throws PluginException {
+        return ruleEngine.evaluateBooleanExpression(CONDITION, workitem);
+    }
+
+    /**
+     * Evaluates a business rule with a new RuleEngine as done by the RulePlugin
+     */
+    @Benchmark
+    public ItemCollection evaluateBusinessRule() throws PluginException {
+        return new RuleEngine().evaluateBusinessRule(BUSINESS_RULE, workitem, event);
+    }
+}
@@ -0,0 +1,107 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.imixs.workflow.ItemCollection;
+import org.imixs.workflow.WorkflowKernel;
+import org.imixs.workflow.engine.plugins.RulePlugin;
+import org.imixs.workflow.exceptions.ModelException;
+import org.imixs.workflow.exceptions.PluginException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the end-to-end processing of a workitem by the
+ * {@link WorkflowKernel} for different kinds of models:
+ * <ul>
+ * <li>simple - one event followed by a task</li>
+ * <li>gateway - a chain of conditional events and exclusive gateways</li>
+ * <li>split - a parallel gateway creating a split workitem</li>
+ * <li>rules - a business rule executed by the RulePlugin followed by
+ * conditional flows</li>
+ * </ul>
+ * Each invocation processes a new workitem. The model instance and its
+ * transition table are reused like in the engine.
+ *
+ * @author rsoika
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WorkflowKernelBenchmark {
+
+    @Param({ "simple", "gateway", "split", "rules" })
+    public String model;
+
+    private WorkflowKernel kernel;
+    private ItemCollection template;
+
+    @Setup
+    public void setup() throws PluginException, ModelException {
+        BenchmarkWorkflowContext context = new BenchmarkWorkflowContext();
+        kernel = context.getWorkflowKernel();
+        template = new ItemCollection();
+        template.setItemValue("_subject", "Benchmark");
+        switch (model) {
+        case "simple":
+            template.model(context.loadModel("/bpmn/simple.bpmn")).task(1000).event(10);
+            break;
+        case "gateway":
+            template.model(context.loadModel("/bpmn/conditional_complex_event0.bpmn")).task(2000).event(20);
+            template.setItemValue("_capacity", 90);
+            break;
+        case "split":
+            template.model(context.loadModel("/bpmn/split_event1.bpmn")).task(1000).event(10);
+            break;
+        case "rules":
+            kernel.registerPlugin(new RulePlugin());
+            template.model(context.loadModel("/bpmn/rule_conditions.bpmn")).task(1000).event(20);
+            template.setItemValue("_budget", 0);
+            break;
+        default:
+            throw new IllegalArgumentException("unknown model: " + model);
+        }
+        // verify the model once
+        kernel.process((ItemCollection) template.clone());
+    }
+
+    @Benchmark
+    public ItemCollection process() throws PluginException, ModelException {
+        return kernel.process((ItemCollection) template.clone());
+    }
+
+    /**
+     * Evaluates the next task without executing plugins
+     */
+    @Benchmark
+    public ItemCollection eval() throws PluginException, ModelException {
+        return kernel.eval(template);
+    }
+}
@@ -32,9 +32,10 @@ import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
-import java.util.Hashtable;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Locale;
@@ -79,7 +80,18 @@ public class ItemCollection implements Cloneable {
 
     private static final Logger logger = Logger.getLogger(ItemCollection.class.getName());
 
-    private Map<String, List<Object>> hash = new Hashtable<String, List<Object>>();
+    private Map<String, List<Object>> hash = new HashMap<String, List<Object>>();
+
+    // class identity cache for the basic type validation
+    private static final ClassValue<Boolean> BASIC_TYPES = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> c) {
+            String name = c.getName();
+            return name.startsWith("java.lang.") || name.startsWith("java.math.") || "java.util.Date".equals(name)
+                    || "org.imixs.workflow.xml.XMLItem".equals(name)
+                    || "org.imixs.workflow.xml.XMLDocument".equals(name);
+        }
+    };
 
     private static final Pattern GERMAN_NUMBER_PATTERN = Pattern.compile("^\\d{1,3}(\\.\\d{3})*(,\\d+)?$");
     private static final Pattern US_NUMBER_PATTERN = Pattern.compile("^\\d{1,3}(,\\d{3})*(\\.\\d+)?$");
@@ -273,6 +285,19 @@ public class ItemCollection implements Cloneable {
         return this;
     }
 
+    /**
+     * Set the value of an item identified by a pre-normalized {@link ItemName}.
+     * 
+     * @see #setItemValue(String, Object)
+     * @param itemName  The name of the item
+     * @param itemValue The value of the new item.
+     * @return current instance
+     */
+    public ItemCollection setValue(ItemName itemName, Object itemValue) {
+        putItemValue(itemName.getName(), itemValue, false, false);
+        return this;
+    }
+
     /**
      * Set the value of an item. If the ItemCollection does not contain an item with
      * the specified name, the method creates a new item and adds it to the
@@ -328,6 +353,20 @@ public class ItemCollection implements Cloneable {
         return this;
     }
 
+    /**
+     * Appends a value to an existing item identified by a pre-normalized
+     * {@link ItemName}.
+     * 
+     * @see #appendItemValue(String, Object)
+     * @param itemName  The name of the item
+     * @param itemValue The value to be appended
+     * @return current instance
+     */
+    public ItemCollection appendValue(ItemName itemName, Object itemValue) {
+        putItemValue(itemName.getName(), itemValue, true, false);
+        return this;
+    }
+
     /**
      * Appends a value to an existing item. If the ItemCollection does not contain
      * an item with the specified name, the method creates a new item and adds it to
@@ -445,15 +484,7 @@ public class ItemCollection implements Cloneable {
         newValues.addAll(existingValues);
 
         if (unique) {
-            List<Object> uniqueList = new ArrayList<>();
-            for (Object entry : newValues) {
-                if (entry == null || ((entry instanceof String) && ((String) entry).isEmpty())
-                        || uniqueList.contains(entry)) {
-                    continue;
-                }
-                uniqueList.add(entry);
-            }
-            hash.put(itemName, uniqueList);
+            hash.put(itemName, uniqueValueList(newValues));
         } else {
             hash.put(itemName, newValues);
         }
@@ -481,15 +512,37 @@ public class ItemCollection implements Cloneable {
         if (itemName == null) {
             return null;
         }
-        itemName = itemName.toLowerCase().trim();
-        List<?> o = hash.get(itemName);
-        if (o == null)
+        return getValueList(itemName.toLowerCase().trim());
+    }
+
+    /**
+     * Returns the value list for an item identified by a pre-normalized
+     * {@link ItemName}.
+     * 
+     * @see #getItemValue(String)
+     * @param itemName The name of an item.
+     * @return an untyped list of values contained by the item.
+     */
+    @SuppressWarnings("rawtypes")
+    public List getValue(ItemName itemName) {
+        return getValueList(itemName.getName());
+    }
+
+    /**
+     * Returns the value list of a normalized item name. Null values are removed on
+     * write, so only lists injected by reference (e.g. createByReference) or
+     * modified by a client can contain null values here.
+     */
+    private List<?> getValueList(String key) {
+        List<?> o = hash.get(key);
+        if (o == null) {
             return new ArrayList<>();
-        else {
+        }
+        if (o.contains(null)) {
             // remove null values
             o.removeAll(Collections.singleton(null));
-            return o;
         }
+        return o;
     }
 
     /**
@@ -513,7 +566,25 @@ public class ItemCollection implements Cloneable {
      */
     @SuppressWarnings("unchecked")
     public <T> T getItemValue(String itemName, Class<T> itemType) {
-        List<?> values = getItemValue(itemName);
+        return firstValue(getItemValue(itemName), itemType);
+    }
+
+    /**
+     * Returns the resolved item value of the specified type for an item identified
+     * by a pre-normalized {@link ItemName}.
+     * 
+     * @see #getItemValue(String, Class)
+     * @param itemName The item Name.
+     * @param itemType The type into which the resolve item value should get
+     *                 converted
+     * @return the resolved item value as an object of the requested type.
+     */
+    public <T> T getValue(ItemName itemName, Class<T> itemType) {
+        return firstValue(getValueList(itemName.getName()), itemType);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T firstValue(List<?> values, Class<T> itemType) {
         if (values == null || values.size() == 0) {
 
             // test for Integer
@@ -579,6 +650,15 @@ public class ItemCollection implements Cloneable {
         }
     }
 
+    /**
+     * removes a attribute from the item collection
+     * 
+     * @param name - pre-normalized item name
+     */
+    public void remove(ItemName name) {
+        this.hash.remove(name.getName());
+    }
+
     /**
      * Indicates whether an item exists in the document.
      * 
@@ -595,6 +675,17 @@ public class ItemCollection implements Cloneable {
         return (hash.get(aName) != null);
     }
 
+    /**
+     * Indicates whether an item identified by a pre-normalized {@link ItemName}
+     * exists in the document.
+     * 
+     * @param itemName - item name
+     * @return true if an item with name exists in the document
+     */
+    public boolean contains(ItemName itemName) {
+        return (hash.get(itemName.getName()) != null);
+    }
+
     /**
      * Returns true if the given itemname does not exist or no value is assigned to.
      * This includes empty strings.
@@ -782,6 +873,18 @@ public class ItemCollection implements Cloneable {
         setItemValue(itemName, itemValue, false, false);
     }
 
+    /**
+     * Replaces the value of an item identified by a pre-normalized
+     * {@link ItemName}.
+     * 
+     * @see #replaceItemValue(String, Object)
+     * @param itemName  The name of the item
+     * @param itemValue The value of the new item.
+     */
+    public void replaceValue(ItemName itemName, Object itemValue) {
+        putItemValue(itemName.getName(), itemValue, false, false);
+    }
+
     /**
      * Returns the resolved String value of the specified item. The method converts
      * the stored value to a String. If the item has no value, the method returns an
@@ -796,7 +899,22 @@ public class ItemCollection implements Cloneable {
      * 
      */
     public String getItemValueString(String itemName) {
-        List<?> v = (List<?>) getItemValue(itemName);
+        return firstStringValue(getItemValue(itemName));
+    }
+
+    /**
+     * Returns the resolved String value of an item identified by a pre-normalized
+     * {@link ItemName}.
+     * 
+     * @see #getItemValueString(String)
+     * @param itemName The name of an item.
+     * @return the String value of the item
+     */
+    public String getValueString(ItemName itemName) {
+        return firstStringValue(getValueList(itemName.getName()));
+    }
+
+    private static String firstStringValue(List<?> v) {
         if (v.size() == 0) {
             return "";
         } else {
@@ -824,8 +942,23 @@ public class ItemCollection implements Cloneable {
      * @return the integer value of the item
      */
     public int getItemValueInteger(String itemName) {
+        return firstIntegerValue(getItemValue(itemName));
+    }
+
+    /**
+     * Returns the resolved Integer value of an item identified by a pre-normalized
+     * {@link ItemName}.
+     * 
+     * @see #getItemValueInteger(String)
+     * @param itemName The name of an item.
+     * @return the integer value of the item
+     */
+    public int getValueInteger(ItemName itemName) {
+        return firstIntegerValue(getValueList(itemName.getName()));
+    }
+
+    private static int firstIntegerValue(List<?> v) {
         try {
-            List<?> v = getItemValue(itemName);
             if (v.size() == 0) {
                 return 0;
             }
@@ -851,8 +984,23 @@ public class ItemCollection implements Cloneable {
      * @return the Long value of the item
      */
     public long getItemValueLong(String itemName) {
+        return firstLongValue(getItemValue(itemName));
+    }
+
+    /**
+     * Returns the resolved Long value of an item identified by a pre-normalized
+     * {@link ItemName}.
+     * 
+     * @see #getItemValueLong(String)
+     * @param itemName The name of an item.
+     * @return the Long value of the item
+     */
+    public long getValueLong(ItemName itemName) {
+        return firstLongValue(getValueList(itemName.getName()));
+    }
+
+    private static long firstLongValue(List<?> v) {
         try {
-            List<?> v = getItemValue(itemName);
             if (v.size() == 0) {
                 return 0;
             }
@@ -1554,7 +1702,7 @@ public class ItemCollection implements Cloneable {
      * @return current type
      */
     public String getType() {
-        return getItemValueString(WorkflowKernel.TYPE);
+        return getValueString(ItemName.TYPE);
     }
 
     /**
@@ -1563,25 +1711,25 @@ public class ItemCollection implements Cloneable {
      * @param type
      */
     public void setType(String type) {
-        replaceItemValue(WorkflowKernel.TYPE, type);
+        replaceValue(ItemName.TYPE, type);
     }
 
     /**
      * @return current $TaskID
      */
     public int getTaskID() {
-        int result = getItemValueInteger(WorkflowKernel.TASKID);
+        int result = getValueInteger(ItemName.TASKID);
         // test for deprecated version
-        if (result == 0 && hasItem("$processid") && getItemValueInteger("$processid") != 0) {
+        if (result == 0 && contains(ItemName.PROCESSID) && getValueInteger(ItemName.PROCESSID) != 0) {
             // see issue #384
             /*
              * logger.
              * warning("The field $processid is deprecated. Please use $taskid instead. " +
              * "Processing a workitem with an deprecated $processid is still supported.");
              */
-            result = getItemValueInteger("$processid");
+            result = getValueInteger(ItemName.PROCESSID);
             // update missing taskID
-            replaceItemValue(WorkflowKernel.TASKID, result);
+            replaceValue(ItemName.TASKID, result);
         }
         return result;
     }
@@ -1592,9 +1740,9 @@ public class ItemCollection implements Cloneable {
      * @param taskID
      */
     public void setTaskID(int taskID) {
-        replaceItemValue(WorkflowKernel.TASKID, taskID);
+        replaceValue(ItemName.TASKID, taskID);
         // deprecated processID is still supported for a long period. See issue #384
-        replaceItemValue("$processid", taskID);
+        replaceValue(ItemName.PROCESSID, taskID);
     }
 
     public ItemCollection task(int taskID) {
@@ -1607,13 +1755,13 @@ public class ItemCollection implements Cloneable {
      */
     public int getEventID() {
         // test for deprecated version
-        int result = getItemValueInteger(WorkflowKernel.EVENTID);
-        if (result == 0 && hasItem("$activityid") && getItemValueInteger("$activityid") != 0) {
+        int result = getValueInteger(ItemName.EVENTID);
+        if (result == 0 && contains(ItemName.ACTIVITYID) && getValueInteger(ItemName.ACTIVITYID) != 0) {
             logger.warning("The field $activityid is deprecated. Please use $eventid instead. "
                     + "Processing a workitem with an deprecated $activityid is still supported.");
-            result = getItemValueInteger("$activityid");
+            result = getValueInteger(ItemName.ACTIVITYID);
             // update eventID
-            replaceItemValue(WorkflowKernel.EVENTID, result);
+            replaceValue(ItemName.EVENTID, result);
         }
         return result;
     }
@@ -1624,7 +1772,7 @@ public class ItemCollection implements Cloneable {
      * @param eventID
      */
     public void setEventID(int eventID) {
-        replaceItemValue(WorkflowKernel.EVENTID, eventID);
+        replaceValue(ItemName.EVENTID, eventID);
     }
 
     /**
@@ -1642,14 +1790,14 @@ public class ItemCollection implements Cloneable {
      * @return current $ModelVersion
      */
     public String getModelVersion() {
-        return getItemValueString(WorkflowKernel.MODELVERSION);
+        return getValueString(ItemName.MODELVERSION);
     }
 
     /**
      * set the $ModelVersion
      */
     public void setModelVersion(String modelversion) {
-        replaceItemValue(WorkflowKernel.MODELVERSION, modelversion);
+        replaceValue(ItemName.MODELVERSION, modelversion);
     }
 
     public ItemCollection model(String modelversion) {
@@ -1661,14 +1809,14 @@ public class ItemCollection implements Cloneable {
      * @return current $ModelVersion
      */
     public String getWorkflowGroup() {
-        return getItemValueString(WorkflowKernel.WORKFLOWGROUP);
+        return getValueString(ItemName.WORKFLOWGROUP);
     }
 
     /**
      * set the $ModelVersion
      */
     public void setWorkflowGroup(String group) {
-        replaceItemValue(WorkflowKernel.WORKFLOWGROUP, group);
+        replaceValue(ItemName.WORKFLOWGROUP, group);
     }
 
     public ItemCollection workflowGroup(String group) {
@@ -1680,7 +1828,7 @@ public class ItemCollection implements Cloneable {
      * @return $UniqueID
      */
     public String getUniqueID() {
-        return getItemValueString(WorkflowKernel.UNIQUEID);
+        return getValueString(ItemName.UNIQUEID);
     }
 
     /**
@@ -1690,8 +1838,8 @@ public class ItemCollection implements Cloneable {
      */
     @Deprecated
     public int getProcessID() {
-        int result = getItemValueInteger(WorkflowKernel.PROCESSID);
-        if (result == 0 && hasItem("$taskid")) {
+        int result = getValueInteger(ItemName.PROCESSID);
+        if (result == 0 && contains(ItemName.TASKID)) {
             result = getTaskID();
         }
         return result;
@@ -1714,7 +1862,7 @@ public class ItemCollection implements Cloneable {
      */
     @Deprecated
     public void setActivityID(int activityID) {
-        replaceItemValue("$activityid", activityID);
+        replaceValue(ItemName.ACTIVITYID, activityID);
         // set new field $eventID
         setEventID(activityID);
     }
@@ -1785,12 +1933,22 @@ public class ItemCollection implements Cloneable {
      */
     @SuppressWarnings({ "unchecked", "rawtypes" })
     private void setItemValue(String itemName, Object itemValue, boolean append, boolean unique) {
-        List<Object> itemValueList = null;
-
         if (itemName == null)
             return;
         // lower case itemname
-        itemName = itemName.toLowerCase().trim();
+        putItemValue(itemName.toLowerCase().trim(), itemValue, append, unique);
+    }
+
+    /**
+     * Helper method to replace an ItemValue of a normalized item name.
+     * 
+     * @param itemName  - normalized name of the value
+     * @param itemValue - value
+     * @param append    - true if the value should be appended to an existing list
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private void putItemValue(String itemName, Object itemValue, boolean append, boolean unique) {
+        List<Object> itemValueList = null;
 
         // test if value is null
         if (itemValue == null) {
@@ -1856,39 +2014,17 @@ public class ItemCollection implements Cloneable {
         // replace item value?
         if (append) {
             // append item value
-            List<Object> newValueList = (List<Object>) getItemValue(itemName);
+            List<Object> newValueList = (List<Object>) getValueList(itemName);
             newValueList.addAll(itemValueList);
 
             if (unique) {
-                // build a unique list of values
-                List<Object> uniqueItemValueList = new ArrayList<Object>();
-                for (Object entry : newValueList) {
-                    // skip null|empty|dupplicates
-                    if (entry == null || ((entry instanceof String) && ((String) entry).isEmpty())
-                            || uniqueItemValueList.contains(entry)) {
-                        // skip
-                        continue;
-                    }
-                    uniqueItemValueList.add(entry);
-                }
-                hash.put(itemName, (List<Object>) uniqueItemValueList);
+                hash.put(itemName, uniqueValueList(newValueList));
             } else {
                 hash.put(itemName, (List<Object>) newValueList);
             }
         } else {
             if (unique) {
-                // build a unique list of values
-                List<Object> uniqueItemValueList = new ArrayList<Object>();
-                for (Object entry : itemValueList) {
-                    // skip null|empty|duplicates
-                    if (entry == null || ((entry instanceof String) && ((String) entry).isEmpty())
-                            || uniqueItemValueList.contains(entry)) {
-                        // skip
-                        continue;
-                    }
-                    uniqueItemValueList.add(entry);
-                }
-                hash.put(itemName, (List<Object>) uniqueItemValueList);
+                hash.put(itemName, uniqueValueList(itemValueList));
             } else {
                 hash.put(itemName, itemValueList);
             }
@@ -1896,6 +2032,27 @@ public class ItemCollection implements Cloneable {
         }
     }
 
+    /**
+     * Builds a unique list of values. Null values, empty strings and duplicates are
+     * skipped. The order of the values is preserved. A LinkedHashSet is used to
+     * avoid a linear contains check for each value, so large multi value items
+     * (e.g. ACLs with thousands of entries) are merged in linear time.
+     * 
+     * @param values - list of values
+     * @return new unique list of values
+     */
+    private static List<Object> uniqueValueList(List<Object> values) {
+        Set<Object> uniqueValues = new LinkedHashSet<Object>();
+        for (Object entry : values) {
+            // skip null|empty
+            if (entry == null || ((entry instanceof String) && ((String) entry).isEmpty())) {
+                continue;
+            }
+            uniqueValues.add(entry);
+        }
+        return new ArrayList<Object>(uniqueValues);
+    }
+
     /**
      * This method converts specific itemValue in standardized object classes:
      * <p>
@@ -1989,7 +2146,6 @@ public class ItemCollection implements Cloneable {
      * 
      * @return
      */
-    @SuppressWarnings("rawtypes")
     private static boolean isBasicType(java.lang.Object o) {
 
         if (o == null) {
@@ -2002,16 +2158,8 @@ public class ItemCollection implements Cloneable {
             return true;
         }
 
-        // test package name
-        Class c = o.getClass();
-        String name = c.getName();
-        if (name.startsWith("java.lang.") || name.startsWith("java.math.") || "java.util.Date".equals(name)
-                || "org.imixs.workflow.xml.XMLItem".equals(name) || "org.imixs.workflow.xml.XMLDocument".equals(name)) {
-            return true;
-        }
-
-        // no basic type
-        return false;
+        // test package name (cached per class)
+        return BASIC_TYPES.get(o.getClass());
     }
 
     /**
@@ -0,0 +1,125 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow;
+
+/**
+ * An ItemName is a pre-normalized key of an item stored in an
+ * {@link ItemCollection}. The name is lower cased and trimmed once when the
+ * ItemName is created, so ItemCollection accessors taking an ItemName can skip
+ * the normalization done for plain String item names.
+ * <p>
+ * The ItemName accessors have their own names (getValue, getValueString,
+ * getValueInteger, getValueLong, setValue, appendValue, replaceValue, contains
+ * and remove) and do not overload the String based accessors. So a call with a
+ * null literal like <code>hasItem(null)</code> stays unambiguous.
+ * <p>
+ * The class provides constants for the well-known item names used by the
+ * WorkflowKernel and the DocumentService. Application code can define its own
+ * constants with {@link #of(String)}.
+ *
+ * <pre>
+ * {@code
+ * int taskID = workitem.getValueInteger(ItemName.TASKID);
+ * }
+ * </pre>
+ *
+ * @author rsoika
+ * @version 1.0
+ * @see org.imixs.workflow.ItemCollection
+ */
+public final class ItemName {
+
+    public static final ItemName UNIQUEID = of(WorkflowKernel.UNIQUEID);
+    public static final ItemName UNIQUEIDSOURCE = of(WorkflowKernel.UNIQUEIDSOURCE);
+    public static final ItemName UNIQUEIDVERSIONS = of(WorkflowKernel.UNIQUEIDVERSIONS);
+    public static final ItemName WORKITEMID = of(WorkflowKernel.WORKITEMID);
+    public static final ItemName MODELVERSION = of(WorkflowKernel.MODELVERSION);
+    public static final ItemName TRANSACTIONID = of(WorkflowKernel.TRANSACTIONID);
+    // deprecated item name - still read by ItemCollection.getTaskID
+    public static final ItemName PROCESSID = of("$processid");
+    public static final ItemName ACTIVITYID = of("$activityid");
+    public static final ItemName TASKID = of(WorkflowKernel.TASKID);
+    public static final ItemName EVENTID = of(WorkflowKernel.EVENTID);
+    public static final ItemName WORKFLOWGROUP = of(WorkflowKernel.WORKFLOWGROUP);
+    public static final ItemName WORKFLOWSTATUS = of(WorkflowKernel.WORKFLOWSTATUS);
+    public static final ItemName ISVERSION = of(WorkflowKernel.ISVERSION);
+    public static final ItemName LASTTASK = of(WorkflowKernel.LASTTASK);
+    public static final ItemName LASTEVENT = of(WorkflowKernel.LASTEVENT);
+    public static final ItemName LASTEVENTDATE = of(WorkflowKernel.LASTEVENTDATE);
+    public static final ItemName CREATOR = of(WorkflowKernel.CREATOR);
+    public static final ItemName EDITOR = of(WorkflowKernel.EDITOR);
+    public static final ItemName LASTEDITOR = of(WorkflowKernel.LASTEDITOR);
+    public static final ItemName EVENTLOG = of(WorkflowKernel.EVENTLOG);
+    public static final ItemName CREATED = of(WorkflowKernel.CREATED);
+    public static final ItemName MODIFIED = of(WorkflowKernel.MODIFIED);
+    public static final ItemName TYPE = of(WorkflowKernel.TYPE);
+
+    // DocumentService items
+    public static final ItemName READACCESS = of("$readaccess");
+    public static final ItemName WRITEACCESS = of("$writeaccess");
+    public static final ItemName PARTICIPANTS = of("$participants");
+    public static final ItemName OWNER = of("$owner");
+    public static final ItemName ISAUTHOR = of("$isauthor");
+    public static final ItemName NOINDEX = of("$noindex");
+    public static final ItemName IMMUTABLE = of("$immutable");
+    public static final ItemName VERSION = of("$version");
+
+    private final String name;
+
+    private ItemName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Creates a new ItemName. The given name is lower cased and trimmed.
+     *
+     * @param name - item name, must not be null
+     * @return the normalized ItemName
+     */
+    public static ItemName of(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("item name must not be null");
+        }
+        return new ItemName(name.toLowerCase().trim());
+    }
+
+    /**
+     * Returns the normalized item name as stored in an ItemCollection.
+     *
+     * @return lower cased item name
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return (o instanceof ItemName) && name.equals(((ItemName) o).name);
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,61 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow;
+
+/**
+ * The KernelMetrics interface is used by the WorkflowKernel to report the
+ * execution time of plugins, adapters and the event loop of a processing life
+ * cycle.
+ * <p>
+ * An implementation is provided by the {@link WorkflowContext}. If the context
+ * provides no implementation, the WorkflowKernel takes no measurements. All
+ * durations are reported in nanoseconds.
+ * 
+ * @author rsoika
+ * @version 1.0
+ * @see org.imixs.workflow.WorkflowKernel
+ */
+public interface KernelMetrics {
+
+    /**
+     * Reports the duration of the run method of a plugin
+     * 
+     * @param plugin       - class name of the plugin
+     * @param modelVersion - model version of the processed workitem
+     * @param nanos        - duration in nanoseconds
+     */
+    public void onPluginRun(String plugin, String modelVersion, long nanos);
+
+    /**
+     * Reports the duration of the execute method of an adapter
+     * 
+     * @param adapter      - class name of the adapter
+     * @param modelVersion - model version of the processed workitem
+     * @param nanos        - duration in nanoseconds
+     */
+    public void onAdapterExecute(String adapter, String modelVersion, long nanos);
+
+    /**
+     * Reports the number of events processed by the event loop of one processing
+     * life cycle and the duration of the loop.
+     * 
+     * @param modelVersion - model version of the processed workitem
+     * @param events       - number of processed events
+     * @param nanos        - duration in nanoseconds
+     */
+    public void onEventLoop(String modelVersion, int events, long nanos);
+
+}
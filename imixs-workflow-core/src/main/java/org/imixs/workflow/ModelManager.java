@@ -16,6 +16,7 @@ package org.imixs.workflow;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -25,6 +26,7 @@ import java.util.logging.Logger;
 
 import org.imixs.workflow.bpmn.BPMNEntityBuilder;
 import org.imixs.workflow.bpmn.BPMNLinkedFlowIterator;
+import org.imixs.workflow.bpmn.BPMNTransitionTable;
 import org.imixs.workflow.bpmn.BPMNUtil;
 import org.imixs.workflow.exceptions.ModelException;
 import org.imixs.workflow.exceptions.PluginException;
@@ -40,7 +42,6 @@ import org.openbpmn.bpmn.elements.SequenceFlow;
 import org.openbpmn.bpmn.elements.core.BPMNElement;
 import org.openbpmn.bpmn.elements.core.BPMNElementNode;
 import org.openbpmn.bpmn.exceptions.BPMNModelException;
-import org.openbpmn.bpmn.exceptions.BPMNValidationException;
 import org.openbpmn.bpmn.navigation.BPMNEndElementIterator;
 import org.openbpmn.bpmn.navigation.BPMNStartElementIterator;
 import org.w3c.dom.Element;
@@ -71,6 +72,8 @@ public class ModelManager {
     private final Map<String, ItemCollection> bpmnEntityCache = new ConcurrentHashMap<>();
     private final Map<String, BPMNElement> bpmnElementCache = new ConcurrentHashMap<>();
     private final Map<String, Set<String>> groupCache = new ConcurrentHashMap<>();
+    private final Map<BPMNModel, BPMNTransitionTable> transitionTables = Collections
+            .synchronizedMap(new IdentityHashMap<>());
 
     private WorkflowContext workflowContext = null;
     private RuleEngine ruleEngine = null;
@@ -134,6 +137,30 @@ public class ModelManager {
         return ruleEngine;
     }
 
+    /**
+     * Returns the {@link BPMNTransitionTable} holding the precompiled Task and
+     * Event entities and flow graphs of a given model instance.
+     * <p>
+     * The method first asks the {@link WorkflowContext} for a table shared by all
+     * instances of the same model version. If the context does not provide a
+     * shared table, a new table is created and bound to the given model instance.
+     * 
+     * @param model - BPMN model instance
+     * @return transition table of the model version
+     */
+    public BPMNTransitionTable getTransitionTable(BPMNModel model) {
+        BPMNTransitionTable table = transitionTables.get(model);
+        if (table == null) {
+            String version = BPMNUtil.getVersion(model);
+            table = workflowContext.findTransitionTable(version);
+            if (table == null) {
+                table = new BPMNTransitionTable(version);
+            }
+            transitionTables.put(model, table);
+        }
+        return table;
+    }
+
     /**
      * Returns the BPMN Definition entity associated with a given workitem, based on
      * its attribute "$modelVersion". The definition holds the bpmn meta data.
@@ -282,19 +309,8 @@ public class ModelManager {
         // workitem.getEventID());
         ItemCollection event = findEventByID(model, workitem.getTaskID(), workitem.getEventID());
         // verify if the event is a valid processing event?
-        if (event != null) {
-            List<ItemCollection> allowedEvents = findEventsByTask(model, workitem.getTaskID());
-            boolean found = false;
-            for (ItemCollection allowedEvent : allowedEvents) {
-                // logger.info("verify event : " + allowedEvent.getItemValueString("id"));
-                if (allowedEvent.getItemValueString("id").equals(event.getItemValueString("id"))) {
-                    found = true;
-                    break;
-                }
-            }
-            if (!found) {
-                event = null;
-            }
+        if (event != null && !isEventOfTask(model, workitem.getTaskID(), event.getItemValueString("id"))) {
+            event = null;
         }
         // If we still did not find the event we throw a ModelException....
         if (event == null) {
@@ -318,55 +334,63 @@ public class ModelManager {
      * @param workitem - current Workitem
      * @return a BPMN Element entity - {@link ItemCollection}
      * @throws ModelException          - if no valid element was found
-     * @throws BPMNValidationException
      */
     public ItemCollection nextModelElement(BPMNModel model, ItemCollection event, ItemCollection workitem)
             throws ModelException {
-        long l = System.currentTimeMillis();
-        // lookup the current BPMN event element by its ID
+        // lookup the compiled transition of the current BPMN event element by its ID
         String id = event.getItemValueString("id");
-        Event eventElement = (Event) model.findElementNodeById(id);
-        String version = BPMNUtil.getVersion(model);
-        String key = version + "~" + workitem.getTaskID() + "." + workitem.getEventID();
+        BPMNTransitionTable table = getTransitionTable(model);
+        BPMNTransitionTable.Transition transition = table.findTransition(id);
+        if (transition == null) {
+            Event eventElement = (Event) model.findElementNodeById(id);
+            transition = table.compileTransition(eventElement);
+        }
 
         // find next task or event.....
-        BPMNLinkedFlowIterator<BPMNElementNode> elementNavigator;
-        try {
-            elementNavigator = new BPMNLinkedFlowIterator<BPMNElementNode>(
-                    eventElement,
-                    node -> ((BPMNUtil.isImixsTaskElement(node))
-                            || (BPMNUtil.isImixsEventElement(node))
-                            || (BPMNUtil.isParallelGatewayElement(node))),
-                    condition -> {
-                        try {
-                            return evaluateCondition(condition, workitem);
-                        } catch (ModelException e) {
-                            // catch Model Exception and translate it into a Runtime Exception because of
-                            // the Lambda expression used here
-                            throw new ProcessingErrorException(e.getErrorContext(), e.getErrorCode(), e.getMessage(),
-                                    e);
-                        }
-                    });
-
-            while (elementNavigator.hasNext()) {
-                BPMNElementNode nextElement = elementNavigator.next();
-
-                // if the navigator has still more elements it is an ambiguous sequence flow
-                if (elementNavigator.hasNext()) {
-                    throw new ModelException(ModelException.INVALID_MODEL,
-                            "$modelversion " + version + " ambiguous sequence flow: " + workitem.getTaskID() + "."
-                                    + workitem.getEventID());
-                }
-                // logger.info("nextModelElement " + key + " took " +
-                // (System.currentTimeMillis() - l) + "ms");
-                return BPMNEntityBuilder.build(nextElement);
-
+        List<ItemCollection> nextElements = new ArrayList<>();
+        transition.collectTargets(condition -> {
+            try {
+                return evaluateCondition(condition, workitem);
+            } catch (ModelException e) {
+                // catch Model Exception and translate it into a Runtime Exception because of
+                // the Lambda expression used here
+                throw new ProcessingErrorException(e.getErrorContext(), e.getErrorCode(), e.getMessage(),
+                        e);
             }
-        } catch (BPMNValidationException e) {
+        }, nextElements);
+
+        if (nextElements.isEmpty()) {
+            return null;
+        }
+        // if the transition has more than one target it is an ambiguous sequence flow
+        if (nextElements.size() > 1) {
             throw new ModelException(ModelException.INVALID_MODEL,
-                    "$modelversion " + version + " invalid condition: " + e.getMessage());
+                    "$modelversion " + table.getVersion() + " ambiguous sequence flow: " + workitem.getTaskID()
+                            + "." + workitem.getEventID());
         }
-        return null;
+        // clone instance to protect for manipulation
+        return (ItemCollection) nextElements.get(0).clone();
+    }
+
+    /**
+     * Returns the list of all Task and Event elements following a given
+     * ParallelGateway. The list is resolved from the precompiled
+     * {@link BPMNTransitionTable} of the model. The entities of the returned split
+     * targets are shared instances and must be cloned before they are modified.
+     * 
+     * @param model           - BPMN model instance
+     * @param parallelGateway - ParallelGateway entity
+     * @return list of split targets
+     */
+    public List<BPMNTransitionTable.SplitTarget> findParallelSplitTargets(BPMNModel model,
+            ItemCollection parallelGateway) {
+        String id = parallelGateway.getItemValueString("id");
+        BPMNTransitionTable table = getTransitionTable(model);
+        List<BPMNTransitionTable.SplitTarget> result = table.findSplitTargets(id);
+        if (result == null) {
+            result = table.compileSplitTargets(model.findElementNodeById(id));
+        }
+        return result;
     }
 
     /**
@@ -445,17 +469,17 @@ public class ModelManager {
      * @return
      */
     public ItemCollection findTaskByID(final BPMNModel model, int taskID) {
-        String key = BPMNUtil.getVersion(model) + "~" + taskID;
+        BPMNTransitionTable table = getTransitionTable(model);
         // Avoid recursive call chains and do not use computeIfAbsent here!
-        if (bpmnEntityCache.containsKey(key)) {
-            return (ItemCollection) bpmnEntityCache.get(key).clone();
-        }
-        ItemCollection result = lookupTaskByID(model, taskID);
-        if (result != null) {
-            bpmnEntityCache.put(key, result);
-            return (ItemCollection) result.clone();
+        ItemCollection result = table.getTask(taskID);
+        if (result == null) {
+            result = lookupTaskByID(model, taskID);
+            if (result == null) {
+                return null;
+            }
+            table.putTask(taskID, result);
         }
-        return null;
+        return (ItemCollection) result.clone();
     }
 
     /**
@@ -468,17 +492,17 @@ public class ModelManager {
      * 
      */
     public ItemCollection findEventByID(final BPMNModel model, int taskID, int eventID) {
-        String key = BPMNUtil.getVersion(model) + "~" + taskID + "." + eventID;
+        BPMNTransitionTable table = getTransitionTable(model);
         // Avoid recursive call chains and do not use computeIfAbsent here!
-        if (bpmnEntityCache.containsKey(key)) {
-            return (ItemCollection) bpmnEntityCache.get(key).clone();
-        }
-        ItemCollection result = lookupEventByID(model, taskID, eventID);
-        if (result != null) {
-            bpmnEntityCache.put(key, result);
-            return (ItemCollection) result.clone();
+        ItemCollection result = table.getEvent(taskID, eventID);
+        if (result == null) {
+            result = lookupEventByID(model, taskID, eventID);
+            if (result == null) {
+                return null;
+            }
+            table.putEvent(taskID, eventID, result);
         }
-        return null;
+        return (ItemCollection) result.clone();
     }
 
     /**
@@ -690,6 +714,55 @@ public class ModelManager {
      * 
      */
     public List<ItemCollection> findEventsByTask(final BPMNModel model, int taskID) {
+        List<ItemCollection> events = findEventEntitiesByTask(model, taskID);
+        List<ItemCollection> result = new ArrayList<>(events.size());
+        // clone instances to protect for manipulation
+        for (ItemCollection event : events) {
+            result.add((ItemCollection) event.clone());
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if the event with the given BPMN element id is one of the
+     * processing events of the given task.
+     * 
+     * @param model
+     * @param taskID
+     * @param eventElementID - BPMN element id of the event
+     * @return true if the event is a valid processing event of the task
+     */
+    boolean isEventOfTask(final BPMNModel model, int taskID, String eventElementID) {
+        for (ItemCollection event : findEventEntitiesByTask(model, taskID)) {
+            if (event.getItemValueString("id").equals(eventElementID)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the shared event entities of a given task from the transition table.
+     * The list is computed on the first call.
+     */
+    private List<ItemCollection> findEventEntitiesByTask(final BPMNModel model, int taskID) {
+        BPMNTransitionTable table = getTransitionTable(model);
+        List<ItemCollection> result = table.getEventsByTask(taskID);
+        if (result == null) {
+            result = lookupEventsByTask(model, taskID);
+            if (result.isEmpty()) {
+                return result;
+            }
+            table.putEventsByTask(taskID, result);
+            result = table.getEventsByTask(taskID);
+        }
+        return result;
+    }
+
+    /**
+     * Collects all events assigned to a given task by walking the BPMN model.
+     */
+    private List<ItemCollection> lookupEventsByTask(final BPMNModel model, int taskID) {
         List<ItemCollection> result = new ArrayList<>();
         Activity taskElement = lookupTaskElementByID(model, taskID);
         if (taskElement != null) {
@@ -841,6 +914,35 @@ public class ModelManager {
         return false;
     }
 
+    /**
+     * This method evaluates a precompiled split target of a ParallelGateway.
+     * <p>
+     * The method returns true if the target is a TASK_ELEMENT or if it is connected
+     * with the gateway by a conditional flow that evaluates to true.
+     * 
+     * @param splitTarget - split target of a ParallelGateway
+     * @param workitem    - current workitem
+     * @return true if the split target defines the main flow
+     * @see #isMainParallelGatewayFlow(BPMNElementNode, BPMNElementNode,
+     *      ItemCollection)
+     */
+    public boolean isMainParallelGatewayFlow(BPMNTransitionTable.SplitTarget splitTarget,
+            ItemCollection workitem) {
+        if (splitTarget.isTask()) {
+            return true;
+        }
+        String condition = splitTarget.getCondition();
+        if (condition != null) {
+            try {
+                return getRuleEngine().evaluateBooleanExpression(condition, workitem);
+            } catch (PluginException e) {
+                logger.severe("Failed to evaluate Condition of SplitEvent '"
+                        + splitTarget.getEntity().getItemValueString("id") + "': " + e.getMessage());
+            }
+        }
+        return false;
+    }
+
     /**
      * This method lookups the definitions element and returns a ItemCollection
      * holding all attributes including the Imixs Extension attributes.
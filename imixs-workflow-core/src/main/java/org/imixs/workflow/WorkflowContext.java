@@ -15,6 +15,7 @@
 
 package org.imixs.workflow;
 
+import org.imixs.workflow.bpmn.BPMNTransitionTable;
 import org.imixs.workflow.exceptions.AccessDeniedException;
 import org.imixs.workflow.exceptions.ModelException;
 import org.imixs.workflow.exceptions.PluginException;
@@ -76,6 +77,33 @@ public interface WorkflowContext {
          */
         public String findModelVersionByGroup(String group) throws ModelException;
 
+        /**
+         * Returns a {@link BPMNTransitionTable} shared by all model instances of the
+         * given model version, or null if the context does not share transition
+         * tables. In this case the ModelManager creates a new table for each model
+         * instance.
+         * <p>
+         * A shared table must be discarded by the context when the model version is
+         * updated or removed.
+         * 
+         * @param version - model version
+         * @return shared transition table or null
+         */
+        public default BPMNTransitionTable findTransitionTable(String version) {
+                return null;
+        }
+
+        /**
+         * Returns a {@link KernelMetrics} implementation used by the WorkflowKernel to
+         * report the execution time of plugins, adapters and the event loop, or null
+         * if metrics are disabled.
+         * 
+         * @return KernelMetrics or null
+         */
+        public default KernelMetrics getKernelMetrics() {
+                return null;
+        }
+
         /**
          * This method loads a Workitem with the corresponding uniqueid.
          * 
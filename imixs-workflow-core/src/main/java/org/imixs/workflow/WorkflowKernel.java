@@ -39,7 +39,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.imixs.workflow.bpmn.BPMNEntityBuilder;
-import org.imixs.workflow.bpmn.BPMNLinkedFlowIterator;
+import org.imixs.workflow.bpmn.BPMNTransitionTable;
 import org.imixs.workflow.bpmn.BPMNUtil;
 import org.imixs.workflow.exceptions.AdapterException;
 import org.imixs.workflow.exceptions.ModelException;
@@ -128,9 +128,14 @@ public class WorkflowKernel {
 
     private ModelManager modelManager = null;
     private WorkflowContext context = null;
+    private KernelMetrics kernelMetrics = null;
 
     private List<ItemCollection> splitWorkitems = null;
 
+    // plugin life-cycle time in nanoseconds
+    private long pluginInitTime = 0;
+    private long pluginCloseTime = 0;
+
     private static final Logger logger = Logger.getLogger(WorkflowKernel.class.getName());
 
     /**
@@ -145,6 +150,7 @@ public class WorkflowKernel {
         }
 
         this.context = context;
+        kernelMetrics = context.getKernelMetrics();
         modelManager = new ModelManager(context);
         pluginRegistry = new ArrayList<Plugin>();
         adapterRegistry = new HashMap<String, Adapter>();
@@ -216,10 +222,53 @@ public class WorkflowKernel {
                 }
             }
         }
+        long lInitTime = System.nanoTime();
         plugin.init(context);
+        pluginInitTime += System.nanoTime() - lInitTime;
         pluginRegistry.add(plugin);
     }
 
+    /**
+     * This method registers a pre-resolved chain of plugin instances. In
+     * difference to the method registerPlugin(Plugin) the chain is not validated
+     * for duplicates and dependencies. The caller is responsible to provide a
+     * chain which was validated before - e.g. by registering the same plugin
+     * classes with the method registerPlugin once.
+     * <p>
+     * The method replaces all plugins registered before.
+     * 
+     * @param plugins - validated list of plugin instances
+     * @throws PluginException if a plugin can not be initialized
+     */
+    public void registerPlugins(final List<Plugin> plugins) throws PluginException {
+        long lInitTime = System.nanoTime();
+        for (Plugin plugin : plugins) {
+            plugin.init(context);
+        }
+        pluginInitTime += System.nanoTime() - lInitTime;
+        pluginRegistry = new ArrayList<Plugin>(plugins);
+    }
+
+    /**
+     * Returns the total time in milliseconds spent in the init method of all
+     * registered plugins.
+     * 
+     * @return init time in ms
+     */
+    public long getPluginInitTime() {
+        return pluginInitTime / 1000000;
+    }
+
+    /**
+     * Returns the total time in milliseconds spent in the close method of all
+     * registered plugins.
+     * 
+     * @return close time in ms
+     */
+    public long getPluginCloseTime() {
+        return pluginCloseTime / 1000000;
+    }
+
     /**
      * Returns true if the plugin with the classname is already registered.
      * 
@@ -401,6 +450,7 @@ public class WorkflowKernel {
         splitWorkitems = new ArrayList<ItemCollection>();
         List<String> loopDetector = new ArrayList<String>();
         ItemCollection event = this.loadEvent(workitem, model);
+        long lEventLoopTime = System.nanoTime();
         while (event != null) {
             String id = event.getItemValueString("id");
             if (loopDetector.contains(id)) {
@@ -425,6 +475,10 @@ public class WorkflowKernel {
 
             loopDetector.add(id);
         }
+        if (kernelMetrics != null) {
+            kernelMetrics.onEventLoop(workitem.getModelVersion(), loopDetector.size(),
+                    System.nanoTime() - lEventLoopTime);
+        }
 
         return workitem;
     }
@@ -452,19 +506,9 @@ public class WorkflowKernel {
         logger.fine("...loadEvent " + workitem.getTaskID() + "." + workitem.getEventID());
         ItemCollection event = modelManager.findEventByID(model, workitem.getTaskID(), workitem.getEventID());
         // verify if the event is a valid processing event?
-        if (event != null) {
-            List<ItemCollection> allowedEvents = modelManager.findEventsByTask(model, workitem.getTaskID());
-            boolean found = false;
-            for (ItemCollection allowedEvent : allowedEvents) {
-                // logger.info("verify event : " + allowedEvent.getItemValueString("id"));
-                if (allowedEvent.getItemValueString("id").equals(event.getItemValueString("id"))) {
-                    found = true;
-                    break;
-                }
-            }
-            if (!found) {
-                event = null;
-            }
+        if (event != null
+                && !modelManager.isEventOfTask(model, workitem.getTaskID(), event.getItemValueString("id"))) {
+            event = null;
         }
         // If we still did not find the event we throw a ModelException....
         if (event == null) {
@@ -582,22 +626,19 @@ public class WorkflowKernel {
         }
 
         // We need the follow Up Task and Event Nodes now to create the split Events
-        BPMNElementNode gatewayNode = model.findElementNodeById(parallelGateway.getItemValueString("id"));
-        BPMNLinkedFlowIterator<BPMNElementNode> splitElementNavigator = new BPMNLinkedFlowIterator<BPMNElementNode>(
-                gatewayNode,
-                node -> ((BPMNUtil.isImixsTaskElement(node)) || (BPMNUtil.isImixsEventElement(node))));
+        String gatewayID = parallelGateway.getItemValueString("id");
+        List<BPMNTransitionTable.SplitTarget> splitTargets = modelManager.findParallelSplitTargets(model,
+                parallelGateway);
         // now iterate all targets....
         boolean foundMainTask = false;
-        while (splitElementNavigator.hasNext()) {
-            BPMNElementNode nextSplitNode = splitElementNavigator.next();
-            ItemCollection splitItemCol = BPMNEntityBuilder.build(nextSplitNode);
+        for (BPMNTransitionTable.SplitTarget splitTarget : splitTargets) {
+            ItemCollection splitItemCol = (ItemCollection) splitTarget.getEntity().clone();
             // Test if the flow is a the Main SequenceFlow of the ParallelGateway.
-            boolean bMainFlow = this.modelManager.isMainParallelGatewayFlow(gatewayNode, nextSplitNode,
-                    workitem);
+            boolean bMainFlow = this.modelManager.isMainParallelGatewayFlow(splitTarget, workitem);
             if (bMainFlow) {
                 if (foundMainTask == true) {
                     throw new ModelException(ModelException.INVALID_MODEL_ENTRY,
-                            "BPMN Model Error: Parallel Gateway: " + gatewayNode.getId()
+                            "BPMN Model Error: Parallel Gateway: " + gatewayID
                                     + " - only one outcome can be directly linked to a task element! Missing Event element.");
                 }
                 foundMainTask = true;
@@ -628,7 +669,7 @@ public class WorkflowKernel {
         // if we did not have found a SplitEvent we throw a Model Exception!
         if (foundMainTask == false) {
             throw new ModelException(ModelException.INVALID_MODEL_ENTRY,
-                    "BPMN Model Error: Parallel Gateway: " + gatewayNode.getId()
+                    "BPMN Model Error: Parallel Gateway: " + gatewayID
                             + " - At least one outcome must be connected directly to a Task Element or evaluate to 'true'!");
         }
         // continue with normal flow
@@ -1058,9 +1099,14 @@ public class WorkflowKernel {
     @SuppressWarnings("unchecked")
     private void executeAdaper(Adapter adapter, ItemCollection workitem, ItemCollection event) throws PluginException {
         boolean debug = logger.isLoggable(Level.FINE);
+        long lAdapterTime = System.nanoTime();
         // execute...
         try {
             workitem = adapter.execute(workitem, event);
+            if (kernelMetrics != null) {
+                kernelMetrics.onAdapterExecute(adapter.getClass().getName(), workitem.getModelVersion(),
+                        System.nanoTime() - lAdapterTime);
+            }
         } catch (AdapterException e) {
             logger.log(Level.WARNING, "...execution of adapter " + adapter.getClass().getSimpleName() + " failed: {0}",
                     e.getMessage());
@@ -1149,16 +1195,17 @@ public class WorkflowKernel {
      */
     /**
      * This method is responsible for the internal workflow log.
+     * <p>
+     * The new entry is appended to the existing log. The existing entries are not
+     * copied or validated again, so the costs of a log entry do not grow with the
+     * size of the log.
      */
-    @SuppressWarnings("unchecked")
     private ItemCollection logEvent(int taskID, int eventID, int targetTaskID, final ItemCollection workitem) {
         ItemCollection documentResult = workitem;
 
         // Migration check for deprecated log entries.
         migrateDeprecatedEventLogFormat(workitem);
 
-        List<String> existingLogEntries = (List<String>) workitem.getItemValue(EVENTLOG);
-
         // Create new log entry...
         StringBuilder logEntry = new StringBuilder();
         LocalDateTime dateTime = LocalDateTime.now();
@@ -1184,9 +1231,8 @@ public class WorkflowKernel {
         }
 
         // Update the log entries
-        existingLogEntries.add(logEntry.toString());
-        documentResult.replaceItemValue(EVENTLOG, existingLogEntries);
-        documentResult.replaceItemValue(LASTEVENT, eventID);
+        documentResult.appendValue(ItemName.EVENTLOG, logEntry.toString());
+        documentResult.replaceValue(ItemName.LASTEVENT, eventID);
 
         return documentResult;
     }
@@ -1214,6 +1260,10 @@ public class WorkflowKernel {
         }
         // Test if migration is necessary
         String firstEntry = logEntries.get(0);
+        if (countSeparators(firstEntry) > 4) {
+            // current format - no need to split the entry
+            return;
+        }
         String[] parts = firstEntry.split("\\|");
 
         // Old format has 4 or 5 parts (with optional comment)
@@ -1234,6 +1284,20 @@ public class WorkflowKernel {
         }
     }
 
+    /**
+     * Counts the '|' separators of a log entry. A log entry in the current format
+     * has 6 separators, a deprecated entry 3 or 4.
+     */
+    private static int countSeparators(String logEntry) {
+        int count = 0;
+        for (int i = 0; i < logEntry.length(); i++) {
+            if (logEntry.charAt(i) == '|') {
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * Converts a single log entry from old to new format Old:
      * timestamp|model-version|1000.10|1000|comment New:
@@ -1285,6 +1349,7 @@ public class WorkflowKernel {
         boolean debug = logger.isLoggable(Level.FINE);
         ItemCollection documentResult = documentContext;
         String sPluginName = null;
+        String modelVersion = documentContext.getModelVersion();
         List<String> localPluginLog = new Vector<String>();
 
         try {
@@ -1294,11 +1359,15 @@ public class WorkflowKernel {
                 if (debug) {
                     logger.log(Level.FINEST, "......running Plugin: {0}...", sPluginName);
                 }
-                long lPluginTime = System.currentTimeMillis();
+                long lPluginTime = System.nanoTime();
                 documentResult = plugin.run(documentResult, event);
+                lPluginTime = System.nanoTime() - lPluginTime;
                 if (debug) {
                     logger.log(Level.FINE, "...Plugin ''{0}'' processing time={1}ms",
-                            new Object[] { sPluginName, System.currentTimeMillis() - lPluginTime });
+                            new Object[] { sPluginName, lPluginTime / 1000000 });
+                }
+                if (kernelMetrics != null) {
+                    kernelMetrics.onPluginRun(sPluginName, modelVersion, lPluginTime);
                 }
                 if (documentResult == null) {
                     logger.log(Level.SEVERE, "[runPlugins] PLUGIN_ERROR: {0}", sPluginName);
@@ -1332,11 +1401,16 @@ public class WorkflowKernel {
     }
 
     private void closePlugins(boolean rollbackTransaction) throws PluginException {
-        for (int i = 0; i < pluginRegistry.size(); i++) {
-            Plugin plugin = (Plugin) pluginRegistry.get(i);
-            if (logger.isLoggable(Level.FINEST))
-                logger.log(Level.FINEST, "closing Plugin: {0}...", plugin.getClass().getName());
-            plugin.close(rollbackTransaction);
+        long lCloseTime = System.nanoTime();
+        try {
+            for (int i = 0; i < pluginRegistry.size(); i++) {
+                Plugin plugin = (Plugin) pluginRegistry.get(i);
+                if (logger.isLoggable(Level.FINEST))
+                    logger.log(Level.FINEST, "closing Plugin: {0}...", plugin.getClass().getName());
+                plugin.close(rollbackTransaction);
+            }
+        } finally {
+            pluginCloseTime += System.nanoTime() - lCloseTime;
         }
     }
 
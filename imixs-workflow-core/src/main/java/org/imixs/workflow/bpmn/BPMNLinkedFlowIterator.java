@@ -51,8 +51,20 @@ public class BPMNLinkedFlowIterator<T> extends BPMNFlowIterator<BPMNElementNode>
      */
     @Override
     public BPMNElementNode getTargetNode(SequenceFlow flow) {
+        return resolveTargetNode(flow);
+    }
+
+    /**
+     * Returns the target node of a given sequence flow. If the target is a Link
+     * Event, the method returns the target of the corresponding
+     * {@code bpmn:intermediateCatchEvent}.
+     * 
+     * @param flow - sequence flow
+     * @return target node or null if the flow has no target
+     */
+    public static BPMNElementNode resolveTargetNode(SequenceFlow flow) {
 
-        BPMNElementNode nextElement = super.getTargetNode(flow);
+        BPMNElementNode nextElement = flow.getTargetElement();
         // Test if we have a LinkCatchEvent?
         if (BPMNUtil.isLinkCatchEventElement(nextElement)) {
             // find the target of the link by its name
@@ -0,0 +1,351 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.bpmn;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+import org.imixs.workflow.ItemCollection;
+import org.openbpmn.bpmn.BPMNTypes;
+import org.openbpmn.bpmn.elements.Gateway;
+import org.openbpmn.bpmn.elements.SequenceFlow;
+import org.openbpmn.bpmn.elements.core.BPMNElementNode;
+
+/**
+ * The {@code BPMNTransitionTable} holds the precompiled flow graph of a single
+ * model version. The table is used by the {@code ModelManager} to resolve Task
+ * and Event entities and the outgoing sequence flows of an Event without
+ * walking the BPMN DOM and rebuilding the entities on each processing step.
+ * <p>
+ * The entries are compiled lazily the first time an element is requested and
+ * are immutable afterwards. As the table contains no references to the
+ * {@code BPMNModel} instance it was compiled from, one table can be shared by
+ * all threads processing workitems of the same model version. Conditions of
+ * gateways are stored as plain expressions and are evaluated at runtime.
+ * <p>
+ * Entities returned by the table are shared instances and must not be
+ * modified. Clients need to clone an entity before handing it out.
+ *
+ * @author rsoika
+ * @version 1.0
+ * @see org.imixs.workflow.ModelManager
+ */
+public class BPMNTransitionTable {
+
+    private static Logger logger = Logger.getLogger(BPMNTransitionTable.class.getName());
+
+    private final String version;
+    private final Map<Integer, ItemCollection> tasks = new ConcurrentHashMap<>();
+    private final Map<Long, ItemCollection> events = new ConcurrentHashMap<>();
+    private final Map<Integer, List<ItemCollection>> eventsByTask = new ConcurrentHashMap<>();
+    private final Map<String, Transition> transitions = new ConcurrentHashMap<>();
+    private final Map<String, List<SplitTarget>> splitTargets = new ConcurrentHashMap<>();
+
+    public BPMNTransitionTable(String version) {
+        this.version = version;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the Task entity for the given taskID or null if the task was not
+     * yet compiled.
+     */
+    public ItemCollection getTask(int taskID) {
+        return tasks.get(taskID);
+    }
+
+    public void putTask(int taskID, ItemCollection task) {
+        tasks.putIfAbsent(taskID, task);
+    }
+
+    /**
+     * Returns the Event entity for the given taskID and eventID or null if the
+     * event was not yet compiled.
+     */
+    public ItemCollection getEvent(int taskID, int eventID) {
+        return events.get(eventKey(taskID, eventID));
+    }
+
+    public void putEvent(int taskID, int eventID, ItemCollection event) {
+        events.putIfAbsent(eventKey(taskID, eventID), event);
+    }
+
+    /**
+     * Returns the list of all Event entities assigned to the given task or null if
+     * the list was not yet compiled.
+     */
+    public List<ItemCollection> getEventsByTask(int taskID) {
+        return eventsByTask.get(taskID);
+    }
+
+    public void putEventsByTask(int taskID, List<ItemCollection> events) {
+        eventsByTask.putIfAbsent(taskID, Collections.unmodifiableList(new ArrayList<>(events)));
+    }
+
+    /**
+     * Returns the compiled outgoing flow graph of the BPMN element with the given
+     * id or null if the element was not yet compiled.
+     *
+     * @param id - BPMN element id
+     * @return compiled transition or null
+     */
+    public Transition findTransition(String id) {
+        return transitions.get(id);
+    }
+
+    /**
+     * Compiles the outgoing flow graph of the given BPMN element node and stores it
+     * in the table. The terminal elements of the graph are Imixs Tasks, Imixs
+     * Events and Parallel Gateways. Link Events are resolved during compilation.
+     *
+     * @param node - source element, typically an Imixs Event
+     * @return compiled transition
+     */
+    public Transition compileTransition(BPMNElementNode node) {
+        Transition result = buildTransition(node, new HashMap<>());
+        Transition existing = transitions.putIfAbsent(node.getId(), result);
+        return (existing != null) ? existing : result;
+    }
+
+    /**
+     * Returns the list of all Task and Event elements following the Parallel
+     * Gateway with the given id or null if the gateway was not yet compiled.
+     *
+     * @param id - BPMN element id of the gateway
+     * @return list of split targets or null
+     */
+    public List<SplitTarget> findSplitTargets(String id) {
+        return splitTargets.get(id);
+    }
+
+    /**
+     * Compiles the list of all Task and Event elements following a Parallel
+     * Gateway and stores it in the table.
+     *
+     * @param gatewayNode - ParallelGateway node
+     * @return list of split targets
+     */
+    public List<SplitTarget> compileSplitTargets(BPMNElementNode gatewayNode) {
+        List<SplitTarget> result = buildSplitTargets(gatewayNode);
+        List<SplitTarget> existing = splitTargets.putIfAbsent(gatewayNode.getId(), result);
+        return (existing != null) ? existing : result;
+    }
+
+    private static long eventKey(int taskID, int eventID) {
+        return ((long) taskID << 32) | (eventID & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Compiles the outgoing flows of a node. Nodes not matching one of the
+     * terminal element types are compiled recursively. Already compiled nodes are
+     * reused to support loops between intermediate elements.
+     */
+    private static Transition buildTransition(BPMNElementNode node, Map<String, Transition> compiled) {
+        boolean gateway = (node instanceof Gateway);
+        Transition transition = new Transition(node.getId(), (gateway ? node.getName() : null), gateway);
+        compiled.put(node.getId(), transition);
+
+        List<SequenceFlow> outFlows = new ArrayList<>(node.getOutgoingSequenceFlows());
+        if (gateway) {
+            // flows with a condition are evaluated first, the default flow last
+            outFlows.sort(Comparator.comparing(flow -> isBlank(flow.getConditionExpression()) ? 1 : 0));
+        }
+        for (SequenceFlow flow : outFlows) {
+            BPMNElementNode target = BPMNLinkedFlowIterator.resolveTargetNode(flow);
+            ItemCollection entity = null;
+            Transition next = null;
+            if (target != null) {
+                if (isTransitionTarget(target)) {
+                    entity = BPMNEntityBuilder.build(target);
+                } else {
+                    next = compiled.get(target.getId());
+                    if (next == null) {
+                        next = buildTransition(target, compiled);
+                    }
+                }
+            }
+            transition.flows.add(new Flow(flow.getConditionExpression(), entity, next));
+        }
+        return transition;
+    }
+
+    /**
+     * Collects all Task and Event elements following a ParallelGateway. For each
+     * target the condition of the direct sequence flow is stored to evaluate the
+     * main flow at runtime.
+     */
+    private static List<SplitTarget> buildSplitTargets(BPMNElementNode gatewayNode) {
+        List<SplitTarget> result = new ArrayList<>();
+        BPMNLinkedFlowIterator<BPMNElementNode> splitElementNavigator = new BPMNLinkedFlowIterator<BPMNElementNode>(
+                gatewayNode,
+                node -> ((BPMNUtil.isImixsTaskElement(node)) || (BPMNUtil.isImixsEventElement(node))));
+        Set<SequenceFlow> outFlows = gatewayNode.getOutgoingSequenceFlows();
+        while (splitElementNavigator.hasNext()) {
+            BPMNElementNode splitNode = splitElementNavigator.next();
+            String condition = null;
+            for (SequenceFlow outFlow : outFlows) {
+                if (outFlow.getTargetElement().getId().equals(splitNode.getId())) {
+                    String flowCondition = outFlow.getConditionExpression();
+                    if (flowCondition != null && !flowCondition.isEmpty()) {
+                        condition = flowCondition;
+                        break;
+                    }
+                }
+            }
+            result.add(new SplitTarget(BPMNEntityBuilder.build(splitNode),
+                    BPMNTypes.BPMN_TASKS.contains(splitNode.getType()), condition));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static boolean isTransitionTarget(BPMNElementNode node) {
+        return BPMNUtil.isImixsTaskElement(node)
+                || BPMNUtil.isImixsEventElement(node)
+                || BPMNUtil.isParallelGatewayElement(node);
+    }
+
+    private static boolean isBlank(String condition) {
+        return condition == null || condition.trim().isEmpty();
+    }
+
+    /**
+     * A compiled BPMN element node with its outgoing flows.
+     */
+    public static final class Transition {
+        private final String id;
+        private final String name;
+        private final boolean gateway;
+        private final List<Flow> flows = new ArrayList<>();
+
+        private Transition(String id, String name, boolean gateway) {
+            this.id = id;
+            this.name = name;
+            this.gateway = gateway;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * Collects all terminal elements reachable from this node. In case the node
+         * is a Gateway, only the first flow with a condition evaluating to true or -
+         * if no condition matches - the default flow without a condition is
+         * followed.
+         *
+         * @param conditionEvaluator - evaluates the condition of a sequence flow
+         * @param result             - list of terminal entities
+         */
+        public void collectTargets(Predicate<String> conditionEvaluator, List<ItemCollection> result) {
+            if (gateway && conditionEvaluator != null) {
+                Flow match = null;
+                for (Flow flow : flows) {
+                    if (flow.condition != null && conditionEvaluator.test(flow.condition)) {
+                        match = flow;
+                        break;
+                    }
+                    if (isBlank(flow.condition)) {
+                        match = flow;
+                        break;
+                    }
+                }
+                if (match == null) {
+                    logger.warning("Gateway " + name + " (" + id
+                            + ") has conditional flows but non of the outgoing sequence flows is matching the condition!");
+                    return;
+                }
+                match.collectTargets(conditionEvaluator, result);
+                return;
+            }
+            for (Flow flow : flows) {
+                flow.collectTargets(conditionEvaluator, result);
+            }
+        }
+    }
+
+    /**
+     * A compiled sequence flow pointing either to a terminal entity or to the next
+     * compiled node.
+     */
+    private static final class Flow {
+        private final String condition;
+        private final ItemCollection target;
+        private final Transition next;
+
+        private Flow(String condition, ItemCollection target, Transition next) {
+            this.condition = condition;
+            this.target = target;
+            this.next = next;
+        }
+
+        private void collectTargets(Predicate<String> conditionEvaluator, List<ItemCollection> result) {
+            if (target != null) {
+                result.add(target);
+            } else if (next != null) {
+                next.collectTargets(conditionEvaluator, result);
+            }
+        }
+    }
+
+    /**
+     * A Task or Event element following a ParallelGateway.
+     */
+    public static final class SplitTarget {
+        private final ItemCollection entity;
+        private final boolean task;
+        private final String condition;
+
+        private SplitTarget(ItemCollection entity, boolean task, String condition) {
+            this.entity = entity;
+            this.task = task;
+            this.condition = condition;
+        }
+
+        /**
+         * Returns the shared entity of the target element. The entity must not be
+         * modified.
+         */
+        public ItemCollection getEntity() {
+            return entity;
+        }
+
+        /**
+         * Returns true if the target is a Task element.
+         */
+        public boolean isTask() {
+            return task;
+        }
+
+        /**
+         * Returns the condition of the sequence flow connecting the gateway with the
+         * target or null if no condition is defined.
+         */
+        public String getCondition() {
+            return condition;
+        }
+    }
+}
@@ -25,6 +25,7 @@ package org.imixs.workflow.exceptions;
 public class QueryException extends WorkflowException {
 
     public static final String QUERY_NOT_UNDERSTANDABLE = "QUERY_NOT_UNDERSTANDABLE";
+    public static final String QUERY_NOT_SORTABLE = "QUERY_NOT_SORTABLE";
 
     private static final long serialVersionUID = 1L;
 
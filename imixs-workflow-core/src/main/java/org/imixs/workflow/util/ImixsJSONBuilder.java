@@ -15,22 +15,42 @@
 
 package org.imixs.workflow.util;
 
+import java.io.FilterOutputStream;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 import org.imixs.workflow.ItemCollection;
 
+import jakarta.json.Json;
+import jakarta.json.JsonException;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonGeneratorFactory;
+
 /**
  * The ImixsJSONBuilder is an utility class to generate a typed json string from
  * an Imixs ItemCollection.
  * <p>
  * The result can be converted back into a ItemCollection by using the
  * ImixsJSONParser class.
+ * <p>
+ * The builder writes the JSON structure with a streaming JSON generator. The
+ * methods <code>build(ItemCollection, Writer)</code>,
+ * <code>build(ItemCollection, OutputStream)</code> and
+ * <code>build(List, OutputStream)</code> write the JSON directly into a stream
+ * without building an intermediate string. To write a sequence of documents
+ * into the same stream (e.g. NDJSON) the Writer variant should be used, as it
+ * avoids a new character encoder for each document.
  * 
  * @See ImixsJSONParser
  * @author rsoika
@@ -39,6 +59,10 @@ public class ImixsJSONBuilder {
 
     public static final String ISO8601DATEFORMAT = "yyyy-MM-dd'T'HH:mm:ssZ";
 
+    // the formatter and the factory are immutable and thread-safe
+    private static final DateTimeFormatter ISO8601_FORMATTER = DateTimeFormatter.ofPattern(ISO8601DATEFORMAT);
+    private static final JsonGeneratorFactory GENERATOR_FACTORY = Json.createGeneratorFactory(null);
+
     /**
      * This method builds a typed JSON output stream from a Imixs ItemCollection.
      * 
@@ -63,38 +87,98 @@ public class ImixsJSONBuilder {
      * @throws ParseException
      * @throws UnsupportedEncodingException
      */
-    @SuppressWarnings("unchecked")
     public final static String build(final ItemCollection workitem)
             throws ParseException, UnsupportedEncodingException {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = GENERATOR_FACTORY.createGenerator(out)) {
+            buildDocument(workitem, generator);
+        }
+        return out.toString();
+    }
 
-        StringBuffer out = new StringBuffer();
-        out.append("{\"item\":[");
+    /**
+     * This method writes a typed JSON structure of a Imixs ItemCollection into a
+     * writer. The writer is flushed but not closed.
+     * 
+     * @param workitem - ItemCollection to be translated into JSON
+     * @param out      - writer
+     * @throws IOException
+     */
+    public final static void build(final ItemCollection workitem, final Writer out) throws IOException {
+        try (JsonGenerator generator = GENERATOR_FACTORY.createGenerator(new NonClosingWriter(out))) {
+            buildDocument(workitem, generator);
+        } catch (JsonException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
 
-        // iterate over all items...
-        List<String> itemNames = workitem.getItemNames();
+    /**
+     * This method writes a typed JSON structure of a Imixs ItemCollection UTF-8
+     * encoded into an output stream. The output stream is flushed but not closed.
+     * 
+     * @param workitem - ItemCollection to be translated into JSON
+     * @param out      - output stream
+     * @throws IOException
+     */
+    public final static void build(final ItemCollection workitem, final OutputStream out) throws IOException {
+        try (JsonGenerator generator = GENERATOR_FACTORY.createGenerator(new NonClosingOutputStream(out))) {
+            buildDocument(workitem, generator);
+        } catch (JsonException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
 
-        for (int i = 0; i < itemNames.size(); i++) {
+    /**
+     * This method writes a collection of Imixs ItemCollections as a data element
+     * UTF-8 encoded into an output stream. The output stream is flushed but not
+     * closed.
+     * <p>
+     * Example Output: <code>{"data":[{"item":[...]},{"item":[...]}]}</code>
+     * 
+     * @param workitems - ItemCollections to be translated into JSON
+     * @param out       - output stream
+     * @throws IOException
+     */
+    public final static void build(final List<ItemCollection> workitems, final OutputStream out)
+            throws IOException {
+        try (JsonGenerator generator = GENERATOR_FACTORY.createGenerator(new NonClosingOutputStream(out))) {
+            generator.writeStartObject();
+            generator.writeStartArray(ImixsJSONParser.DATA_ELEMENT);
+            for (ItemCollection workitem : workitems) {
+                buildDocument(workitem, generator);
+            }
+            generator.writeEnd();
+            generator.writeEnd();
+        } catch (JsonException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
 
-            String itemName = itemNames.get(i);
+    /**
+     * Writes the item element of a single document. Items without values are
+     * skipped.
+     */
+    @SuppressWarnings("unchecked")
+    private static void buildDocument(final ItemCollection workitem, JsonGenerator generator) {
+        generator.writeStartObject();
+        generator.writeStartArray(ImixsJSONParser.ITEM_ELEMENT);
+        // iterate over all items...
+        for (String itemName : workitem.getItemNames()) {
             List<Object> values = workitem.getItemValue(itemName);
             if (values == null || values.size() == 0) {
                 continue;
             }
-            out.append("{\"name\":\"" + itemName + "\",\"value\":");
-            buildValues(values, out);
-
-            // add comma?
-            if (i < (itemNames.size() - 1)) {
-                out.append(",");
-            }
+            generator.writeStartObject();
+            generator.write(ImixsJSONParser.NAME_ELEMENT, itemName);
+            buildValues(values, generator);
+            generator.writeEnd();
         }
-        out.append("]}");
-
-        return out.toString();
+        generator.writeEnd();
+        generator.writeEnd();
     }
 
     /**
-     * This helper method converts a value list into a json string
+     * This helper method writes a value list as a json value element
      * <p>
      * In case values contains more than one item the values are ordered into a json
      * array.
@@ -108,93 +192,121 @@ public class ImixsJSONBuilder {
      * {"name":"$activityid","value":{"@type":"xs:int","$":10}},
      * {"name":"$processid","value":{"@type":"xs:int","$":100}}
      *  </code>
-     * 
-     * @param token
-     * @throws ParseException
      */
-    private static void buildValues(List<Object> values, StringBuffer out) {
-        if (values == null || values.size() == 0) {
-            out.append("{}");
-            return;
-        }
+    private static void buildValues(List<Object> values, JsonGenerator generator) {
         if (values.size() > 1) {
-            out.append("[");
-        }
-
-        // print each output...
-        for (int i = 0; i < values.size(); i++) {
-            out.append("{");
-            // {"@type":"xs:string","$":"worklist"}
-            Object valueObject = values.get(i);
-            String type = "";
-            // test raw types first
-            if (valueObject instanceof String) {
-                type = "\"@type\":\"xs:string\"";
-            }
-            if (valueObject instanceof Boolean) {
-                type = "\"@type\":\"xs:boolean\"";
-            }
-            if (valueObject instanceof Short) {
-                type = "\"@type\":\"xs:short\"";
-            }
-            if (valueObject instanceof Integer) {
-                type = "\"@type\":\"xs:int\"";
-            }
-            if (valueObject instanceof Long) {
-                type = "\"@type\":\"xs:long\"";
-            }
-            if (valueObject instanceof Float) {
-                type = "\"@type\":\"xs:float\"";
-            }
-            if (valueObject instanceof Double) {
-                type = "\"@type\":\"xs:double\"";
-            }
-            if (valueObject instanceof Date || valueObject instanceof Calendar) {
-                type = "\"@type\":\"xs:dateTime\"";
-            }
-            if (valueObject instanceof BigInteger) {
-                type = "\"@type\":\"xs:integer\"";
-            }
-            if (valueObject instanceof BigDecimal) {
-                type = "\"@type\":\"xs:decimal\"";
+            generator.writeStartArray(ImixsJSONParser.VALUE_ELEMENT);
+            for (Object valueObject : values) {
+                generator.writeStartObject();
+                buildValue(valueObject, generator);
+                generator.writeEnd();
             }
+        } else {
+            generator.writeStartObject(ImixsJSONParser.VALUE_ELEMENT);
+            buildValue(values.get(0), generator);
+        }
+        generator.writeEnd();
+    }
 
-            out.append(type + ",");
-
-            // print the value...
-            // "$":"worklist"}
-            String valueString = null;
-            if (valueObject instanceof Date || valueObject instanceof Calendar) {
-                // convert 2013-10-07T22:18:55.476+02:00
-                Date date = null;
-                if (valueObject instanceof Calendar) {
-                    date = ((Calendar) valueObject).getTime();
-                } else {
-                    date = (Date) valueObject;
-                }
-                SimpleDateFormat sdf = new SimpleDateFormat(ISO8601DATEFORMAT);
-                // sdf.setTimeZone(TimeZone.getTimeZone("CET"));
-                valueString = sdf.format(date);
+    /**
+     * Writes the type and the value of a single value object
+     * <p>
+     * e.g. <code>"@type":"xs:string","$":"worklist"</code>
+     */
+    private static void buildValue(Object valueObject, JsonGenerator generator) {
+        String type = getType(valueObject);
+        if (type != null) {
+            generator.write("@type", type);
+        }
+        // print the value...
+        if (valueObject instanceof Date || valueObject instanceof Calendar) {
+            // convert 2013-10-07T22:18:55+0200
+            Date date = null;
+            if (valueObject instanceof Calendar) {
+                date = ((Calendar) valueObject).getTime();
             } else {
-                // simple convert to string
-                valueString = valueObject.toString();
+                date = (Date) valueObject;
             }
+            generator.write("$", ISO8601_FORMATTER.format(date.toInstant().atZone(ZoneId.systemDefault())));
+        } else if (valueObject == null) {
+            generator.writeNull("$");
+        } else {
+            // simple convert to string
+            generator.write("$", valueObject.toString());
+        }
+    }
 
-            out.append("\"$\":\"" + valueString + "\"");
+    /**
+     * Returns the xml schema type of a value object or null if the type is unknown
+     */
+    private static String getType(Object valueObject) {
+        if (valueObject instanceof String) {
+            return "xs:string";
+        }
+        if (valueObject instanceof Boolean) {
+            return "xs:boolean";
+        }
+        if (valueObject instanceof Short) {
+            return "xs:short";
+        }
+        if (valueObject instanceof Integer) {
+            return "xs:int";
+        }
+        if (valueObject instanceof Long) {
+            return "xs:long";
+        }
+        if (valueObject instanceof Float) {
+            return "xs:float";
+        }
+        if (valueObject instanceof Double) {
+            return "xs:double";
+        }
+        if (valueObject instanceof Date || valueObject instanceof Calendar) {
+            return "xs:dateTime";
+        }
+        if (valueObject instanceof BigInteger) {
+            return "xs:integer";
+        }
+        if (valueObject instanceof BigDecimal) {
+            return "xs:decimal";
+        }
+        return null;
+    }
 
-            out.append("}");
-            // add comma?
-            if ((i) < (values.size() - 1)) {
-                out.append(",");
-            }
+    /**
+     * Protects the writer of the caller from being closed by the JsonGenerator.
+     */
+    private static class NonClosingWriter extends FilterWriter {
+
+        NonClosingWriter(Writer out) {
+            super(out);
         }
 
-        if (values.size() > 1) {
-            out.append("]");
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
 
+    /**
+     * Protects the output stream of the caller from being closed by the
+     * JsonGenerator.
+     */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
         }
 
-        out.append("}");
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
     }
 
 }
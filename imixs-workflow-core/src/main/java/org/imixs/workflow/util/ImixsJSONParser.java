@@ -18,7 +18,12 @@ package org.imixs.workflow.util;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.text.ParseException;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -28,14 +33,19 @@ import jakarta.json.Json;
 import jakarta.json.stream.JsonLocation;
 import jakarta.json.stream.JsonParser;
 import jakarta.json.stream.JsonParser.Event;
+import jakarta.json.stream.JsonParserFactory;
 
 /**
  * The ImixsJSONParser is an utility class to parse JSON structures of Imixs
  * Documents. The parser supports single document structures as also collections
  * of documents (data element).
  * <p>
- * The method 'parse()' returns in any case a collection of ItemCollection.
+ * The method 'parse()' returns in any case a collection of ItemCollection. To
+ * read large collections document by document use the {@link ImixsJSONReader}.
  * <p>
+ * Values of the type xs:dateTime are converted into Date objects. The parser
+ * accepts ISO 8601 dates with and without fraction of seconds and a time zone
+ * offset in the form +HH:MM or +HHMM as written by the {@link ImixsJSONBuilder}.
  * 
  * @author rsoika
  */
@@ -46,6 +56,13 @@ public class ImixsJSONParser {
     public static final String NAME_ELEMENT = "name";
     public static final String VALUE_ELEMENT = "value";
 
+    // the factory is thread-safe and avoids a provider lookup for each parser
+    static final JsonParserFactory PARSER_FACTORY = Json.createParserFactory(null);
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = new DateTimeFormatterBuilder()
+            .append(DateTimeFormatter.ISO_LOCAL_DATE_TIME).optionalStart().appendOffset("+HH:MM", "Z")
+            .optionalEnd().optionalStart().appendOffset("+HHMM", "Z").optionalEnd().toFormatter();
+
     /**
      * This method parses an Imixs JSON input stream and returns a List of Imixs
      * ItemCollection instances.
@@ -106,7 +123,7 @@ public class ImixsJSONParser {
             return null;
         }
 
-        JsonParser parser = Json.createParser(jsonDataStream);
+        JsonParser parser = PARSER_FACTORY.createParser(jsonDataStream);
         Event event = null;
         while (true) {
 
@@ -116,12 +133,12 @@ public class ImixsJSONParser {
                     return null;
                 }
 
-                if (event.name().equals(Event.START_ARRAY.toString())) {
+                if (event == Event.START_ARRAY) {
                     isarray = true;
                     continue;
                 }
 
-                if (event.name().equals(Event.KEY_NAME.toString())) {
+                if (event == Event.KEY_NAME) {
                     String jsonkey = parser.getString();
                     // data element?
                     if (DATA_ELEMENT.equals(jsonkey)) {
@@ -150,10 +167,10 @@ public class ImixsJSONParser {
                     }
                 }
 
-                if (isarray && event.name().equals(Event.END_ARRAY.toString())) {
+                if (isarray && event == Event.END_ARRAY) {
                     break;
                 }
-                if (!isarray && event.name().equals(Event.END_OBJECT.toString())) {
+                if (!isarray && event == Event.END_OBJECT) {
                     break;
                 }
 
@@ -173,16 +190,15 @@ public class ImixsJSONParser {
     		]
      * </code>
      **/
-    private static void parseDocument(JsonParser parser, ItemCollection document) {
+    static void parseDocument(JsonParser parser, ItemCollection document) {
         while (true) {
             try {
                 Event event = parser.next(); // START_OBJECT
-                if (event.name().equals(Event.START_OBJECT.toString())) {
+                if (event == Event.START_OBJECT) {
                     parseItem(parser, document);
                 }
                 // if end of object or array we can break here
-                if (event.name().equals(Event.END_OBJECT.toString())
-                        || event.name().equals(Event.END_ARRAY.toString())) {
+                if (event == Event.END_OBJECT || event == Event.END_ARRAY) {
                     break;
                 }
             } catch (NoSuchElementException e) {
@@ -203,7 +219,7 @@ public class ImixsJSONParser {
         while (isItem) {
             try {
                 Event event = parser.next(); // START_OBJECT
-                if (event.name().equals(Event.KEY_NAME.toString())) {
+                if (event == Event.KEY_NAME) {
                     String jsonkey = parser.getString();
                     // data element?
                     if (NAME_ELEMENT.equals(jsonkey)) {
@@ -218,7 +234,7 @@ public class ImixsJSONParser {
                     }
                 }
                 // END of Object?
-                if (event.name().equals(Event.END_OBJECT.toString())) {
+                if (event == Event.END_OBJECT) {
                     isItem = false;
                     // add item...?
                     if (itemName != null && itemValue != null) {
@@ -246,12 +262,12 @@ public class ImixsJSONParser {
         while (true) {
             try {
                 Event event = parser.next(); // START_OBJECT
-                if (event.name().equals(Event.START_ARRAY.toString())) {
+                if (event == Event.START_ARRAY) {
                     isarray = true;
                     continue;
                 }
 
-                if (event.name().equals(Event.KEY_NAME.toString())) {
+                if (event == Event.KEY_NAME) {
                     String jsonkey = parser.getString();
                     // data element?
                     if ("@type".equals(jsonkey)) {
@@ -267,7 +283,7 @@ public class ImixsJSONParser {
                 }
 
                 // END of Object?
-                if (event.name().equals(Event.END_OBJECT.toString())) {
+                if (event == Event.END_OBJECT) {
 
                     // convert value to Object Type
                     if ("xs:boolean".equalsIgnoreCase(type)) {
@@ -285,6 +301,9 @@ public class ImixsJSONParser {
                     if ("xs:double".equalsIgnoreCase(type)) {
                         value = Double.valueOf(stringValue);
                     }
+                    if ("xs:dateTime".equalsIgnoreCase(type)) {
+                        value = parseDate(stringValue);
+                    }
                     // default to string
                     if (value == null) {
                         value = stringValue;
@@ -298,7 +317,7 @@ public class ImixsJSONParser {
                     // return value;
                 }
 
-                if (event.name().equals(Event.END_ARRAY.toString())) {
+                if (event == Event.END_ARRAY) {
                     return valueList;
                 }
 
@@ -309,4 +328,19 @@ public class ImixsJSONParser {
         return null;
     }
 
+    /**
+     * Converts a ISO 8601 date string into a Date object. If the string can not
+     * be parsed, the string is returned.
+     */
+    private static Object parseDate(String stringValue) {
+        if (stringValue == null) {
+            return null;
+        }
+        try {
+            return Date.from(OffsetDateTime.parse(stringValue, DATE_TIME_FORMATTER).toInstant());
+        } catch (DateTimeParseException e) {
+            return stringValue;
+        }
+    }
+
 }
@@ -0,0 +1,132 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.util;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.imixs.workflow.ItemCollection;
+
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParser.Event;
+
+/**
+ * The ImixsJSONReader reads Imixs JSON documents one by one from a stream. In
+ * difference to the {@link ImixsJSONParser} the reader does not build a list of
+ * all documents. Only the current document is held in memory, which allows to
+ * read large collections of documents with a constant memory footprint.
+ * <p>
+ * The reader supports the same structures as the ImixsJSONParser - a single
+ * document (item element), a collection of documents (data element) or an array
+ * of documents.
+ * <p>
+ * Example:
+ * 
+ * <pre>
+ * {@code
+ * try (ImixsJSONReader reader = new ImixsJSONReader(inputStream)) {
+ *     while (reader.hasNext()) {
+ *         ItemCollection document = reader.next();
+ *         ....
+ *     }
+ * }
+ * }
+ * </pre>
+ * <p>
+ * A malformed JSON stream causes a
+ * {@link jakarta.json.stream.JsonParsingException} on the call of hasNext().
+ * 
+ * @see ImixsJSONParser
+ * @author rsoika
+ */
+public class ImixsJSONReader implements Iterator<ItemCollection>, Closeable {
+
+    private final JsonParser parser;
+    private ItemCollection next = null;
+    private boolean done = false;
+    private int count = 0;
+
+    /**
+     * Creates a reader for a UTF-8 encoded JSON stream
+     */
+    public ImixsJSONReader(InputStream input) {
+        parser = ImixsJSONParser.PARSER_FACTORY.createParser(input);
+    }
+
+    /**
+     * Creates a reader for a JSON character stream
+     */
+    public ImixsJSONReader(Reader input) {
+        parser = ImixsJSONParser.PARSER_FACTORY.createParser(input);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !done) {
+            next = readDocument();
+            done = (next == null);
+        }
+        return next != null;
+    }
+
+    @Override
+    public ItemCollection next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ItemCollection document = next;
+        next = null;
+        return document;
+    }
+
+    /**
+     * Returns the number of documents read so far
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Closes the reader and the underlying stream
+     */
+    @Override
+    public void close() {
+        done = true;
+        next = null;
+        parser.close();
+    }
+
+    /**
+     * Moves the parser to the next item element and parses the document.
+     * 
+     * @return next document or null if the end of the stream is reached
+     */
+    private ItemCollection readDocument() {
+        while (parser.hasNext()) {
+            Event event = parser.next();
+            if (event == Event.KEY_NAME && ImixsJSONParser.ITEM_ELEMENT.equals(parser.getString())) {
+                ItemCollection document = new ItemCollection();
+                ImixsJSONParser.parseDocument(parser, document);
+                count++;
+                return document;
+            }
+        }
+        return null;
+    }
+}
@@ -19,39 +19,72 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.xml.XMLConstants;
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 
 import org.imixs.workflow.ItemCollection;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.XMLFilterImpl;
 
 import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBException;
 import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.util.JAXBSource;
 
 /**
  * This class can be used to transform xml by XSL template.
  * 
  * The class is used by the ReportRestService to execute a report and also by
  * the MailPluign to transform the mail body
+ * <p>
+ * The compiled XSL templates are cached by the content of the XSL source. So a
+ * template used by a report or a mail body is compiled only once. A changed XSL
+ * source results in a new cache entry. The cache holds the last 100 templates.
+ * <p>
+ * Documents are passed to the transformer as a stream of SAX events generated
+ * from the ItemCollection objects. The XML representation is not buffered.
  * 
  * @author imixs.com - Ralph Soika
- * @version 1.0
+ * @version 1.1
  */
 
 public class XSLHandler {
     private static final Logger logger = Logger.getLogger(XSLHandler.class.getName());
 
+    public static final int MAX_CACHED_TEMPLATES = 100;
+
+    // compiled templates by encoding and xsl source
+    private static final Map<List<String>, Templates> templatesCache = Collections
+            .synchronizedMap(new LinkedHashMap<List<String>, Templates>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<String>, Templates> eldest) {
+                    return size() > MAX_CACHED_TEMPLATES;
+                }
+            });
+
+    private static JAXBContext jaxbContext = null;
+
     /**
      * This method transforms an XML source with a provided XSL template. The result
      * will be written into a output stream.
@@ -66,45 +99,73 @@ public class XSLHandler {
 
     public static void transform(String xmlSource, String xslSource, String encoding, OutputStream output)
             throws UnsupportedEncodingException, TransformerException {
-        boolean debug = logger.isLoggable(Level.FINE);
-        try {
-            if (encoding == null || encoding.isEmpty()) {
-                encoding = "UTF-8";
+        if (encoding == null || encoding.isEmpty()) {
+            encoding = "UTF-8";
+        }
+        // generate XML InputStream Reader with encoding
+        ByteArrayInputStream baisXML = new ByteArrayInputStream(xmlSource.getBytes());
+        InputStreamReader isreaderXML = new InputStreamReader(baisXML, encoding);
+        transform(new StreamSource(isreaderXML), xslSource, encoding, output);
+    }
+
+    /**
+     * This method transforms an XML source with a provided XSL template. The result
+     * will be written into a output stream.
+     * 
+     * @param xmlSource - the xml source
+     * @param xslSource - the xsl template
+     * @param encoding  (default UTF-8)
+     * @throws UnsupportedEncodingException
+     * @throws TransformerException
+     */
+    public static void transform(Source xmlSource, String xslSource, String encoding, OutputStream output)
+            throws UnsupportedEncodingException, TransformerException {
+        Transformer trans = getTemplates(xslSource, encoding).newTransformer();
+        trans.transform(xmlSource, new StreamResult(output));
+    }
+
+    /**
+     * Returns the compiled templates of a XSL source. The templates are thread
+     * safe and cached by the encoding and the content of the XSL source.
+     * 
+     * @param xslSource - the xsl template
+     * @param encoding  (default UTF-8)
+     * @return compiled templates
+     * @throws UnsupportedEncodingException
+     * @throws TransformerException
+     */
+    public static Templates getTemplates(String xslSource, String encoding)
+            throws UnsupportedEncodingException, TransformerException {
+        if (encoding == null || encoding.isEmpty()) {
+            encoding = "UTF-8";
+        }
+        List<String> key = Arrays.asList(encoding, xslSource);
+        Templates templates = templatesCache.get(key);
+        if (templates == null) {
+            if (logger.isLoggable(Level.FINE)) {
+                logger.log(Level.FINEST, "......compile xsl template: encoding={0}", encoding);
             }
             // Setup XSLT
             TransformerFactory transformerFactory = TransformerFactory.newInstance();
             // Set secure process - see #852
             transformerFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
-
-            if (debug) {
-                logger.log(Level.FINEST, "......xslTransformation: encoding={0}", encoding);
-            }
-            // generate XML InputStream Reader with encoding
-            ByteArrayInputStream baisXML = new ByteArrayInputStream(xmlSource.getBytes());
-            InputStreamReader isreaderXML;
-
-            isreaderXML = new InputStreamReader(baisXML, encoding);
-
-            Source xmlSrc = new StreamSource(isreaderXML);
-
             // generate XSL InputStream Reader with encoding
             ByteArrayInputStream baisXSL = new ByteArrayInputStream(xslSource.getBytes());
             InputStreamReader isreaderXSL = new InputStreamReader(baisXSL, encoding);
-            Source xslSrc = new StreamSource(isreaderXSL);
-
-            Transformer trans = transformerFactory.newTransformer(xslSrc);
-            trans.transform(xmlSrc, new StreamResult(output));
-
-        } finally {
-
+            templates = transformerFactory.newTemplates(new StreamSource(isreaderXSL));
+            templatesCache.put(key, templates);
         }
-
+        return templates;
     }
 
     /**
      * This method transforms an Collection of Documents into XML and translates the
      * result based on a provided XSL template. The result will be written into a
      * output stream.
+     * <p>
+     * The documents are converted one after another into SAX events consumed by
+     * the transformer. The data source can be an Iterable fetching the documents
+     * lazily, so the collection is never held in memory as a whole.
      * 
      * @param xmlSource -
      * @param xslSource
@@ -114,22 +175,28 @@ public class XSLHandler {
      * @throws TransformerException
      * @throws IOException
      */
-    public static void transform(List<ItemCollection> dataSource, String xslSource, String encoding,
+    public static void transform(Iterable<ItemCollection> dataSource, String xslSource, String encoding,
             OutputStream output) throws JAXBException, TransformerException, IOException {
+        Source xmlSrc = new SAXSource(new DataCollectionReader(dataSource, getContext()), new InputSource());
+        XSLHandler.transform(xmlSrc, xslSource, encoding, output);
+    }
 
-        if (encoding == null || encoding.isEmpty()) {
-            encoding = "UTF-8";
-        }
-        XMLDataCollection xmlDataCollection = XMLDataCollectionAdapter.getDataCollection(dataSource);
-
-        StringWriter writer = new StringWriter();
-
-        JAXBContext context = JAXBContext.newInstance(XMLDataCollection.class);
-        Marshaller m = context.createMarshaller();
-        m.setProperty("jaxb.encoding", encoding);
-        m.marshal(xmlDataCollection, writer);
-
-        XSLHandler.transform(writer.toString(), xslSource, encoding, output);
+    /**
+     * This method transforms a List of Documents into XML and translates the result
+     * based on a provided XSL template. The result will be written into a output
+     * stream.
+     * 
+     * @see #transform(Iterable, String, String, OutputStream)
+     * @param dataSource - list of documents
+     * @param xslSource
+     * @param encoding   (default UTF-8)
+     * @throws JAXBException
+     * @throws TransformerException
+     * @throws IOException
+     */
+    public static void transform(List<ItemCollection> dataSource, String xslSource, String encoding,
+            OutputStream output) throws JAXBException, TransformerException, IOException {
+        transform((Iterable<ItemCollection>) dataSource, xslSource, encoding, output);
     }
 
     /**
@@ -147,20 +214,57 @@ public class XSLHandler {
      */
     public static void transform(ItemCollection dataSource, String xslSource, String encoding, OutputStream output)
             throws JAXBException, TransformerException, IOException {
+        XMLDocument xmlDocument = XMLDocumentAdapter.getDocument(dataSource);
+        XSLHandler.transform(new JAXBSource(getContext(), xmlDocument), xslSource, encoding, output);
+    }
 
-        // byte[] result=null;
-        if (encoding == null || encoding.isEmpty()) {
-            encoding = "UTF-8";
+    /**
+     * Returns the shared JAXBContext for the XMLDataCollection. The context is
+     * thread safe.
+     */
+    private static synchronized JAXBContext getContext() throws JAXBException {
+        if (jaxbContext == null) {
+            jaxbContext = JAXBContext.newInstance(XMLDataCollection.class);
         }
-        XMLDocument xmlDocument = XMLDocumentAdapter.getDocument(dataSource);
+        return jaxbContext;
+    }
+
+    /**
+     * A XMLReader generating the SAX events of a XMLDataCollection. The documents
+     * are converted and marshalled one after another.
+     */
+    private static class DataCollectionReader extends XMLFilterImpl {
+        private final Iterable<ItemCollection> dataSource;
+        private final JAXBContext context;
 
-        StringWriter writer = new StringWriter();
+        DataCollectionReader(Iterable<ItemCollection> dataSource, JAXBContext context) {
+            this.dataSource = dataSource;
+            this.context = context;
+        }
 
-        JAXBContext context = JAXBContext.newInstance(XMLDocument.class);
-        Marshaller m = context.createMarshaller();
-        m.setProperty("jaxb.encoding", encoding);
-        m.marshal(xmlDocument, writer);
+        @Override
+        public void parse(InputSource input) throws SAXException, IOException {
+            ContentHandler handler = getContentHandler();
+            handler.startDocument();
+            handler.startElement("", "data", "data", new AttributesImpl());
+            try {
+                Marshaller m = context.createMarshaller();
+                m.setProperty(Marshaller.JAXB_FRAGMENT, true);
+                for (ItemCollection document : dataSource) {
+                    if (document != null) {
+                        m.marshal(XMLDocumentAdapter.getDocument(document), handler);
+                    }
+                }
+            } catch (JAXBException e) {
+                throw new SAXException(e);
+            }
+            handler.endElement("", "data", "data");
+            handler.endDocument();
+        }
 
-        XSLHandler.transform(writer.toString(), xslSource, encoding, output);
+        @Override
+        public void parse(String systemId) throws SAXException, IOException {
+            parse(new InputSource(systemId));
+        }
     }
 }
@@ -1597,4 +1597,39 @@ public class TestItemCollection {
         assertEquals(2, workitem.getItemValue("c").size());
 
     }
+
+    /**
+     * Test the ItemName accessors and the null handling of lists injected by
+     * reference
+     */
+    @Test
+    public void testItemName() {
+        ItemName customName = ItemName.of(" MyItem ");
+        assertEquals("myitem", customName.getName());
+
+        ItemCollection workitem = new ItemCollection();
+        workitem.setValue(ItemName.TASKID, 100);
+        workitem.setValue(customName, "Anna");
+        workitem.appendValue(customName, "Manfred");
+
+        assertEquals(100, workitem.getTaskID());
+        assertEquals(100, workitem.getItemValueInteger("$TaskID"));
+        assertEquals(100L, workitem.getValueLong(ItemName.TASKID));
+        assertEquals("Anna", workitem.getItemValueString("myItem"));
+        assertEquals(2, workitem.getValue(customName).size());
+        assertTrue(workitem.contains(customName));
+
+        workitem.remove(customName);
+        assertFalse(workitem.hasItem("myitem"));
+
+        // null values of a referenced map are removed on read
+        Map<String, List<Object>> map = new HashMap<String, List<Object>>();
+        List<Object> values = new ArrayList<Object>();
+        values.add(null);
+        values.add("a");
+        map.put("txtname", values);
+        ItemCollection reference = ItemCollection.createByReference(map);
+        assertEquals(1, reference.getItemValue("txtname").size());
+        assertEquals("a", reference.getValueString(ItemName.of("txtName")));
+    }
 }
@@ -0,0 +1,105 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.bpmn;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import org.imixs.workflow.ItemCollection;
+import org.imixs.workflow.MockWorkflowContext;
+import org.imixs.workflow.ModelManager;
+import org.imixs.workflow.exceptions.ModelException;
+import org.imixs.workflow.exceptions.PluginException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openbpmn.bpmn.BPMNModel;
+import org.openbpmn.bpmn.exceptions.BPMNModelException;
+import org.openbpmn.bpmn.util.BPMNModelFactory;
+
+/**
+ * Test class to test the precompiled flow graph of the BPMNTransitionTable.
+ *
+ * @author rsoika
+ */
+public class TestBPMNTransitionTable {
+
+	BPMNTransitionTable sharedTable;
+	ModelManager modelManager = null;
+
+	@BeforeEach
+	public void setup() {
+		sharedTable = new BPMNTransitionTable("1.0.0");
+		try {
+			MockWorkflowContext workflowContext = new MockWorkflowContext() {
+				@Override
+				public BPMNTransitionTable findTransitionTable(String version) {
+					return sharedTable;
+				}
+			};
+			modelManager = new ModelManager(workflowContext);
+		} catch (PluginException e) {
+			fail(e.getMessage());
+		}
+	}
+
+	/**
+	 * Test the evaluation of a conditional flow. The compiled flow graph must be
+	 * evaluated for each workitem.
+	 */
+	@Test
+	public void testConditionalFlow() throws ModelException, BPMNModelException {
+		BPMNModel model = BPMNModelFactory.read("/bpmn/conditional_event1.bpmn");
+		ItemCollection workitem = new ItemCollection().model("1.0.0").task(1000).event(10);
+		ItemCollection event = modelManager.loadEvent(workitem, model);
+		assertNull(sharedTable.findTransition(event.getItemValueString("id")));
+
+		ItemCollection next = modelManager.nextModelElement(model, event, workitem);
+		assertEquals(1200, next.getItemValueInteger(BPMNUtil.TASK_ITEM_TASKID));
+		assertNotNull(sharedTable.findTransition(event.getItemValueString("id")));
+
+		// budget > 100
+		workitem.setItemValue("_budget", 1500.00);
+		next = modelManager.nextModelElement(model, event, workitem);
+		assertEquals(1100, next.getItemValueInteger(BPMNUtil.TASK_ITEM_TASKID));
+	}
+
+	/**
+	 * The table is shared by all model instances of the same version. Entities
+	 * returned by the ModelManager must be copies of the shared entities.
+	 */
+	@Test
+	public void testSharedEntities() throws BPMNModelException {
+		BPMNModel model1 = BPMNModelFactory.read("/bpmn/conditional_event1.bpmn");
+		BPMNModel model2 = BPMNModelFactory.read("/bpmn/conditional_event1.bpmn");
+		assertSame(sharedTable, modelManager.getTransitionTable(model1));
+		assertSame(sharedTable, modelManager.getTransitionTable(model2));
+
+		ItemCollection task1 = modelManager.findTaskByID(model1, 1000);
+		assertNotNull(sharedTable.getTask(1000));
+		task1.setItemValue(BPMNUtil.TASK_ITEM_NAME, "changed");
+
+		ItemCollection task2 = modelManager.findTaskByID(model2, 1000);
+		assertNotSame(task1, task2);
+		assertEquals("Task 1", task2.getItemValueString(BPMNUtil.TASK_ITEM_NAME));
+
+		assertEquals(1, modelManager.findEventsByTask(model2, 1000).size());
+		assertNotNull(sharedTable.getEventsByTask(1000));
+	}
+}
@@ -30,6 +30,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.imixs.workflow.ItemCollection;
+import org.imixs.workflow.KernelMetrics;
 import org.imixs.workflow.MockPlugin;
 import org.imixs.workflow.MockPluginNull;
 import org.imixs.workflow.MockWorkflowContext;
@@ -115,6 +116,47 @@ public class TestWorkflowKernelBasic {
 
     }
 
+    /**
+     * This test verifies that the WorkflowKernel reports the plugin execution time
+     * and the event loop to the KernelMetrics provided by the context.
+     */
+    @Test
+    public void testKernelMetrics() throws PluginException, ModelException {
+        List<String> measurements = new ArrayList<>();
+        KernelMetrics metrics = new KernelMetrics() {
+            @Override
+            public void onPluginRun(String plugin, String modelVersion, long nanos) {
+                measurements.add("plugin:" + plugin + ":" + modelVersion);
+            }
+
+            @Override
+            public void onAdapterExecute(String adapter, String modelVersion, long nanos) {
+                measurements.add("adapter:" + adapter + ":" + modelVersion);
+            }
+
+            @Override
+            public void onEventLoop(String modelVersion, int events, long nanos) {
+                measurements.add("eventloop:" + modelVersion + ":" + events);
+            }
+        };
+        MockWorkflowContext context = new MockWorkflowContext() {
+            @Override
+            public KernelMetrics getKernelMetrics() {
+                return metrics;
+            }
+        };
+        context.loadBPMNModelFromFile("/bpmn/simple.bpmn");
+        WorkflowKernel kernel = new WorkflowKernel(context);
+        kernel.registerPlugin(new MockPlugin());
+
+        ItemCollection workItem = new ItemCollection().model("1.0.0").task(1000).event(10);
+        kernel.process(workItem);
+
+        assertEquals(2, measurements.size());
+        assertEquals("plugin:" + MockPlugin.class.getName() + ":1.0.0", measurements.get(0));
+        assertEquals("eventloop:1.0.0:1", measurements.get(1));
+    }
+
     /**
      * This test tests an invalid $modelversion. In this case a ModelException is
      * expected.
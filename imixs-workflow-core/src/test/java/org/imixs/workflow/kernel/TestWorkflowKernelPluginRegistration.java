@@ -20,6 +20,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.imixs.workflow.MockPlugin;
@@ -174,4 +175,24 @@ public class TestWorkflowKernelPluginRegistration {
 
 	}
 
+	/**
+	 * Test registration of a pre-resolved plugin chain. The chain replaces all
+	 * plugins registered before.
+	 */
+	@Test
+	public void testRegisterPluginChain() {
+		WorkflowKernel kernel = new WorkflowKernel(workflowEngine);
+		try {
+			kernel.registerPlugin(new MockPlugin());
+			kernel.registerPlugins(Arrays.asList(new MockPlugin(), new MockPluginNull()));
+		} catch (PluginException e) {
+			fail(e.getMessage());
+		}
+		List<Plugin> plugins = kernel.getPluginRegistry();
+		assertEquals(2, plugins.size());
+		assertEquals(MockPlugin.class, plugins.get(0).getClass());
+		assertEquals(MockPluginNull.class, plugins.get(1).getClass());
+		assertTrue(kernel.getPluginInitTime() >= 0);
+	}
+
 }
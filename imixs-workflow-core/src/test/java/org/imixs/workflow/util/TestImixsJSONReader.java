@@ -0,0 +1,94 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.io.StringReader;
+
+import org.imixs.workflow.ItemCollection;
+import org.junit.jupiter.api.Test;
+
+import jakarta.json.stream.JsonParsingException;
+
+/**
+ * Test class for the streaming ImixsJSONReader
+ * 
+ * @author rsoika
+ */
+public class TestImixsJSONReader {
+
+	/**
+	 * Test reading a data element document by document
+	 */
+	@Test
+	public void testMultiDocuments() {
+		InputStream inputStream = getClass().getResourceAsStream("/json/multidocuments.json");
+		try (ImixsJSONReader reader = new ImixsJSONReader(inputStream)) {
+			assertTrue(reader.hasNext());
+			ItemCollection itemCol = reader.next();
+			assertEquals("Anna", itemCol.getItemValueString("$readaccess"));
+			assertEquals(3, itemCol.getItemValue("txtLog").size());
+			assertEquals(10, itemCol.getItemValueInteger("$ActivityID"));
+
+			assertTrue(reader.hasNext());
+			itemCol = reader.next();
+			assertEquals("Tom", itemCol.getItemValueString("$readaccess"));
+			assertEquals("F", itemCol.getItemValue("txtLog").get(2));
+
+			assertFalse(reader.hasNext());
+			assertEquals(2, reader.getCount());
+		}
+	}
+
+	/**
+	 * Test reading a single document and an array of documents
+	 */
+	@Test
+	public void testSingleDocumentAndArray() {
+		try (ImixsJSONReader reader = new ImixsJSONReader(getClass().getResourceAsStream("/json/simple.json"))) {
+			assertTrue(reader.hasNext());
+			assertEquals("Anna", reader.next().getItemValueString("$readaccess"));
+			assertFalse(reader.hasNext());
+		}
+
+		String json = "[{\"item\":[{\"name\":\"_a\",\"value\":{\"@type\":\"xs:int\",\"$\":\"1\"}}]},"
+				+ "{\"item\":[{\"name\":\"_a\",\"value\":{\"@type\":\"xs:int\",\"$\":\"2\"}}]}]";
+		try (ImixsJSONReader reader = new ImixsJSONReader(new StringReader(json))) {
+			assertEquals(1, reader.next().getItemValueInteger("_a"));
+			assertEquals(2, reader.next().getItemValueInteger("_a"));
+			assertFalse(reader.hasNext());
+		}
+	}
+
+	/**
+	 * A malformed document causes a JsonParsingException. Documents read before
+	 * are still returned.
+	 */
+	@Test
+	public void testMalformed() {
+		String json = "{\"data\":[{\"item\":[{\"name\":\"_a\",\"value\":{\"@type\":\"xs:int\",\"$\":\"1\"}}]},"
+				+ "{\"item\":[{\"name\":\"_a\",\"value\":{\"@type\":\"xs:int\" \"$\":\"2\"}}]}]}";
+		try (ImixsJSONReader reader = new ImixsJSONReader(new StringReader(json))) {
+			assertEquals(1, reader.next().getItemValueInteger("_a"));
+			assertThrows(JsonParsingException.class, () -> reader.hasNext());
+		}
+	}
+}
@@ -16,14 +16,19 @@
 package org.imixs.workflow.util;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.logging.Logger;
 
@@ -115,4 +120,50 @@ public class TestJSONBuilder {
 
 	}
 
+	/**
+	 * Test the escaping of special characters, empty items and the conversion of
+	 * dates.
+	 * 
+	 * @throws ParseException
+	 */
+	@Test
+	public void testEscapingAndDates() throws ParseException, IOException {
+		// dates are written in seconds
+		Date date = new Date((System.currentTimeMillis() / 1000) * 1000);
+		ItemCollection workitem = new ItemCollection();
+		workitem.setItemValue("_subject", "Say \"Hello\"\n\\World");
+		workitem.setItemValue("$modified", date);
+		workitem.setItemValue("_empty", new ArrayList<Object>());
+
+		String jsonResult = ImixsJSONBuilder.build(workitem);
+		List<ItemCollection> testItemColList = ImixsJSONParser
+				.parse(new ByteArrayInputStream(jsonResult.getBytes("UTF-8")));
+		assertEquals(1, testItemColList.size());
+		ItemCollection testItemCol = testItemColList.get(0);
+		assertEquals("Say \"Hello\"\n\\World", testItemCol.getItemValueString("_subject"));
+		assertEquals(date, testItemCol.getItemValueDate("$modified"));
+		assertFalse(testItemCol.hasItem("_empty"));
+	}
+
+	/**
+	 * Test writing a collection of documents into an output stream
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testBuildStream() throws IOException, ParseException {
+		List<ItemCollection> workitems = new ArrayList<ItemCollection>();
+		workitems.add(new ItemCollection().task(100).event(10));
+		workitems.add(new ItemCollection().task(200).event(20));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImixsJSONBuilder.build(workitems, out);
+		// the stream must not be closed
+		out.write(' ');
+
+		List<ItemCollection> testItemColList = ImixsJSONParser.parse(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(2, testItemColList.size());
+		assertEquals(200, testItemColList.get(1).getTaskID());
+	}
+
 }
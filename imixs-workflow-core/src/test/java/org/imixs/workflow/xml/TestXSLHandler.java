@@ -0,0 +1,98 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.xml;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.transform.TransformerException;
+
+import org.imixs.workflow.ItemCollection;
+import org.junit.jupiter.api.Test;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+
+/**
+ * Test class for the XSLHandler. The test verifies the transformation of
+ * documents streamed as SAX events and the cache of compiled templates.
+ * 
+ * @author rsoika
+ */
+public class TestXSLHandler {
+
+	private static final String XSL = "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>"
+			+ "<xsl:stylesheet xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\" version=\"1.0\">"
+			+ "<xsl:output method=\"text\" encoding=\"UTF-8\" />"
+			+ "<xsl:template match=\"/\">"
+			+ "<xsl:for-each select=\"data/document\">"
+			+ "<xsl:value-of select=\"item[@name='txtname']/value\" />:<xsl:value-of select=\"item[@name='_amount']/value\" />;"
+			+ "</xsl:for-each>"
+			+ "</xsl:template></xsl:stylesheet>";
+
+	private List<ItemCollection> createDataSource() {
+		List<ItemCollection> data = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			data.add(new ItemCollection().setItemValue("txtname", "Anna " + i).setItemValue("_amount", i * 10));
+		}
+		return data;
+	}
+
+	/**
+	 * The streamed data source must produce the same result as the marshalled
+	 * XMLDataCollection.
+	 */
+	@Test
+	public void testTransformDataSource() throws JAXBException, TransformerException, IOException {
+		List<ItemCollection> data = createDataSource();
+
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		XSLHandler.transform(data, XSL, "UTF-8", outputStream);
+		String result = outputStream.toString("UTF-8");
+		assertEquals("Anna 0:0;Anna 1:10;Anna 2:20;", result);
+
+		// compare with the marshalled xml string
+		StringWriter writer = new StringWriter();
+		Marshaller m = JAXBContext.newInstance(XMLDataCollection.class).createMarshaller();
+		m.marshal(XMLDataCollectionAdapter.getDataCollection(data), writer);
+		outputStream = new ByteArrayOutputStream();
+		XSLHandler.transform(writer.toString(), XSL, "UTF-8", outputStream);
+		assertEquals(result, outputStream.toString("UTF-8"));
+	}
+
+	@Test
+	public void testTransformDocument() throws JAXBException, TransformerException, IOException {
+		String xsl = XSL.replace("data/document", "document");
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		XSLHandler.transform(createDataSource().get(1), xsl, "UTF-8", outputStream);
+		assertEquals("Anna 1:10;", outputStream.toString("UTF-8"));
+	}
+
+	@Test
+	public void testTemplatesCache() throws IOException, TransformerException {
+		assertSame(XSLHandler.getTemplates(XSL, "UTF-8"), XSLHandler.getTemplates(XSL, null));
+		assertNotSame(XSLHandler.getTemplates(XSL, "UTF-8"),
+				XSLHandler.getTemplates(XSL.replace(";", ","), "UTF-8"));
+	}
+}
@@ -15,6 +15,11 @@
 
 package org.imixs.workflow.engine;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 import jakarta.annotation.PostConstruct;
@@ -24,6 +29,7 @@ import jakarta.annotation.security.RunAs;
 import jakarta.inject.Inject;
 
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.imixs.workflow.engine.jpa.EventLog;
 
 import jakarta.ejb.Singleton;
 import jakarta.ejb.Startup;
@@ -31,6 +37,8 @@ import jakarta.ejb.Timeout;
 import jakarta.ejb.Timer;
 import jakarta.ejb.TimerConfig;
 import jakarta.ejb.TimerService;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
 import java.util.logging.Level;
 
 import static org.imixs.workflow.engine.AsyncEventSchedulerConfig.*;
@@ -48,9 +56,27 @@ import static org.imixs.workflow.engine.AsyncEventSchedulerConfig.*;
  * In a clustered environment this timer runs in each cluster member that
  * contains the EJB. So this means the non-persistent EJB Timer scales
  * horizontal within a clustered environment – e.g. a Kubernetes cluster.
+ * <p>
+ * Per default the async events are processed one after another. With the
+ * property 'ASYNCEVENT_PROCESSOR_WORKERS' the events can be processed in
+ * parallel by asynchronous calls of the {@link AsyncEventWorker}. In this case
+ * the scheduler claims batches of due events ('ASYNCEVENT_PROCESSOR_BATCHSIZE')
+ * and assigns each event to a worker by the $uniqueid of its workitem. So the
+ * events of one workitem are always processed by the same worker in the order
+ * of their creation. Each event is processed in a separate transaction. The
+ * batch size is also used by the sequential processing.
+ * <p>
+ * With the property 'ASYNCEVENT_PROCESSOR_TIMERWHEEL' the due times of the
+ * async events are held in memory by the {@link AsyncEventTimer}. In this case
+ * each tick only advances the timer wheel and processes the events which became
+ * due. The EventLog table is polled only with the interval
+ * 'ASYNCEVENT_PROCESSOR_SAFETYNET' to pick up events created by other cluster
+ * members or missed by the wheel.
  *
  * @see AsyncEventService
- * @version 1.1
+ * @see AsyncEventWorker
+ * @see AsyncEventTimer
+ * @version 1.2
  * @author rsoika
  *
  */
@@ -82,6 +108,21 @@ public class AsyncEventScheduler {
     @ConfigProperty(name = ASYNCEVENT_PROCESSOR_DEADLOCK, defaultValue = "60000")
     long deadLockInterval;
 
+    // number of parallel workers
+    @Inject
+    @ConfigProperty(name = ASYNCEVENT_PROCESSOR_WORKERS, defaultValue = "1")
+    int workers;
+
+    // max number of events claimed in one batch
+    @Inject
+    @ConfigProperty(name = ASYNCEVENT_PROCESSOR_BATCHSIZE, defaultValue = "100")
+    int batchSize;
+
+    // polling interval in ms if the timer wheel is enabled
+    @Inject
+    @ConfigProperty(name = ASYNCEVENT_PROCESSOR_SAFETYNET, defaultValue = "60000")
+    long safetyNetInterval;
+
     private static final Logger logger = Logger.getLogger(AsyncEventScheduler.class.getName());
 
     @Resource
@@ -90,14 +131,27 @@ public class AsyncEventScheduler {
     @Inject
     AsyncEventService asyncEventService;
 
+    @Inject
+    AsyncEventWorker asyncEventWorker;
+
     @Inject
     EventLogService eventLogService;
 
+    @Inject
+    AsyncEventTimer asyncEventTimer;
+
+    // holds the counter of the claimed events not yet processed
+    @Inject
+    MetricService metricService;
+
+    // last poll of the EventLog table
+    private long lastPoll = 0;
+
     @PostConstruct
     public void init() {
         if (enabled) {
-            logger.log(Level.INFO, "Starting AsyncEventScheduler - initalDelay={0}  inverval={1} ....",
-                    new Object[]{initialDelay, interval});
+            logger.log(Level.INFO, "Starting AsyncEventScheduler - initalDelay={0}  inverval={1} workers={2} ....",
+                    new Object[]{initialDelay, interval, workers});
 
             // Registering a non-persistent Timer Service.
             final TimerConfig timerConfig = new TimerConfig();
@@ -113,12 +167,145 @@ public class AsyncEventScheduler {
      * <p>
      * Before processing the eventLog the method releases possible dead locks first.
      * Both methods are running in separate transactions
+     * <p>
+     * If the timer wheel is enabled, the method processes the events which became
+     * due since the last tick and polls the EventLog table only if the safety net
+     * interval has elapsed.
      * 
      */
     @Timeout
+    @TransactionAttribute(value = TransactionAttributeType.NOT_SUPPORTED)
     public void run(Timer timer) {
+        if (asyncEventTimer != null && asyncEventTimer.isEnabled()) {
+            if (!asyncEventTimer.isLoaded()) {
+                asyncEventTimer.load(eventLogService.findTimeoutsByTopic(EVENTLOG_TOPIC_ASYNC_EVENT));
+            }
+            long now = System.currentTimeMillis();
+            processDueEvents(asyncEventTimer.advance(now));
+            if (now - lastPoll < safetyNetInterval) {
+                return;
+            }
+            lastPoll = now;
+        }
         eventLogService.releaseDeadLocks(deadLockInterval, EVENTLOG_TOPIC_ASYNC_EVENT);
-        asyncEventService.processEventLog();
+        if (workers > 1) {
+            dispatchEventLog();
+        } else {
+            asyncEventService.processEventLog(batchSize > 0 ? batchSize : 100);
+        }
+    }
+
+    /**
+     * Processes the events fired by the timer wheel. At most one batch of events
+     * is processed per tick. The remaining events are scheduled for the next
+     * tick. Events which were removed or locked in the meantime are skipped.
+     * 
+     * @param ids - eventLog ids fired by the timer wheel
+     */
+    private void processDueEvents(List<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        int size = batchSize > 0 ? batchSize : 100;
+        long now = System.currentTimeMillis();
+        for (int i = size; i < ids.size(); i++) {
+            asyncEventTimer.schedule(ids.get(i), now);
+        }
+        List<EventLog> events = new ArrayList<>();
+        for (String id : ids.subList(0, Math.min(size, ids.size()))) {
+            EventLog event = eventLogService.getEvent(id);
+            if (event != null && EVENTLOG_TOPIC_ASYNC_EVENT.equals(event.getTopic())) {
+                events.add(event);
+            }
+        }
+        if (workers > 1) {
+            dispatch(events);
+        } else {
+            AtomicInteger pendingEvents = metricService.getPendingAsyncEvents();
+            pendingEvents.set(events.size());
+            asyncEventWorker.process(events, pendingEvents);
+        }
+    }
+
+    /**
+     * Claims batches of due async events and processes them by parallel workers.
+     * The method waits until all events of a batch are processed and continues
+     * with the next batch as long as the last batch was full and all events were
+     * processed without errors.
+     */
+    void dispatchEventLog() {
+        int size = batchSize > 0 ? batchSize : 100;
+        long l = System.currentTimeMillis();
+        int total = 0;
+        List<EventLog> events;
+        boolean failed = false;
+        do {
+            events = eventLogService.findEventsByTimeout(size, EVENTLOG_TOPIC_ASYNC_EVENT);
+            if (events.isEmpty()) {
+                break;
+            }
+            failed = !dispatch(events);
+            total += events.size();
+        } while (events.size() >= size && !failed);
+
+        if (total > 0 && logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, "...{0} AsyncEvents processed by {1} workers in {2}ms",
+                    new Object[] { total, workers, System.currentTimeMillis() - l });
+        }
+    }
+
+    /**
+     * Processes a batch of events by parallel workers and waits until all events
+     * are processed. Each shard is processed by an asynchronous call of the
+     * AsyncEventWorker, which calls the AsyncEventService with its own run-as
+     * identity.
+     * 
+     * @param events - list of due events
+     * @return true if all events were processed without errors
+     */
+    private boolean dispatch(List<EventLog> events) {
+        AtomicInteger pendingEvents = metricService.getPendingAsyncEvents();
+        pendingEvents.set(events.size());
+        int failures = 0;
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (List<EventLog> shard : shard(events, workers)) {
+            if (!shard.isEmpty()) {
+                futures.add(asyncEventWorker.processShard(shard, pendingEvents));
+            }
+        }
+        for (Future<Integer> future : futures) {
+            try {
+                failures += future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (ExecutionException e) {
+                logger.log(Level.SEVERE, "AsyncEvent worker failed: {0}", e.getCause().getMessage());
+                failures++;
+            }
+        }
+        pendingEvents.set(0);
+        return failures == 0;
+    }
+
+    /**
+     * Splits a list of events into shards by the $uniqueid of the workitem. The
+     * order of the events is preserved within each shard.
+     * 
+     * @param events - list of events
+     * @param count  - number of shards
+     * @return list of shards
+     */
+    static List<List<EventLog>> shard(List<EventLog> events, int count) {
+        List<List<EventLog>> shards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            shards.add(new ArrayList<>());
+        }
+        for (EventLog event : events) {
+            String ref = event.getRef();
+            shards.get(Math.floorMod(ref == null ? 0 : ref.hashCode(), count)).add(event);
+        }
+        return shards;
     }
 
 }
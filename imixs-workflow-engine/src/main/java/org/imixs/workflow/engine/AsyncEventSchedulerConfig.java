@@ -20,6 +20,10 @@ public class AsyncEventSchedulerConfig {
     public static final String ASYNCEVENT_PROCESSOR_INTERVAL = "asyncevent.processor.interval";
     public static final String ASYNCEVENT_PROCESSOR_INITIALDELAY = "asyncevent.processor.initialdelay";
     public static final String ASYNCEVENT_PROCESSOR_DEADLOCK = "asyncevent.processor.deadlock";
+    public static final String ASYNCEVENT_PROCESSOR_BATCHSIZE = "asyncevent.processor.batchsize";
+    public static final String ASYNCEVENT_PROCESSOR_WORKERS = "asyncevent.processor.workers";
+    public static final String ASYNCEVENT_PROCESSOR_TIMERWHEEL = "asyncevent.processor.timerwheel";
+    public static final String ASYNCEVENT_PROCESSOR_SAFETYNET = "asyncevent.processor.safetynet";
 
     public static final String EVENTLOG_TOPIC_ASYNC_EVENT = "async.event";
 }
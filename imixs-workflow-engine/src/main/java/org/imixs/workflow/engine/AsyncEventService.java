@@ -91,6 +91,12 @@ public class AsyncEventService {
     @Inject
     private WorkflowService workflowService;
 
+    @Inject
+    private MetricService metricService;
+
+    @Inject
+    private AsyncEventTimer asyncEventTimer;
+
     /**
      * The observer method verifies if the current task contains a AsyncEvent
      * definition.
@@ -127,8 +133,11 @@ public class AsyncEventService {
                     asyncEventData.setItemValue("timeDuration", boundaryDuration);
                     asyncEventData.setItemValue(WorkflowKernel.TRANSACTIONID,
                             processingEvent.getDocument().getItemValueString(WorkflowKernel.TRANSACTIONID));
-                    eventLogService.createEvent(EVENTLOG_TOPIC_ASYNC_EVENT,
+                    EventLog eventLog = eventLogService.createEvent(EVENTLOG_TOPIC_ASYNC_EVENT,
                             processingEvent.getDocument().getUniqueID(), asyncEventData, cal);
+                    if (asyncEventTimer != null) {
+                        asyncEventTimer.schedule(eventLog);
+                    }
 
                 }
             }
@@ -148,63 +157,29 @@ public class AsyncEventService {
      */
     @TransactionAttribute(value = TransactionAttributeType.REQUIRES_NEW)
     public void processEventLog() {
+        processEventLog(100);
+    }
+
+    /**
+     * The method lookups for batch event log entries and processed workitems in a
+     * batch process. The batch size is defined by the AsyncEventScheduler.
+     * 
+     * @param batchSize - max number of events processed in one batch
+     */
+    @TransactionAttribute(value = TransactionAttributeType.REQUIRES_NEW)
+    public void processEventLog(int batchSize) {
         long l = System.currentTimeMillis();
         boolean debug = logger.isLoggable(Level.FINE);
 
         // test for new event log entries by timeout...
-        List<EventLog> events = eventLogService.findEventsByTimeout(100,
+        List<EventLog> events = eventLogService.findEventsByTimeout(batchSize > 0 ? batchSize : 100,
                 EVENTLOG_TOPIC_ASYNC_EVENT);
 
         if (debug) {
             logger.log(Level.FINEST, "......found {0} eventLog entries", events.size());
         }
         for (EventLog eventLogEntry : events) {
-            try {
-                // first try to lock the eventLog entry....
-                if (eventLogService.lock(eventLogEntry)) {
-                    // now load the workitem
-                    ItemCollection workitem = workflowService.getWorkItem(eventLogEntry.getRef());
-                    if (workitem != null) {
-                        // process workitem....
-                        try {
-                            // get the data object
-                            ItemCollection syncEventData = new ItemCollection(eventLogEntry.getData());
-                            // verify the $transactionID
-                            // we only process the workitem if the last transactionID matches the
-                            // transactionID form the eventLog entry
-
-                            if (workitem.getItemValueString(WorkflowKernel.TRANSACTIONID)
-                                    .equals(syncEventData.getItemValueString(WorkflowKernel.TRANSACTIONID))) {
-                                // set the event id....
-                                workitem.setEventID(syncEventData.getEventID());
-                                workitem = workflowService.processWorkItemByNewTransaction(workitem);
-                            } else {
-                                // just a normal log message
-                                logger.log(Level.INFO,
-                                        "...AsyncEvent {0} for {1} is deprecated and will be removed. ({2} \u2260 {3}",
-                                        new Object[] { syncEventData.getEventID(), workitem.getUniqueID(),
-                                                workitem.getItemValueString(WorkflowKernel.TRANSACTIONID),
-                                                syncEventData.getItemValueString(WorkflowKernel.TRANSACTIONID) });
-                            }
-                            // finally remove the event log entry...
-                            eventLogService.removeEvent(eventLogEntry.getId());
-                        } catch (WorkflowException | InvalidAccessException | EJBException e) {
-                            // we also catch EJBExceptions here because we do not want to cancel the
-                            // ManagedScheduledExecutorService
-                            logger.log(Level.SEVERE, "AsyncEvent {0} processing failed: {1}",
-                                    new Object[] { workitem.getUniqueID(), e.getMessage() });
-                            // now we need to remove the batch event
-                            logger.log(Level.WARNING, "AsyncEvent {0} will be removed!", workitem.getUniqueID());
-                            eventLogService.removeEvent(eventLogEntry.getId());
-                        }
-                    }
-                }
-
-            } catch (OptimisticLockException e) {
-                // lock was not possible - continue....
-                logger.log(Level.INFO, "...unable to lock AsyncEvent: {0}", e.getMessage());
-            }
-
+            processEventLogEntry(eventLogEntry);
         }
 
         if (debug) {
@@ -213,4 +188,73 @@ public class AsyncEventService {
         }
     }
 
+    /**
+     * Processes a single async event in a new transaction. The method is used by
+     * the parallel dispatcher of the AsyncEventScheduler.
+     * 
+     * @param eventLogEntry - a due async event
+     */
+    @TransactionAttribute(value = TransactionAttributeType.REQUIRES_NEW)
+    public void processEvent(EventLog eventLogEntry) {
+        processEventLogEntry(eventLogEntry);
+    }
+
+    /**
+     * Locks the eventLog entry and processes the workitem with the event stored in
+     * the eventLog entry. Finally the eventLog entry is removed.
+     */
+    private void processEventLogEntry(EventLog eventLogEntry) {
+        long lProcessTime = System.nanoTime();
+        try {
+            // first try to lock the eventLog entry....
+            if (eventLogService.lock(eventLogEntry)) {
+                // now load the workitem
+                ItemCollection workitem = workflowService.getWorkItem(eventLogEntry.getRef());
+                if (workitem != null) {
+                    // process workitem....
+                    try {
+                        // get the data object
+                        ItemCollection syncEventData = new ItemCollection(eventLogEntry.getData());
+                        // verify the $transactionID
+                        // we only process the workitem if the last transactionID matches the
+                        // transactionID form the eventLog entry
+
+                        if (workitem.getItemValueString(WorkflowKernel.TRANSACTIONID)
+                                .equals(syncEventData.getItemValueString(WorkflowKernel.TRANSACTIONID))) {
+                            // set the event id....
+                            workitem.setEventID(syncEventData.getEventID());
+                            workitem = workflowService.processWorkItemByNewTransaction(workitem);
+                        } else {
+                            // just a normal log message
+                            logger.log(Level.INFO,
+                                    "...AsyncEvent {0} for {1} is deprecated and will be removed. ({2} \u2260 {3}",
+                                    new Object[] { syncEventData.getEventID(), workitem.getUniqueID(),
+                                            workitem.getItemValueString(WorkflowKernel.TRANSACTIONID),
+                                            syncEventData.getItemValueString(WorkflowKernel.TRANSACTIONID) });
+                        }
+                        // finally remove the event log entry...
+                        eventLogService.removeEvent(eventLogEntry.getId());
+                    } catch (WorkflowException | InvalidAccessException | EJBException e) {
+                        // we also catch EJBExceptions here because we do not want to cancel the
+                        // ManagedScheduledExecutorService
+                        logger.log(Level.SEVERE, "AsyncEvent {0} processing failed: {1}",
+                                new Object[] { workitem.getUniqueID(), e.getMessage() });
+                        // now we need to remove the batch event
+                        logger.log(Level.WARNING, "AsyncEvent {0} will be removed!", workitem.getUniqueID());
+                        eventLogService.removeEvent(eventLogEntry.getId());
+                    }
+                }
+                if (metricService != null && metricService.isEnabled()) {
+                    long delay = eventLogEntry.getTimeout() == null ? 0
+                            : System.currentTimeMillis() - eventLogEntry.getTimeout().getTimeInMillis();
+                    metricService.onAsyncEvent(delay, System.nanoTime() - lProcessTime);
+                }
+            }
+
+        } catch (OptimisticLockException e) {
+            // lock was not possible - continue....
+            logger.log(Level.INFO, "...unable to lock AsyncEvent: {0}", e.getMessage());
+        }
+    }
+
 }
@@ -0,0 +1,183 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.engine;
+
+import static org.imixs.workflow.engine.AsyncEventSchedulerConfig.ASYNCEVENT_PROCESSOR_ENABLED;
+import static org.imixs.workflow.engine.AsyncEventSchedulerConfig.ASYNCEVENT_PROCESSOR_INTERVAL;
+import static org.imixs.workflow.engine.AsyncEventSchedulerConfig.ASYNCEVENT_PROCESSOR_TIMERWHEEL;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.imixs.workflow.engine.jpa.EventLog;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * The AsyncEventTimer holds the due times of all async events in an in-memory
+ * {@link TimerWheel}. The AsyncEventScheduler advances the wheel with each tick
+ * and processes the events which became due. So the EventLog table no longer
+ * needs to be polled in each tick.
+ * <p>
+ * The wheel is loaded by the AsyncEventScheduler from the EventLog table with
+ * the first tick. New async events are added after the creating transaction was
+ * committed. Removed events are cancelled by the EventLogService.
+ * <p>
+ * The timer wheel is enabled by the property 'ASYNCEVENT_PROCESSOR_TIMERWHEEL'.
+ * The tick of the wheel is the interval of the AsyncEventScheduler.
+ * 
+ * @see AsyncEventScheduler
+ * @version 1.0
+ * @author rsoika
+ */
+@ApplicationScoped
+public class AsyncEventTimer {
+
+    private static final Logger logger = Logger.getLogger(AsyncEventTimer.class.getName());
+
+    @Inject
+    @ConfigProperty(name = ASYNCEVENT_PROCESSOR_ENABLED, defaultValue = "false")
+    boolean enabled;
+
+    @Inject
+    @ConfigProperty(name = ASYNCEVENT_PROCESSOR_TIMERWHEEL, defaultValue = "false")
+    boolean timerWheel;
+
+    // tick of the wheel in ms
+    @Inject
+    @ConfigProperty(name = ASYNCEVENT_PROCESSOR_INTERVAL, defaultValue = "1000")
+    long interval;
+
+    @Resource
+    TransactionSynchronizationRegistry transactionRegistry;
+
+    private TimerWheel wheel;
+    private volatile boolean loaded = false;
+
+    @PostConstruct
+    void init() {
+        wheel = new TimerWheel(interval > 0 ? interval : 1000, System.currentTimeMillis());
+    }
+
+    /**
+     * Returns true if the async event processor and the timer wheel are enabled.
+     */
+    public boolean isEnabled() {
+        return enabled && timerWheel;
+    }
+
+    /**
+     * Returns true if the wheel was loaded from the EventLog table.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Adds the due times of existing async events to the wheel.
+     * 
+     * @param timeouts - map of eventLog ids and their timeout
+     */
+    public void load(Map<String, Calendar> timeouts) {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Calendar> entry : timeouts.entrySet()) {
+            wheel.schedule(entry.getKey(), entry.getValue() == null ? now : entry.getValue().getTimeInMillis());
+        }
+        loaded = true;
+        logger.log(Level.INFO, "...AsyncEventTimer loaded {0} events", timeouts.size());
+    }
+
+    /**
+     * Adds a new async event to the wheel. Within a transaction the event is added
+     * after the transaction was committed, because the event is not visible for
+     * the scheduler before.
+     * 
+     * @param eventLog - new async event
+     */
+    public void schedule(EventLog eventLog) {
+        if (!isEnabled() || eventLog == null) {
+            return;
+        }
+        final String id = eventLog.getId();
+        final long due = eventLog.getTimeout() == null ? System.currentTimeMillis()
+                : eventLog.getTimeout().getTimeInMillis();
+        if (transactionRegistry != null && transactionRegistry.getTransactionKey() != null) {
+            transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                    // no op
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        wheel.schedule(id, due);
+                    }
+                }
+            });
+        } else {
+            wheel.schedule(id, due);
+        }
+    }
+
+    /**
+     * Adds an event id to the wheel without a transaction.
+     * 
+     * @param id  - eventLog id
+     * @param due - due time in milliseconds
+     */
+    public void schedule(String id, long due) {
+        wheel.schedule(id, due);
+    }
+
+    /**
+     * Removes an event from the wheel.
+     * 
+     * @param id - eventLog id
+     */
+    public void cancel(String id) {
+        if (isEnabled()) {
+            wheel.cancel(id);
+        }
+    }
+
+    /**
+     * Advances the wheel and returns the ids of all events which became due.
+     * 
+     * @param now - current time in milliseconds
+     * @return list of eventLog ids
+     */
+    public List<String> advance(long now) {
+        return wheel.advance(now);
+    }
+
+    /**
+     * Returns the number of scheduled events.
+     */
+    public int size() {
+        return wheel.size();
+    }
+}
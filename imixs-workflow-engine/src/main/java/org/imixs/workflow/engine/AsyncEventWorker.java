@@ -0,0 +1,97 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.engine;
+
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.imixs.workflow.engine.jpa.EventLog;
+
+import jakarta.annotation.security.DeclareRoles;
+import jakarta.annotation.security.RunAs;
+import jakarta.ejb.AsyncResult;
+import jakarta.ejb.Asynchronous;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.inject.Inject;
+
+/**
+ * The AsyncEventWorker processes a shard of async events for the parallel
+ * dispatcher of the AsyncEventScheduler.
+ * <p>
+ * The shards are processed by asynchronous EJB calls. So each worker runs on a
+ * thread of the container and calls the AsyncEventService with the run-as
+ * identity of this bean, independent of the security context propagated to
+ * the worker thread.
+ * 
+ * @see AsyncEventScheduler
+ * @version 1.0
+ * @author rsoika
+ *
+ */
+@DeclareRoles({ "org.imixs.ACCESSLEVEL.MANAGERACCESS" })
+@RunAs("org.imixs.ACCESSLEVEL.MANAGERACCESS")
+@Stateless
+public class AsyncEventWorker {
+
+    private static final Logger logger = Logger.getLogger(AsyncEventWorker.class.getName());
+
+    @Inject
+    AsyncEventService asyncEventService;
+
+    /**
+     * Processes the events of one shard one after another. Each event is processed
+     * in a new transaction.
+     * 
+     * @param shard   - list of events
+     * @param pending - counter of the claimed events not yet processed
+     * @return number of events failed
+     */
+    @Asynchronous
+    @TransactionAttribute(value = TransactionAttributeType.NOT_SUPPORTED)
+    public Future<Integer> processShard(List<EventLog> shard, AtomicInteger pending) {
+        return new AsyncResult<Integer>(process(shard, pending));
+    }
+
+    /**
+     * Processes the events of one shard in the current thread.
+     * 
+     * @param shard   - list of events
+     * @param pending - counter of the claimed events not yet processed
+     * @return number of events failed
+     */
+    @TransactionAttribute(value = TransactionAttributeType.NOT_SUPPORTED)
+    public int process(List<EventLog> shard, AtomicInteger pending) {
+        int failures = 0;
+        for (EventLog event : shard) {
+            try {
+                asyncEventService.processEvent(event);
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "AsyncEvent {0} processing failed: {1}",
+                        new Object[] { event.getRef(), e.getMessage() });
+                failures++;
+            } finally {
+                pending.decrementAndGet();
+            }
+        }
+        return failures;
+    }
+
+}
@@ -24,8 +24,11 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.Vector;
 import java.util.logging.Level;
@@ -34,6 +37,7 @@ import java.util.logging.Logger;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.imixs.workflow.ItemCollection;
 import org.imixs.workflow.WorkflowKernel;
+import org.imixs.workflow.engine.index.Aggregate;
 import org.imixs.workflow.engine.index.DefaultOperator;
 import org.imixs.workflow.engine.index.SearchService;
 import org.imixs.workflow.engine.index.SortOrder;
@@ -56,6 +60,7 @@ import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.FlushModeType;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Query;
 import jakarta.xml.bind.JAXBException;
@@ -174,6 +179,9 @@ public class DocumentService {
 	@Inject
 	protected Event<UserGroupEvent> userGroupEvents;
 
+	@Inject
+	private MetricService metricService;
+
 	@Inject
 	@ConfigProperty(name = "index.defaultOperator", defaultValue = "AND")
 	private String indexDefaultOperator;
@@ -345,8 +353,26 @@ public class DocumentService {
 	 * @throws AccessDeniedException
 	 */
 	public ItemCollection save(ItemCollection document) throws AccessDeniedException {
+		return save(document, true);
+	}
+
+	/**
+	 * This Method saves an ItemCollection into the database. If the param
+	 * 'updateIndex' is false, no index eventLog entry is created for the document.
+	 * In this case the caller is responsible to update the index after the
+	 * transaction was committed - e.g. by calling the UpdateService method
+	 * <code>updateIndex(List)</code> for a whole block of documents. This is used by
+	 * bulk operations like AdminP jobs to avoid one eventLog entry per document.
+	 * 
+	 * @see save(ItemCollection)
+	 * @param document    - ItemCollection to be saved
+	 * @param updateIndex - false if no index eventLog entry should be created
+	 * @return updated ItemCollection
+	 * @throws AccessDeniedException
+	 */
+	public ItemCollection save(ItemCollection document, boolean updateIndex) throws AccessDeniedException {
 		boolean debug = logger.isLoggable(Level.FINE);
-		long lSaveTime = System.currentTimeMillis();
+		long lSaveTime = System.nanoTime();
 		if (debug) {
 			logger.log(Level.FINEST, "......save - ID={0}, provided version={1}",
 					new Object[] { document.getUniqueID(), document.getItemValueInteger(VERSION) });
@@ -489,7 +515,9 @@ public class DocumentService {
 
 		// add/update document into lucene index
 		if (!document.getItemValueBoolean(NOINDEX)) {
-			addDocumentToIndex(document);
+			if (updateIndex) {
+				addDocumentToIndex(document);
+			}
 		} else {
 			// remove from index
 			removeDocumentFromIndex(document.getUniqueID());
@@ -504,7 +532,11 @@ public class DocumentService {
 
 		if (debug) {
 			logger.log(Level.FINE, "...''{0}'' saved in {1}ms",
-					new Object[] { document.getUniqueID(), System.currentTimeMillis() - lSaveTime });
+					new Object[] { document.getUniqueID(), (System.nanoTime() - lSaveTime) / 1000000 });
+		}
+		if (metricService != null && metricService.isEnabled()) {
+			metricService.onDocument(MetricService.METHOD_SAVE, System.nanoTime() - lSaveTime,
+					persistedDocument.getData());
 		}
 		// return the updated document
 		return document;
@@ -568,6 +600,127 @@ public class DocumentService {
 		return save(itemcol);
 	}
 
+	/**
+	 * This method applies a list of item-level changes to an existing document.
+	 * In different to the method save() the changes are applied directly to the
+	 * data of the managed Document entity. The document is neither copied nor
+	 * merged with a full ItemCollection provided by the client.
+	 * <p>
+	 * If a version is provided, the method verifies the version against the
+	 * persisted $version of the document and throws an OptimisticLockException if
+	 * the versions do not match. The DocumentEvent ON_DOCUMENT_SAVE is fired with
+	 * a reference to the patched data.
+	 * <p>
+	 * Protected items like '$writeaccess', '$owner' or '$taskid' can only be
+	 * patched by a caller in the role MANAGERACCESS (see ItemPatch.isProtected).
+	 * Otherwise an author could extend the access lists or change the workflow
+	 * status without processing the workitem.
+	 * <p>
+	 * The method returns an ItemCollection containing only the patched items and
+	 * the items $uniqueid, $modified, $version and $isauthor. Removed items are
+	 * returned with an empty value list.
+	 * 
+	 * @param id       - the $uniqueid of the document
+	 * @param version  - expected $version of the document, or null to skip the
+	 *                 version check
+	 * @param patches  - list of item changes
+	 * @return ItemCollection with the changed items or null if the document does
+	 *         not exist or the caller has no read access
+	 * @throws AccessDeniedException   - if the caller has no write access, the
+	 *                                 document is immutable or a protected item
+	 *                                 is patched by a non-manager
+	 * @throws OptimisticLockException - if the version does not match
+	 */
+	public ItemCollection patch(String id, Integer version, List<ItemPatch> patches) throws AccessDeniedException {
+		long lPatchTime = System.nanoTime();
+		if (id == null || id.isEmpty()) {
+			return null;
+		}
+		manager.setFlushMode(FlushModeType.COMMIT);
+		Document persistedDocument = manager.find(Document.class, id);
+		if (persistedDocument == null || !isCallerReader(persistedDocument)) {
+			return null;
+		}
+		if (!isCallerAuthor(persistedDocument)) {
+			throw new AccessDeniedException(OPERATION_NOTALLOWED, "You are not allowed to perform this operation");
+		}
+		if (!isUserInRole(ACCESSLEVEL_MANAGERACCESS)) {
+			for (ItemPatch patch : patches) {
+				if (ItemPatch.isProtected(patch.getName())) {
+					throw new AccessDeniedException(OPERATION_NOTALLOWED,
+							"You are not allowed to patch the item '" + patch.getName() + "'");
+				}
+			}
+		}
+		// the patch is applied by reference to the managed data
+		ItemCollection document = ItemCollection.createByReference(persistedDocument.getData());
+		if (document.getItemValueBoolean(IMMUTABLE)) {
+			throw new AccessDeniedException(OPERATION_NOTALLOWED, "Operation not allowed, document is immutable!");
+		}
+		if (version != null && !disableOptimisticLocking && !version.equals(persistedDocument.getVersion())) {
+			throw new OptimisticLockException("document '" + id + "' was modified - expected version " + version
+					+ " but found " + persistedDocument.getVersion());
+		}
+
+		Set<String> patchedItems = new LinkedHashSet<String>();
+		for (ItemPatch patch : patches) {
+			patch.apply(document);
+			patchedItems.add(patch.getName());
+		}
+		document.removeItem(ISAUTHOR);
+		String aType = document.getItemValueString("type");
+		if (aType.isEmpty()) {
+			aType = "document";
+			document.replaceItemValue("type", aType);
+		}
+		persistedDocument.setType(aType);
+		Calendar cal = Calendar.getInstance();
+		persistedDocument.setModified(cal);
+		document.replaceItemValue("$modified", cal.getTime());
+
+		if (documentEvents != null) {
+			documentEvents.fire(new DocumentEvent(document, DocumentEvent.ON_DOCUMENT_SAVE));
+		} else {
+			logger.warning("Missing CDI support for Event<DocumentEvent> !");
+		}
+		if (!persistedDocument.getId().equals(document.getUniqueID())) {
+			throw new InvalidAccessException(InvalidAccessException.INVALID_ID,
+					"Invalid data after DocumentEvent 'ON_DOCUMENT_SAVE'.");
+		}
+		// a new map reference marks the data field as modified without a deep copy
+		persistedDocument.setData(new HashMap<String, List<Object>>(persistedDocument.getData()));
+		// In different to save() (see issue #226) we flush here. A patch is a single
+		// request in its own transaction. The flush increments the $version returned
+		// to the client (ETag) and raises an OptimisticLockException within this
+		// method if a concurrent transaction changed the document.
+		manager.flush();
+
+		if (!document.getItemValueBoolean(NOINDEX)) {
+			addDocumentToIndex(document);
+		} else {
+			removeDocumentFromIndex(document.getUniqueID());
+		}
+		persistedDocument.setPending(true);
+
+		// collect the changed items
+		ItemCollection result = new ItemCollection();
+		ItemCollection patchedDocument = ItemCollection.createByReference(persistedDocument.getData());
+		for (String itemName : patchedItems) {
+			result.replaceItemValue(itemName, patchedDocument.getItemValue(itemName));
+		}
+		result.replaceItemValue(WorkflowKernel.UNIQUEID, persistedDocument.getId());
+		updateMetaData(result, persistedDocument);
+
+		if (logger.isLoggable(Level.FINE)) {
+			logger.log(Level.FINE, "...''{0}'' patched {1} in {2}ms",
+					new Object[] { id, patches, (System.nanoTime() - lPatchTime) / 1000000 });
+		}
+		if (metricService != null && metricService.isEnabled()) {
+			metricService.onDocument(MetricService.METHOD_PATCH, System.nanoTime() - lPatchTime, null);
+		}
+		return result;
+	}
+
 	/**
 	 * This method loads an ItemCollection from the Database. The method expects a
 	 * valid $uniqueID to identify the Document entity saved before into the
@@ -600,12 +753,13 @@ public class DocumentService {
 	 */
 	public ItemCollection load(String id) {
 		boolean debug = logger.isLoggable(Level.FINE);
-		long lLoadTime = System.currentTimeMillis();
+		long lLoadTime = System.nanoTime();
 		Document persistedDocument = null;
 
 		if (id == null || id.isEmpty()) {
 			return null;
 		}
+
 		persistedDocument = manager.find(Document.class, id);
 
 		// create instance of ItemCollection
@@ -636,13 +790,29 @@ public class DocumentService {
 			}
 			if (debug) {
 				logger.log(Level.FINE, "...''{0}'' loaded in {1}ms",
-						new Object[] { result.getUniqueID(), System.currentTimeMillis() - lLoadTime });
+						new Object[] { result.getUniqueID(), (System.nanoTime() - lLoadTime) / 1000000 });
+			}
+			if (metricService != null && metricService.isEnabled()) {
+				metricService.onDocument(MetricService.METHOD_LOAD, System.nanoTime() - lLoadTime,
+						persistedDocument.getData());
 			}
 			return result;
 		} else
 			return null;
 	}
 
+	/**
+	 * Flushes the index event log and reports the flush time to the
+	 * MetricService.
+	 */
+	private void flushIndex() {
+		long lFlushTime = System.nanoTime();
+		indexUpdateService.updateIndex();
+		if (metricService != null) {
+			metricService.onIndexFlush(System.nanoTime() - lFlushTime);
+		}
+	}
+
 	/**
 	 * This method removes an ItemCollection from the database. If the
 	 * CallerPrincipal is not allowed to access the ItemColleciton the method throws
@@ -745,8 +915,13 @@ public class DocumentService {
 	 * @throws QueryException in case the searchterm is not understandable.
 	 */
 	public int count(String sSearchTerm, int maxResult) throws QueryException {
-		indexUpdateService.updateIndex();
-		return indexSearchService.getTotalHits(sSearchTerm, maxResult, null);
+		flushIndex();
+		long lSearchTime = System.nanoTime();
+		int result = indexSearchService.getTotalHits(sSearchTerm, maxResult, null);
+		if (metricService != null) {
+			metricService.onIndexSearch(MetricService.METHOD_COUNT, System.nanoTime() - lSearchTime);
+		}
+		return result;
 	}
 
 	/**
@@ -835,7 +1010,7 @@ public class DocumentService {
 		}
 
 		// flush eventlog (see issue #411)
-		indexUpdateService.updateIndex();
+		flushIndex();
 
 		// evaluate default index operator
 		DefaultOperator defaultOperator = null;
@@ -845,7 +1020,13 @@ public class DocumentService {
 		} else {
 			defaultOperator = DefaultOperator.AND;
 		}
-		return indexSearchService.search(searchTerm, pageSize, pageIndex, sortOrder, defaultOperator, false);
+		long lSearchTime = System.nanoTime();
+		List<ItemCollection> result = indexSearchService.search(searchTerm, pageSize, pageIndex, sortOrder,
+				defaultOperator, false);
+		if (metricService != null) {
+			metricService.onIndexSearch(MetricService.METHOD_SEARCH, System.nanoTime() - lSearchTime);
+		}
+		return result;
 
 	}
 
@@ -892,7 +1073,7 @@ public class DocumentService {
 		}
 
 		// flush eventlog (see issue #411)
-		indexUpdateService.updateIndex();
+		flushIndex();
 
 		// evaluate default index operator
 		DefaultOperator defaultOperator = null;
@@ -904,8 +1085,99 @@ public class DocumentService {
 		}
 
 		// find stubs only!
-		return indexSearchService.search(searchTerm, pageSize, pageIndex, sortOrder, defaultOperator, true);
+		long lSearchTime = System.nanoTime();
+		List<ItemCollection> result = indexSearchService.search(searchTerm, pageSize, pageIndex, sortOrder,
+				defaultOperator, true);
+		if (metricService != null) {
+			metricService.onIndexSearch(MetricService.METHOD_SEARCH, System.nanoTime() - lSearchTime);
+		}
+		return result;
+
+	}
+
+	/**
+	 * The method returns the next page of documents or document stubs matching a
+	 * search term, ordered by their $uniqueid. The page starts after the $uniqueid
+	 * of the last document of the previous page. With this keyset paging a client
+	 * can iterate over large result sets page by page with constant costs per page
+	 * - e.g. to export the data of a report.
+	 * <p>
+	 * The method returns only ItemCollections which are readable by the
+	 * CallerPrincipal.
+	 * 
+	 * @param searchTerm   - Lucene search term
+	 * @param pageSize     - total docs per page
+	 * @param lastUniqueId - $uniqueid of the last document of the previous page or
+	 *                     null for the first page
+	 * @param loadStubs    - if true only the items stored in the search index are
+	 *                     returned
+	 * @return list of ItemCollection elements
+	 * @throws QueryException
+	 * 
+	 * @see org.imixs.workflow.engine.index.SearchService#searchAfter
+	 */
+	@TransactionAttribute(value = TransactionAttributeType.REQUIRES_NEW)
+	public List<ItemCollection> findAfter(String searchTerm, int pageSize, String lastUniqueId, boolean loadStubs)
+			throws QueryException {
+		logger.log(Level.FINEST, "......findAfter - SearchTerm={0}  , pageSize={1} lastUniqueId={2}",
+				new Object[] { searchTerm, pageSize, lastUniqueId });
+
+		// flush eventlog (see issue #411)
+		flushIndex();
+
+		// evaluate default index operator
+		DefaultOperator defaultOperator = null;
+		if (indexDefaultOperator != null && "OR".equals(indexDefaultOperator.toUpperCase())) {
+			defaultOperator = DefaultOperator.OR;
+		} else {
+			defaultOperator = DefaultOperator.AND;
+		}
+		long lSearchTime = System.nanoTime();
+		List<ItemCollection> result = indexSearchService.searchAfter(searchTerm, pageSize, lastUniqueId,
+				defaultOperator, loadStubs);
+		if (metricService != null) {
+			metricService.onIndexSearch(MetricService.METHOD_SEARCH, System.nanoTime() - lSearchTime);
+		}
+		return result;
+	}
+
+	/**
+	 * The method computes an aggregation over all documents matching a search
+	 * term. The documents are grouped by the values of the groupBy items and for
+	 * each group the given measures are computed. The method returns one
+	 * ItemCollection per group. No document is loaded.
+	 * <p>
+	 * Only documents readable by the CallerPrincipal are aggregated.
+	 * 
+	 * @param searchTerm - Lucene search term
+	 * @param groupBy    - list of items to group the result
+	 * @param measures   - list of measures to be computed per group
+	 * @return aggregated result table
+	 * @throws QueryException
+	 * 
+	 * @see org.imixs.workflow.engine.index.SearchService#aggregate
+	 */
+	public List<ItemCollection> aggregate(String searchTerm, List<String> groupBy, List<Aggregate> measures)
+			throws QueryException {
+		logger.log(Level.FINEST, "......aggregate - SearchTerm={0}  , groupBy={1} measures={2}",
+				new Object[] { searchTerm, groupBy, measures });
+
+		// flush eventlog (see issue #411)
+		flushIndex();
 
+		// evaluate default index operator
+		DefaultOperator defaultOperator = null;
+		if (indexDefaultOperator != null && "OR".equals(indexDefaultOperator.toUpperCase())) {
+			defaultOperator = DefaultOperator.OR;
+		} else {
+			defaultOperator = DefaultOperator.AND;
+		}
+		long lSearchTime = System.nanoTime();
+		List<ItemCollection> result = indexSearchService.aggregate(searchTerm, groupBy, measures, defaultOperator);
+		if (metricService != null) {
+			metricService.onIndexSearch(MetricService.METHOD_AGGREGATE, System.nanoTime() - lSearchTime);
+		}
+		return result;
 	}
 
 	/**
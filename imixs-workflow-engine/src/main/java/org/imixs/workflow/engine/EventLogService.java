@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
@@ -28,10 +29,12 @@ import org.imixs.workflow.ItemCollection;
 import org.imixs.workflow.engine.jpa.EventLog;
 
 import jakarta.annotation.security.DeclareRoles;
+import jakarta.annotation.security.PermitAll;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.ejb.Stateless;
 import jakarta.ejb.TransactionAttribute;
 import jakarta.ejb.TransactionAttributeType;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.FlushModeType;
 import jakarta.persistence.PersistenceContext;
@@ -81,6 +84,12 @@ public class EventLogService {
     @PersistenceContext(unitName = "org.imixs.workflow.jpa")
     private EntityManager manager;
 
+    @Inject
+    private MetricService metricService;
+
+    @Inject
+    private AsyncEventTimer asyncEventTimer;
+
     private static final Logger logger = Logger.getLogger(EventLogService.class.getName());
 
     /**
@@ -157,6 +166,9 @@ public class EventLogService {
         if (debug) {
             logger.log(Level.FINEST, "......created new eventLog ''{0}'' => {1}", new Object[] { refID, topic });
         }
+        if (metricService != null) {
+            metricService.onEventLogTopic(topic);
+        }
         return eventLog;
     }
 
@@ -235,6 +247,25 @@ public class EventLogService {
 
     }
 
+    /**
+     * Returns the timeouts of all events of a given topic. The method does not
+     * load the event data.
+     * 
+     * @param topic - the topic
+     * @return map of eventLog ids and their timeout
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Calendar> findTimeoutsByTopic(String topic) {
+        Map<String, Calendar> result = new LinkedHashMap<>();
+        Query q = manager.createQuery(
+                "SELECT eventlog.id, eventlog.timeout FROM EventLog AS eventlog WHERE eventlog.topic = :topic");
+        q.setParameter("topic", topic);
+        for (Object[] row : (List<Object[]>) q.getResultList()) {
+            result.put((String) row[0], (Calendar) row[1]);
+        }
+        return result;
+    }
+
     /**
      * Finds events for one or many given topics assigned to a given document
      * reference ($uniqueId). The method returns an empty list if no event log
@@ -306,6 +337,23 @@ public class EventLogService {
 
     }
 
+    /**
+     * Counts the event log entries of a topic. The method is used by the
+     * MetricService to report the backlog of a topic. As the metric endpoint may
+     * be read without an authenticated user, the method is permitted to all
+     * callers. It returns the count only.
+     * 
+     * @param topic - the topic
+     * @return number of event log entries
+     */
+    @PermitAll
+    public long countEventsByTopic(String topic) {
+        Query q = manager
+                .createQuery("SELECT COUNT(eventlog) FROM EventLog AS eventlog WHERE eventlog.topic = :topic");
+        q.setParameter("topic", topic);
+        return (Long) q.getSingleResult();
+    }
+
     /**
      * Deletes an existing eventLog. The method catches
      * jakarta.persistence.OptimisticLockException as this may occur during parallel
@@ -321,6 +369,9 @@ public class EventLogService {
             eventLog = manager.find(EventLog.class, eventLog.getId());
         }
         if (eventLog != null) {
+            if (asyncEventTimer != null) {
+                asyncEventTimer.cancel(eventLog.getId());
+            }
             try {
                 manager.remove(eventLog);
             } catch (jakarta.persistence.OptimisticLockException e) {
@@ -346,6 +397,9 @@ public class EventLogService {
         eventLog = manager.find(EventLog.class, id);
 
         if (eventLog != null) {
+            if (asyncEventTimer != null) {
+                asyncEventTimer.cancel(eventLog.getId());
+            }
             try {
                 manager.remove(eventLog);
             } catch (jakarta.persistence.OptimisticLockException e) {
@@ -365,7 +419,9 @@ public class EventLogService {
      */
     public EventLog getEvent(String id) {
         EventLog eventLog = manager.find(EventLog.class, id);
-        manager.detach(eventLog);
+        if (eventLog != null) {
+            manager.detach(eventLog);
+        }
         return eventLog;
     }
 
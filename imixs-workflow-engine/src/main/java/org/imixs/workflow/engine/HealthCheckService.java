@@ -37,6 +37,9 @@ import jakarta.inject.Inject;
  * Example:
  * <code>{"data":{"model.count":1},"name":"imixs-workflow","state":"UP"}</code>
  * <p>
+ * The data 'model.init.time' gives the duration of the model initialization at
+ * startup in milliseconds.
+ * <p>
  * This check indicates the overall status of the workflow engine. If models are
  * available also database access and security works.
  * 
@@ -70,11 +73,13 @@ public class HealthCheckService implements HealthCheck {
     public HealthCheckResponse call() {
         HealthCheckResponseBuilder builder = null;
         int modelCount = 0;
+        long modelInitTime = 0;
         boolean failure = false;
         boolean databaseFailure = false;
         boolean indexFailure = false;
         try {
             modelCount = setupService.getModelVersionCount();
+            modelInitTime = setupService.getModelInitTime();
 
         } catch (Exception e) {
             // failed!
@@ -92,7 +97,7 @@ public class HealthCheckService implements HealthCheck {
 
         if (!failure) {
             builder = HealthCheckResponse.named("imixs-workflow").withData("engine.version", getWorkflowVersion())
-                    .withData("model.versions", modelCount)
+                    .withData("model.versions", modelCount).withData("model.init.time", modelInitTime)
                     .withData("database.status", "ok").withData("index.status", "ok").up();
         } else {
             builder = HealthCheckResponse.named("imixs-workflow");
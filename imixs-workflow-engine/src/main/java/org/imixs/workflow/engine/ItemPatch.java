@@ -0,0 +1,139 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.imixs.workflow.ItemCollection;
+
+/**
+ * An ItemPatch describes a single item-level change of a document. A patch
+ * either sets the values of an item, appends values to an item or removes an
+ * item. A list of patches is applied by the DocumentService method
+ * <code>patch()</code> directly to the persisted data of a document.
+ * <p>
+ * The items '$uniqueid', '$created', '$modified', '$version' and '$isauthor'
+ * are controlled by the DocumentService and can not be patched. System items
+ * starting with '$' and the legacy access and workflow items are protected and
+ * can only be patched by a manager.
+ *
+ * @see DocumentService#patch
+ * @version 1.0
+ */
+public class ItemPatch {
+
+    public static final String SET = "set";
+    public static final String APPEND = "append";
+    public static final String REMOVE = "remove";
+
+    private static final List<String> RESERVED_ITEMS = Arrays.asList("$uniqueid", "$created", "$modified",
+            "$version", "$isauthor");
+
+    private static final List<String> PROTECTED_ITEMS = Arrays.asList("namowner", "namcreator",
+            "namownershipnames", "namaddreadaccess", "namaddwriteaccess", "txtworkflowstatus", "txtworkflowgroup");
+
+    private String operation;
+    private String name;
+    private List<Object> values;
+
+    /**
+     * Creates a new patch.
+     * 
+     * @param operation One of the operations set, append or remove.
+     * @param name      Name of the item; cannot be <code>null</code>.
+     * @param values    Values to set or append; ignored for remove.
+     * @throws IllegalArgumentException if the operation is not supported or the
+     *                                  item can not be patched
+     */
+    public ItemPatch(String operation, String name, List<?> values) {
+        this.operation = operation == null ? "" : operation.toLowerCase().trim();
+        this.name = name.toLowerCase().trim();
+        this.values = values == null ? new ArrayList<Object>() : new ArrayList<Object>(values);
+        if (!SET.equals(this.operation) && !APPEND.equals(this.operation) && !REMOVE.equals(this.operation)) {
+            throw new IllegalArgumentException("unsupported patch operation '" + operation + "'");
+        }
+        if (this.name.isEmpty() || isReserved(this.name)) {
+            throw new IllegalArgumentException("item '" + name + "' can not be patched");
+        }
+    }
+
+    /**
+     * Returns true if the given item is controlled by the DocumentService and can
+     * not be patched.
+     */
+    public static boolean isReserved(String name) {
+        return name != null && RESERVED_ITEMS.contains(name.toLowerCase().trim());
+    }
+
+    /**
+     * Returns true if the given item is a system item (starting with '$') or a
+     * legacy access or workflow item. Such items control the access and the
+     * workflow status of a document and can only be patched by a manager.
+     */
+    public static boolean isProtected(String name) {
+        if (name == null) {
+            return false;
+        }
+        String itemName = name.toLowerCase().trim();
+        return itemName.startsWith("$") || PROTECTED_ITEMS.contains(itemName);
+    }
+
+    public static ItemPatch set(String name, List<?> values) {
+        return new ItemPatch(SET, name, values);
+    }
+
+    public static ItemPatch append(String name, List<?> values) {
+        return new ItemPatch(APPEND, name, values);
+    }
+
+    public static ItemPatch remove(String name) {
+        return new ItemPatch(REMOVE, name, null);
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Object> getValues() {
+        return values;
+    }
+
+    /**
+     * Applies the patch to the given document.
+     * 
+     * @param document - document to be changed
+     */
+    public void apply(ItemCollection document) {
+        if (REMOVE.equals(operation)) {
+            document.removeItem(name);
+        } else if (APPEND.equals(operation)) {
+            document.appendItemValue(name, values);
+        } else {
+            document.replaceItemValue(name, values);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return operation + " " + name + (REMOVE.equals(operation) ? "" : " " + values);
+    }
+}
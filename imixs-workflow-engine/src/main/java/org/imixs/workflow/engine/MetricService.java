@@ -0,0 +1,369 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.engine;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.Tag;
+import org.imixs.workflow.KernelMetrics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+
+/**
+ * The MetricService provides timers and counters of the processing pipeline
+ * based on the Microprofile Metric API. The metrics are exported by the metric
+ * endpoint of the application server.
+ * <p>
+ * The service is disabled per default. To enable the metrics set the property
+ * 'metrics.enabled' to 'true'. If the service is disabled, the WorkflowKernel
+ * takes no measurements and all other services skip their measurements after a
+ * single flag check.
+ * <p>
+ * The following metrics are provided:
+ * <ul>
+ * <li>plugin.run - timer of the run method per plugin and model version</li>
+ * <li>adapter.execute - timer of the execute method per adapter and model
+ * version</li>
+ * <li>kernel.process - timer of the event loop per model version</li>
+ * <li>kernel.events - histogram of the events processed by the event loop per
+ * model version</li>
+ * <li>model.fetch - timer of the model instances fetched by the
+ * WorkflowService</li>
+ * <li>model.parse - timer of the models parsed during initialization</li>
+ * <li>document - timer of the document load and save operations</li>
+ * <li>document.size - histogram of the serialized document size in bytes
+ * (optional)</li>
+ * <li>index.flush - timer of the index update by the index event log</li>
+ * <li>index.search - timer of the index searches</li>
+ * <li>eventlog.backlog - gauge of the event log entries per topic</li>
+ * <li>asyncevent.process - timer of the processing of async events</li>
+ * <li>asyncevent.delay - histogram of the delay between the due time and the
+ * processing of async events in milliseconds</li>
+ * <li>asyncevent.pending - gauge of the async events claimed by the
+ * AsyncEventScheduler and not yet processed by the workers</li>
+ * </ul>
+ * <p>
+ * The document size is computed by serializing the item map of a document.
+ * Because this costs about as much as the database write itself, the metric is
+ * only recorded if the property 'metrics.documentsize.enabled' is set to
+ * 'true'.
+ * 
+ * @see org.imixs.workflow.KernelMetrics
+ * @author rsoika
+ * @version 1.0
+ */
+@ApplicationScoped
+public class MetricService implements KernelMetrics {
+
+    public static final String METRICS_ENABLED = "metrics.enabled";
+    public static final String METRICS_DOCUMENTSIZE_ENABLED = "metrics.documentsize.enabled";
+
+    public static final String METHOD_LOAD = "load";
+    public static final String METHOD_SAVE = "save";
+    public static final String METHOD_PATCH = "patch";
+    public static final String METHOD_SEARCH = "search";
+    public static final String METHOD_COUNT = "count";
+    public static final String METHOD_AGGREGATE = "aggregate";
+
+    private static final Metadata PLUGIN_RUN = Metadata.builder().withName("plugin.run")
+            .withDescription("Execution time of the plugin run method").build();
+    private static final Metadata ADAPTER_EXECUTE = Metadata.builder().withName("adapter.execute")
+            .withDescription("Execution time of the adapter execute method").build();
+    private static final Metadata KERNEL_PROCESS = Metadata.builder().withName("kernel.process")
+            .withDescription("Execution time of the event loop of a processing life cycle").build();
+    private static final Metadata KERNEL_EVENTS = Metadata.builder().withName("kernel.events")
+            .withDescription("Number of events processed in one processing life cycle").build();
+    private static final Metadata MODEL_FETCH = Metadata.builder().withName("model.fetch")
+            .withDescription("Time to fetch a model instance").build();
+    private static final Metadata MODEL_PARSE = Metadata.builder().withName("model.parse")
+            .withDescription("Time to parse a model during initialization").build();
+    private static final Metadata DOCUMENT = Metadata.builder().withName("document")
+            .withDescription("Latency of document load and save operations").build();
+    private static final Metadata DOCUMENT_SIZE = Metadata.builder().withName("document.size")
+            .withDescription("Serialized size of loaded and saved documents").withUnit(MetricUnits.BYTES).build();
+    private static final Metadata INDEX_FLUSH = Metadata.builder().withName("index.flush")
+            .withDescription("Time to flush the index event log").build();
+    private static final Metadata INDEX_SEARCH = Metadata.builder().withName("index.search")
+            .withDescription("Latency of index searches").build();
+    private static final Metadata ASYNCEVENT_PROCESS = Metadata.builder().withName("asyncevent.process")
+            .withDescription("Time to process an async event").build();
+    private static final Metadata ASYNCEVENT_DELAY = Metadata.builder().withName("asyncevent.delay")
+            .withDescription("Delay between the due time and the processing of an async event")
+            .withUnit(MetricUnits.MILLISECONDS).build();
+    private static final Metadata ASYNCEVENT_PENDING = Metadata.builder().withName("asyncevent.pending")
+            .withDescription("Claimed async events not yet processed").build();
+    private static final Metadata EVENTLOG_BACKLOG = Metadata.builder().withName("eventlog.backlog")
+            .withDescription("Number of event log entries per topic").build();
+
+    private static final Logger logger = Logger.getLogger(MetricService.class.getName());
+
+    @Inject
+    @ConfigProperty(name = METRICS_ENABLED, defaultValue = "false")
+    boolean enabled;
+
+    @Inject
+    @ConfigProperty(name = METRICS_DOCUMENTSIZE_ENABLED, defaultValue = "false")
+    boolean documentSizeEnabled;
+
+    @Inject
+    Instance<MetricRegistry> metricRegistries;
+
+    @Inject
+    EventLogService eventLogService;
+
+    private MetricRegistry metricRegistry = null;
+    private final Set<String> eventLogTopics = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger pendingAsyncEvents = new AtomicInteger();
+
+    /**
+     * Resolves the application metric registry. If the application server does
+     * not provide a registry, the service is disabled. The backlog gauges of the
+     * event log topics used by the engine are registered at startup.
+     */
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        if (metricRegistries != null && metricRegistries.isResolvable()) {
+            metricRegistry = metricRegistries.get();
+            logger.info("...metrics enabled");
+            onEventLogTopic(DocumentService.EVENTLOG_TOPIC_INDEX_ADD);
+            onEventLogTopic(DocumentService.EVENTLOG_TOPIC_INDEX_REMOVE);
+            onEventLogTopic(AsyncEventSchedulerConfig.EVENTLOG_TOPIC_ASYNC_EVENT);
+            metricRegistry.gauge(ASYNCEVENT_PENDING, pendingAsyncEvents::get);
+        } else {
+            logger.warning("...metrics enabled, but no MetricRegistry available - metrics are disabled!");
+            enabled = false;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled && metricRegistry != null;
+    }
+
+    @Override
+    public void onPluginRun(String plugin, String modelVersion, long nanos) {
+        if (isEnabled()) {
+            metricRegistry.timer(PLUGIN_RUN, tag("plugin", plugin), tag("modelversion", modelVersion))
+                    .update(Duration.ofNanos(nanos));
+        }
+    }
+
+    @Override
+    public void onAdapterExecute(String adapter, String modelVersion, long nanos) {
+        if (isEnabled()) {
+            metricRegistry.timer(ADAPTER_EXECUTE, tag("adapter", adapter), tag("modelversion", modelVersion))
+                    .update(Duration.ofNanos(nanos));
+        }
+    }
+
+    @Override
+    public void onEventLoop(String modelVersion, int events, long nanos) {
+        if (isEnabled()) {
+            Tag version = tag("modelversion", modelVersion);
+            metricRegistry.timer(KERNEL_PROCESS, version).update(Duration.ofNanos(nanos));
+            metricRegistry.histogram(KERNEL_EVENTS, version).update(events);
+        }
+    }
+
+    /**
+     * Reports the time to fetch a model instance
+     * 
+     * @param modelVersion - model version
+     * @param nanos        - duration in nanoseconds
+     */
+    public void onModelFetch(String modelVersion, long nanos) {
+        if (isEnabled()) {
+            metricRegistry.timer(MODEL_FETCH, tag("modelversion", modelVersion)).update(Duration.ofNanos(nanos));
+        }
+    }
+
+    /**
+     * Reports the time to parse a model during initialization
+     * 
+     * @param nanos - duration in nanoseconds
+     */
+    public void onModelParse(long nanos) {
+        if (isEnabled()) {
+            metricRegistry.timer(MODEL_PARSE).update(Duration.ofNanos(nanos));
+        }
+    }
+
+    /**
+     * Reports the latency of a document operation and optional the size of the
+     * document data. The size is only computed if the document size metric is
+     * enabled.
+     * 
+     * @param method - load, save or patch
+     * @param nanos  - duration in nanoseconds
+     * @param data   - the item map read from or written to the database, or null
+     *               if the document was not read from the database
+     */
+    public void onDocument(String method, long nanos, Map<String, List<Object>> data) {
+        if (isEnabled()) {
+            Tag tag = tag("method", method);
+            metricRegistry.timer(DOCUMENT, tag).update(Duration.ofNanos(nanos));
+            if (documentSizeEnabled && data != null) {
+                long size = sizeOf(data);
+                if (size >= 0) {
+                    metricRegistry.histogram(DOCUMENT_SIZE, tag).update(size);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reports the time to flush the index event log
+     * 
+     * @param nanos - duration in nanoseconds
+     */
+    public void onIndexFlush(long nanos) {
+        if (isEnabled()) {
+            metricRegistry.timer(INDEX_FLUSH).update(Duration.ofNanos(nanos));
+        }
+    }
+
+    /**
+     * Reports the latency of an index search
+     * 
+     * @param method - search, count or aggregate
+     * @param nanos  - duration in nanoseconds
+     */
+    public void onIndexSearch(String method, long nanos) {
+        if (isEnabled()) {
+            metricRegistry.timer(INDEX_SEARCH, tag("method", method)).update(Duration.ofNanos(nanos));
+        }
+    }
+
+    /**
+     * Reports the processing of an async event
+     * 
+     * @param delay - delay between the due time and the processing in
+     *              milliseconds
+     * @param nanos - duration in nanoseconds
+     */
+    public void onAsyncEvent(long delay, long nanos) {
+        if (isEnabled()) {
+            metricRegistry.timer(ASYNCEVENT_PROCESS).update(Duration.ofNanos(nanos));
+            metricRegistry.histogram(ASYNCEVENT_DELAY).update(Math.max(0, delay));
+        }
+    }
+
+    /**
+     * Returns the counter of the async events claimed by the AsyncEventScheduler
+     * and not yet processed by the workers. The counter is held by this service
+     * and not by the scheduler, because the singleton scheduler holds its lock
+     * during the whole dispatch. So the gauge 'asyncevent.pending' can be read
+     * while the events are processed.
+     * 
+     * @return counter of the pending async events
+     */
+    public AtomicInteger getPendingAsyncEvents() {
+        return pendingAsyncEvents;
+    }
+
+    /**
+     * Registers a gauge reporting the backlog of the given event log topic. The
+     * topics used by the engine are registered at startup, other topics are
+     * registered when the first event log entry is created. The backlog is counted
+     * in the database by the EventLogService each time the metric endpoint is
+     * read.
+     * 
+     * @param topic - event log topic
+     */
+    public void onEventLogTopic(String topic) {
+        if (isEnabled() && topic != null && eventLogTopics.add(topic)) {
+            metricRegistry.gauge(EVENTLOG_BACKLOG, () -> countEventLogEntries(topic), tag("topic", topic));
+        }
+    }
+
+    /**
+     * Counts the event log entries of a topic. The query is executed by the
+     * EventLogService in a container managed transaction.
+     */
+    private Long countEventLogEntries(String topic) {
+        try {
+            return eventLogService.countEventsByTopic(topic);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "...failed to count eventlog entries for topic ''{0}'': {1}",
+                    new Object[] { topic, e.getMessage() });
+            return 0L;
+        }
+    }
+
+    /**
+     * Returns the serialized size of an item map in bytes, or -1 if the map can
+     * not be serialized.
+     * <p>
+     * The map is serialized into a stream counting the bytes only. The result
+     * matches the size of the data stored by the Document entity.
+     * 
+     * @param data - item map
+     * @return size in bytes
+     */
+    public static long sizeOf(Map<String, List<Object>> data) {
+        ByteCounter counter = new ByteCounter();
+        try (ObjectOutputStream out = new ObjectOutputStream(counter)) {
+            out.writeObject(data);
+        } catch (IOException e) {
+            logger.log(Level.FINE, "...unable to compute document size: {0}", e.getMessage());
+            return -1;
+        }
+        return counter.count;
+    }
+
+    /**
+     * Creates a tag. Empty values are replaced by 'none'.
+     */
+    private static Tag tag(String name, String value) {
+        return new Tag(name, (value == null || value.isEmpty()) ? "none" : value);
+    }
+
+    /**
+     * OutputStream counting the written bytes
+     */
+    private static class ByteCounter extends OutputStream {
+        private long count = 0;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
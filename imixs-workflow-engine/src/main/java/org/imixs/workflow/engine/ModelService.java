@@ -21,11 +21,17 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
-import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -35,9 +41,11 @@ import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.imixs.workflow.FileData;
 import org.imixs.workflow.ItemCollection;
 import org.imixs.workflow.WorkflowKernel;
+import org.imixs.workflow.bpmn.BPMNTransitionTable;
 import org.imixs.workflow.bpmn.BPMNUtil;
 import org.imixs.workflow.exceptions.AccessDeniedException;
 import org.imixs.workflow.exceptions.ModelException;
@@ -49,8 +57,11 @@ import org.openbpmn.bpmn.util.BPMNModelFactory;
 import jakarta.annotation.Resource;
 import jakarta.annotation.security.DeclareRoles;
 import jakarta.annotation.security.RolesAllowed;
+import jakarta.ejb.Lock;
+import jakarta.ejb.LockType;
 import jakarta.ejb.SessionContext;
 import jakarta.ejb.Singleton;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
 import jakarta.inject.Inject;
 
 /**
@@ -77,15 +88,37 @@ public class ModelService {
 
     private static final Logger logger = Logger.getLogger(ModelService.class.getName());
 
+    // maximum number of parsed item structures cached per model version
+    public static final int MAX_CACHED_ITEM_STRUCTURES = 1000;
+
+    public static final String MODEL_INIT_WORKERS = "model.init.workers";
+
     // BPMNModel store
     private final ConcurrentHashMap<String, BPMNModelData> modelDataStore = new ConcurrentHashMap<>();
 
+    // index of model versions and workflow groups
+    private volatile ModelVersionIndex versionIndex = new ModelVersionIndex(Collections.emptyMap());
+
     @Inject
     protected DocumentService documentService;
 
+    @Inject
+    protected MetricService metricService;
+
     @Resource
     protected SessionContext ctx;
 
+    @Resource
+    ManagedExecutorService executorService;
+
+    // number of parallel workers parsing the models
+    @Inject
+    @ConfigProperty(name = MODEL_INIT_WORKERS, defaultValue = "4")
+    int initWorkers;
+
+    // duration of the last model initialization in ms
+    private volatile long initTime = 0;
+
     public ModelService() {
         super();
     }
@@ -94,50 +127,53 @@ public class ModelService {
      * This method loads all existing Model Entities from the database and adds the
      * BPMNModel objects into the ModelManager.
      * <p>
+     * The BPMN files are parsed in parallel by a ManagedExecutorService. The number
+     * of parallel workers is defined by the property 'model.init.workers'. The
+     * parsed models are added in the order of the model entities.
+     * <p>
      * The method also checks the stored models for duplicates and removes
      * deprecated duplicated model entities from the database.
      * 
      * @throws AccessDeniedException
      */
     public void initModels() throws AccessDeniedException {
-        boolean debug = logger.isLoggable(Level.FINE);
+        long lInitTime = System.currentTimeMillis();
         logger.info("├── initializing models...");
         // cleard all old versions
         modelDataStore.clear();
+        rebuildVersionIndex();
 
         // first remove existing model entities
         Collection<ItemCollection> col = documentService.getDocumentsByType("model");
         logger.finest("...found " + col.size() + " model entities");
-        List<ItemCollection> deprecatedModelEntities = new ArrayList<>();
+        List<ModelFile> modelFiles = new ArrayList<>();
         for (ItemCollection modelEntity : col) {
             logger.finest(".. " + modelEntity.getItemValueString("name") + " created -> "
                     + modelEntity.getItemValueDate("$created"));
-            List<FileData> files = modelEntity.getFileData();
-            for (FileData file : files) {
-                if (debug) {
-                    logger.log(Level.FINEST, "......loading file:{0}", file.getName());
-                }
-                byte[] rawData = file.getContent();
-                InputStream bpmnInputStream = new ByteArrayInputStream(rawData);
-                try {
-                    BPMNModel model = BPMNModelFactory.read(bpmnInputStream);
-                    String version = BPMNUtil.getVersion(model);
-                    // test if model is a deprecated duplicate entry!
-                    if (this.hasModelVersion(version)) {
-                        logger.warning("│   ├── duplicated Model Entity found (" + modelEntity.getUniqueID()
-                                + ") for model version '" + version
-                                + "' - entity will be removed!");
-                        deprecatedModelEntities.add(modelEntity);
-                    } else {
-                        logger.log(Level.INFO, "│   ├── loaded model: {0} ▶ {1}  ({2})", new Object[] { file.getName(),
-                                BPMNUtil.getVersion(model), modelEntity.getUniqueID() });
-                        // Add the model into the ModelService
-                        this.addModelData(version, model, modelEntity);
-                    }
-                } catch (BPMNModelException e) {
-                    logger.log(Level.WARNING, "Failed to load model ''{0}'' : {1}",
-                            new Object[] { file.getName(), e.getMessage() });
-                }
+            for (FileData file : modelEntity.getFileData()) {
+                modelFiles.add(new ModelFile(modelEntity, file));
+            }
+        }
+        parseModelFiles(modelFiles);
+
+        List<ItemCollection> deprecatedModelEntities = new ArrayList<>();
+        for (ModelFile modelFile : modelFiles) {
+            if (modelFile.model == null) {
+                continue;
+            }
+            ItemCollection modelEntity = modelFile.modelEntity;
+            String version = BPMNUtil.getVersion(modelFile.model);
+            // test if model is a deprecated duplicate entry!
+            if (this.hasModelVersion(version)) {
+                logger.warning("│   ├── duplicated Model Entity found (" + modelEntity.getUniqueID()
+                        + ") for model version '" + version
+                        + "' - entity will be removed!");
+                deprecatedModelEntities.add(modelEntity);
+            } else {
+                logger.log(Level.INFO, "│   ├── loaded model: {0} ▶ {1}  ({2})", new Object[] {
+                        modelFile.file.getName(), version, modelEntity.getUniqueID() });
+                // Add the model into the ModelService
+                this.addModelData(version, modelFile.model, modelEntity);
             }
         }
 
@@ -147,6 +183,94 @@ public class ModelService {
                 documentService.remove(deprecatedEntry);
             }
         }
+        initTime = System.currentTimeMillis() - lInitTime;
+        logger.log(Level.INFO, "├── {0} models initialized in {1}ms",
+                new Object[] { modelDataStore.size(), initTime });
+    }
+
+    /**
+     * Returns the duration of the last model initialization in milliseconds.
+     */
+    @Lock(LockType.READ)
+    public long getInitTime() {
+        return initTime;
+    }
+
+    /**
+     * Parses the BPMN files of the model entities. If a ManagedExecutorService is
+     * available, the files are parsed by parallel workers. Each worker takes the
+     * next file from a shared queue, so the number of parsed files in parallel is
+     * bounded by the number of workers.
+     */
+    private void parseModelFiles(List<ModelFile> modelFiles) {
+        int workers = Math.min(initWorkers, modelFiles.size());
+        if (executorService == null || workers <= 1) {
+            for (ModelFile modelFile : modelFiles) {
+                parseModelFile(modelFile);
+            }
+            return;
+        }
+        Queue<ModelFile> queue = new ConcurrentLinkedQueue<>(modelFiles);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < workers; i++) {
+                futures.add(executorService.submit(() -> {
+                    ModelFile modelFile;
+                    while ((modelFile = queue.poll()) != null) {
+                        parseModelFile(modelFile);
+                    }
+                }));
+            }
+        } catch (RejectedExecutionException e) {
+            logger.log(Level.WARNING, "Failed to start model workers: {0}", e.getMessage());
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                logger.log(Level.WARNING, "Model worker failed: {0}", e.getCause().getMessage());
+            }
+        }
+        // parse remaining files
+        ModelFile modelFile;
+        while ((modelFile = queue.poll()) != null) {
+            parseModelFile(modelFile);
+        }
+    }
+
+    /**
+     * Parses a single BPMN file and pre initializes all processes within the
+     * model.
+     */
+    private void parseModelFile(ModelFile modelFile) {
+        if (logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINEST, "......loading file:{0}", modelFile.file.getName());
+        }
+        InputStream bpmnInputStream = new ByteArrayInputStream(modelFile.file.getContent());
+        try {
+            long lParseTime = System.nanoTime();
+            BPMNModel model = BPMNModelFactory.read(bpmnInputStream);
+            if (metricService != null) {
+                metricService.onModelParse(System.nanoTime() - lParseTime);
+            }
+            modelFile.model = model;
+        } catch (BPMNModelException e) {
+            logger.log(Level.WARNING, "Failed to load model ''{0}'' : {1}",
+                    new Object[] { modelFile.file.getName(), e.getMessage() });
+            return;
+        }
+        // pre open all processes
+        try {
+            for (BPMNProcess process : modelFile.model.getProcesses()) {
+                process.init();
+            }
+        } catch (BPMNModelException e) {
+            // the processes are opened again by addModelData
+            logger.log(Level.FINE, "Failed to open process: {0}", e.getMessage());
+        }
     }
 
     /**
@@ -196,7 +320,7 @@ public class ModelService {
         }
 
         modelDataStore.put(version, new BPMNModelData(version, model, metadata));
-
+        rebuildVersionIndex();
     }
 
     /**
@@ -259,6 +383,7 @@ public class ModelService {
         FileData fileData = modelData.metadata.getFileData().get(0);
         InputStream inputStream = new ByteArrayInputStream(fileData.getContent());
         BPMNModel modelClone;
+        long lFetchTime = System.nanoTime();
         try {
             // create a new instance of BPMNModel
             modelClone = BPMNModelFactory.read(inputStream);
@@ -266,6 +391,9 @@ public class ModelService {
             throw new ModelException(ModelException.INVALID_ID,
                     "Failed to get model, BPMN raw data invalid for model version: '" + version + "'", e);
         }
+        if (metricService != null) {
+            metricService.onModelFetch(version, System.nanoTime() - lFetchTime);
+        }
         return modelClone;
 
     }
@@ -275,6 +403,97 @@ public class ModelService {
      */
     public void removeModelData(String version) {
         modelDataStore.remove(version);
+        rebuildVersionIndex();
+    }
+
+    /**
+     * Rebuilds the index of model versions and workflow groups from the current
+     * model store.
+     */
+    private void rebuildVersionIndex() {
+        Map<String, Set<String>> versionGroups = new HashMap<>();
+        for (Map.Entry<String, BPMNModelData> entry : modelDataStore.entrySet()) {
+            Set<String> groups = new HashSet<>();
+            for (BPMNProcess _process : entry.getValue().bpmnModel.getProcesses()) {
+                groups.add(_process.getName());
+            }
+            versionGroups.put(entry.getKey(), groups);
+        }
+        versionIndex = new ModelVersionIndex(versionGroups);
+    }
+
+    /**
+     * Returns a parsed item structure cached for the given model version, or null
+     * if no structure was cached for the given key yet.
+     * <p>
+     * Item structures are parsed from static XML definitions of a model (e.g. the
+     * workflow result of a BPMN event). As the model data does not change between
+     * deployments, the parsed structure can be reused for all processing calls.
+     * The cache is bound to the model version and is discarded together with the
+     * model data.
+     * <p>
+     * The method returns a copy of the cached structure to protect the cache
+     * against manipulation.
+     * 
+     * @param version - model version
+     * @param key     - cache key, typically the tag name and the XML definition
+     * @return copy of the cached item structure or null if not cached
+     */
+    public ItemCollection findItemStructure(String version, String key) {
+        if (version == null || key == null) {
+            return null;
+        }
+        BPMNModelData modelData = modelDataStore.get(version);
+        if (modelData == null) {
+            return null;
+        }
+        ItemCollection structure = modelData.itemStructureCache.get(key);
+        if (structure != null) {
+            return (ItemCollection) structure.clone();
+        }
+        return null;
+    }
+
+    /**
+     * Caches a parsed item structure for the given model version. The method
+     * ignores the structure if the model version is not part of the model store or
+     * the cache limit of the model version is reached. This protects the cache
+     * against definitions with dynamic content.
+     * 
+     * @param version   - model version
+     * @param key       - cache key, typically the tag name and the XML definition
+     * @param structure - parsed item structure
+     */
+    public void cacheItemStructure(String version, String key, ItemCollection structure) {
+        if (version == null || key == null || structure == null) {
+            return;
+        }
+        BPMNModelData modelData = modelDataStore.get(version);
+        if (modelData != null && modelData.itemStructureCache.size() < MAX_CACHED_ITEM_STRUCTURES) {
+            modelData.itemStructureCache.putIfAbsent(key, (ItemCollection) structure.clone());
+        }
+    }
+
+    /**
+     * Returns the {@link BPMNTransitionTable} of the given model version, or null
+     * if the model version is not part of the model store.
+     * <p>
+     * The table holds the precompiled Task and Event entities and flow graphs of
+     * the model and is shared by all processing calls. The table is discarded
+     * together with the model data.
+     * 
+     * @param version - model version
+     * @return shared transition table or null
+     */
+    public BPMNTransitionTable findTransitionTable(String version) {
+        if (version == null) {
+            return null;
+        }
+        BPMNModelData modelData = modelDataStore.get(version);
+        if (modelData == null) {
+            return null;
+        }
+        return modelData.transitionTable;
     }
 
     /**
@@ -297,65 +516,45 @@ public class ModelService {
      * @param group
      * @return
      */
+    @Lock(LockType.READ)
     public List<String> findAllWorkflowGroups() {
-        List<String> result = new ArrayList<String>();
-        for (Map.Entry<String, BPMNModelData> entry : modelDataStore.entrySet()) {
-            BPMNModelData modelData = entry.getValue();
-            BPMNModel model = modelData.bpmnModel;
-            Set<BPMNProcess> processList = model.getProcesses();
-            for (BPMNProcess _process : processList) {
-                String name = _process.getName();
-                if (!result.contains(name)) {
-                    result.add(name);
-                }
-            }
-        }
-        // sort result
-        Collections.sort(result);
-        return result;
+        return new ArrayList<>(versionIndex.getWorkflowGroups());
     }
 
     /**
-     * Returns a version by Group. The method computes a sorted list of all model
-     * versions containing the requested workflow group. The result is sorted in
-     * reverse order, so the highest version number is the first in the result list.
+     * Returns a version by Group. The method returns the highest model version
+     * containing the requested workflow group. The versions are resolved from the
+     * version index of the model store.
      * 
      * @param group - name of the workflow group
-     * @return list of matching model versions
+     * @return highest matching model version
      * @throws ModelException
      */
-    // @Override
+    @Lock(LockType.READ)
     public String findVersionByGroup(String group) throws ModelException {
-        boolean debug = logger.isLoggable(Level.FINE);
-        // Sorted in reverse order
-        Set<String> result = new TreeSet<>(String.CASE_INSENSITIVE_ORDER.reversed());
-        if (debug) {
-            logger.log(Level.FINEST, "......searching model versions for workflowgroup ''{0}''...", group);
-        }
-        // try to find matching model version by group
-        for (Map.Entry<String, BPMNModelData> entry : modelDataStore.entrySet()) {
-            BPMNModelData modelData = entry.getValue();
-            BPMNModel model = modelData.bpmnModel;
-            Set<BPMNProcess> processList = model.getProcesses();
-            for (BPMNProcess _process : processList) {
-                String name = _process.getName();
-                if (group.equals(name)) {
-                    result.add(entry.getKey());
-                }
-            }
-        }
-
-        if (result.size() > 0) {
-            // return first match
-            return result.iterator().next();
+        String version = versionIndex.findVersionByGroup(group);
+        if (version != null) {
+            return version;
         }
-
         // not found
         throw new ModelException(ModelException.INVALID_ID,
                 "Failed to find version for group '" + group + "', no matching model available.");
 
     }
 
+    /**
+     * Returns the highest model version matching a given regular expression or
+     * null if no version matches. The result is memorized until a model is added
+     * or removed.
+     * 
+     * @param modelRegex - regular expression for a model version
+     * @return highest matching model version or null
+     */
+    @Lock(LockType.READ)
+    public String findVersionByRegEx(String modelRegex) {
+        return versionIndex.findVersionByRegEx(modelRegex);
+    }
+
     /**
      * This method saves a BPMNModel into the database and adds the model into the
      * internal model store.
@@ -466,12 +665,31 @@ public class ModelService {
         ItemCollection metadata;
         BPMNModel bpmnModel;
         String version;
+        // parsed item structures of static model definitions
+        final Map<String, ItemCollection> itemStructureCache = new ConcurrentHashMap<>();
+        // precompiled flow graph of the model
+        final BPMNTransitionTable transitionTable;
 
         public BPMNModelData(String version, BPMNModel model, ItemCollection metadata) {
             this.metadata = metadata;
             this.bpmnModel = model;
             this.version = version;
+            this.transitionTable = new BPMNTransitionTable(version);
         }
 
     }
+
+    /**
+     * A BPMN file of a model entity and its parsed model
+     */
+    private static class ModelFile {
+        final ItemCollection modelEntity;
+        final FileData file;
+        BPMNModel model;
+
+        ModelFile(ItemCollection modelEntity, FileData file) {
+            this.modelEntity = modelEntity;
+            this.file = file;
+        }
+    }
 }
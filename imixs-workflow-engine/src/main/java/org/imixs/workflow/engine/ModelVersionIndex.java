@@ -0,0 +1,119 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * The ModelVersionIndex is an immutable index of the model versions and
+ * workflow groups held by the {@link ModelService}. The index is used to
+ * resolve the model version of a workitem by a regular expression or by its
+ * workflow group without iterating over all models.
+ * <p>
+ * The index is rebuilt by the ModelService each time a model is added or
+ * removed. Resolved regular expressions are memorized until the index is
+ * rebuilt.
+ * 
+ * @see ModelService
+ * @author rsoika
+ * @version 1.0
+ */
+class ModelVersionIndex {
+
+    // maximum number of memorized regular expressions
+    static final int MAX_CACHED_EXPRESSIONS = 1000;
+
+    // versions sorted in reverse order
+    private final List<String> versions;
+    private final List<String> workflowGroups;
+    // group -> highest version
+    private final Map<String, String> groupIndex = new HashMap<>();
+    private final Map<String, Optional<String>> regexCache = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new index.
+     * 
+     * @param versionGroups - map of model versions and their workflow groups
+     */
+    ModelVersionIndex(Map<String, Set<String>> versionGroups) {
+        List<String> versionList = new ArrayList<>(versionGroups.keySet());
+        versionList.sort(Collections.reverseOrder());
+        this.versions = Collections.unmodifiableList(versionList);
+
+        Map<String, Set<String>> groups = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : versionGroups.entrySet()) {
+            for (String group : entry.getValue()) {
+                if (group != null) {
+                    // sorted in reverse order
+                    groups.computeIfAbsent(group, k -> new TreeSet<>(String.CASE_INSENSITIVE_ORDER.reversed()))
+                            .add(entry.getKey());
+                }
+            }
+        }
+        for (Map.Entry<String, Set<String>> entry : groups.entrySet()) {
+            groupIndex.put(entry.getKey(), entry.getValue().iterator().next());
+        }
+        List<String> groupList = new ArrayList<>(groups.keySet());
+        Collections.sort(groupList);
+        this.workflowGroups = Collections.unmodifiableList(groupList);
+    }
+
+    /**
+     * Returns all workflow groups in sorted order.
+     */
+    List<String> getWorkflowGroups() {
+        return workflowGroups;
+    }
+
+    /**
+     * Returns the highest model version containing the given workflow group or null
+     * if no model contains the group.
+     */
+    String findVersionByGroup(String group) {
+        return group == null ? null : groupIndex.get(group);
+    }
+
+    /**
+     * Returns the highest model version matching the given regular expression or
+     * null if no version matches.
+     */
+    String findVersionByRegEx(String modelRegex) {
+        Optional<String> result = regexCache.get(modelRegex);
+        if (result == null) {
+            Pattern pattern = Pattern.compile(modelRegex);
+            result = Optional.empty();
+            for (String version : versions) {
+                if (pattern.matcher(version).find()) {
+                    result = Optional.of(version);
+                    break;
+                }
+            }
+            if (regexCache.size() < MAX_CACHED_EXPRESSIONS) {
+                regexCache.put(modelRegex, result);
+            }
+        }
+        return result.orElse(null);
+    }
+}
@@ -0,0 +1,337 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.engine;
+
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.imixs.workflow.KernelMetrics;
+
+import jakarta.json.Json;
+import jakarta.json.stream.JsonGenerator;
+
+/**
+ * A ProcessingTrace records a tree of timed spans for a single processing call
+ * of the WorkflowService. Each span records its duration and the bytes
+ * allocated by the current thread during the span.
+ * <p>
+ * Spans are opened and closed in a stack order by the methods {@code begin}
+ * and {@code end}. The trace also implements the {@link KernelMetrics}
+ * interface. The plugins and adapters reported by the WorkflowKernel are added
+ * as completed child spans of the current span. Kernel spans record the
+ * duration only. Kernel measurements are forwarded to an optional delegate.
+ * <p>
+ * The trace {@link #NONE} is used for calls which are not sampled. All methods
+ * of this trace are no-ops.
+ * <p>
+ * A trace is not thread safe and must only be used by the thread processing
+ * the workitem.
+ * 
+ * @see TraceService
+ * @author rsoika
+ * @version 1.0
+ */
+public class ProcessingTrace implements KernelMetrics {
+
+    /**
+     * A trace recording nothing
+     */
+    public static final ProcessingTrace NONE = new ProcessingTrace();
+
+    private static final com.sun.management.ThreadMXBean threadBean = initThreadBean();
+
+    private final boolean sampled;
+    private final String traceId;
+    private final long startEpochNanos;
+    private final long startNanoTime;
+    private final KernelMetrics delegate;
+    private final List<Span> spans = new ArrayList<>();
+    private final Deque<Span> stack = new ArrayDeque<>();
+    private final Map<String, String> attributes = new LinkedHashMap<>();
+    private String error = null;
+
+    private ProcessingTrace() {
+        sampled = false;
+        traceId = null;
+        startEpochNanos = 0;
+        startNanoTime = 0;
+        delegate = null;
+    }
+
+    /**
+     * Creates a new sampled trace and opens the root span.
+     * 
+     * @param name     - name of the root span
+     * @param delegate - optional KernelMetrics the kernel measurements are
+     *                 forwarded to
+     */
+    public ProcessingTrace(String name, KernelMetrics delegate) {
+        sampled = true;
+        traceId = UUID.randomUUID().toString().replace("-", "");
+        startEpochNanos = System.currentTimeMillis() * 1000000;
+        startNanoTime = System.nanoTime();
+        this.delegate = delegate;
+        begin(name);
+    }
+
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    /**
+     * Returns the KernelMetrics the kernel measurements are forwarded to
+     */
+    public KernelMetrics getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Returns all recorded spans in the order they were opened. The first span is
+     * the root span.
+     */
+    public List<Span> getSpans() {
+        return Collections.unmodifiableList(spans);
+    }
+
+    /**
+     * Sets an attribute of the trace, e.g. the $uniqueid of the processed
+     * workitem.
+     */
+    public void setAttribute(String name, Object value) {
+        if (sampled && value != null) {
+            attributes.put(name, value.toString());
+        }
+    }
+
+    /**
+     * Opens a new span as a child of the current span.
+     * 
+     * @param name - name of the span
+     */
+    public void begin(String name) {
+        if (!sampled) {
+            return;
+        }
+        Span span = new Span(spans.size() + 1, stack.isEmpty() ? 0 : stack.peek().spanId, name,
+                System.nanoTime() - startNanoTime, allocatedBytes());
+        spans.add(span);
+        stack.push(span);
+    }
+
+    /**
+     * Closes the current span.
+     */
+    public void end() {
+        if (!sampled || stack.isEmpty()) {
+            return;
+        }
+        Span span = stack.pop();
+        span.end(System.nanoTime() - startNanoTime, allocatedBytes());
+    }
+
+    /**
+     * Closes all open spans including the root span. If an exception is given, it
+     * is recorded as the error of the trace.
+     * 
+     * @param e - optional exception which terminated the processing call
+     */
+    public void close(Throwable e) {
+        if (!sampled) {
+            return;
+        }
+        if (e != null) {
+            error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+        while (!stack.isEmpty()) {
+            end();
+        }
+    }
+
+    @Override
+    public void onPluginRun(String plugin, String modelVersion, long nanos) {
+        addCompletedSpan("plugin " + plugin, nanos);
+        if (delegate != null) {
+            delegate.onPluginRun(plugin, modelVersion, nanos);
+        }
+    }
+
+    @Override
+    public void onAdapterExecute(String adapter, String modelVersion, long nanos) {
+        addCompletedSpan("adapter " + adapter, nanos);
+        if (delegate != null) {
+            delegate.onAdapterExecute(adapter, modelVersion, nanos);
+        }
+    }
+
+    @Override
+    public void onEventLoop(String modelVersion, int events, long nanos) {
+        setAttribute("events", events);
+        if (delegate != null) {
+            delegate.onEventLoop(modelVersion, events, nanos);
+        }
+    }
+
+    /**
+     * Returns the trace as a JSON object. The spans follow the naming of the
+     * OpenTelemetry span data model, so the output can be converted by a log
+     * collector.
+     */
+    public String toJSON() {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = Json.createGenerator(writer)) {
+            generator.writeStartObject();
+            generator.write("traceId", traceId);
+            generator.writeStartObject("attributes");
+            for (Map.Entry<String, String> entry : attributes.entrySet()) {
+                generator.write(entry.getKey(), entry.getValue());
+            }
+            generator.writeEnd();
+            if (error != null) {
+                generator.write("error", error);
+            }
+            generator.writeStartArray("spans");
+            for (Span span : spans) {
+                generator.writeStartObject();
+                generator.write("spanId", String.format("%016x", span.spanId));
+                if (span.parentSpanId > 0) {
+                    generator.write("parentSpanId", String.format("%016x", span.parentSpanId));
+                }
+                generator.write("name", span.name);
+                generator.write("startTimeUnixNano", startEpochNanos + span.startNanos);
+                generator.write("endTimeUnixNano", startEpochNanos + span.endNanos);
+                if (span.allocatedBytes >= 0) {
+                    generator.writeStartObject("attributes");
+                    generator.write("allocatedBytes", span.allocatedBytes);
+                    generator.writeEnd();
+                }
+                generator.writeEnd();
+            }
+            generator.writeEnd();
+            generator.writeEnd();
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Adds a completed span ending now as a child of the current span
+     */
+    private void addCompletedSpan(String name, long nanos) {
+        if (!sampled) {
+            return;
+        }
+        long now = System.nanoTime() - startNanoTime;
+        Span span = new Span(spans.size() + 1, stack.isEmpty() ? 0 : stack.peek().spanId, name, now - nanos, -1);
+        span.end(now, -1);
+        spans.add(span);
+    }
+
+    /**
+     * Returns the bytes allocated by the current thread, or -1 if not supported
+     * by the JVM
+     */
+    private static long allocatedBytes() {
+        if (threadBean == null) {
+            return -1;
+        }
+        return threadBean.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean initThreadBean() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory
+                        .getThreadMXBean();
+                if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+                    return bean;
+                }
+            }
+        } catch (LinkageError e) {
+            // com.sun.management is not available
+        }
+        return null;
+    }
+
+    /**
+     * A single timed span of a trace. Times are relative to the start of the
+     * trace in nanoseconds.
+     */
+    public static class Span {
+        private final int spanId;
+        private final int parentSpanId;
+        private final String name;
+        private final long startNanos;
+        private final long startAllocatedBytes;
+        private long endNanos = -1;
+        private long allocatedBytes = -1;
+
+        private Span(int spanId, int parentSpanId, String name, long startNanos, long startAllocatedBytes) {
+            this.spanId = spanId;
+            this.parentSpanId = parentSpanId;
+            this.name = name;
+            this.startNanos = startNanos;
+            this.startAllocatedBytes = startAllocatedBytes;
+        }
+
+        private void end(long nanos, long endAllocatedBytes) {
+            endNanos = nanos;
+            if (startAllocatedBytes >= 0 && endAllocatedBytes >= 0) {
+                allocatedBytes = endAllocatedBytes - startAllocatedBytes;
+            }
+        }
+
+        public int getSpanId() {
+            return spanId;
+        }
+
+        /**
+         * Returns the id of the parent span or 0 for the root span
+         */
+        public int getParentSpanId() {
+            return parentSpanId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the duration in nanoseconds or -1 if the span is still open
+         */
+        public long getDuration() {
+            return endNanos < 0 ? -1 : endNanos - startNanos;
+        }
+
+        /**
+         * Returns the bytes allocated by the current thread during this span, or -1
+         * if not measured
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+    }
+}
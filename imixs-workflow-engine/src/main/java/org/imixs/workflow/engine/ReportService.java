@@ -17,6 +17,7 @@ package org.imixs.workflow.engine;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.text.DateFormat;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
@@ -29,6 +30,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.logging.Level;
@@ -36,10 +38,15 @@ import java.util.logging.Logger;
 
 import javax.xml.transform.TransformerException;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.imixs.workflow.FileData;
 import org.imixs.workflow.ItemCollection;
 import org.imixs.workflow.ItemCollectionComparator;
+import org.imixs.workflow.engine.index.Aggregate;
+import org.imixs.workflow.engine.index.SchemaService;
+import org.imixs.workflow.engine.index.SearchService;
 import org.imixs.workflow.exceptions.AccessDeniedException;
+import org.imixs.workflow.exceptions.InvalidAccessException;
 import org.imixs.workflow.exceptions.PluginException;
 import org.imixs.workflow.exceptions.QueryException;
 import org.imixs.workflow.util.XMLParser;
@@ -78,11 +85,23 @@ import jakarta.xml.bind.JAXBException;
 @Stateless
 public class ReportService {
 
+    public static final String ITEM_DATASOURCE = "datasource";
+    public static final String DATASOURCE_INDEX = "index";
+    public static final String DATASOURCE_AGGREGATE = "aggregate";
+    public static final String REPORT_CURSOR_PAGESIZE = "report.cursor.pagesize";
+
     private static final Logger logger = Logger.getLogger(ReportService.class.getName());
 
+    @Inject
+    @ConfigProperty(name = REPORT_CURSOR_PAGESIZE, defaultValue = "1000")
+    int cursorPageSize;
+
     @Inject
     DocumentService documentService;
 
+    @Inject
+    SchemaService schemaService;
+
     @Inject
     WorkflowService workflowService;
 
@@ -191,6 +210,16 @@ public class ReportService {
      * In this example the literal ?{date_from} will be replaced with the given
      * value provided in the param map.
      * <p>
+     * If the report defines the item 'datasource' with the value 'index', the rows
+     * are projected from the document stubs of the search index instead of loading
+     * the full documents. In this case all report attributes must be stored in the
+     * search index (see 'index.fields.store').
+     * <p>
+     * A report with the 'datasource' value 'aggregate' returns an aggregated result
+     * table computed by the search index. The 5th element of each report attribute
+     * defines an aggregate function (sum, avg, min, max, count). Attributes
+     * without a function define the groups of the result. The paging and sorting
+     * is applied to the result table.
      * 
      * @param reportName - name of the report to be executed
      * 
@@ -203,7 +232,6 @@ public class ReportService {
      * @throws QueryException
      * 
      */
-    @SuppressWarnings("unchecked")
     public List<ItemCollection> getDataSource(ItemCollection reportEntity, int pageSize, int pageIndex, String sortBy,
             boolean sortReverse, Map<String, String> params) throws QueryException {
 
@@ -212,66 +240,41 @@ public class ReportService {
         long l = System.currentTimeMillis();
         logger.log(Level.FINEST, "......executeReport: {0}", reportEntity.getItemValueString("txtname"));
 
-        String query = reportEntity.getItemValueString("txtquery");
-
-        // replace params in query statement
-        if (params != null) {
-            Set<String> keys = params.keySet();
-            Iterator<String> iter = keys.iterator();
-            while (iter.hasNext()) {
-                // read key
-                String sKeyName = iter.next().toString().trim();
-                String sParamValue = params.get(sKeyName);
-                // test if key is contained in query
-                if (query.indexOf("{" + sKeyName + "}") > -1) {
-                    query = query.replace("{" + sKeyName + "}", sParamValue);
-                    logger.log(Level.FINEST, "......executeReport set param {0}={1}",
-                            new Object[] { sKeyName, sParamValue });
-                } else {
-                    // support old param format
-                    if (query.indexOf("?" + sKeyName) > -1) {
-                        query = query.replace("?" + sKeyName, sParamValue);
-                        logger.log(Level.WARNING, "......query definition in Report ''{0}'' is deprecated!"
-                                + " Please replace the param ''?{1}'' with '''{'{2}'}'''",
-                                new Object[] { reportEntity.getItemValueString("txtname"), sKeyName, sKeyName });
-                    }
-                }
-
-            }
-        }
-
-        // now we replace dynamic Date values
-        query = replaceDateString(query);
+        String query = buildQuery(reportEntity, params);
+        List<List<String>> attributes = getAttributes(reportEntity);
+        List<String> itemNames = getItemNames(attributes);
 
         // execute query
         logger.log(Level.FINEST, "......executeReport query={0}", query);
-        List<ItemCollection> result = documentService.find(query, pageSize, pageIndex, sortBy, sortReverse);
-
-        // test if a itemList is provided or defined in the reportEntity...
-        List<List<String>> attributes = (List<List<String>>) reportEntity.getItemValue("attributes");
-        List<String> itemNames = new ArrayList<String>();
-        for (List<String> attribute : attributes) {
-            itemNames.add(attribute.get(0));
+        if (isAggregateDataSource(reportEntity)) {
+            List<ItemCollection> rows = aggregate(reportEntity, query);
+            if (sortBy != null && !sortBy.isEmpty()) {
+                Collections.sort(rows, new ItemCollectionComparator(sortBy, !sortReverse));
+            }
+            // return the requested page of the result table
+            if (pageSize > 0) {
+                int start = Math.min(Math.max(pageIndex, 0) * pageSize, rows.size());
+                rows = rows.subList(start, Math.min(start + pageSize, rows.size()));
+            }
+            for (ItemCollection row : rows) {
+                clonedResult.add(cloneEntity(row, attributes));
+            }
+            logger.log(Level.FINE, "...executed report ''{0}'' in {1}ms",
+                    new Object[] { reportEntity.getItemValueString("txtname"), System.currentTimeMillis() - l });
+            return clonedResult;
+        }
+        List<ItemCollection> result;
+        if (isIndexDataSource(reportEntity, itemNames)) {
+            // the rows are projected from the document stubs
+            result = documentService.findStubs(query, pageSize, pageIndex, sortBy, sortReverse);
+        } else {
+            result = documentService.find(query, pageSize, pageIndex, sortBy, sortReverse);
         }
 
         // next we iterate over all entities from the result set and clone
         // each entity with the given attribute list and format instructions
         for (ItemCollection entity : result) {
-
-            // in case _ChildItems are requested the entity will be
-            // duplicated for each child attribute.
-            // a child item is identified by the '~' char in the item name
-            List<ItemCollection> embeddedChildItems = getEmbeddedChildItems(entity, itemNames);
-            if (!embeddedChildItems.isEmpty()) {
-                for (ItemCollection child : embeddedChildItems) {
-                    ItemCollection clone = cloneEntity(child, attributes);
-                    clonedResult.add(clone);
-                }
-            } else {
-                // default - clone the entity
-                ItemCollection clone = cloneEntity(entity, attributes);
-                clonedResult.add(clone);
-            }
+            addRows(clonedResult, entity, attributes, itemNames);
         }
         logger.log(Level.FINE, "...executed report ''{0}'' in {1}ms",
                 new Object[] { reportEntity.getItemValueString("txtname"), System.currentTimeMillis() - l });
@@ -300,16 +303,11 @@ public class ReportService {
         if ("".equals(sContentType)) {
             sContentType = MediaType.TEXT_XML;
         }
-        String encoding = report.getItemValueString("encoding");
-        if ("".equals(encoding)) {
-            // no encoding defined so we default to UTF-8
-            encoding = "UTF-8";
-        }
 
         byte[] _bytes = null;
         // create a ByteArray Output Stream
         try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            XSLHandler.transform(data, xslTemplate, encoding, outputStream);
+            XSLHandler.transform(data, xslTemplate, getEncoding(report), outputStream);
             _bytes = outputStream.toByteArray();
         }
         FileData fileData = new FileData(fileName, _bytes, sContentType, null);
@@ -318,6 +316,42 @@ public class ReportService {
 
     }
 
+    /**
+     * Executes a report and transforms the complete data source based on the XSL
+     * template of the report into an output stream.
+     * <p>
+     * In difference to the method getDataSource the result set is not limited to a
+     * single page. The documents are read page by page ordered by their $uniqueid
+     * (keyset paging) and each page is streamed into the XSL transformation. So
+     * only one page is held in memory independent of the size of the report. The
+     * page size can be defined by the property 'report.cursor.pagesize'.
+     * <p>
+     * If the report defines the item 'datasource' with the value 'index', the rows
+     * are projected from the document stubs of the search index and no document
+     * is loaded from the database.
+     *
+     * @param report       - the report definition
+     * @param params       - optional parameter list to be mapped to the query
+     * @param outputStream - the output stream to write the result
+     * @throws QueryException
+     * @throws JAXBException
+     * @throws IOException
+     * @throws TransformerException
+     */
+    public void transformDataSource(ItemCollection report, Map<String, String> params, OutputStream outputStream)
+            throws QueryException, JAXBException, IOException, TransformerException {
+        long l = System.currentTimeMillis();
+        Iterable<ItemCollection> data;
+        if (isAggregateDataSource(report)) {
+            data = aggregate(report, buildQuery(report, params));
+        } else {
+            data = new DataSourceCursor(report, params);
+        }
+        XSLHandler.transform(data, report.getItemValueString("xsl").trim(), getEncoding(report), outputStream);
+        logger.log(Level.FINE, "...transformed report ''{0}'' in {1}ms",
+                new Object[] { report.getItemValueString("txtname"), System.currentTimeMillis() - l });
+    }
+
     /**
      * This method parses a <date /> xml tag and computes a dynamic date by parsing
      * the attributes:
@@ -461,6 +495,151 @@ public class ReportService {
         return output;
     }
 
+    /**
+     * Returns the query defined by a report. Params contained in the query are
+     * replaced by the values of the given param map and dynamic date values are
+     * computed.
+     *
+     * @param reportEntity
+     * @param params       - optional parameter list
+     * @return query
+     */
+    private String buildQuery(ItemCollection reportEntity, Map<String, String> params) {
+        String query = reportEntity.getItemValueString("txtquery");
+
+        // replace params in query statement
+        if (params != null) {
+            Set<String> keys = params.keySet();
+            Iterator<String> iter = keys.iterator();
+            while (iter.hasNext()) {
+                // read key
+                String sKeyName = iter.next().toString().trim();
+                String sParamValue = params.get(sKeyName);
+                // test if key is contained in query
+                if (query.indexOf("{" + sKeyName + "}") > -1) {
+                    query = query.replace("{" + sKeyName + "}", sParamValue);
+                    logger.log(Level.FINEST, "......executeReport set param {0}={1}",
+                            new Object[] { sKeyName, sParamValue });
+                } else {
+                    // support old param format
+                    if (query.indexOf("?" + sKeyName) > -1) {
+                        query = query.replace("?" + sKeyName, sParamValue);
+                        logger.log(Level.WARNING, "......query definition in Report ''{0}'' is deprecated!"
+                                + " Please replace the param ''?{1}'' with '''{'{2}'}'''",
+                                new Object[] { reportEntity.getItemValueString("txtname"), sKeyName, sKeyName });
+                    }
+                }
+
+            }
+        }
+
+        // now we replace dynamic Date values
+        return replaceDateString(query);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<String>> getAttributes(ItemCollection reportEntity) {
+        return (List<List<String>>) reportEntity.getItemValue("attributes");
+    }
+
+    private List<String> getItemNames(List<List<String>> attributes) {
+        List<String> itemNames = new ArrayList<String>();
+        for (List<String> attribute : attributes) {
+            itemNames.add(attribute.get(0));
+        }
+        return itemNames;
+    }
+
+    private String getEncoding(ItemCollection report) {
+        String encoding = report.getItemValueString("encoding");
+        if ("".equals(encoding)) {
+            // no encoding defined so we default to UTF-8
+            encoding = "UTF-8";
+        }
+        return encoding;
+    }
+
+    /**
+     * Returns true if the rows of a report can be projected from the document
+     * stubs of the search index. This is the case if the report defines the item
+     * 'datasource' with the value 'index' and no embedded child items are
+     * requested. Attributes not stored in the search index are logged.
+     */
+    private boolean isIndexDataSource(ItemCollection reportEntity, List<String> itemNames) {
+        if (!DATASOURCE_INDEX.equals(reportEntity.getItemValueString(ITEM_DATASOURCE))) {
+            return false;
+        }
+        for (String itemName : itemNames) {
+            if (itemName.contains("~")) {
+                logger.log(Level.WARNING, "Report ''{0}'' requests embedded child items - "
+                        + "datasource ''index'' is not supported, full documents will be loaded.",
+                        reportEntity.getItemValueString("txtname"));
+                return false;
+            }
+            if (schemaService != null && !schemaService.getFieldListStore().contains(itemName.toLowerCase())) {
+                logger.log(Level.WARNING, "Report ''{0}'' - item ''{1}'' is not stored in the search index!",
+                        new Object[] { reportEntity.getItemValueString("txtname"), itemName });
+            }
+        }
+        return true;
+    }
+
+    private boolean isAggregateDataSource(ItemCollection reportEntity) {
+        return DATASOURCE_AGGREGATE.equals(reportEntity.getItemValueString(ITEM_DATASOURCE));
+    }
+
+    /**
+     * Computes the aggregated result table of a report. The 5th element of a
+     * report attribute defines the aggregate function of the attribute. All
+     * attributes without an aggregate function are used to group the result. The
+     * rows of the result table are formatted by the format definitions of the
+     * report attributes.
+     * 
+     * @param reportEntity
+     * @param query        - the report query
+     * @return aggregated result table
+     * @throws QueryException
+     */
+    private List<ItemCollection> aggregate(ItemCollection reportEntity, String query) throws QueryException {
+        List<List<String>> attributes = getAttributes(reportEntity);
+        List<String> groupBy = new ArrayList<String>();
+        List<Aggregate> measures = new ArrayList<Aggregate>();
+        for (List<String> attribute : attributes) {
+            String function = attribute.size() > 4 ? attribute.get(4) : "";
+            if (function == null || function.trim().isEmpty()) {
+                groupBy.add(attribute.get(0));
+            } else if (Aggregate.isFunction(function)) {
+                measures.add(new Aggregate(attribute.get(0), function));
+            } else {
+                throw new QueryException(QueryException.QUERY_NOT_UNDERSTANDABLE, "Report '"
+                        + reportEntity.getItemValueString("txtname") + "' - invalid aggregate function '" + function
+                        + "' for item '" + attribute.get(0) + "'");
+            }
+        }
+        List<ItemCollection> result = documentService.aggregate(query, groupBy, measures);
+        logger.log(Level.FINEST, "......aggregated report ''{0}'' - {1} groups",
+                new Object[] { reportEntity.getItemValueString("txtname"), result.size() });
+        return result;
+    }
+
+    /**
+     * Adds the rows of a single entity to a data source. In case _ChildItems are
+     * requested the entity will be duplicated for each child attribute. A child
+     * item is identified by the '~' char in the item name.
+     */
+    private void addRows(List<ItemCollection> rows, ItemCollection entity, List<List<String>> attributes,
+            List<String> itemNames) {
+        List<ItemCollection> embeddedChildItems = getEmbeddedChildItems(entity, itemNames);
+        if (!embeddedChildItems.isEmpty()) {
+            for (ItemCollection child : embeddedChildItems) {
+                rows.add(cloneEntity(child, attributes));
+            }
+        } else {
+            // default - clone the entity
+            rows.add(cloneEntity(entity, attributes));
+        }
+    }
+
     /**
      * This helper method clones a entity with a given format and converter map.
      * 
@@ -795,4 +974,102 @@ public class ReportService {
         }
         return result;
     }
+
+    /**
+     * The DataSourceCursor iterates over all rows of a report. The documents are
+     * read page by page with keyset paging. Only the rows of the current page are
+     * held in memory.
+     */
+    private class DataSourceCursor implements Iterable<ItemCollection>, Iterator<ItemCollection> {
+        private final ItemCollection report;
+        private final String query;
+        private final List<List<String>> attributes;
+        private final List<String> itemNames;
+        private final boolean indexDataSource;
+        private List<ItemCollection> rows = new ArrayList<ItemCollection>();
+        private int pos = 0;
+        private String lastUniqueId = null;
+        private boolean lastPage = false;
+        // page index if the index does not support keyset paging
+        private int pageIndex = -1;
+
+        DataSourceCursor(ItemCollection report, Map<String, String> params) throws QueryException {
+            this.report = report;
+            this.query = buildQuery(report, params);
+            this.attributes = getAttributes(report);
+            this.itemNames = getItemNames(attributes);
+            this.indexDataSource = isIndexDataSource(report, itemNames);
+            logger.log(Level.FINEST, "......executeReport query={0}", query);
+            // read the first page to verify the query
+            nextPage();
+        }
+
+        @Override
+        public Iterator<ItemCollection> iterator() {
+            return this;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (pos >= rows.size() && !lastPage) {
+                try {
+                    nextPage();
+                } catch (QueryException e) {
+                    throw new InvalidAccessException(InvalidAccessException.INVALID_INDEX,
+                            "report '" + report.getItemValueString("txtname") + "' failed: " + e.getMessage(), e);
+                }
+            }
+            return pos < rows.size();
+        }
+
+        @Override
+        public ItemCollection next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            // release the row
+            return rows.set(pos++, null);
+        }
+
+        /**
+         * Reads the next page of document stubs. If the report is not projected
+         * from the search index, the full documents are loaded.
+         * <p>
+         * If the search index can not be sorted by $uniqueid (segments written by
+         * an older version) the cursor falls back to paging by the page index.
+         */
+        private void nextPage() throws QueryException {
+            int pageSize = cursorPageSize > 0 ? cursorPageSize : SearchService.DEFAULT_PAGE_SIZE;
+            List<ItemCollection> stubs;
+            if (pageIndex < 0) {
+                try {
+                    stubs = documentService.findAfter(query, pageSize, lastUniqueId, true);
+                } catch (QueryException e) {
+                    if (!QueryException.QUERY_NOT_SORTABLE.equals(e.getErrorCode()) || lastUniqueId != null) {
+                        throw e;
+                    }
+                    logger.log(Level.WARNING, "...report ''{0}'' - keyset paging not supported, using page index: {1}",
+                            new Object[] { report.getItemValueString("txtname"), e.getMessage() });
+                    pageIndex = 0;
+                    stubs = documentService.findStubs(query, pageSize, pageIndex++, null, false);
+                }
+            } else {
+                stubs = documentService.findStubs(query, pageSize, pageIndex++, null, false);
+            }
+            lastPage = stubs.size() < pageSize;
+            rows = new ArrayList<ItemCollection>();
+            pos = 0;
+            for (ItemCollection stub : stubs) {
+                lastUniqueId = stub.getUniqueID();
+                ItemCollection entity = stub;
+                if (!indexDataSource) {
+                    entity = documentService.load(stub.getUniqueID());
+                    if (entity == null) {
+                        continue;
+                    }
+                }
+                addRows(rows, entity, attributes, itemNames);
+            }
+        }
+    }
 }
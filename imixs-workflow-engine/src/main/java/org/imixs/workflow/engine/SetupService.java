@@ -177,6 +177,15 @@ public class SetupService {
         return modelService.getVersions().size();
     }
 
+    /**
+     * Returns the duration of the model initialization in milliseconds
+     * 
+     * @return duration in ms
+     */
+    public long getModelInitTime() {
+        return modelService.getInitTime();
+    }
+
     /**
      * Check database access
      * <p>
@@ -0,0 +1,204 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.engine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A hierarchical timing wheel holding ids with a due time. The wheel is used
+ * by the AsyncEventScheduler to fire async events when they become due
+ * without polling the database.
+ * <p>
+ * The wheel consists of 4 levels with 64 slots each. A slot of the first level
+ * covers one tick, a slot of the next level covers 64 slots of the level
+ * below. Entries due in more than 64^4 ticks are held in an overflow list.
+ * Each time a level completes a round, the entries of the next slot of the
+ * level above are cascaded down. So scheduling, cancelling and firing an entry
+ * costs O(1) independent of the number of entries.
+ * <p>
+ * An entry is never fired before its due time. It is fired with the first call
+ * of {@code advance} after the tick containing the due time.
+ * <p>
+ * The class is thread safe.
+ * 
+ * @see AsyncEventTimer
+ * @author rsoika
+ * @version 1.0
+ */
+public class TimerWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tick;
+    private final List<List<List<Entry>>> levels = new ArrayList<>(LEVELS);
+    private final List<Entry> overflow = new ArrayList<>();
+    private final Map<String, Entry> index = new HashMap<>();
+    private long currentTick;
+
+    /**
+     * Creates a new timing wheel.
+     * 
+     * @param tick  - duration of a tick in milliseconds
+     * @param start - start time in milliseconds
+     */
+    public TimerWheel(long tick, long start) {
+        if (tick <= 0) {
+            throw new IllegalArgumentException("tick must be greater than 0");
+        }
+        this.tick = tick;
+        this.currentTick = start / tick;
+        for (int level = 0; level < LEVELS; level++) {
+            List<List<Entry>> slots = new ArrayList<>(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots.add(new ArrayList<>());
+            }
+            levels.add(slots);
+        }
+    }
+
+    /**
+     * Schedules an id. An existing entry with the same id is replaced.
+     * 
+     * @param id  - the id to be fired
+     * @param due - due time in milliseconds
+     */
+    public synchronized void schedule(String id, long due) {
+        // round up so that an entry is never fired before its due time
+        long dueTick = (due + tick - 1) / tick;
+        Entry entry = new Entry(id, dueTick);
+        index.put(id, entry);
+        insert(entry);
+    }
+
+    /**
+     * Removes an id from the wheel.
+     * 
+     * @param id - the scheduled id
+     * @return true if the id was scheduled
+     */
+    public synchronized boolean cancel(String id) {
+        return index.remove(id) != null;
+    }
+
+    /**
+     * Returns the number of scheduled ids
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Advances the wheel to the given time and returns all ids which became due
+     * in the order of their due time.
+     * 
+     * @param now - current time in milliseconds
+     * @return list of due ids
+     */
+    public synchronized List<String> advance(long now) {
+        List<String> result = new ArrayList<>();
+        long nowTick = now / tick;
+        if (index.isEmpty()) {
+            currentTick = Math.max(currentTick, nowTick);
+            return result;
+        }
+        while (currentTick < nowTick) {
+            currentTick++;
+            cascade();
+            List<Entry> slot = levels.get(0).get((int) (currentTick & SLOT_MASK));
+            if (!slot.isEmpty()) {
+                List<Entry> entries = new ArrayList<>(slot);
+                slot.clear();
+                for (Entry entry : entries) {
+                    if (index.get(entry.id) == entry) {
+                        index.remove(entry.id);
+                        result.add(entry.id);
+                    }
+                }
+            }
+            if (index.isEmpty()) {
+                currentTick = nowTick;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Inserts an entry into the level matching its distance to the current tick.
+     * Entries already due are put into the slot of the next tick.
+     */
+    private void insert(Entry entry) {
+        long delta = entry.dueTick - currentTick;
+        if (delta <= 0) {
+            levels.get(0).get((int) ((currentTick + 1) & SLOT_MASK)).add(entry);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (SLOT_BITS * (level + 1))) {
+                int slot = (int) ((entry.dueTick >> (SLOT_BITS * level)) & SLOT_MASK);
+                levels.get(level).get(slot).add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    /**
+     * Moves the entries of the upper levels down each time a level completes a
+     * round.
+     */
+    private void cascade() {
+        for (int level = 1; level <= LEVELS; level++) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                return;
+            }
+            List<Entry> entries;
+            if (level == LEVELS) {
+                entries = new ArrayList<>(overflow);
+                overflow.clear();
+            } else {
+                List<Entry> slot = levels.get(level).get((int) ((currentTick >> (SLOT_BITS * level)) & SLOT_MASK));
+                entries = new ArrayList<>(slot);
+                slot.clear();
+            }
+            for (Entry entry : entries) {
+                if (index.get(entry.id) == entry) {
+                    if (entry.dueTick <= currentTick) {
+                        // due in the current tick
+                        levels.get(0).get((int) (currentTick & SLOT_MASK)).add(entry);
+                    } else {
+                        insert(entry);
+                    }
+                }
+            }
+        }
+    }
+
+    private static class Entry {
+        private final String id;
+        private final long dueTick;
+
+        private Entry(String id, long dueTick) {
+            this.id = id;
+            this.dueTick = dueTick;
+        }
+    }
+}
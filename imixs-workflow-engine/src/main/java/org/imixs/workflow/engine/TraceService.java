@@ -0,0 +1,135 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.engine;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.imixs.workflow.KernelMetrics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * The TraceService records a {@link ProcessingTrace} for sampled processing
+ * calls of the WorkflowService. A trace shows how the processing time of a
+ * single workitem is split between the model lookup, the plugins and adapters,
+ * the ProcessingEvent observers and the database.
+ * <p>
+ * The service is disabled per default and can be configured by the following
+ * properties:
+ * <ul>
+ * <li>trace.enabled - enables the tracing (default 'false')</li>
+ * <li>trace.sample - traces every n-th processing call (default 100)</li>
+ * <li>trace.file - optional file the traces are appended to. If not set, the
+ * traces are written into the server log.</li>
+ * </ul>
+ * Each trace is exported as a single line of JSON.
+ * 
+ * @see ProcessingTrace
+ * @author rsoika
+ * @version 1.0
+ */
+@ApplicationScoped
+public class TraceService {
+
+    public static final String TRACE_ENABLED = "trace.enabled";
+    public static final String TRACE_SAMPLE = "trace.sample";
+    public static final String TRACE_FILE = "trace.file";
+
+    private static final Logger logger = Logger.getLogger(TraceService.class.getName());
+
+    @Inject
+    @ConfigProperty(name = TRACE_ENABLED, defaultValue = "false")
+    boolean enabled;
+
+    @Inject
+    @ConfigProperty(name = TRACE_SAMPLE, defaultValue = "100")
+    int sample;
+
+    @Inject
+    @ConfigProperty(name = TRACE_FILE)
+    Optional<String> traceFile;
+
+    private final AtomicLong calls = new AtomicLong();
+    private Path tracePath = null;
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            if (traceFile != null && traceFile.isPresent() && !traceFile.get().isBlank()) {
+                tracePath = Paths.get(traceFile.get());
+            }
+            logger.log(Level.INFO, "...processing trace enabled - sample={0}, file={1}",
+                    new Object[] { sample, tracePath });
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled && sample > 0;
+    }
+
+    /**
+     * Starts a new trace if the current processing call is sampled. Otherwise the
+     * method returns the trace {@link ProcessingTrace#NONE}.
+     * 
+     * @param name     - name of the root span
+     * @param delegate - optional KernelMetrics the kernel measurements of the
+     *                 trace are forwarded to
+     * @return a new trace or ProcessingTrace.NONE
+     */
+    public ProcessingTrace start(String name, KernelMetrics delegate) {
+        if (!isEnabled() || calls.getAndIncrement() % sample != 0) {
+            return ProcessingTrace.NONE;
+        }
+        return new ProcessingTrace(name, delegate);
+    }
+
+    /**
+     * Exports a completed trace into the trace file or the server log.
+     * 
+     * @param trace - a closed trace
+     */
+    public void export(ProcessingTrace trace) {
+        if (trace == null || !trace.isSampled()) {
+            return;
+        }
+        String json = trace.toJSON();
+        if (tracePath == null) {
+            logger.log(Level.INFO, "⏱ trace: {0}", json);
+            return;
+        }
+        synchronized (this) {
+            try {
+                Files.writeString(tracePath, json + System.lineSeparator(), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "...failed to write trace to ''{0}'': {1}",
+                        new Object[] { tracePath, e.getMessage() });
+            }
+        }
+    }
+}
@@ -15,6 +15,7 @@
 
 package org.imixs.workflow.engine;
 
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
@@ -25,6 +26,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.imixs.workflow.ItemCollection;
 import org.imixs.workflow.ModelManager;
 import org.imixs.workflow.QuerySelector;
@@ -42,6 +44,7 @@ import org.openbpmn.bpmn.elements.core.BPMNElementNode;
 
 import jakarta.annotation.Resource;
 import jakarta.ejb.SessionContext;
+import jakarta.enterprise.event.Observes;
 import jakarta.enterprise.inject.Any;
 import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
@@ -51,6 +54,12 @@ import jakarta.inject.Inject;
  * scheduled activities.
  * <p>
  * The configuration of the scheduler is based on the Imixs Scheduler API.
+ * <p>
+ * If the property 'scheduler.duedate.enabled' is set to true, the earliest due
+ * date of all scheduled events of the current task is computed after each
+ * processing step and stored in the item '$scheduler.duedate'. The scheduler
+ * then selects only workitems with a due date in the past by a range query on
+ * this item instead of verifying the due date of all workitems of a task.
  * 
  * @author rsoika
  * @version 1.0
@@ -67,6 +76,9 @@ public class WorkflowScheduler implements Scheduler {
 
     final static private int MAX_WORKITEM_COUNT = 1000;
 
+    public static final String ITEM_DUEDATE = "$scheduler.duedate";
+    public static final String SCHEDULER_DUEDATE_ENABLED = "scheduler.duedate.enabled";
+
     private static Logger logger = Logger.getLogger(WorkflowScheduler.class.getName());
 
     @Inject
@@ -88,9 +100,65 @@ public class WorkflowScheduler implements Scheduler {
     @Resource
     private SessionContext ctx;
 
+    @Inject
+    @ConfigProperty(name = SCHEDULER_DUEDATE_ENABLED, defaultValue = "false")
+    boolean dueDateEnabled;
+
     private int iProcessWorkItems = 0;
     private List<String> unprocessedIDs = null;
 
+    /**
+     * The observer method updates the item '$scheduler.duedate' after a processing
+     * step if the due date index is enabled.
+     * 
+     * @throws ModelException
+     */
+    public void onProcess(@Observes ProcessingEvent processingEvent) throws ModelException {
+        if (!dueDateEnabled || ProcessingEvent.AFTER_PROCESS != processingEvent.getEventType()) {
+            return;
+        }
+        ItemCollection workitem = processingEvent.getDocument();
+        ModelManager modelManager = new ModelManager(workflowService);
+        BPMNModel model = modelManager.getModelByWorkitem(workitem);
+        updateDueDate(workitem, modelManager.findEventsByTask(model, workitem.getTaskID()));
+    }
+
+    /**
+     * This method computes the earliest due date of all scheduled events of the
+     * current task and stores it in the item '$scheduler.duedate'. Events based on
+     * a custom date field are ignored because the field can change without a
+     * processing step. If no due date can be computed the item is removed.
+     * 
+     * @param workitem - the processed workitem
+     * @param events   - all events of the current task
+     */
+    public void updateDueDate(ItemCollection workitem, List<ItemCollection> events) {
+        Date dueDate = null;
+        for (ItemCollection event : events) {
+            if (event.getItemValueBoolean(BPMNUtil.EVENT_ITEM_TIMER_ACTIVE) && hasStableDueDate(event)) {
+                Date date = getDueDate(workitem, event);
+                if (date != null && (dueDate == null || date.before(dueDate))) {
+                    dueDate = date;
+                }
+            }
+        }
+        if (dueDate != null) {
+            workitem.replaceItemValue(ITEM_DUEDATE, dueDate);
+        } else {
+            workitem.removeItem(ITEM_DUEDATE);
+        }
+    }
+
+    /**
+     * Returns true if the due date of a scheduled event is based on the last
+     * event, the last modification or the creation of a workitem. These due dates
+     * do not move before their value computed with the last processing step.
+     */
+    private boolean hasStableDueDate(ItemCollection event) {
+        int baseObject = event.getItemValueInteger("keyScheduledBaseObject");
+        return baseObject >= 1 && baseObject <= 3;
+    }
+
     /**
      * This method checks if a workitem (doc) is in due. There are 4 different cases
      * which will be compared: The case is determined by the keyScheduledBaseObject
@@ -105,6 +173,25 @@ public class WorkflowScheduler implements Scheduler {
      * @return true if workitem is is due
      */
     public boolean workItemInDue(ItemCollection doc, ItemCollection docActivity) {
+        Date dateTimeCompare = getDueDate(doc, docActivity);
+        if (dateTimeCompare == null) {
+            return false;
+        }
+        // get current time for compare....
+        Date dateTimeNow = Calendar.getInstance().getTime();
+        logger.log(Level.FINEST, "......{0}: Compare {1} <-> {2}",
+                new Object[] { doc.getUniqueID(), dateTimeCompare, dateTimeNow });
+        return dateTimeCompare.before(dateTimeNow);
+    }
+
+    /**
+     * This method computes the due date of a workitem (doc) for a scheduled event.
+     * The due date is computed from the base date defined by the
+     * keyScheduledBaseObject of the event plus the delay of the event.
+     * 
+     * @return due date or null if no due date can be computed
+     */
+    public Date getDueDate(ItemCollection doc, ItemCollection docActivity) {
         try {
             int iCompareType = -1;
             int iOffsetUnit = -1;
@@ -122,14 +209,14 @@ public class WorkflowScheduler implements Scheduler {
                             + " unsupported keyActivityDelayUnit={2}",
                             new Object[] { docActivity.getItemValueInteger("numProcessID"),
                                     docActivity.getItemValueInteger("numActivityID"), sDelayUnit });
-                    return false;
+                    return null;
                 }
 
             } catch (NumberFormatException nfe) {
                 logger.log(Level.WARNING, "error parsing delay in ActivityEntity {0}.{1} :{2}",
                         new Object[] { docActivity.getItemValueInteger("numProcessID"),
                                 docActivity.getItemValueInteger("numActivityID"), nfe.getMessage() });
-                return false;
+                return null;
             }
             // get activityDelay from Event
             iOffset = docActivity.getItemValueInteger("numActivityDelay");
@@ -147,9 +234,6 @@ public class WorkflowScheduler implements Scheduler {
 
             iCompareType = docActivity.getItemValueInteger("keyScheduledBaseObject");
 
-            // get current time for compare....
-            Date dateTimeNow = Calendar.getInstance().getTime();
-
             switch (iCompareType) {
             // last process -
             case 1: {
@@ -167,17 +251,13 @@ public class WorkflowScheduler implements Scheduler {
                 dateTimeCompare = doc.getItemValueDate("$lastEventDate");
                 if (dateTimeCompare == null) {
                     logger.log(Level.WARNING, "{0}: item ''$lastEventDate'' is missing!", suniqueid);
-                    return false;
+                    return null;
                 }
 
                 // compute scheduled time
                 logger.log(Level.FINEST, "......{0}: $lastEventDate={1}",
                         new Object[] { suniqueid, dateTimeCompare });
-                dateTimeCompare = adjustBaseDate(dateTimeCompare, iOffsetUnit, iOffset);
-                if (dateTimeCompare != null)
-                    return dateTimeCompare.before(dateTimeNow);
-                else
-                    return false;
+                return adjustBaseDate(dateTimeCompare, iOffsetUnit, iOffset);
             }
 
             // last modification
@@ -188,12 +268,7 @@ public class WorkflowScheduler implements Scheduler {
 
                 logger.log(Level.FINEST, "......{0}: modified={1}", new Object[] { suniqueid, dateTimeCompare });
 
-                dateTimeCompare = adjustBaseDate(dateTimeCompare, iOffsetUnit, iOffset);
-
-                if (dateTimeCompare != null)
-                    return dateTimeCompare.before(dateTimeNow);
-                else
-                    return false;
+                return adjustBaseDate(dateTimeCompare, iOffsetUnit, iOffset);
             }
 
             // creation
@@ -205,12 +280,7 @@ public class WorkflowScheduler implements Scheduler {
                         new Object[] { suniqueid, dateTimeCompare });
 
                 // Nein -> Creation date ist masstab
-                dateTimeCompare = adjustBaseDate(dateTimeCompare, iOffsetUnit, iOffset);
-
-                if (dateTimeCompare != null)
-                    return dateTimeCompare.before(dateTimeNow);
-                else
-                    return false;
+                return adjustBaseDate(dateTimeCompare, iOffsetUnit, iOffset);
             }
 
             // field
@@ -222,7 +292,7 @@ public class WorkflowScheduler implements Scheduler {
                 if (!doc.hasItem(sNameOfField)) {
                     logger.log(Level.FINEST, "......{0}: CompareType ={1} no value found!",
                             new Object[] { suniqueid, sNameOfField });
-                    return false;
+                    return null;
                 }
 
                 dateTimeCompare = doc.getItemValueDate(sNameOfField);
@@ -230,28 +300,18 @@ public class WorkflowScheduler implements Scheduler {
                 logger.log(Level.FINEST, "......{0}: {1}={2}",
                         new Object[] { suniqueid, sNameOfField, dateTimeCompare });
 
-                dateTimeCompare = adjustBaseDate(dateTimeCompare, iOffsetUnit, iOffset);
-                if (dateTimeCompare != null) {
-                    logger.log(Level.FINEST, "......{0}: Compare {1} <-> {2}",
-                            new Object[] { suniqueid, dateTimeCompare, dateTimeNow });
-
-                    if (dateTimeCompare.before(dateTimeNow)) {
-                        logger.log(Level.FINEST, "......{0} isInDue!", suniqueid);
-                    }
-                    return dateTimeCompare.before(dateTimeNow);
-                } else
-                    return false;
+                return adjustBaseDate(dateTimeCompare, iOffsetUnit, iOffset);
             }
             default: {
                 logger.warning("Time Base is not defined, verify model!");
-                return false;
+                return null;
             }
             }
 
         } catch (Exception e) {
 
             e.printStackTrace();
-            return false;
+            return null;
         }
 
     }
@@ -436,6 +496,7 @@ public class WorkflowScheduler implements Scheduler {
             // build the default selector....
             searchTerm = "($taskid:\"" + taskID + "\" AND $workflowgroup:\"" + workflowGroup + "\")";
         }
+        searchTerm = extendByDueDate(searchTerm, eventEntity);
 
         // In the following code we use a pagination to iterate over all workitems
         // defined by the selector. This is necessary because in some cases the
@@ -508,6 +569,26 @@ public class WorkflowScheduler implements Scheduler {
         }
     }
 
+    /**
+     * If the due date index is enabled, this method extends a search term by a
+     * range query on the item '$scheduler.duedate'. Workitems without this item -
+     * e.g. processed before the index was enabled - are still selected. CDI
+     * selectors and events based on a custom date field are not extended.
+     * 
+     * @param searchTerm - the selector of the scheduled event
+     * @param event      - the scheduled event
+     * @return extended search term
+     */
+    protected String extendByDueDate(String searchTerm, ItemCollection event) {
+        String classPattern = "^[a-z][a-z0-9_]*(\\.[A-Za-z0-9_]+)+$";
+        if (!dueDateEnabled || !hasStableDueDate(event) || Pattern.compile(classPattern).matcher(searchTerm).find()) {
+            return searchTerm;
+        }
+        String now = new SimpleDateFormat("yyyyMMddHHmmss").format(new Date());
+        return "(" + searchTerm + ") AND (" + ITEM_DUEDATE + ":[* TO " + now + "] OR (*:* -" + ITEM_DUEDATE
+                + ":[* TO *]))";
+    }
+
     /**
      * This helper method iterates over a collection of workitems and tests for each
      * workitem if its dueDate matches a given BPMN event. If so the workitem is
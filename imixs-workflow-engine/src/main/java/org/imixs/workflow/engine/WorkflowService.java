@@ -15,6 +15,9 @@
 
 package org.imixs.workflow.engine;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -22,25 +25,31 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.imixs.workflow.Adapter;
 import org.imixs.workflow.ItemCollection;
 import org.imixs.workflow.ItemCollectionComparator;
+import org.imixs.workflow.KernelMetrics;
 import org.imixs.workflow.ModelManager;
 import org.imixs.workflow.Plugin;
 import org.imixs.workflow.WorkflowContext;
 import org.imixs.workflow.WorkflowKernel;
+import org.imixs.workflow.bpmn.BPMNTransitionTable;
 import org.imixs.workflow.bpmn.BPMNUtil;
 import org.imixs.workflow.engine.plugins.ResultPlugin;
 import org.imixs.workflow.exceptions.AccessDeniedException;
+import org.imixs.workflow.exceptions.ImixsExceptionHandler;
 import org.imixs.workflow.exceptions.InvalidAccessException;
 import org.imixs.workflow.exceptions.ModelException;
 import org.imixs.workflow.exceptions.PluginException;
@@ -59,6 +68,7 @@ import jakarta.ejb.Stateless;
 import jakarta.ejb.TransactionAttribute;
 import jakarta.ejb.TransactionAttributeType;
 import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
 import jakarta.enterprise.inject.Any;
 import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
@@ -89,7 +99,10 @@ public class WorkflowService implements WorkflowContext {
     public static final String READACCESS = "$readaccess";
     public static final String WRITEACCESS = "$writeaccess";
     public static final String PARTICIPANTS = "$participants";
+    public static final String EVENTLOG_ARCHIVE = "$eventlogarchive";
+    public static final String EVENTLOG_ARCHIVE_ACL = "$eventlogarchiveacl";
     public static final String DEFAULT_TYPE = "workitem";
+    public static final String TYPE_EVENTLOG_ARCHIVE = "eventlogarchive";
 
     // view properties
     public static final int SORT_ORDER_CREATED_DESC = 0;
@@ -99,6 +112,14 @@ public class WorkflowService implements WorkflowContext {
 
     public static final String INVALID_ITEMVALUE_FORMAT = "INVALID_ITEMVALUE_FORMAT";
     public static final String INVALID_TAG_FORMAT = "INVALID_TAG_FORMAT";
+    public static final String CHUNK_ROLLED_BACK = "CHUNK_ROLLED_BACK";
+
+    public static final int MAX_CACHED_PLUGIN_CHAINS = 1000;
+
+    // resolved plugin chains keyed only by the txtPlugins definition string. A
+    // cached chain is not validated again - changes to the deployed plugin
+    // classes require a restart.
+    private static final Map<String, List<PluginChainElement>> pluginChainCache = new ConcurrentHashMap<>();
 
     @Inject
     @Any
@@ -117,9 +138,26 @@ public class WorkflowService implements WorkflowContext {
     @Inject
     ReportService reportService;
 
+    @Inject
+    MetricService metricService;
+
+    @Inject
+    TraceService traceService;
+
+    // trace of the current processing call
+    private ProcessingTrace processingTrace = ProcessingTrace.NONE;
+
     @Resource
     SessionContext ctx;
 
+    @Inject
+    @ConfigProperty(name = "workflow.eventlog.maxsize", defaultValue = "0")
+    int eventLogMaxSize;
+
+    @Inject
+    @ConfigProperty(name = "workflow.bulk.chunksize", defaultValue = "100")
+    int bulkChunkSize;
+
     @Inject
     protected Event<ProcessingEvent> processingEvents;
 
@@ -423,7 +461,11 @@ public class WorkflowService implements WorkflowContext {
      * <p>
      * The method provides a observer pattern for plugins to get called during the
      * processing phase.
+     * <p>
+     * If tracing is enabled, the method records a {@link ProcessingTrace} for
+     * sampled processing calls.
      * 
+     * @see TraceService
      * @param workitem - the workItem to be processed
      * @return updated version of the processed workItem
      * @throws AccessDeniedException    - thrown if the user has insufficient access
@@ -435,6 +477,40 @@ public class WorkflowService implements WorkflowContext {
      */
     public ItemCollection processWorkItem(ItemCollection workitem)
             throws AccessDeniedException, ProcessingErrorException, PluginException, ModelException {
+        if (traceService == null || !traceService.isEnabled()) {
+            return processWorkItemTraced(workitem);
+        }
+        // nested processing calls get their own trace
+        ProcessingTrace parentTrace = processingTrace;
+        processingTrace = traceService.start("processWorkItem",
+                (metricService != null && metricService.isEnabled()) ? metricService : null);
+        Exception error = null;
+        try {
+            if (workitem != null) {
+                processingTrace.setAttribute(WorkflowKernel.MODELVERSION, workitem.getModelVersion());
+                processingTrace.setAttribute(WorkflowKernel.TASKID, workitem.getTaskID());
+                processingTrace.setAttribute(WorkflowKernel.EVENTID, workitem.getEventID());
+            }
+            return processWorkItemTraced(workitem);
+        } catch (Exception e) {
+            error = e;
+            throw e;
+        } finally {
+            if (workitem != null) {
+                processingTrace.setAttribute(WorkflowKernel.UNIQUEID, workitem.getUniqueID());
+            }
+            processingTrace.close(error);
+            traceService.export(processingTrace);
+            processingTrace = parentTrace;
+        }
+    }
+
+    /**
+     * Processes a workitem and records the processing steps in the current
+     * processing trace.
+     */
+    private ItemCollection processWorkItemTraced(ItemCollection workitem)
+            throws AccessDeniedException, ProcessingErrorException, PluginException, ModelException {
         boolean debug = logger.isLoggable(Level.FINE);
         long lStartTime = System.currentTimeMillis();
 
@@ -443,15 +519,19 @@ public class WorkflowService implements WorkflowContext {
                     ProcessingErrorException.INVALID_WORKITEM, "workitem Is Null!");
 
         // fire event
+        processingTrace.begin("event.beforeProcess");
         if (processingEvents != null) {
             processingEvents.fire(new ProcessingEvent(workitem, ProcessingEvent.BEFORE_PROCESS));
         } else {
             logger.warning("CDI Support is missing - ProcessingEvents Not Supported!");
         }
+        processingTrace.end();
         // load current instance of this workitem if a unqiueID is provided
         if (!workitem.getUniqueID().isEmpty()) {
             // try to load the instance
+            processingTrace.begin("document.load");
             ItemCollection currentInstance = this.getWorkItem(workitem.getUniqueID());
+            processingTrace.end();
             // Instance successful loaded ?
             if (currentInstance != null) {
                 // test for author access
@@ -494,8 +574,13 @@ public class WorkflowService implements WorkflowContext {
         }
 
         // Lookup current model. If not found update model by regex
+        processingTrace.begin("model.version");
         String version = this.findModelVersionByWorkitem(workitem);
+        processingTrace.end();
+        processingTrace.begin("model.fetch");
         BPMNModel model = this.fetchModel(version);
+        processingTrace.end();
+        processingTrace.begin("kernel.init");
         WorkflowKernel workflowkernel = new WorkflowKernel(this);
         ItemCollection profile = workflowkernel.getModelManager().loadDefinition(model);
         // register plugins...
@@ -504,14 +589,18 @@ public class WorkflowService implements WorkflowContext {
         registerAdapters(workflowkernel);
         // udpate workitem metadata...
         updateMetadata(workitem);
+        processingTrace.end();
 
         // now process the workitem
         try {
             long lKernelTime = System.currentTimeMillis();
+            processingTrace.begin("kernel.process");
             workitem = workflowkernel.process(workitem);
+            processingTrace.end();
             if (debug) {
-                logger.log(Level.FINE, "...WorkflowKernel processing time={0}ms",
-                        System.currentTimeMillis() - lKernelTime);
+                logger.log(Level.FINE, "...WorkflowKernel processing time={0}ms (plugin init={1}ms, close={2}ms)",
+                        new Object[] { System.currentTimeMillis() - lKernelTime, workflowkernel.getPluginInitTime(),
+                                workflowkernel.getPluginCloseTime() });
             }
         } catch (PluginException pe) {
             // if a plugin exception occurs we roll back the transaction.
@@ -522,26 +611,169 @@ public class WorkflowService implements WorkflowContext {
         }
 
         // fire event
+        processingTrace.begin("event.afterProcess");
         if (processingEvents != null) {
             processingEvents.fire(new ProcessingEvent(workitem, ProcessingEvent.AFTER_PROCESS));
         }
+        processingTrace.end();
         // Now fire also events for all split versions.....
         List<ItemCollection> splitWorkitems = workflowkernel.getSplitWorkitems();
         for (ItemCollection splitWorkitemm : splitWorkitems) {
+            processingTrace.begin("split " + splitWorkitemm.getUniqueID());
             // fire event
             if (processingEvents != null) {
                 processingEvents.fire(new ProcessingEvent(splitWorkitemm, ProcessingEvent.AFTER_PROCESS));
             }
+            archiveEventLog(splitWorkitemm);
             documentService.save(splitWorkitemm);
+            processingTrace.end();
         }
 
+        processingTrace.begin("document.save");
+        archiveEventLog(workitem);
         workitem = documentService.save(workitem);
+        processingTrace.end();
         if (debug) {
             logger.log(Level.FINE, "...total processing time={0}ms", System.currentTimeMillis() - lStartTime);
         }
         return workitem;
     }
 
+    /**
+     * This method limits the size of the $eventlog of a workitem. If the number of
+     * log entries exceeds the configured 'workflow.eventlog.maxsize', the oldest
+     * entries are moved into a separate archive document of the type
+     * 'eventlogarchive'. The workitem keeps the latest half of the configured
+     * maximum, so an archive document is only created each maxsize/2 events.
+     * <p>
+     * The archive document refers to the workitem by the item $uniqueidref and
+     * inherits its $readaccess and $writeaccess. The workitem lists all its
+     * archive documents in the item $eventlogarchive in chronological order. The
+     * item $eventlogarchiveacl holds a hash of the ACL inherited by the archives.
+     * <p>
+     * If no maxsize is configured (default) the $eventlog is not limited.
+     * 
+     * @param workitem - the processed workitem
+     */
+    @SuppressWarnings("unchecked")
+    protected void archiveEventLog(ItemCollection workitem) {
+        if (eventLogMaxSize <= 0) {
+            return;
+        }
+        List<Object> eventLog = workitem.getItemValue(WorkflowKernel.EVENTLOG);
+        if (eventLog.size() <= eventLogMaxSize) {
+            return;
+        }
+        int archiveSize = eventLog.size() - Math.max(1, eventLogMaxSize / 2);
+        ItemCollection archive = new ItemCollection();
+        archive.setItemValue(WorkflowKernel.UNIQUEID, WorkflowKernel.generateUniqueID());
+        archive.setType(TYPE_EVENTLOG_ARCHIVE);
+        archive.setItemValue(UNIQUEIDREF, workitem.getUniqueID());
+        archive.setItemValue(READACCESS, workitem.getItemValue(READACCESS));
+        archive.setItemValue(WRITEACCESS, workitem.getItemValue(WRITEACCESS));
+        archive.setItemValue(DocumentService.NOINDEX, true);
+        archive.setItemValue(WorkflowKernel.EVENTLOG, new ArrayList<Object>(eventLog.subList(0, archiveSize)));
+        archive = documentService.save(archive);
+
+        // the first archive inherits the current ACL - later changes are cascaded on save
+        String aclHash = getACLHash(workitem.getItemValue(READACCESS), workitem.getItemValue(WRITEACCESS));
+        if (!workitem.hasItem(EVENTLOG_ARCHIVE)) {
+            workitem.replaceItemValue(EVENTLOG_ARCHIVE_ACL, aclHash);
+        }
+        workitem.replaceItemValue(WorkflowKernel.EVENTLOG,
+                new ArrayList<Object>(eventLog.subList(archiveSize, eventLog.size())));
+        workitem.appendItemValue(EVENTLOG_ARCHIVE, archive.getUniqueID());
+        logger.log(Level.FINE, "...{0} $eventlog entries of ''{1}'' archived in ''{2}''",
+                new Object[] { archiveSize, workitem.getUniqueID(), archive.getUniqueID() });
+    }
+
+    /**
+     * This method keeps the eventlog archive documents of a workitem in sync with
+     * the workitem. If a workitem listing archive documents in the item
+     * $eventlogarchive is saved, the archives follow changes of its $readaccess
+     * and $writeaccess. If the workitem is deleted, its archive documents are
+     * deleted too.
+     * <p>
+     * The archives are only loaded if the ACL of the workitem has changed. The
+     * item $eventlogarchiveacl holds a hash of the ACL the archives were last
+     * updated with. So saving a workitem with an unchanged ACL costs no archive
+     * load.
+     * <p>
+     * An archive which can not be updated or deleted by the current user is
+     * skipped with a warning, so the operation on the workitem itself is not
+     * blocked. In this case the hash is not updated and the archives are
+     * updated again with the next save.
+     * 
+     * @param documentEvent - the DocumentEvent
+     */
+    @SuppressWarnings("unchecked")
+    public void onDocumentEvent(@Observes DocumentEvent documentEvent) {
+        ItemCollection workitem = documentEvent.getDocument();
+        if (workitem == null || !workitem.hasItem(EVENTLOG_ARCHIVE)) {
+            return;
+        }
+        int eventType = documentEvent.getEventType();
+        if (eventType != DocumentEvent.ON_DOCUMENT_SAVE && eventType != DocumentEvent.ON_DOCUMENT_DELETE) {
+            return;
+        }
+        List<String> readAccess = new ArrayList<String>(workitem.getItemValue(READACCESS));
+        List<String> writeAccess = new ArrayList<String>(workitem.getItemValue(WRITEACCESS));
+        String aclHash = getACLHash(readAccess, writeAccess);
+        if (eventType == DocumentEvent.ON_DOCUMENT_SAVE
+                && aclHash.equals(workitem.getItemValueString(EVENTLOG_ARCHIVE_ACL))) {
+            return;
+        }
+        boolean updated = true;
+        for (Object id : workitem.getItemValue(EVENTLOG_ARCHIVE)) {
+            try {
+                ItemCollection archive = documentService.load(id.toString());
+                if (archive == null) {
+                    continue;
+                }
+                if (eventType == DocumentEvent.ON_DOCUMENT_DELETE) {
+                    documentService.remove(archive);
+                } else if (!readAccess.equals(archive.getItemValue(READACCESS))
+                        || !writeAccess.equals(archive.getItemValue(WRITEACCESS))) {
+                    archive.replaceItemValue(READACCESS, readAccess);
+                    archive.replaceItemValue(WRITEACCESS, writeAccess);
+                    documentService.save(archive);
+                }
+            } catch (AccessDeniedException e) {
+                logger.log(Level.WARNING, "...unable to update eventlog archive ''{0}'' of ''{1}'': {2}",
+                        new Object[] { id, workitem.getUniqueID(), e.getMessage() });
+                updated = false;
+            }
+        }
+        if (eventType == DocumentEvent.ON_DOCUMENT_SAVE && updated) {
+            workitem.replaceItemValue(EVENTLOG_ARCHIVE_ACL, aclHash);
+        }
+    }
+
+    /**
+     * Returns a SHA-256 hash of the given $readaccess and $writeaccess lists.
+     * 
+     * @param readAccess  - list of readers
+     * @param writeAccess - list of authors
+     * @return hex encoded hash
+     */
+    static String getACLHash(List<?> readAccess, List<?> writeAccess) {
+        StringBuilder acl = new StringBuilder();
+        for (Object name : readAccess) {
+            acl.append(name).append('\u0000');
+        }
+        acl.append('\u0001');
+        for (Object name : writeAccess) {
+            acl.append(name).append('\u0000');
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(acl.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is supported by every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * This method processes a workItem based on a given event.
      * 
@@ -604,6 +836,145 @@ public class WorkflowService implements WorkflowContext {
         return processWorkItem(workitem);
     }
 
+    /**
+     * This method processes a list of workitems in one new transaction. The
+     * processed workitems are added to the given result list. If a workitem can
+     * not be processed, the transaction is rolled back and the exception is
+     * thrown. In this case the size of the result list is the index of the failing
+     * workitem.
+     * 
+     * @param workitems - list of workitems to be processed
+     * @param result    - receives the processed workitems
+     * @throws ModelException
+     * @throws PluginException
+     * @throws ProcessingErrorException
+     * @throws AccessDeniedException
+     */
+    @TransactionAttribute(value = TransactionAttributeType.REQUIRES_NEW)
+    public void processWorkItemsByNewTransaction(List<ItemCollection> workitems, List<ItemCollection> result)
+            throws AccessDeniedException, ProcessingErrorException, PluginException, ModelException {
+        try {
+            for (ItemCollection workitem : workitems) {
+                result.add(processWorkItem(workitem));
+            }
+        } catch (PluginException | ModelException e) {
+            // application exceptions do not roll back the transaction
+            if (ctx != null) {
+                ctx.setRollbackOnly();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * This method processes a stream of workitems in chunks. Each chunk is
+     * processed and committed in a new transaction. The result of each workitem is
+     * passed to the given result handler as soon as its chunk was committed.
+     * <p>
+     * If a workitem of a chunk fails, the chunk is rolled back. The failing
+     * workitem is passed to the result handler with the items $error_code and
+     * $error_message. The workitems before the failing workitem are not processed
+     * again, because side effects which are not part of the transaction - e.g. a
+     * mail sent by the MailPlugin - were already executed. These workitems are
+     * passed to the result handler with the $error_code 'CHUNK_ROLLED_BACK' and
+     * can be retried by the caller. The workitems after the failing workitem were
+     * not yet processed and are processed in a new chunk. If the commit of a chunk
+     * fails, all workitems of the chunk are passed with the error to the result
+     * handler.
+     * <p>
+     * The method is not executed in a transaction context. The default chunk size
+     * can be set by the config property 'workflow.bulk.chunksize' (default 100).
+     * 
+     * @param workitems     - workitems to be processed
+     * @param chunkSize     - number of workitems committed in one transaction, or
+     *                      0 for the default chunk size
+     * @param resultHandler - receives the processed workitem or the workitem with
+     *                      an error message in the order of the input
+     * @return number of workitems processed without an error
+     */
+    @TransactionAttribute(value = TransactionAttributeType.NOT_SUPPORTED)
+    public int processWorkItems(Iterator<ItemCollection> workitems, int chunkSize,
+            Consumer<ItemCollection> resultHandler) {
+        // call the transactional methods through the container
+        WorkflowService workflowService = (ctx != null) ? ctx.getBusinessObject(WorkflowService.class) : null;
+        if (workflowService == null) {
+            workflowService = this;
+        }
+        if (chunkSize <= 0) {
+            chunkSize = bulkChunkSize > 0 ? bulkChunkSize : 100;
+        }
+        int count = 0;
+        List<ItemCollection> chunk = new ArrayList<ItemCollection>(chunkSize);
+        List<ItemCollection> copies = new ArrayList<ItemCollection>(chunkSize);
+        while (workitems.hasNext()) {
+            ItemCollection workitem = workitems.next();
+            chunk.add(workitem);
+            // the kernel changes the workitem - so we keep a copy for a retry
+            copies.add(new ItemCollection(workitem));
+            if (chunk.size() >= chunkSize || !workitems.hasNext()) {
+                count += processChunk(workflowService, chunk, copies, resultHandler);
+                chunk.clear();
+                copies.clear();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Processes a chunk of workitems in one transaction. If a workitem fails, the
+     * workitems before the failing workitem are rejected as rolled back and the
+     * workitems after the failing workitem are processed in a new chunk. If the
+     * commit fails, all workitems are rejected.
+     */
+    private int processChunk(WorkflowService workflowService, List<ItemCollection> chunk,
+            List<ItemCollection> copies, Consumer<ItemCollection> resultHandler) {
+        List<ItemCollection> result = new ArrayList<ItemCollection>(chunk.size());
+        try {
+            workflowService.processWorkItemsByNewTransaction(chunk, result);
+            result.forEach(resultHandler);
+            return result.size();
+        } catch (Exception e) {
+            logger.log(Level.FINE, "...chunk of {0} workitems rolled back - {1}",
+                    new Object[] { chunk.size(), e.getMessage() });
+            int failed = result.size();
+            if (failed == chunk.size()) {
+                // the commit failed - all workitems were already processed
+                for (ItemCollection workitem : copies) {
+                    resultHandler.accept(ImixsExceptionHandler.addErrorMessage(e, new ItemCollection(workitem)));
+                }
+                return 0;
+            }
+            // the workitems before the failing workitem are not processed again
+            for (ItemCollection workitem : copies.subList(0, failed)) {
+                ItemCollection rolledBack = new ItemCollection(workitem);
+                rolledBack.replaceItemValue("$error_code", CHUNK_ROLLED_BACK);
+                rolledBack.replaceItemValue("$error_message",
+                        "rolled back by a failing workitem of the same chunk - the workitem can be retried");
+                resultHandler.accept(rolledBack);
+            }
+            resultHandler.accept(ImixsExceptionHandler.addErrorMessage(e, new ItemCollection(copies.get(failed))));
+            if (failed + 1 < chunk.size()) {
+                return processRemainingChunk(workflowService, copies.subList(failed + 1, chunk.size()), resultHandler);
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Processes the workitems after a failing workitem in a new chunk. The kernel
+     * changes the workitems - so new copies are kept for a further failure.
+     */
+    private int processRemainingChunk(WorkflowService workflowService, List<ItemCollection> workitems,
+            Consumer<ItemCollection> resultHandler) {
+        List<ItemCollection> chunk = new ArrayList<ItemCollection>(workitems.size());
+        List<ItemCollection> copies = new ArrayList<ItemCollection>(workitems.size());
+        for (ItemCollection workitem : workitems) {
+            chunk.add(new ItemCollection(workitem));
+            copies.add(new ItemCollection(workitem));
+        }
+        return processChunk(workflowService, chunk, copies, resultHandler);
+    }
+
     public void removeWorkItem(ItemCollection aworkitem) throws AccessDeniedException {
         documentService.remove(aworkitem);
     }
@@ -647,6 +1018,16 @@ public class WorkflowService implements WorkflowContext {
 
     /**
      * This method register all plugin classes listed in the model profile
+     * <p>
+     * The first time a plugin definition is registered, each plugin is resolved
+     * by its name and validated by the WorkflowKernel. The resolved plugin chain is
+     * cached by the definition. For all following calls the plugin instances are
+     * created directly from the cached chain and registered in one step.
+     * <p>
+     * The cache is keyed only by the definition string (the comma separated list
+     * of txtPlugins). A cached chain is not validated again by the WorkflowKernel.
+     * Empty entries in the definition are skipped and logged once when the
+     * definition is resolved.
      * 
      * @throws PluginException
      * @throws ModelException
@@ -658,6 +1039,18 @@ public class WorkflowService implements WorkflowContext {
 
         // register plugins defined in the environment.profile ....
         List<String> vPlugins = (List<String>) profile.getItemValue("txtPlugins");
+        String definition = String.join(",", vPlugins);
+        List<PluginChainElement> pluginChain = pluginChainCache.get(definition);
+        if (pluginChain != null) {
+            List<Plugin> pluginInstances = new ArrayList<Plugin>(pluginChain.size());
+            for (PluginChainElement element : pluginChain) {
+                pluginInstances.add(createPlugin(element));
+            }
+            workflowkernel.registerPlugins(pluginInstances);
+            return;
+        }
+
+        pluginChain = new ArrayList<PluginChainElement>();
         for (int i = 0; i < vPlugins.size(); i++) {
             String aPluginClassName = vPlugins.get(i);
 
@@ -669,11 +1062,52 @@ public class WorkflowService implements WorkflowContext {
                     logger.log(Level.FINEST, "......register CDI plugin class: {0}...", aPluginClassName);
                 }
                 workflowkernel.registerPlugin(aPlugin);
-            } else {
+                pluginChain.add(new PluginChainElement(aPlugin.getClass(), true));
+            } else if (aPluginClassName != null && !aPluginClassName.isEmpty()) {
                 // register plugin by class name
                 workflowkernel.registerPlugin(aPluginClassName);
+                List<Plugin> registry = workflowkernel.getPluginRegistry();
+                pluginChain.add(new PluginChainElement(registry.get(registry.size() - 1).getClass(), false));
+            } else {
+                // the definition is resolved only once - so the entry is logged once
+                logger.log(Level.WARNING,
+                        "...empty plugin entry at position {0} in plugin definition ''{1}'' skipped",
+                        new Object[] { i, definition });
+            }
+        }
+        // the chain is validated - cache it
+        if (pluginChainCache.size() < MAX_CACHED_PLUGIN_CHAINS) {
+            pluginChainCache.putIfAbsent(definition, pluginChain);
+        }
+    }
+
+    /**
+     * Creates a new plugin instance of a resolved plugin chain element. CDI
+     * plugins are selected from the injected plugin instances, all other plugins
+     * are created by their default constructor.
+     * 
+     * @param element - resolved plugin chain element
+     * @return new plugin instance
+     * @throws PluginException if the plugin can not be created
+     */
+    private Plugin createPlugin(PluginChainElement element) throws PluginException {
+        if (element.cdi) {
+            Instance<? extends Plugin> instance = plugins.select(element.pluginClass);
+            if (instance.isResolvable()) {
+                return instance.get();
+            }
+            // fallback to the lookup by name
+            Plugin plugin = findPluginByName(element.pluginClass.getName());
+            if (plugin != null) {
+                return plugin;
             }
         }
+        try {
+            return element.pluginClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | SecurityException e) {
+            throw new PluginException(WorkflowKernel.class.getSimpleName(), WorkflowKernel.PLUGIN_NOT_CREATEABLE,
+                    "unable to register plugin: " + element.pluginClass.getName() + " - reason: " + e.toString(), e);
+        }
     }
 
     protected void registerAdapters(WorkflowKernel workflowkernel) {
@@ -784,6 +1218,36 @@ public class WorkflowService implements WorkflowContext {
         return modelService.getBPMNModel(version);
     }
 
+    /**
+     * Returns the transition table of the given model version shared by all
+     * processing calls. The table is managed by the {@link ModelService}.
+     *
+     * @param version - model version
+     * @return shared transition table or null
+     */
+    @Override
+    public BPMNTransitionTable findTransitionTable(String version) {
+        return modelService.findTransitionTable(version);
+    }
+
+    /**
+     * Returns the current {@link ProcessingTrace} if the processing call is
+     * sampled, or the {@link MetricService} if metrics are enabled, otherwise null.
+     *
+     * @return KernelMetrics or null
+     */
+    @Override
+    public KernelMetrics getKernelMetrics() {
+        if (processingTrace.isSampled()) {
+            // the trace forwards the measurements to the MetricService
+            return processingTrace;
+        }
+        if (metricService != null && metricService.isEnabled()) {
+            return metricService;
+        }
+        return null;
+    }
+
     /**
      * Returns a Model matching the $modelversion of a given workitem. The
      * $modelversion can optional be provided as a regular expression.
@@ -836,32 +1300,20 @@ public class WorkflowService implements WorkflowContext {
     }
 
     /**
-     * This method returns a sorted list of model versions matching a given regex
-     * for a model version. The result is sorted in reverse order, so the highest
-     * version number is the first in the result list.
+     * This method returns the highest model version matching a given regex for a
+     * model version. The versions are resolved from the version index of the
+     * ModelService.
      * 
-     * @param group
-     * @return
+     * @param modelRegex
+     * @return highest matching model version or null
      */
     @Override
     public String findModelVersionByRegEx(String modelRegex) {
         boolean debug = logger.isLoggable(Level.FINE);
-        // Sorted in reverse order
-        Set<String> result = new TreeSet<>(Collections.reverseOrder());
         if (debug) {
             logger.log(Level.FINEST, "......searching model versions for regex ''{0}''...", modelRegex);
         }
-        // try to find matching model version by regex
-        List<String> modelVersions = modelService.getVersions();
-        for (String _version : modelVersions) {
-            if (Pattern.compile(modelRegex).matcher(_version).find()) {
-                result.add(_version);
-            }
-        }
-        if (result.size() > 0) {
-            return result.iterator().next();
-        }
-        return null;
+        return modelService.findVersionByRegEx(modelRegex);
     }
 
     /**
@@ -1110,9 +1562,51 @@ public class WorkflowService implements WorkflowContext {
         if (workflowResult.isEmpty()) {
             workflowResult = event.getItemValueString("txtActivityResult");
         }
+        if (!resolveItemValues && documentContext != null && !workflowResult.isEmpty()) {
+            // the result of a static workflow result only depends on the model
+            // definition and can be cached per model version
+            String version = documentContext.getModelVersion();
+            String key = "result." + xmlTag + "~" + workflowResult;
+            ItemCollection result = modelService.findItemStructure(version, key);
+            if (result == null) {
+                result = evalXMLExpression(workflowResult, xmlTag, documentContext, false);
+                modelService.cacheItemStructure(version, key, result);
+            }
+            return result;
+        }
         return evalXMLExpression(workflowResult, xmlTag, documentContext, resolveItemValues);
     }
 
+    /**
+     * Parses a XML item definition into an ItemCollection. The method is used by
+     * plugins to evaluate structured definitions embedded in a workflow result,
+     * e.g.:
+     * <p>
+     * {@code <modelversion>1.0.0</modelversion><task>100</task><event>20</event>}
+     * <p>
+     * The parsed structure is cached for the model version of the given
+     * documentContext, so the DOM parser runs only once per definition.
+     * 
+     * @param xmlContent      - XML fragment without a root element
+     * @param documentContext - the current workitem providing the model version
+     * @return parsed item structure
+     * @throws PluginException if the XML is malformed
+     */
+    public ItemCollection parseItemStructure(String xmlContent, ItemCollection documentContext)
+            throws PluginException {
+        if (xmlContent == null || documentContext == null) {
+            return XMLParser.parseItemStructure(xmlContent);
+        }
+        String version = documentContext.getModelVersion();
+        String key = "structure~" + xmlContent;
+        ItemCollection result = modelService.findItemStructure(version, key);
+        if (result == null) {
+            result = XMLParser.parseItemStructure(xmlContent);
+            modelService.cacheItemStructure(version, key, result);
+        }
+        return result;
+    }
+
     /**
      * The method evaluates the WorkflowResult for a given BPMN event and returns a
      * ItemColleciton containing all item values of a specified tag name. Each tag
@@ -1734,4 +2228,19 @@ public class WorkflowService implements WorkflowContext {
 
         return finalExpression;
     }
+
+    /**
+     * A resolved element of a plugin chain holding the plugin class and the
+     * information if the plugin is a CDI bean.
+     */
+    private static class PluginChainElement {
+        final Class<? extends Plugin> pluginClass;
+        final boolean cdi;
+
+        PluginChainElement(Class<? extends Plugin> pluginClass, boolean cdi) {
+            this.pluginClass = pluginClass;
+            this.cdi = cdi;
+        }
+    }
+
 }
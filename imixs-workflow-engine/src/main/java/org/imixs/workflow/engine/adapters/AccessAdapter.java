@@ -17,7 +17,10 @@ package org.imixs.workflow.engine.adapters;
 
 import java.io.Serializable;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.Vector;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -251,6 +254,8 @@ public class AccessAdapter implements GenericAdapter, Serializable {
             return;
         List<?> values = null;
         if (fieldList.size() > 0) {
+            // hash set of the existing values to avoid a linear indexOf per value
+            Set<Object> existingValues = new HashSet<Object>(valueList);
             // iterate over the fieldList
             for (String key : fieldList) {
                 if (key == null) {
@@ -272,7 +277,7 @@ public class AccessAdapter implements GenericAdapter, Serializable {
                 if ((values != null) && (values.size() > 0)) {
                     for (Object o : values) {
                         // append only if not used
-                        if (valueList.indexOf(o) == -1)
+                        if (existingValues.add(o))
                             valueList.add(o);
                     }
                 }
@@ -282,23 +287,20 @@ public class AccessAdapter implements GenericAdapter, Serializable {
     }
 
     /**
-     * This method removes duplicates and null values from a vector.
+     * This method removes duplicates and null values from a vector. The order of
+     * the elements is preserved.
      * 
      * @param valueList - list of elements
      */
     public List<?> uniqueList(List<Object> valueList) {
-        int iVectorSize = valueList.size();
-        Vector<Object> cleanedVector = new Vector<Object>();
-
-        for (int i = 0; i < iVectorSize; i++) {
-            Object o = valueList.get(i);
-            if (o == null || cleanedVector.indexOf(o) > -1 || "".equals(o.toString()))
+        Set<Object> uniqueValues = new LinkedHashSet<Object>();
+        for (Object o : valueList) {
+            if (o == null || "".equals(o.toString()))
                 continue;
-
             // add unique object
-            cleanedVector.add(o);
+            uniqueValues.add(o);
         }
-        valueList = cleanedVector;
+        valueList = new Vector<Object>(uniqueValues);
         // do not work with empty vectors....
         if (valueList.size() == 0)
             valueList.add("");
@@ -319,15 +321,19 @@ public class AccessAdapter implements GenericAdapter, Serializable {
     @SuppressWarnings({ "rawtypes", "unchecked" })
     public void mergeRoles(List valueList, List sourceList, ItemCollection documentContext) throws PluginException {
         if ((sourceList != null) && (sourceList.size() > 0)) {
+            // hash set of the existing values to avoid a linear indexOf per value
+            Set<Object> existingValues = new HashSet<Object>(valueList);
             for (Object o : sourceList) {
-                if (valueList.indexOf(o) == -1) {
+                if (!existingValues.contains(o)) {
                     if (o instanceof String) {
                         // addapt textList
                         List<String> adaptedRoles = workflowService.adaptTextList((String) o, documentContext);
                         valueList.addAll(adaptedRoles);// .add(getWorkflowService().adaptText((String)o,
                                                        // documentContext));
+                        existingValues.addAll(adaptedRoles);
                     } else {
                         valueList.add(o);
+                        existingValues.add(o);
                     }
                 }
             }
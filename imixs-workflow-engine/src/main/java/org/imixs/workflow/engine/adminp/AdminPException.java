@@ -27,6 +27,7 @@ public class AdminPException extends InvalidAccessException {
 
     private static final long serialVersionUID = 1L;
     public static final String INVALID_PARAMS = "INVALID_PARAMS";
+    public static final String EXECUTION_FAILED = "EXECUTION_FAILED";
 
     public AdminPException(String aErrorCode, String message) {
         super(aErrorCode, message);
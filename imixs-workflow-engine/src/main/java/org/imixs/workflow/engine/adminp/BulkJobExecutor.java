@@ -0,0 +1,235 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.engine.adminp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.imixs.workflow.ItemCollection;
+import org.imixs.workflow.engine.DocumentService;
+import org.imixs.workflow.engine.index.UpdateService;
+import org.imixs.workflow.exceptions.InvalidAccessException;
+
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+
+/**
+ * The BulkJobExecutor is used by AdminP JobHandlers to process a block of
+ * documents in chunks. Each chunk is processed by a task in one single
+ * transaction. The chunks can be distributed to a pool of parallel workers
+ * running in a ManagedExecutorService.
+ * <p>
+ * After a chunk was committed, all updated documents of the chunk are written
+ * into the index in one block. This avoids one index eventLog entry per
+ * document.
+ * <p>
+ * If a chunk fails, its transaction is rolled back and the documents of the
+ * chunk are processed again one by one. So a single invalid document does not
+ * block the other documents of its chunk. The ids of documents which can not be
+ * processed are collected in the list of failed ids. The JobHandlers store
+ * these ids in the job item 'failedids'.
+ * 
+ * @see JobHandlerRenameUser
+ * @see JobHandlerUpgradeWorkitems
+ * @author rsoika
+ *
+ */
+class BulkJobExecutor {
+
+    public static final int DEFAULT_CHUNK_SIZE = 100;
+    public static final String ITEM_FAILED_IDS = "failedids";
+
+    private static final Logger logger = Logger.getLogger(BulkJobExecutor.class.getName());
+
+    private BulkJobExecutor() {
+    }
+
+    /**
+     * Splits a list of documents into chunks of the given size.
+     * 
+     * @param documents - list of documents
+     * @param chunkSize - max size of a chunk
+     * @return list of chunks
+     */
+    static List<List<ItemCollection>> split(List<ItemCollection> documents, int chunkSize) {
+        if (chunkSize <= 0) {
+            chunkSize = DEFAULT_CHUNK_SIZE;
+        }
+        List<List<ItemCollection>> chunks = new ArrayList<List<ItemCollection>>();
+        for (int i = 0; i < documents.size(); i += chunkSize) {
+            chunks.add(new ArrayList<ItemCollection>(documents.subList(i, Math.min(documents.size(), i + chunkSize))));
+        }
+        return chunks;
+    }
+
+    /**
+     * Executes a task for each chunk and updates the index for the documents
+     * returned by the task. If more than one worker is requested, the chunks are
+     * distributed to the workers of the ManagedExecutorService. Each worker
+     * processes its chunks in sequence.
+     * <p>
+     * The task is expected to run in a new transaction (e.g. by calling a
+     * business method annotated with REQUIRES_NEW) and to return the list of
+     * updated documents.
+     * 
+     * @param executor        - the ManagedExecutorService
+     * @param workers         - number of parallel workers
+     * @param chunks          - list of chunks
+     * @param task            - the task processing a single chunk
+     * @param updateService   - the index UpdateService
+     * @param documentService - the DocumentService used as a fallback to queue
+     *                        index updates
+     * @param failedIds       - collects the ids of documents which could not be
+     *                        processed
+     * @return list of all updated documents
+     * @throws AdminPException if a worker failed
+     */
+    static List<ItemCollection> execute(ManagedExecutorService executor, int workers,
+            List<List<ItemCollection>> chunks, Function<List<ItemCollection>, List<ItemCollection>> task,
+            UpdateService updateService, DocumentService documentService, List<String> failedIds)
+            throws AdminPException {
+        List<ItemCollection> result = new ArrayList<ItemCollection>();
+        if (workers <= 1 || chunks.size() <= 1 || executor == null) {
+            for (List<ItemCollection> chunk : chunks) {
+                result.addAll(processChunk(chunk, task, updateService, documentService, failedIds));
+            }
+            return result;
+        }
+        // the workers report failed ids concurrently
+        final List<String> failed = Collections.synchronizedList(failedIds);
+
+        // distribute the chunks to the workers
+        List<Future<List<ItemCollection>>> futures = new ArrayList<Future<List<ItemCollection>>>();
+        for (int w = 0; w < Math.min(workers, chunks.size()); w++) {
+            final int worker = w;
+            futures.add(executor.submit(() -> {
+                List<ItemCollection> workerResult = new ArrayList<ItemCollection>();
+                for (int i = worker; i < chunks.size(); i += workers) {
+                    workerResult.addAll(processChunk(chunks.get(i), task, updateService, documentService, failed));
+                }
+                return workerResult;
+            }));
+        }
+        Exception error = null;
+        for (Future<List<ItemCollection>> future : futures) {
+            try {
+                result.addAll(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error = e;
+            } catch (ExecutionException e) {
+                error = e;
+            }
+        }
+        if (error != null) {
+            Throwable cause = error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof InvalidAccessException) {
+                throw (InvalidAccessException) cause;
+            }
+            throw new AdminPException(AdminPException.EXECUTION_FAILED, "chunk failed: " + cause.getMessage(),
+                    error);
+        }
+        return result;
+    }
+
+    /**
+     * Runs the task for a single chunk and writes the updated documents into the
+     * index. If the index update fails, the documents are queued into the index
+     * eventLog.
+     * <p>
+     * If the task fails, the documents of the chunk are processed again one by one,
+     * each in a new transaction.
+     */
+    private static List<ItemCollection> processChunk(List<ItemCollection> chunk,
+            Function<List<ItemCollection>, List<ItemCollection>> task, UpdateService updateService,
+            DocumentService documentService, List<String> failedIds) {
+        // the task changes the documents - so we keep a copy for a retry
+        List<ItemCollection> copies = new ArrayList<ItemCollection>(chunk.size());
+        for (ItemCollection document : chunk) {
+            copies.add(new ItemCollection(document));
+        }
+        List<ItemCollection> updates;
+        try {
+            updates = task.apply(chunk);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "...chunk of {0} documents rolled back ({1}) - retry one by one...",
+                    new Object[] { chunk.size(), e.getMessage() });
+            updates = new ArrayList<ItemCollection>();
+            for (ItemCollection document : copies) {
+                try {
+                    List<ItemCollection> update = task.apply(Collections.singletonList(document));
+                    if (update != null) {
+                        updates.addAll(update);
+                    }
+                } catch (RuntimeException ex) {
+                    logger.log(Level.WARNING, "...failed to process document {0}: {1}",
+                            new Object[] { document.getUniqueID(), ex.getMessage() });
+                    failedIds.add(document.getUniqueID());
+                }
+            }
+        }
+        if (updates != null && updates.size() > 0) {
+            try {
+                updateService.updateIndex(updates);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "...bulk index update failed ({0}) - queue {1} documents...",
+                        new Object[] { e.getMessage(), updates.size() });
+                for (ItemCollection document : updates) {
+                    documentService.addDocumentToIndex(document);
+                }
+            }
+        }
+        return updates == null ? new ArrayList<ItemCollection>() : updates;
+    }
+
+    /**
+     * Appends the ids of documents which could not be processed to the job item
+     * 'failedids' and updates the count 'numFailed'.
+     * 
+     * @param adminp    - the job document
+     * @param failedIds - ids of the documents failed in the last run
+     */
+    static void updateFailures(ItemCollection adminp, List<String> failedIds) {
+        if (failedIds.isEmpty()) {
+            return;
+        }
+        for (String id : failedIds) {
+            adminp.appendItemValue(ITEM_FAILED_IDS, id);
+        }
+        adminp.replaceItemValue("numFailed", adminp.getItemValueInteger("numFailed") + failedIds.size());
+    }
+
+    /**
+     * Updates the throughput of the last run (numDocumentsPerSecond) in the job
+     * document.
+     * 
+     * @param adminp    - the job document
+     * @param processed - documents processed in the last run
+     * @param lProfiler - start time of the run
+     */
+    static void updateStatistics(ItemCollection adminp, int processed, long lProfiler) {
+        long time = System.currentTimeMillis() - lProfiler;
+        if (time == 0) {
+            time = 1;
+        }
+        adminp.replaceItemValue("numDocumentsPerSecond", (processed * 1000L) / time);
+    }
+}
@@ -18,10 +18,14 @@ package org.imixs.workflow.engine.adminp;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
+import jakarta.annotation.Resource;
 import jakarta.annotation.security.DeclareRoles;
 import jakarta.annotation.security.RunAs;
 import jakarta.inject.Inject;
@@ -35,9 +39,11 @@ import org.imixs.workflow.exceptions.InvalidAccessException;
 import org.imixs.workflow.exceptions.PluginException;
 
 import jakarta.ejb.LocalBean;
+import jakarta.ejb.SessionContext;
 import jakarta.ejb.Stateless;
 import jakarta.ejb.TransactionAttribute;
 import jakarta.ejb.TransactionAttributeType;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Query;
@@ -47,6 +53,18 @@ import java.util.logging.Level;
  * JobHandler to rebuild the lucene fulltext index.
  * 
  * The job starts at 1970/01/01 and reads documents in sequence.
+ * <p>
+ * If more than one worker is configured (property 'lucene.rebuild.workers' or
+ * the job item 'numWorkers') the creation timestamp range of all documents is
+ * split into slices which are indexed concurrently. Each worker runs in its own
+ * transaction and stores its own checkpoint in the job document, so a suspended
+ * or failed job resumes each slice where it stopped. The index updates are
+ * still written through the UpdateService which serializes the access to the
+ * index writer.
+ * <p>
+ * After each run the job document provides the current throughput
+ * (numDocumentsPerSecond) and the estimated remaining time in seconds
+ * (numEstimatedTime) based on the total count of documents (numTotal).
  * 
  * @author rsoika
  *
@@ -63,14 +81,27 @@ public class JobHandlerRebuildIndex implements JobHandler {
     @ConfigProperty(name = "lucene.rebuild.time_out", defaultValue = "" + AdminPService.DEFAULT_INTERVAL) 
     int time_out;
 
+    @Inject
+    @ConfigProperty(name = "lucene.rebuild.workers", defaultValue = "1")
+    int workers;
+
     private static final int READ_AHEAD = 32;
     public final static String ITEM_SYNCPOINT = "syncpoint";
     public final static String ITEM_SYNCDATE = "syncdate";
+    public final static String ITEM_SLICE_SYNCPOINTS = "_slice.syncpoints";
+    public final static String ITEM_SLICE_SYNCENDS = "_slice.syncends";
+    public final static String ITEM_SLICE_COMPLETED = "_slice.completed";
     public static final String SNAPSHOT_TYPE_PRAFIX = "snapshot-";
 
     @PersistenceContext(unitName = "org.imixs.workflow.jpa")
     private EntityManager manager;
 
+    @Resource
+    SessionContext ctx;
+
+    @Resource
+    ManagedExecutorService executor;
+
     @Inject
     UpdateService updateService;
 
@@ -117,16 +148,31 @@ public class JobHandlerRebuildIndex implements JobHandler {
         adminp.setItemValue("numinterval", time_out);
         logger.log(Level.INFO, "...Job " + AdminPService.JOB_REBUILD_INDEX + " ({0}) - lucene.rebuild.time_out={1}",
                 new Object[]{adminp.getUniqueID(), time_out});
+        if (!adminp.hasItem("numTotal")) {
+            adminp.replaceItemValue("numTotal", countDocuments());
+        }
+
+        // test if the job document provides a worker count otherwise we take the
+        // defaults.
+        int jobWorkers = adminp.getItemValueInteger("numWorkers");
+        if (jobWorkers <= 0) {
+            jobWorkers = workers;
+        }
+        if (jobWorkers > 1 || adminp.hasItem(ITEM_SLICE_SYNCPOINTS)) {
+            return runSlices(adminp, jobWorkers, lProfiler);
+        }
+
         try {
             while (true) {
                 List<ItemCollection> resultList = new ArrayList<ItemCollection>();
-                List<Document> documents = findNextDocumentsBySyncPoint(syncPoint);
+                List<Document> documents = findNextDocumentsBySyncPoint(syncPoint, 0);
                 if (documents != null && documents.size() > 0) {
                     for (Document doc : documents) {
                         // update syncpoint
                         syncPoint = doc.getCreated().getTimeInMillis();
                         try {
-                            resultList.add(new ItemCollection(doc.getData()));
+                            // the index only reads the data, so we can avoid a deep copy here
+                            resultList.add(ItemCollection.createByReference(doc.getData()));
                         } catch (InvalidAccessException e) {
                             logger.log(Level.WARNING, "...unable to index document ''{0}'' {1}",
                                     new Object[]{doc.getId(), e.getMessage()});
@@ -171,9 +217,7 @@ public class JobHandlerRebuildIndex implements JobHandler {
 
                     adminp.replaceItemValue("_syncpoint", syncPoint);
                     adminp.replaceItemValue(JobHandler.ISCOMPLETED, false);
-                    adminp.replaceItemValue("numUpdates", totalCount);
-                    adminp.replaceItemValue("numProcessed", totalCount);
-                    adminp.replaceItemValue("numLastCount", 0);
+                    updateStatistics(adminp, totalCount, lProfiler);
                     return adminp;
                 }
             }
@@ -189,9 +233,7 @@ public class JobHandlerRebuildIndex implements JobHandler {
             adminp.replaceItemValue("error", e.getMessage());
             adminp.replaceItemValue(ITEM_SYNCPOINT, syncPoint);
             adminp.replaceItemValue(ITEM_SYNCDATE, syncDate);
-            adminp.replaceItemValue("numUpdates", totalCount);
-            adminp.replaceItemValue("numProcessed", totalCount);
-            adminp.replaceItemValue("numLastCount", 0);
+            updateStatistics(adminp, totalCount, lProfiler);
             return adminp;
         }
 
@@ -205,11 +247,237 @@ public class JobHandlerRebuildIndex implements JobHandler {
                 new Object[]{adminp.getUniqueID(), totalCount, time});
 
         adminp.replaceItemValue(JobHandler.ISCOMPLETED, true);
+        updateStatistics(adminp, totalCount, lProfiler);
+        return adminp;
+
+    }
+
+    /**
+     * This method runs the RebuildLuceneIndexJob in parallel slices. In the first
+     * run the creation timestamp range of all documents is split into one slice
+     * per worker. The slice boundaries and the checkpoint of each slice are stored
+     * in the job document (_slice.syncpoints, _slice.syncends, _slice.completed).
+     * <p>
+     * Each slice is indexed by the method indexSlice in a separate thread of the
+     * ManagedExecutorService. The job is completed if all slices are completed.
+     * 
+     * @param adminp    - the job document
+     * @param workers   - number of slices for a new job
+     * @param lProfiler - start time of the run
+     * @return the updated job document
+     */
+    private ItemCollection runSlices(ItemCollection adminp, int workers, long lProfiler) {
+        int totalCount = adminp.getItemValueInteger("numUpdates");
+        if (!adminp.hasItem(ITEM_SLICE_SYNCPOINTS)) {
+            initSlices(adminp, workers);
+        }
+        List<Long> syncPoints = adminp.getItemValueList(ITEM_SLICE_SYNCPOINTS, Long.class);
+        List<Long> syncEnds = adminp.getItemValueList(ITEM_SLICE_SYNCENDS, Long.class);
+        List<Boolean> completed = new ArrayList<Boolean>();
+        for (Object value : adminp.getItemValue(ITEM_SLICE_COMPLETED)) {
+            completed.add(Boolean.TRUE.equals(value));
+        }
+        logger.log(Level.INFO, "...Job " + AdminPService.JOB_REBUILD_INDEX + " ({0}) - indexing {1} slices...",
+                new Object[] { adminp.getUniqueID(), syncPoints.size() });
+
+        // start one worker per open slice. The workers are called from new
+        // instances because of the transaction per slice.
+        long deadline = lProfiler + (time_out * 1000L);
+        JobHandlerRebuildIndex handler = ctx.getBusinessObject(JobHandlerRebuildIndex.class);
+        List<Future<ItemCollection>> results = new ArrayList<Future<ItemCollection>>();
+        for (int i = 0; i < syncPoints.size(); i++) {
+            if (Boolean.TRUE.equals(completed.get(i))) {
+                results.add(null);
+                continue;
+            }
+            final long syncPoint = syncPoints.get(i);
+            final long syncEnd = syncEnds.get(i);
+            results.add(executor.submit(() -> handler.indexSlice(syncPoint, syncEnd, deadline)));
+        }
+
+        // collect the checkpoints of all workers
+        String error = null;
+        for (int i = 0; i < results.size(); i++) {
+            Future<ItemCollection> future = results.get(i);
+            if (future == null) {
+                continue;
+            }
+            try {
+                ItemCollection result = future.get();
+                syncPoints.set(i, result.getItemValueLong("_syncpoint"));
+                completed.set(i, result.getItemValueBoolean(JobHandler.ISCOMPLETED));
+                totalCount += result.getItemValueInteger("numProcessed");
+                if (!result.getItemValueString("error").isEmpty()) {
+                    error = result.getItemValueString("error");
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                // the slice will be restarted from its last checkpoint
+                logger.log(Level.SEVERE, "...Job " + AdminPService.JOB_REBUILD_INDEX + " ({0}) - slice {1} failed: {2}",
+                        new Object[] { adminp.getUniqueID(), i, e.getMessage() });
+                error = e.getMessage();
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        adminp.replaceItemValue(ITEM_SLICE_SYNCPOINTS, syncPoints);
+        adminp.replaceItemValue(ITEM_SLICE_COMPLETED, completed);
+        if (error != null) {
+            adminp.replaceItemValue("error", error);
+        } else {
+            adminp.removeItem("error");
+        }
+        boolean finished = !completed.contains(Boolean.FALSE);
+        adminp.replaceItemValue(JobHandler.ISCOMPLETED, finished);
+        updateStatistics(adminp, totalCount, lProfiler);
+
+        long time = (System.currentTimeMillis() - lProfiler) / 1000;
+        if (time == 0) {
+            time = 1;
+        }
+        logger.log(Level.INFO, "...Job " + AdminPService.JOB_REBUILD_INDEX
+                + " ({0}) - {1}: {2} documents indexed in {3} sec. ({4} docs/sec)",
+                new Object[] { adminp.getUniqueID(), (finished ? "Finished" : "suspended"), totalCount, time,
+                        adminp.getItemValueInteger("numDocumentsPerSecond") });
+        return adminp;
+    }
+
+    /**
+     * Indexes all documents of a single slice with a creation timestamp after the
+     * given syncpoint until the end of the slice is reached or the deadline is
+     * exceeded.
+     * <p>
+     * The method runs in an isolated new transaction and is called by the worker
+     * threads of the method runSlices. Errors are not thrown but returned in the
+     * item 'error' together with the last checkpoint of the slice.
+     * 
+     * @param syncPoint - creation timestamp (exclusive) to start with
+     * @param syncEnd   - creation timestamp (inclusive) of the slice end, 0 for an
+     *                  open end
+     * @param deadline  - time in milliseconds after the worker is suspended
+     * @return an ItemCollection holding the new checkpoint (_syncpoint), the count
+     *         of indexed documents (numProcessed) and the completion flag
+     */
+    @TransactionAttribute(value = TransactionAttributeType.REQUIRES_NEW)
+    public ItemCollection indexSlice(long syncPoint, long syncEnd, long deadline) {
+        ItemCollection result = new ItemCollection();
+        int count = 0;
+        boolean sliceCompleted = false;
+        try {
+            while (System.currentTimeMillis() < deadline) {
+                List<Document> documents = findNextDocumentsBySyncPoint(syncPoint, syncEnd);
+                if (documents == null || documents.size() == 0) {
+                    sliceCompleted = true;
+                    break;
+                }
+                List<ItemCollection> resultList = new ArrayList<ItemCollection>();
+                for (Document doc : documents) {
+                    syncPoint = doc.getCreated().getTimeInMillis();
+                    resultList.add(ItemCollection.createByReference(doc.getData()));
+                    manager.detach(doc);
+                }
+                updateService.updateIndex(resultList);
+                count += resultList.size();
+            }
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "...Job " + AdminPService.JOB_REBUILD_INDEX
+                    + " - slice failed - {0} last syncpoint {1}", new Object[] { e.getMessage(), syncPoint });
+            result.replaceItemValue("error", e.getMessage());
+        }
+        result.replaceItemValue("_syncpoint", syncPoint);
+        result.replaceItemValue("numProcessed", count);
+        result.replaceItemValue(JobHandler.ISCOMPLETED, sliceCompleted);
+        return result;
+    }
+
+    /**
+     * Splits the creation timestamp range of all documents to be indexed into
+     * equal slices. The last slice has an open end so that documents created
+     * during the rebuild are indexed too.
+     * 
+     * @param adminp  - the job document
+     * @param workers - number of slices
+     */
+    private void initSlices(ItemCollection adminp, int workers) {
+        List<Long> syncPoints = new ArrayList<Long>();
+        List<Long> syncEnds = new ArrayList<Long>();
+        List<Boolean> completed = new ArrayList<Boolean>();
+
+        Object[] range = (Object[]) manager
+                .createQuery("SELECT MIN(document.created), MAX(document.created) FROM Document AS document "
+                        + getTypeFilter())
+                .getSingleResult();
+        if (range[0] == null || range[1] == null) {
+            // no documents - create a single open slice
+            syncPoints.add(0L);
+            syncEnds.add(0L);
+            completed.add(false);
+        } else {
+            // the syncpoint is exclusive, so we start one millisecond before the first
+            // document
+            long first = ((Calendar) range[0]).getTimeInMillis() - 1;
+            long last = ((Calendar) range[1]).getTimeInMillis();
+            long step = Math.max(1, (last - first) / workers);
+            for (int i = 0; i < workers; i++) {
+                long start = first + (i * step);
+                syncPoints.add(start);
+                syncEnds.add(i == workers - 1 ? 0L : start + step);
+                completed.add(false);
+            }
+        }
+        adminp.replaceItemValue(ITEM_SLICE_SYNCPOINTS, syncPoints);
+        adminp.replaceItemValue(ITEM_SLICE_SYNCENDS, syncEnds);
+        adminp.replaceItemValue(ITEM_SLICE_COMPLETED, completed);
+        adminp.replaceItemValue("numWorkers", syncPoints.size());
+    }
+
+    /**
+     * Counts all documents to be indexed. The count is used to estimate the
+     * remaining time of the job.
+     * 
+     * @return count of documents
+     */
+    private long countDocuments() {
+        Object count = manager.createQuery("SELECT COUNT(document) FROM Document AS document " + getTypeFilter())
+                .getSingleResult();
+        return ((Number) count).longValue();
+    }
+
+    /**
+     * Updates the counters of the job document and computes the throughput of the
+     * last run in documents per second and the estimated remaining time in
+     * seconds.
+     * 
+     * @param adminp     - the job document
+     * @param totalCount - documents indexed in total
+     * @param lProfiler  - start time of the run
+     */
+    private void updateStatistics(ItemCollection adminp, int totalCount, long lProfiler) {
+        int runCount = totalCount - adminp.getItemValueInteger("numUpdates");
+        long time = System.currentTimeMillis() - lProfiler;
+        if (time == 0) {
+            time = 1;
+        }
+        long docsPerSecond = (runCount * 1000L) / time;
         adminp.replaceItemValue("numUpdates", totalCount);
         adminp.replaceItemValue("numProcessed", totalCount);
         adminp.replaceItemValue("numLastCount", 0);
-        return adminp;
+        adminp.replaceItemValue("numDocumentsPerSecond", docsPerSecond);
+        long remaining = adminp.getItemValueLong("numTotal") - totalCount;
+        if (adminp.getItemValueBoolean(JobHandler.ISCOMPLETED) || remaining <= 0) {
+            adminp.replaceItemValue("numEstimatedTime", 0);
+        } else if (docsPerSecond > 0) {
+            adminp.replaceItemValue("numEstimatedTime", remaining / docsPerSecond);
+        }
+    }
 
+    /**
+     * Returns the where clause to exclude all document types not to be indexed.
+     */
+    private String getTypeFilter() {
+        return " WHERE NOT document.type LIKE '" + SNAPSHOT_TYPE_PRAFIX + "%' "
+                + " AND NOT document.type LIKE 'workitemlob%' " + " AND document.type != 'event' ";
     }
 
     /**
@@ -221,17 +489,21 @@ public class JobHandlerRebuildIndex implements JobHandler {
      * timestamp in a collection.
      * 
      * @param lSyncpoint
+     * @param lSyncend   - optional end of a slice (inclusive), 0 for no limit
      * @return a list of documents with the same creation timestamp after the given
      *         syncpoint. Returns null in case no more documents were found.
      */
     @SuppressWarnings("unchecked")
-    private List<Document> findNextDocumentsBySyncPoint(long lSyncpoint) {
+    private List<Document> findNextDocumentsBySyncPoint(long lSyncpoint, long lSyncend) {
 
         Date syncpoint = new Date(lSyncpoint);
         // ISO date time format: '2016-08-25 01:23:46.0',
         DateFormat isoFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
         String query = "SELECT document FROM Document AS document ";
         query += " WHERE document.created > '" + isoFormat.format(syncpoint) + "'";
+        if (lSyncend > 0) {
+            query += " AND document.created <= '" + isoFormat.format(new Date(lSyncend)) + "'";
+        }
         query += " AND NOT document.type LIKE '" + SNAPSHOT_TYPE_PRAFIX + "%' ";
         query += " AND NOT document.type LIKE 'workitemlob%' ";
         query += " AND document.type != 'event' ";
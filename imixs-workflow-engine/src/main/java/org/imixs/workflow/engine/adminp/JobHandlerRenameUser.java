@@ -16,8 +16,8 @@
 package org.imixs.workflow.engine.adminp;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.logging.Logger;
@@ -27,10 +27,12 @@ import jakarta.annotation.security.DeclareRoles;
 import jakarta.annotation.security.RunAs;
 import jakarta.inject.Inject;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.imixs.workflow.ItemCollection;
 import org.imixs.workflow.WorkflowKernel;
 import org.imixs.workflow.engine.DocumentService;
 import org.imixs.workflow.engine.WorkflowService;
+import org.imixs.workflow.engine.index.UpdateService;
 import org.imixs.workflow.engine.plugins.OwnerPlugin;
 import org.imixs.workflow.exceptions.AccessDeniedException;
 import org.imixs.workflow.exceptions.InvalidAccessException;
@@ -41,6 +43,7 @@ import jakarta.ejb.SessionContext;
 import jakarta.ejb.Stateless;
 import jakarta.ejb.TransactionAttribute;
 import jakarta.ejb.TransactionAttributeType;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
 import java.util.logging.Level;
 
 /**
@@ -72,6 +75,11 @@ import java.util.logging.Level;
  * 
  * The attributes $creator can not be replaced. Only an additional userID is
  * placed here.
+ * <p>
+ * The documents of a block are updated in chunks (numChunkSize) within one
+ * transaction per chunk. The chunks can be processed by parallel workers
+ * (numWorkers or the property 'adminp.bulk.workers'). After each chunk the
+ * updated documents are written into the index in one block.
  * 
  * @see AdminPService AdminPService for details
  * @version 1.0
@@ -86,9 +94,19 @@ public class JobHandlerRenameUser implements JobHandler {
     @Resource
     SessionContext ctx;
 
+    @Resource
+    ManagedExecutorService executor;
+
     @Inject
     DocumentService documentService;
 
+    @Inject
+    UpdateService updateService;
+
+    @Inject
+    @ConfigProperty(name = "adminp.bulk.workers", defaultValue = "1")
+    int workers;
+
     private static final int DEFAULT_COUNT = 100;
     private static final Logger logger = Logger.getLogger(JobHandlerRenameUser.class.getName());
 
@@ -155,7 +173,7 @@ public class JobHandlerRenameUser implements JobHandler {
 
         adminp.replaceItemValue("txtQuery", sQuery);
 
-        Collection<ItemCollection> col;
+        List<ItemCollection> col;
         try {
             // ASC sorting is important here!
             col = documentService.find(sQuery, iBlockSize, iIndex, "$created", false);
@@ -163,19 +181,22 @@ public class JobHandlerRenameUser implements JobHandler {
             throw new InvalidAccessException(InvalidAccessException.INVALID_ID, e.getMessage(), e);
         }
         int colSize = col.size();
-        // check all selected documents
-        for (ItemCollection entity : col) {
-            iProcessed++;
-            // call from new instance because of transaction new...
-            // see: http://blog.imixs.org/?p=155
-            // see: https://www.java.net/node/705304
-            boolean result = ctx.getBusinessObject(JobHandlerRenameUser.class).updateWorkitemUserIds(entity, fromUserID,
-                    toUserID, replace);
-            if (result == true) {
-                // inc counter
-                iUpdates++;
-            }
+        int jobWorkers = adminp.getItemValueInteger("numWorkers");
+        if (jobWorkers <= 0) {
+            jobWorkers = workers;
         }
+        // update all selected documents in chunks.
+        // call from new instance because of transaction new...
+        // see: http://blog.imixs.org/?p=155
+        // see: https://www.java.net/node/705304
+        JobHandlerRenameUser handler = ctx.getBusinessObject(JobHandlerRenameUser.class);
+        List<String> failedIds = new ArrayList<String>();
+        List<ItemCollection> updates = BulkJobExecutor.execute(executor, jobWorkers,
+                BulkJobExecutor.split(col, adminp.getItemValueInteger("numChunkSize")),
+                chunk -> handler.updateWorkitemUserIds(chunk, fromUserID, toUserID, replace), updateService,
+                documentService, failedIds);
+        iProcessed += colSize;
+        iUpdates += updates.size();
 
         // adjust start pos and update count
         adminp.replaceItemValue("numUpdates", iUpdates);
@@ -183,6 +204,8 @@ public class JobHandlerRenameUser implements JobHandler {
         adminp.replaceItemValue("numLastCount", col.size());
         iIndex++;
         adminp.replaceItemValue("numIndex", iIndex);
+        BulkJobExecutor.updateStatistics(adminp, colSize, lProfiler);
+        BulkJobExecutor.updateFailures(adminp, failedIds);
 
         long time = (System.currentTimeMillis() - lProfiler) / 1000;
         if (time == 0) {
@@ -215,7 +238,51 @@ public class JobHandlerRenameUser implements JobHandler {
     @TransactionAttribute(value = TransactionAttributeType.REQUIRES_NEW)
     public boolean updateWorkitemUserIds(ItemCollection entity, String from, String to, boolean replace)
             throws AccessDeniedException {
+        if (renameUserIds(entity, from, to, replace)) {
+            documentService.save(entity);
+            logger.log(Level.FINEST, "......updated: {0}", entity.getItemValueString(WorkflowKernel.UNIQUEID));
+            return true;
+        }
+        return false;
+    }
 
+    /**
+     * Updates read,write and owner of a chunk of entities in one single
+     * transaction. The updated entities are saved without creating index eventLog
+     * entries. The caller is responsible to update the index after the
+     * transaction was committed.
+     * 
+     * @param entities
+     * @param from
+     * @param to
+     * @param replace
+     * @return list of modified entities
+     * @throws AccessDeniedException
+     */
+    @TransactionAttribute(value = TransactionAttributeType.REQUIRES_NEW)
+    public List<ItemCollection> updateWorkitemUserIds(List<ItemCollection> entities, String from, String to,
+            boolean replace) throws AccessDeniedException {
+        List<ItemCollection> result = new ArrayList<ItemCollection>();
+        for (ItemCollection entity : entities) {
+            if (renameUserIds(entity, from, to, replace)) {
+                result.add(documentService.save(entity, false));
+                logger.log(Level.FINEST, "......updated: {0}", entity.getItemValueString(WorkflowKernel.UNIQUEID));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Renames the userIds in read,write and owner of a entity and returns true if
+     * an update was necessary
+     * 
+     * @param entity
+     * @param from
+     * @param to
+     * @param replace
+     * @return true if the entiy was modified.
+     */
+    private boolean renameUserIds(ItemCollection entity, String from, String to, boolean replace) {
         boolean bUpdate = false;
         if (entity == null)
             return false;
@@ -253,8 +320,6 @@ public class JobHandlerRenameUser implements JobHandler {
             // create log entry....
             String summary = "Rename: " + from + " -> " + to + " (replace=" + replace + ")";
             entity.appendItemValue("txtAdminpLog", new Date(System.currentTimeMillis()) + " " + summary);
-            documentService.save(entity);
-            logger.log(Level.FINEST, "......updated: {0}", entity.getItemValueString(WorkflowKernel.UNIQUEID));
         }
         return bUpdate;
     }
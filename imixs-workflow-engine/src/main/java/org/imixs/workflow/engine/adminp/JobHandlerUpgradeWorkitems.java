@@ -16,6 +16,7 @@
 package org.imixs.workflow.engine.adminp;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
@@ -26,9 +27,11 @@ import jakarta.annotation.security.DeclareRoles;
 import jakarta.annotation.security.RunAs;
 import jakarta.inject.Inject;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.imixs.workflow.ItemCollection;
 import org.imixs.workflow.WorkflowKernel;
 import org.imixs.workflow.engine.DocumentService;
+import org.imixs.workflow.engine.index.UpdateService;
 import org.imixs.workflow.engine.plugins.OwnerPlugin;
 import org.imixs.workflow.exceptions.AccessDeniedException;
 import org.imixs.workflow.exceptions.PluginException;
@@ -38,6 +41,7 @@ import jakarta.ejb.SessionContext;
 import jakarta.ejb.Stateless;
 import jakarta.ejb.TransactionAttribute;
 import jakarta.ejb.TransactionAttributeType;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
 import java.util.logging.Level;
 
 /**
@@ -46,6 +50,10 @@ import java.util.logging.Level;
  * Missing workflow items will be added.
  * 
  * Version 5.1.10 : new space.|process. Items
+ * <p>
+ * The workitems of a block are upgraded in chunks (numChunkSize) within one
+ * transaction per chunk. The chunks can be processed by parallel workers
+ * (numWorkers or the property 'adminp.bulk.workers').
  * 
  * 
  * @author rsoika
@@ -62,9 +70,19 @@ public class JobHandlerUpgradeWorkitems implements JobHandler {
     @Resource
     SessionContext ctx;
 
+    @Resource
+    ManagedExecutorService executor;
+
     @Inject
     DocumentService documentService;
 
+    @Inject
+    UpdateService updateService;
+
+    @Inject
+    @ConfigProperty(name = "adminp.bulk.workers", defaultValue = "1")
+    int workers;
+
     private static Logger logger = Logger.getLogger(JobHandlerUpgradeWorkitems.class.getName());
 
     /**
@@ -120,18 +138,16 @@ public class JobHandlerUpgradeWorkitems implements JobHandler {
         // Update index
         logger.log(Level.INFO,"Job " + AdminPService.JOB_UPGRADE
                 + " ({0}) - verifeing {1} workitems...", new Object[]{adminp.getUniqueID(), colSize});
-        int iCount = 0;
-        for (ItemCollection workitem : workitemList) {
-            // only look into documents with a model version...
-            if (workitem.hasItem(WorkflowKernel.MODELVERSION)) {
-                if (upgradeWorkitem(workitem)) {
-                    // update workitem...
-                    logger.log(Level.INFO, "...upgrade ''{0}'' ...", workitem.getUniqueID());
-                    documentService.saveByNewTransaction(workitem);
-                    iCount++;
-                }
-            }
+        int jobWorkers = adminp.getItemValueInteger("numWorkers");
+        if (jobWorkers <= 0) {
+            jobWorkers = workers;
         }
+        JobHandlerUpgradeWorkitems handler = ctx.getBusinessObject(JobHandlerUpgradeWorkitems.class);
+        List<String> failedIds = new ArrayList<String>();
+        List<ItemCollection> updates = BulkJobExecutor.execute(executor, jobWorkers,
+                BulkJobExecutor.split(workitemList, adminp.getItemValueInteger("numChunkSize")),
+                chunk -> handler.upgradeWorkitems(chunk), updateService, documentService, failedIds);
+        int iCount = updates.size();
         iIndex = iIndex + colSize;
         iUpdates = iUpdates + iCount;
         iProcessed = iProcessed + colSize;
@@ -140,6 +156,8 @@ public class JobHandlerUpgradeWorkitems implements JobHandler {
         adminp.replaceItemValue("numUpdates", iUpdates);
         adminp.replaceItemValue("numProcessed", iProcessed);
         adminp.replaceItemValue("numIndex", iIndex);
+        BulkJobExecutor.updateStatistics(adminp, colSize, lProfiler);
+        BulkJobExecutor.updateFailures(adminp, failedIds);
 
         long time = (System.currentTimeMillis() - lProfiler) / 1000;
         if (time == 0) {
@@ -159,6 +177,29 @@ public class JobHandlerUpgradeWorkitems implements JobHandler {
         return adminp;
     }
 
+    /**
+     * This method upgrades a chunk of workitems in one single transaction. The
+     * upgraded workitems are saved without creating index eventLog entries. The
+     * caller is responsible to update the index after the transaction was
+     * committed.
+     * 
+     * @param workitems
+     * @return list of upgraded workitems
+     */
+    @TransactionAttribute(value = TransactionAttributeType.REQUIRES_NEW)
+    public List<ItemCollection> upgradeWorkitems(List<ItemCollection> workitems) {
+        List<ItemCollection> result = new ArrayList<ItemCollection>();
+        for (ItemCollection workitem : workitems) {
+            // only look into documents with a model version...
+            if (workitem.hasItem(WorkflowKernel.MODELVERSION) && upgradeWorkitem(workitem)) {
+                // update workitem...
+                logger.log(Level.INFO, "...upgrade ''{0}'' ...", workitem.getUniqueID());
+                result.add(documentService.save(workitem, false));
+            }
+        }
+        return result;
+    }
+
     /**
      * This method upgrades missing fields in a workitem
      * 
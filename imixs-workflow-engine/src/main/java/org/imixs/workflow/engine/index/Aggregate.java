@@ -0,0 +1,116 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.engine.index;
+
+import java.util.Objects;
+
+/**
+ * Defines a measure of an aggregation report. A measure computes a function
+ * (sum, avg, min, max or count) over the values of a single item for each
+ * group of documents. Items must be indexed as not analyzed fields in order to
+ * aggregate them.
+ *
+ * @see SearchService#aggregate
+ * @version 1.0
+ */
+public class Aggregate {
+
+    public static final String SUM = "sum";
+    public static final String AVG = "avg";
+    public static final String MIN = "min";
+    public static final String MAX = "max";
+    public static final String COUNT = "count";
+
+    private String field;
+    private String function;
+    private String name;
+
+    /**
+     * Creates a measure for a single item. The result is named by the item.
+     * 
+     * @param field    Name of the item to aggregate; cannot be <code>null</code>.
+     * @param function One of the functions sum, avg, min, max or count.
+     * @throws IllegalArgumentException if the function is not supported
+     */
+    public Aggregate(String field, String function) {
+        this(field, function, null);
+    }
+
+    /**
+     * Creates a measure for a single item with an individual result name. This
+     * allows to compute more than one measure of the same item.
+     * 
+     * @param field    Name of the item to aggregate; cannot be <code>null</code>.
+     * @param function One of the functions sum, avg, min, max or count.
+     * @param name     Name of the result item; defaults to the field name.
+     * @throws IllegalArgumentException if the function is not supported
+     */
+    public Aggregate(String field, String function, String name) {
+        this.field = field.toLowerCase().trim();
+        this.function = function == null ? "" : function.toLowerCase().trim();
+        this.name = (name == null || name.isEmpty()) ? this.field : name;
+        if (!isFunction(this.function)) {
+            throw new IllegalArgumentException("unsupported aggregate function '" + function + "'");
+        }
+    }
+
+    /**
+     * Returns true if the given name is a supported aggregate function.
+     */
+    public static boolean isFunction(String function) {
+        if (function == null) {
+            return false;
+        }
+        function = function.toLowerCase().trim();
+        return SUM.equals(function) || AVG.equals(function) || MIN.equals(function) || MAX.equals(function)
+                || COUNT.equals(function);
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public String getFunction() {
+        return function;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(field, function, name);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        Aggregate other = (Aggregate) obj;
+        return Objects.equals(field, other.field) && Objects.equals(function, other.function)
+                && Objects.equals(name, other.name);
+    }
+
+    @Override
+    public String toString() {
+        return function + "(" + field + ")";
+    }
+}
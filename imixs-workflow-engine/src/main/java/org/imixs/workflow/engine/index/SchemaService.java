@@ -105,7 +105,8 @@ public class SchemaService {
             "$creator", "$editor", "$lasteditor", "$workflowgroup", "$workflowstatus", "id", "name",
             "group", "category", "topic", "date", "sequencenumber",
             "txtname", "$owner", "namowner", "$workitemref", "$uniqueidsource", "$uniqueidversions",
-            "$lasttask", "$lastevent", "$lasteventdate", "$file.count", "$file.names");
+            "$lasttask", "$lastevent", "$lasteventdate", "$file.count", "$file.names",
+            "$scheduler.duedate");
     public static List<String> DEFAULT_STORE_FIELD_LIST = Arrays.asList("type", "$taskid", "$writeaccess",
             "$snapshotid", "$modelversion", "$workflowsummary", "$workflowabstract", "$workflowgroup",
             "$workflowstatus", "$modified", "$created", "$lasteventdate", "$creator", "$editor", "$lasteditor",
@@ -15,9 +15,11 @@
 
 package org.imixs.workflow.engine.index;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.imixs.workflow.ItemCollection;
+import org.imixs.workflow.WorkflowKernel;
 import org.imixs.workflow.exceptions.QueryException;
 
 import jakarta.ejb.Stateless;
@@ -65,6 +67,69 @@ public interface SearchService {
 	public List<ItemCollection> search(String searchTerm, int pageSize, int pageIndex, SortOrder sortOrder,
 			DefaultOperator defaultOperator, boolean loadStubs) throws QueryException;
 
+	/**
+	 * Returns the next page of documents matching the provided search term ordered
+	 * by their $uniqueid. The page starts after the given $uniqueid of the last
+	 * document of the previous page (keyset paging). In difference to the
+	 * pageIndex of the method search(), the costs of a page do not grow with its
+	 * position in the result set and the result is not limited by the
+	 * DEFAULT_MAX_SEARCH_RESULT. A client reads all pages until a page returns
+	 * less than pageSize documents.
+	 * <p>
+	 * The default implementation restricts the search term by a range on the
+	 * field $uniqueid and sorts the result by this field.
+	 * 
+	 * @param searchTerm
+	 * @param pageSize        - docs per page
+	 * @param lastUniqueId    - $uniqueid of the last document of the previous
+	 *                        page or null for the first page
+	 * @param defaultOperator - optional to change the default search operator
+	 * @param loadStubs       - optional indicates of only the lucene document
+	 *                        should be returned.
+	 * @return collection of search result
+	 * @throws QueryException in case the searchtem is not understandable.
+	 */
+	public default List<ItemCollection> searchAfter(String searchTerm, int pageSize, String lastUniqueId,
+			DefaultOperator defaultOperator, boolean loadStubs) throws QueryException {
+		if (searchTerm == null || searchTerm.isEmpty()) {
+			return new ArrayList<ItemCollection>();
+		}
+		if (lastUniqueId != null && !lastUniqueId.isEmpty()) {
+			searchTerm = "(" + searchTerm + ") AND $uniqueid:{\"" + lastUniqueId + "\" TO *]";
+		}
+		return search(searchTerm, pageSize, 0, new SortOrder(WorkflowKernel.UNIQUEID, false), defaultOperator,
+				loadStubs);
+	}
+
+	/**
+	 * Computes an aggregation over all documents matching the provided search
+	 * term. The documents are grouped by the values of the groupBy items and for
+	 * each group the given measures (sum, avg, min, max, count) are computed. The
+	 * method did not load any data. The search term will be extended with the
+	 * current users roles to test the read access level of each document.
+	 * <p>
+	 * The method returns one ItemCollection for each group. Each row contains the
+	 * groupBy items and an item for each measure (see Aggregate.getName()).
+	 * Measures are returned as Double, counts as Integer and the min/max of dates
+	 * as Date values. The rows are sorted by the groupBy values.
+	 * <p>
+	 * The groupBy items and the measured items must be indexed as not analyzed
+	 * fields. For multi-value items only the first value is aggregated.
+	 * 
+	 * @param searchTerm
+	 * @param groupBy         - list of items to group the result
+	 * @param measures        - list of measures to be computed per group
+	 * @param defaultOperator - optional to change the default search operator
+	 * @return aggregated result table
+	 * @throws QueryException in case the searchtem is not understandable or the
+	 *                        search service does not support aggregations.
+	 */
+	public default List<ItemCollection> aggregate(String searchTerm, List<String> groupBy, List<Aggregate> measures,
+			DefaultOperator defaultOperator) throws QueryException {
+		throw new QueryException(QueryException.QUERY_NOT_UNDERSTANDABLE,
+				"aggregations are not supported by " + this.getClass().getSimpleName());
+	}
+
 	/**
 	 * Returns the total hits for a given search term from the lucene index. The
 	 * method did not load any data. The provided search term will be extended with
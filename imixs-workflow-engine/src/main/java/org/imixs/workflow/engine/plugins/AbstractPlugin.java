@@ -24,6 +24,7 @@ import org.imixs.workflow.Plugin;
 import org.imixs.workflow.WorkflowContext;
 import org.imixs.workflow.engine.WorkflowService;
 import org.imixs.workflow.exceptions.PluginException;
+import org.imixs.workflow.util.XMLParser;
 
 /**
  * This abstract class implements different helper methods used by subclasses
@@ -77,6 +78,24 @@ public abstract class AbstractPlugin implements Plugin {
         this.workflowService = workflowService;
     }
 
+    /**
+     * Parses a XML item definition into an ItemCollection. If the plugin is
+     * running in a WorkflowService, the parsed structure is cached per model
+     * version.
+     * 
+     * @param xmlContent      - XML fragment without a root element
+     * @param documentContext - the current workitem
+     * @return parsed item structure
+     * @throws PluginException if the XML is malformed
+     */
+    protected ItemCollection parseItemStructure(String xmlContent, ItemCollection documentContext)
+            throws PluginException {
+        if (workflowService != null) {
+            return workflowService.parseItemStructure(xmlContent, documentContext);
+        }
+        return XMLParser.parseItemStructure(xmlContent);
+    }
+
     /**
      * This method merges the values of fieldList into valueList and test for
      * duplicates.
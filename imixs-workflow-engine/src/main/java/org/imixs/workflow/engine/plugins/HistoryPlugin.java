@@ -18,8 +18,6 @@ package org.imixs.workflow.engine.plugins;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
@@ -87,6 +85,28 @@ public class HistoryPlugin extends AbstractPlugin {
 
         rtfItemLog = getWorkflowService().adaptText(rtfItemLog, documentContext);
 
+        // insert new entry
+        List<Object> newEntry = new ArrayList<Object>();
+        newEntry.add(documentContext.getItemValueDate(WorkflowKernel.LASTEVENTDATE));
+        newEntry.add(rtfItemLog);
+        newEntry.add(this.getWorkflowService().getUserName());
+
+        if (documentContext.hasItem(ITEM_HISTORY_LOG)) {
+            // the entry is added directly into the stored list, so the history is not
+            // converted and validated again on each event
+            List<List<?>> historyLog = documentContext.getItemValue(ITEM_HISTORY_LOG);
+            try {
+                addEntry(historyLog, newEntry);
+                // we still support the deprecated item name
+                if (documentContext.getItemValue("txtworkflowhistory") != historyLog) {
+                    documentContext.replaceItemValue("txtworkflowhistory", historyLog);
+                }
+                return documentContext;
+            } catch (UnsupportedOperationException e) {
+                // the stored list is not modifiable - replace the item below
+            }
+        }
+
         List<List<?>> temp = null;
         // test deprecated field
         if (!documentContext.hasItem(ITEM_HISTORY_LOG) && documentContext.hasItem("txtworkflowhistory")) {
@@ -96,29 +116,14 @@ public class HistoryPlugin extends AbstractPlugin {
             if (temp.size() > 0) {
                 if (!(temp.get(0) instanceof List)) {
                     // ignore old data structure
-                    temp = documentContext.getItemValue(ITEM_HISTORY_LOG);
+                    temp = new ArrayList<List<?>>();
                 }
             }
         } else {
             temp = documentContext.getItemValue(ITEM_HISTORY_LOG);
         }
-
-        // insert new entry
-        List<Object> newEntry = new ArrayList<Object>();
-        newEntry.add(documentContext.getItemValueDate(WorkflowKernel.LASTEVENTDATE));
-        newEntry.add(rtfItemLog);
-        newEntry.add(this.getWorkflowService().getUserName());
-        temp.add(newEntry);
-        // Sort the list by date in descending order
-        Collections.sort(temp, new Comparator<List<?>>() {
-            @Override
-            public int compare(List<?> entry1, List<?> entry2) {
-                Date date1 = (Date) entry1.get(0);
-                Date date2 = (Date) entry2.get(0);
-                // Compare in descending order
-                return date1.compareTo(date2);
-            }
-        });
+        temp = new ArrayList<List<?>>(temp);
+        addEntry(temp, newEntry);
 
         documentContext.replaceItemValue(ITEM_HISTORY_LOG, temp);
         // we still support the deprecated item name
@@ -127,6 +132,24 @@ public class HistoryPlugin extends AbstractPlugin {
         return documentContext;
     }
 
+    /**
+     * Adds a new entry into the history list sorted by date. The list is sorted in
+     * ascending order, so a new entry is typically just appended. Only if the new
+     * entry is older than the last entry it is inserted at the matching position.
+     * 
+     * @param historyList - sorted history list
+     * @param newEntry    - new entry
+     */
+    protected void addEntry(List<List<?>> historyList, List<?> newEntry) {
+        Date date = (Date) newEntry.get(0);
+        int pos = historyList.size();
+        // skip newer entries
+        while (date != null && pos > 0 && date.compareTo((Date) historyList.get(pos - 1).get(0)) < 0) {
+            pos--;
+        }
+        historyList.add(pos, newEntry);
+    }
+
     /**
      * This method converts the old StringList format in the new format with a list
      * of separated values:
@@ -28,7 +28,6 @@ import java.util.regex.Pattern;
 
 import org.imixs.workflow.ItemCollection;
 import org.imixs.workflow.exceptions.PluginException;
-import org.imixs.workflow.util.XMLParser;
 
 /**
  * The Imixs Interval Plugin implements an mechanism to adjust a date field of a
@@ -91,7 +90,7 @@ public class IntervalPlugin extends AbstractPlugin {
                 return adocumentContext;
             }
             // evaluate the item content (XML format expected here!)
-            ItemCollection processData = XMLParser.parseItemStructure(invervalDef);
+            ItemCollection processData = parseItemStructure(invervalDef, adocumentContext);
 
             String cron = processData.getItemValueString("cron").trim().toLowerCase();
             String macro = processData.getItemValueString("macro").trim().toLowerCase();
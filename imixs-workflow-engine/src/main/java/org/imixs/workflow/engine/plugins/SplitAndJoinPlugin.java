@@ -18,6 +18,7 @@ package org.imixs.workflow.engine.plugins;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
@@ -29,7 +30,6 @@ import org.imixs.workflow.exceptions.AccessDeniedException;
 import org.imixs.workflow.exceptions.ModelException;
 import org.imixs.workflow.exceptions.PluginException;
 import org.imixs.workflow.exceptions.ProcessingErrorException;
-import org.imixs.workflow.util.XMLParser;
 
 /**
  * The Imixs Split&Join Plugin provides functionality to create and update
@@ -69,6 +69,10 @@ public class SplitAndJoinPlugin extends AbstractPlugin {
 
     private static final Logger logger = Logger.getLogger(SplitAndJoinPlugin.class.getName());
 
+    // compiled regular expressions of static model definitions
+    private static final int MAX_CACHED_PATTERNS = 1000;
+    private static final Map<String, Pattern> patternCache = new ConcurrentHashMap<>();
+
     /**
      * The method evaluates the workflow activity result for items with name:
      * 
@@ -223,7 +227,7 @@ public class SplitAndJoinPlugin extends AbstractPlugin {
                 continue;
             }
             // evaluate the item content (XML format expected here!)
-            ItemCollection processData = XMLParser.parseItemStructure(processValue);
+            ItemCollection processData = parseItemStructure(processValue, originWorkitem);
 
             if (processData != null) {
                 debug = processData.getItemValueBoolean("debug");
@@ -341,7 +345,7 @@ public class SplitAndJoinPlugin extends AbstractPlugin {
                 continue;
             }
             // evaluate the item content (XML format expected here!)
-            ItemCollection processData = XMLParser.parseItemStructure(processValue);
+            ItemCollection processData = parseItemStructure(processValue, originWorkitem);
 
             // we need to lookup all subprocess instances which are matching
             // the process definition
@@ -359,6 +363,9 @@ public class SplitAndJoinPlugin extends AbstractPlugin {
                         "│   ├── subprocess_update uses deprecated tag 'processid' instead of 'task'. Please check your model");
             }
 
+            Pattern modelPattern = getPattern(model_pattern);
+            Pattern taskPattern = getPattern(task_pattern);
+
             List<String> subProcessRefList = originWorkitem.getItemValue(LINK_PROPERTY);
             if (subProcessRefList.isEmpty() && originWorkitem.hasItem(LINK_PROPERTY_DEPRECATED)) {
                 // test for deprecated link property!
@@ -377,8 +384,8 @@ public class SplitAndJoinPlugin extends AbstractPlugin {
                     logger.info("│   ├── sub taskID=" + subProcessID);
                 }
 
-                if (Pattern.compile(model_pattern).matcher(subModelVersion).find()
-                        && Pattern.compile(task_pattern).matcher(subProcessID).find()) {
+                if (modelPattern.matcher(subModelVersion).find()
+                        && taskPattern.matcher(subProcessID).find()) {
                     if (debug) {
                         logger.info("│   ├── subprocess matches criteria.");
                     }
@@ -448,7 +455,7 @@ public class SplitAndJoinPlugin extends AbstractPlugin {
             return;
         }
         // evaluate the item content (XML format expected here!)
-        ItemCollection processData = XMLParser.parseItemStructure(originProcessDefinition);
+        ItemCollection processData = parseItemStructure(originProcessDefinition, subprocessWorkitem);
         // first we need to lookup the referred process instance
         String workitemRef = subprocessWorkitem.getItemValueString(LINK_PROPERTY);
         originWorkitem = getWorkflowService().getWorkItem(workitemRef);
@@ -496,7 +503,7 @@ public class SplitAndJoinPlugin extends AbstractPlugin {
         }
 
         // evaluate the item content (XML format expected here!)
-        ItemCollection processData = XMLParser.parseItemStructure(originProcessDefinition);
+        ItemCollection processData = parseItemStructure(originProcessDefinition, subprocessWorkitem);
         boolean debug = processData.getItemValueBoolean("debug");
         if (debug) {
             logger.info("├── processing " + ORIGIN_UPDATE);
@@ -515,6 +522,9 @@ public class SplitAndJoinPlugin extends AbstractPlugin {
                     "│   ├── origin_update uses deprecated tag 'processid' instead of 'task'. Please check your model");
         }
 
+        Pattern modelPattern = getPattern(model_pattern);
+        Pattern taskPattern = getPattern(task_pattern);
+
         // first we need to lookup the corresponding origin process instance
         List<String> refs = subprocessWorkitem.getItemValue(LINK_PROPERTY);
         // backward compatibillity - support $uniqueidref
@@ -529,8 +539,8 @@ public class SplitAndJoinPlugin extends AbstractPlugin {
                 String subModelVersion = originWorkitem.getModelVersion();
                 String subProcessID = "" + originWorkitem.getTaskID();
 
-                if (Pattern.compile(model_pattern).matcher(subModelVersion).find()
-                        && Pattern.compile(task_pattern).matcher(subProcessID).find()) {
+                if (modelPattern.matcher(subModelVersion).find()
+                        && taskPattern.matcher(subProcessID).find()) {
                     if (debug) {
                         logger.info("│   ├── origin matches criteria.");
                     }
@@ -603,7 +613,7 @@ public class SplitAndJoinPlugin extends AbstractPlugin {
 
             // test if field is a reg ex
             if (field.startsWith("(") && field.endsWith(")")) {
-                Pattern itemPattern = Pattern.compile(field);
+                Pattern itemPattern = getPattern(field);
                 Map<String, List<Object>> map = source.getAllItems();
                 for (String itemName : map.keySet()) {
                     if (itemPattern.matcher(itemName).find()) {
@@ -624,4 +634,22 @@ public class SplitAndJoinPlugin extends AbstractPlugin {
         }
     }
 
+    /**
+     * Returns the compiled Pattern for a regular expression. The expressions are
+     * part of the static model definition and are therefore compiled only once.
+     * 
+     * @param regex - regular expression
+     * @return compiled Pattern
+     */
+    private static Pattern getPattern(String regex) {
+        Pattern pattern = patternCache.get(regex);
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+            if (patternCache.size() < MAX_CACHED_PATTERNS) {
+                patternCache.put(regex, pattern);
+            }
+        }
+        return pattern;
+    }
+
 }
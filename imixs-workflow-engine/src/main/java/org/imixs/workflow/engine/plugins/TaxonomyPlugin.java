@@ -22,7 +22,6 @@ import java.util.logging.Logger;
 
 import org.imixs.workflow.ItemCollection;
 import org.imixs.workflow.exceptions.PluginException;
-import org.imixs.workflow.util.XMLParser;
 
 /**
  * The Imixs Taxonomy plugin can be used to collect taxonomy data at specific
@@ -82,7 +81,7 @@ public class TaxonomyPlugin extends AbstractPlugin {
 			logger.log(Level.FINEST, "found taxonomy name={0}", name);
 			// for each taxonomy definition evaluate the taxonomy data....
 			String xmlDef = taxonomyConfig.getItemValueString(name);
-			ItemCollection taxonomyData = XMLParser.parseItemStructure(xmlDef);
+			ItemCollection taxonomyData = parseItemStructure(xmlDef, documentContext);
 
 			if (taxonomyData != null) {
 				String type = taxonomyData.getItemValueString("type");
@@ -0,0 +1,136 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.imixs.workflow.engine.jpa.EventLog;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import jakarta.enterprise.inject.Instance;
+
+/**
+ * Test class for the AsyncEventScheduler. The test verifies that the events of
+ * one workitem are assigned to the same worker in the order of their creation
+ * and that the pending events can be read while a dispatch is in flight.
+ * 
+ * @author rsoika
+ */
+public class TestAsyncEventScheduler {
+
+	@Test
+	public void testShard() {
+		List<EventLog> events = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			events.add(new EventLog(AsyncEventSchedulerConfig.EVENTLOG_TOPIC_ASYNC_EVENT, "W-" + (i % 7), null));
+		}
+		List<List<EventLog>> shards = AsyncEventScheduler.shard(events, 4);
+		assertEquals(4, shards.size());
+
+		int total = 0;
+		for (List<EventLog> shard : shards) {
+			total += shard.size();
+			for (EventLog event : shard) {
+				// all events of a workitem are in the same shard
+				int expected = Math.floorMod(event.getRef().hashCode(), 4);
+				assertSame(shard, shards.get(expected));
+			}
+			// the creation order is preserved
+			for (int i = 1; i < shard.size(); i++) {
+				assertTrue(events.indexOf(shard.get(i - 1)) < events.indexOf(shard.get(i)));
+			}
+		}
+		assertEquals(100, total);
+	}
+
+	/**
+	 * The gauge 'asyncevent.pending' is held by the MetricService. So it reports
+	 * the claimed events while the scheduler waits for the workers.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testPendingGauge() throws Exception {
+		MetricRegistry metricRegistry = Mockito.mock(MetricRegistry.class);
+		Instance<MetricRegistry> metricRegistries = Mockito.mock(Instance.class);
+		when(metricRegistries.isResolvable()).thenReturn(true);
+		when(metricRegistries.get()).thenReturn(metricRegistry);
+		MetricService metricService = new MetricService();
+		metricService.enabled = true;
+		metricService.metricRegistries = metricRegistries;
+		metricService.init();
+		ArgumentCaptor<Supplier> gauge = ArgumentCaptor.forClass(Supplier.class);
+		verify(metricRegistry).gauge(
+				argThat((Metadata metadata) -> "asyncevent.pending".equals(metadata.getName())),
+				gauge.capture());
+
+		List<EventLog> events = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			events.add(new EventLog(AsyncEventSchedulerConfig.EVENTLOG_TOPIC_ASYNC_EVENT, "W-" + i, null));
+		}
+		// the workers block until the test releases them
+		CountDownLatch started = new CountDownLatch(2);
+		CompletableFuture<Integer> release = new CompletableFuture<>();
+		AsyncEventWorker asyncEventWorker = Mockito.mock(AsyncEventWorker.class);
+		when(asyncEventWorker.processShard(any(), any())).thenAnswer(invocation -> {
+			List<EventLog> shard = invocation.getArgument(0);
+			AtomicInteger pending = invocation.getArgument(1);
+			started.countDown();
+			return release.thenApply(failures -> {
+				pending.addAndGet(-shard.size());
+				return failures;
+			});
+		});
+		EventLogService eventLogService = Mockito.mock(EventLogService.class);
+		when(eventLogService.findEventsByTimeout(anyInt(), anyString())).thenReturn(events);
+
+		AsyncEventScheduler scheduler = new AsyncEventScheduler();
+		scheduler.workers = 2;
+		scheduler.batchSize = 10;
+		scheduler.eventLogService = eventLogService;
+		scheduler.asyncEventWorker = asyncEventWorker;
+		scheduler.metricService = metricService;
+
+		Thread dispatcher = new Thread(scheduler::dispatchEventLog);
+		dispatcher.start();
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		// read the gauge while the dispatch is in flight
+		assertEquals(3, gauge.getValue().get());
+
+		release.complete(0);
+		dispatcher.join(5000);
+		assertEquals(0, gauge.getValue().get());
+	}
+}
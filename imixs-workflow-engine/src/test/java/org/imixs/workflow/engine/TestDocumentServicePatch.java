@@ -0,0 +1,158 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+
+import org.imixs.workflow.ItemCollection;
+import org.imixs.workflow.engine.jpa.Document;
+import org.imixs.workflow.exceptions.AccessDeniedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import jakarta.ejb.SessionContext;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.OptimisticLockException;
+
+/**
+ * Test class for the method DocumentService.patch(). The test verifies the
+ * version check, the immutable flag and the access control of protected items.
+ * 
+ * @author rsoika
+ */
+public class TestDocumentServicePatch {
+
+	@Mock
+	private EntityManager manager;
+
+	@Mock
+	private SessionContext ctx;
+
+	@Mock
+	private EventLogService eventLogService;
+
+	@InjectMocks
+	private DocumentService documentService;
+
+	private Document persistedDocument = null;
+
+	@BeforeEach
+	public void setUp() {
+		MockitoAnnotations.openMocks(this);
+		Principal principal = Mockito.mock(Principal.class);
+		when(principal.getName()).thenReturn("manfred");
+		when(ctx.getCallerPrincipal()).thenReturn(principal);
+		when(ctx.isCallerInRole(DocumentService.ACCESSLEVEL_AUTHORACCESS)).thenReturn(true);
+
+		ItemCollection doc = new ItemCollection();
+		doc.replaceItemValue("$uniqueid", "A");
+		doc.replaceItemValue("type", "workitem");
+		doc.replaceItemValue("_subject", "Hello");
+		doc.replaceItemValue(DocumentService.WRITEACCESS, "manfred");
+		persistedDocument = new Document("A");
+		persistedDocument.setData(doc.getAllItems());
+		persistedDocument.setVersion(3);
+		persistedDocument.setModified(Calendar.getInstance());
+		when(manager.find(Document.class, "A")).thenReturn(persistedDocument);
+	}
+
+	/**
+	 * An author can patch a regular item
+	 */
+	@Test
+	public void testPatch() throws AccessDeniedException {
+		ItemCollection result = documentService.patch("A", 3,
+				Arrays.asList(ItemPatch.set("_subject", Arrays.asList("Hello World"))));
+
+		assertEquals("Hello World", result.getItemValueString("_subject"));
+		assertEquals("A", result.getUniqueID());
+		assertEquals("Hello World",
+				new ItemCollection(persistedDocument.getData()).getItemValueString("_subject"));
+		verify(manager).flush();
+		verify(eventLogService).createEvent(DocumentService.EVENTLOG_TOPIC_INDEX_ADD, "A");
+	}
+
+	/**
+	 * A patch with an outdated version is rejected
+	 */
+	@Test
+	public void testVersionMismatch() {
+		List<ItemPatch> patches = Arrays.asList(ItemPatch.set("_subject", Arrays.asList("Hello World")));
+		assertThrows(OptimisticLockException.class, () -> documentService.patch("A", 2, patches));
+		assertEquals("Hello", new ItemCollection(persistedDocument.getData()).getItemValueString("_subject"));
+		verify(manager, never()).flush();
+	}
+
+	/**
+	 * An immutable document can not be patched
+	 */
+	@Test
+	public void testImmutable() {
+		persistedDocument.getData().put(DocumentService.IMMUTABLE, Arrays.asList(true));
+		List<ItemPatch> patches = Arrays.asList(ItemPatch.set("_subject", Arrays.asList("Hello World")));
+		assertThrows(AccessDeniedException.class, () -> documentService.patch("A", 3, patches));
+		assertEquals("Hello", new ItemCollection(persistedDocument.getData()).getItemValueString("_subject"));
+	}
+
+	/**
+	 * A caller without write access can not patch the document and a caller
+	 * without read access gets no result
+	 */
+	@Test
+	public void testNoAuthor() throws AccessDeniedException {
+		List<ItemPatch> patches = Arrays.asList(ItemPatch.set("_subject", Arrays.asList("Hello World")));
+		persistedDocument.getData().put(DocumentService.WRITEACCESS, Arrays.asList("anna"));
+		assertThrows(AccessDeniedException.class, () -> documentService.patch("A", 3, patches));
+
+		persistedDocument.getData().put(DocumentService.READACCESS, Arrays.asList("anna"));
+		assertNull(documentService.patch("A", 3, patches));
+	}
+
+	/**
+	 * Only a manager can patch protected items like the ACL or the workflow
+	 * status
+	 */
+	@Test
+	public void testProtectedItems() throws AccessDeniedException {
+		for (String item : Arrays.asList("$readaccess", "$writeaccess", "$owner", "$participants", "$taskid",
+				"$workflowstatus", "namowner", "txtworkflowstatus")) {
+			List<ItemPatch> patches = Arrays.asList(ItemPatch.set("_subject", Arrays.asList("Hello World")),
+					ItemPatch.set(item, Arrays.asList("manfred")));
+			assertThrows(AccessDeniedException.class, () -> documentService.patch("A", 3, patches), item);
+		}
+		assertEquals("Hello", new ItemCollection(persistedDocument.getData()).getItemValueString("_subject"));
+
+		// a manager is allowed to patch the ACL
+		when(ctx.isCallerInRole(DocumentService.ACCESSLEVEL_MANAGERACCESS)).thenReturn(true);
+		ItemCollection result = documentService.patch("A", 3,
+				Arrays.asList(ItemPatch.set("$readaccess", Arrays.asList("anna"))));
+		assertEquals(Arrays.asList("anna"), result.getItemValue("$readaccess"));
+	}
+}
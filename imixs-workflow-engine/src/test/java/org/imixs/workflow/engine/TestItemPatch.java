@@ -0,0 +1,86 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.imixs.workflow.ItemCollection;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the ItemPatch. The test verifies the set, append and remove
+ * operations and the protection of reserved and protected items.
+ * 
+ * @author rsoika
+ */
+public class TestItemPatch {
+
+	/**
+	 * Test set, append and remove
+	 */
+	@Test
+	public void testApply() {
+		ItemCollection doc = new ItemCollection();
+		doc.setItemValue("_subject", "Hello");
+		doc.setItemValue("_comments", "first");
+		doc.setItemValue("_draft", true);
+
+		ItemPatch.set("_Subject", Arrays.asList("Hello World")).apply(doc);
+		ItemPatch.append("_comments", Arrays.asList("second", "third")).apply(doc);
+		ItemPatch.remove("_draft").apply(doc);
+
+		assertEquals("Hello World", doc.getItemValueString("_subject"));
+		assertEquals(Arrays.asList("first", "second", "third"), doc.getItemValue("_comments"));
+		assertFalse(doc.hasItem("_draft"));
+
+		// set with an empty list clears the values
+		ItemPatch.set("_subject", null).apply(doc);
+		assertEquals(0, doc.getItemValue("_subject").size());
+	}
+
+	/**
+	 * Test invalid operations and reserved items
+	 */
+	@Test
+	public void testInvalid() {
+		assertThrows(IllegalArgumentException.class, () -> new ItemPatch("replace", "_subject", null));
+		assertThrows(IllegalArgumentException.class, () -> ItemPatch.set("$uniqueid", Arrays.asList("1")));
+		assertThrows(IllegalArgumentException.class, () -> ItemPatch.remove("$Version"));
+		assertThrows(IllegalArgumentException.class, () -> ItemPatch.set(" ", null));
+
+		ItemPatch patch = new ItemPatch("APPEND", "_Comments", Arrays.asList("x"));
+		assertEquals(ItemPatch.APPEND, patch.getOperation());
+		assertEquals("_comments", patch.getName());
+	}
+
+	/**
+	 * Test protected items
+	 */
+	@Test
+	public void testProtected() {
+		assertTrue(ItemPatch.isProtected("$writeaccess"));
+		assertTrue(ItemPatch.isProtected("$TaskID"));
+		assertTrue(ItemPatch.isProtected("namOwner"));
+		assertTrue(ItemPatch.isProtected("txtworkflowstatus"));
+		assertFalse(ItemPatch.isProtected("_subject"));
+		assertFalse(ItemPatch.isProtected(null));
+	}
+}
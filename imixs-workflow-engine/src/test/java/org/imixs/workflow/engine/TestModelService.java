@@ -18,8 +18,19 @@ package org.imixs.workflow.engine;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.imixs.workflow.FileData;
 import org.imixs.workflow.ItemCollection;
 import org.imixs.workflow.WorkflowKernel;
 import org.imixs.workflow.bpmn.BPMNUtil;
@@ -28,10 +39,15 @@ import org.imixs.workflow.exceptions.PluginException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.openbpmn.bpmn.BPMNModel;
+import org.openbpmn.bpmn.exceptions.BPMNModelException;
+import org.openbpmn.bpmn.util.BPMNModelFactory;
+
+import jakarta.enterprise.concurrent.ManagedExecutorService;
 
 /**
  * Test class for WorkflowService
@@ -158,4 +174,80 @@ public class TestModelService {
 		assertNull(amodel);
 	}
 
+	/**
+	 * This test verifies the caching of parsed item structures per model version.
+	 * A cached structure must be returned as a copy and must be discarded together
+	 * with the model data.
+	 * 
+	 * @throws PluginException
+	 */
+	@Test
+	public void testItemStructureCache() throws PluginException {
+		ModelService modelService = workflowEnvironment.getModelService();
+		String xml = "<modelversion>1.0.0</modelversion><task>100</task>";
+
+		ItemCollection structure = workflowEnvironment.getWorkflowService().parseItemStructure(xml, workitem);
+		assertEquals("100", structure.getItemValueString("task"));
+
+		// structure must be cached for the model version of the workitem
+		ItemCollection cached = modelService.findItemStructure("1.0.0", "structure~" + xml);
+		assertNotNull(cached);
+		assertEquals("1.0.0", cached.getItemValueString("modelversion"));
+
+		// manipulation of a result must not affect the cache
+		cached.replaceItemValue("task", "200");
+		structure = workflowEnvironment.getWorkflowService().parseItemStructure(xml, workitem);
+		assertEquals("100", structure.getItemValueString("task"));
+
+		// unknown model versions are not cached
+		assertNull(modelService.findItemStructure("9.9.9", "structure~" + xml));
+
+		// removing the model data discards the cache
+		modelService.removeModelData("1.0.0");
+		assertNull(modelService.findItemStructure("1.0.0", "structure~" + xml));
+	}
+
+	/**
+	 * This test verifies the parallel parsing of the model entities in
+	 * initModels. Duplicated model versions are removed.
+	 */
+	@Test
+	public void testInitModelsParallel() throws IOException, BPMNModelException {
+		String[] files = { "/bpmn/TestWorkflowService.bpmn", "/bpmn/TestOwnerPlugin.bpmn",
+				"/bpmn/TestApproverPlugin.bpmn", "/bpmn/split_event1.bpmn", "/bpmn/TestWorkflowService.bpmn" };
+		List<ItemCollection> entities = new ArrayList<>();
+		Set<String> expectedVersions = new TreeSet<>();
+		for (String file : files) {
+			byte[] content;
+			try (InputStream inputStream = getClass().getResourceAsStream(file)) {
+				content = inputStream.readAllBytes();
+			}
+			expectedVersions.add(BPMNUtil.getVersion(BPMNModelFactory.read(getClass().getResourceAsStream(file))));
+			ItemCollection entity = new ItemCollection();
+			entity.setItemValue(WorkflowKernel.UNIQUEID, WorkflowKernel.generateUniqueID());
+			entity.addFileData(new FileData(file.substring(6), content, "application/xml", null));
+			entities.add(entity);
+		}
+		Mockito.when(workflowEnvironment.getDocumentService().getDocumentsByType("model")).thenReturn(entities);
+
+		ExecutorService pool = Executors.newFixedThreadPool(3);
+		try {
+			ManagedExecutorService executorService = Mockito.mock(ManagedExecutorService.class);
+			Mockito.when(executorService.submit(Mockito.any(Runnable.class)))
+					.thenAnswer(invocation -> pool.submit((Runnable) invocation.getArgument(0)));
+			ModelService modelService = workflowEnvironment.getModelService();
+			modelService.executorService = executorService;
+			modelService.initWorkers = 3;
+
+			modelService.initModels();
+			assertEquals(new ArrayList<>(expectedVersions), modelService.getVersions());
+			assertTrue(modelService.getInitTime() >= 0);
+			Mockito.verify(executorService, Mockito.times(3)).submit(Mockito.any(Runnable.class));
+			// the duplicated model entity is removed
+			Mockito.verify(workflowEnvironment.getDocumentService(),
+					Mockito.times(files.length - expectedVersions.size())).remove(Mockito.any(ItemCollection.class));
+		} finally {
+			pool.shutdown();
+		}
+	}
 }
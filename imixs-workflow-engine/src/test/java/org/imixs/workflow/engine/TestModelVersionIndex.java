@@ -0,0 +1,67 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the ModelVersionIndex. The test verifies the resolution of
+ * model versions by a regular expression and by a workflow group.
+ * 
+ * @author rsoika
+ */
+public class TestModelVersionIndex {
+
+	private ModelVersionIndex createIndex() {
+		Map<String, Set<String>> versionGroups = new HashMap<>();
+		versionGroups.put("1.0.0", new HashSet<>(Arrays.asList("Ticket", "Invoice")));
+		versionGroups.put("1.1.0", new HashSet<>(Arrays.asList("Ticket")));
+		versionGroups.put("2.0.0", new HashSet<>(Arrays.asList("Invoice")));
+		versionGroups.put("invoice-1.2.0", new HashSet<>(Arrays.asList("Invoice", null)));
+		return new ModelVersionIndex(versionGroups);
+	}
+
+	@Test
+	public void testFindVersionByGroup() {
+		ModelVersionIndex index = createIndex();
+		assertEquals("1.1.0", index.findVersionByGroup("Ticket"));
+		assertEquals("invoice-1.2.0", index.findVersionByGroup("Invoice"));
+		assertNull(index.findVersionByGroup("Order"));
+		assertNull(index.findVersionByGroup(null));
+		assertEquals(Arrays.asList("Invoice", "Ticket"), index.getWorkflowGroups());
+	}
+
+	@Test
+	public void testFindVersionByRegEx() {
+		ModelVersionIndex index = createIndex();
+		assertEquals("1.1.0", index.findVersionByRegEx("^1."));
+		assertEquals("invoice-1.2.0", index.findVersionByRegEx("1.2"));
+		assertEquals("2.0.0", index.findVersionByRegEx("^(1|2)\\.0"));
+		assertNull(index.findVersionByRegEx("^3."));
+		// memorized results
+		assertEquals("1.1.0", index.findVersionByRegEx("^1."));
+		assertNull(index.findVersionByRegEx("^3."));
+	}
+}
@@ -0,0 +1,125 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.imixs.workflow.ItemCollection;
+import org.imixs.workflow.WorkflowKernel;
+import org.imixs.workflow.exceptions.ModelException;
+import org.imixs.workflow.exceptions.PluginException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the ProcessingTrace. The test verifies the sampling and the
+ * span tree recorded by the WorkflowService.
+ * 
+ * @author rsoika
+ */
+public class TestProcessingTrace {
+
+	protected MockWorkflowEnvironment workflowEnvironment;
+	protected List<ProcessingTrace> traces;
+
+	@BeforeEach
+	public void setUp() throws PluginException {
+		workflowEnvironment = new MockWorkflowEnvironment();
+		workflowEnvironment.setUp();
+		workflowEnvironment.loadBPMNModelFromFile("/bpmn/TestWorkflowService.bpmn");
+
+		traces = new ArrayList<>();
+		TraceService traceService = new TraceService() {
+			@Override
+			public void export(ProcessingTrace trace) {
+				if (trace.isSampled()) {
+					traces.add(trace);
+				}
+			}
+		};
+		traceService.enabled = true;
+		traceService.sample = 2;
+		traceService.init();
+		workflowEnvironment.workflowService.traceService = traceService;
+	}
+
+	/**
+	 * Every second processing call is traced.
+	 */
+	@Test
+	public void testSampling() throws PluginException, ModelException {
+		for (int i = 0; i < 3; i++) {
+			ItemCollection workitem = workflowEnvironment.getDocumentService().load("W0000-00001");
+			workitem.setTaskID(100);
+			workitem.setEventID(10);
+			workflowEnvironment.workflowService.processWorkItem(workitem);
+		}
+		assertEquals(2, traces.size());
+	}
+
+	/**
+	 * The trace contains the processing steps as children of the root span.
+	 */
+	@Test
+	public void testSpans() throws PluginException, ModelException {
+		ItemCollection workitem = workflowEnvironment.getDocumentService().load("W0000-00001");
+		workitem.setTaskID(100);
+		workitem.setEventID(10);
+		workflowEnvironment.workflowService.processWorkItem(workitem);
+
+		assertEquals(1, traces.size());
+		ProcessingTrace trace = traces.get(0);
+		List<ProcessingTrace.Span> spans = trace.getSpans();
+		assertEquals("processWorkItem", spans.get(0).getName());
+		assertEquals(0, spans.get(0).getParentSpanId());
+
+		List<String> steps = spans.stream().filter(span -> span.getParentSpanId() == 1)
+				.map(ProcessingTrace.Span::getName).collect(Collectors.toList());
+		assertEquals(List.of("event.beforeProcess", "document.load", "model.version", "model.fetch",
+				"kernel.init", "kernel.process", "event.afterProcess", "document.save"), steps);
+		for (ProcessingTrace.Span span : spans) {
+			assertTrue(span.getDuration() >= 0, span.getName());
+		}
+
+		String json = trace.toJSON();
+		assertTrue(json.contains("\"traceId\":\"" + trace.getTraceId() + "\""));
+		assertTrue(json.contains("\"" + WorkflowKernel.UNIQUEID + "\":\"W0000-00001\""));
+		assertTrue(json.contains("\"name\":\"kernel.process\""));
+	}
+
+	/**
+	 * Plugins reported by the WorkflowKernel are children of the kernel span.
+	 */
+	@Test
+	public void testKernelSpans() throws PluginException, ModelException {
+		ProcessingTrace trace = new ProcessingTrace("processWorkItem", null);
+		trace.begin("kernel.process");
+		trace.onPluginRun("org.imixs.MyPlugin", "1.0.0", 1000);
+		trace.end();
+		trace.close(null);
+
+		List<ProcessingTrace.Span> spans = trace.getSpans();
+		assertEquals(3, spans.size());
+		assertEquals("plugin org.imixs.MyPlugin", spans.get(2).getName());
+		assertEquals(spans.get(1).getSpanId(), spans.get(2).getParentSpanId());
+		assertEquals(1000, spans.get(2).getDuration());
+	}
+}
@@ -16,18 +16,35 @@
 package org.imixs.workflow.engine;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayOutputStream;
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.logging.Logger;
 
 import javax.xml.transform.TransformerException;
 
+import org.imixs.workflow.ItemCollection;
+import org.imixs.workflow.engine.index.Aggregate;
+import org.imixs.workflow.exceptions.QueryException;
 import org.imixs.workflow.plugins.TestMailPlugin;
 import org.imixs.workflow.xml.XSLHandler;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
 
 /**
  * Test class for ReportService
@@ -115,4 +132,164 @@ public class TestReportService {
 
 	}
 
+	/**
+	 * Test the streamed transformation of a report projected from the search
+	 * index. The documents are read page by page with keyset paging and no
+	 * document is loaded from the database.
+	 */
+	@Test
+	public void testTransformDataSourceFromIndex() throws Exception {
+		DocumentService documentService = mock(DocumentService.class);
+		List<ItemCollection> stubs = createStubs("Anna", "Eddy", "Manfred", "Ronny", "Tina");
+		when(documentService.findAfter(anyString(), eq(2), isNull(), eq(true))).thenReturn(stubs.subList(0, 2));
+		when(documentService.findAfter(anyString(), eq(2), eq("id-2"), eq(true))).thenReturn(stubs.subList(2, 4));
+		when(documentService.findAfter(anyString(), eq(2), eq("id-4"), eq(true))).thenReturn(stubs.subList(4, 5));
+
+		ReportService reportService = new ReportService();
+		reportService.documentService = documentService;
+		reportService.cursorPageSize = 2;
+
+		ItemCollection report = createReport();
+		report.setItemValue(ReportService.ITEM_DATASOURCE, ReportService.DATASOURCE_INDEX);
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		reportService.transformDataSource(report, null, outputStream);
+
+		assertEquals("Anna;Eddy;Manfred;Ronny;Tina;", outputStream.toString("UTF-8").trim());
+		verify(documentService, times(3)).findAfter(anyString(), eq(2), Mockito.any(), eq(true));
+		verify(documentService, never()).load(anyString());
+	}
+
+	/**
+	 * Test the streamed transformation of a report without a datasource
+	 * definition. The full documents are loaded for each stub.
+	 */
+	@Test
+	public void testTransformDataSourceLoadDocuments() throws Exception {
+		DocumentService documentService = mock(DocumentService.class);
+		List<ItemCollection> stubs = createStubs("Anna", "Eddy");
+		when(documentService.findAfter(anyString(), eq(2), isNull(), eq(true))).thenReturn(stubs);
+		when(documentService.findAfter(anyString(), eq(2), eq("id-2"), eq(true))).thenReturn(new ArrayList<>());
+		for (ItemCollection stub : stubs) {
+			ItemCollection document = new ItemCollection(stub);
+			document.setItemValue("txtname", stub.getItemValueString("txtname").toUpperCase());
+			when(documentService.load(stub.getUniqueID())).thenReturn(document);
+		}
+
+		ReportService reportService = new ReportService();
+		reportService.documentService = documentService;
+		reportService.cursorPageSize = 2;
+
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		reportService.transformDataSource(createReport(), null, outputStream);
+
+		assertEquals("ANNA;EDDY;", outputStream.toString("UTF-8").trim());
+		verify(documentService, times(2)).findAfter(anyString(), eq(2), Mockito.any(), eq(true));
+		verify(documentService, times(2)).load(anyString());
+	}
+
+	/**
+	 * Test the streamed transformation if the search index can not be sorted by
+	 * $uniqueid. The cursor falls back to paging by the page index.
+	 */
+	@Test
+	public void testTransformDataSourceNotSortable() throws Exception {
+		DocumentService documentService = mock(DocumentService.class);
+		List<ItemCollection> stubs = createStubs("Anna", "Eddy", "Manfred");
+		when(documentService.findAfter(anyString(), eq(2), isNull(), eq(true)))
+				.thenThrow(new QueryException(QueryException.QUERY_NOT_SORTABLE, "unexpected docvalues type NONE"));
+		when(documentService.findStubs(anyString(), eq(2), eq(0), isNull(), eq(false))).thenReturn(stubs.subList(0, 2));
+		when(documentService.findStubs(anyString(), eq(2), eq(1), isNull(), eq(false))).thenReturn(stubs.subList(2, 3));
+
+		ReportService reportService = new ReportService();
+		reportService.documentService = documentService;
+		reportService.cursorPageSize = 2;
+
+		ItemCollection report = createReport();
+		report.setItemValue(ReportService.ITEM_DATASOURCE, ReportService.DATASOURCE_INDEX);
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		reportService.transformDataSource(report, null, outputStream);
+
+		assertEquals("Anna;Eddy;Manfred;", outputStream.toString("UTF-8").trim());
+		verify(documentService, times(1)).findAfter(anyString(), eq(2), Mockito.any(), eq(true));
+		verify(documentService, times(2)).findStubs(anyString(), eq(2), Mockito.anyInt(), isNull(), eq(false));
+	}
+
+	/**
+	 * Test an aggregation report. Attributes with an aggregate function are
+	 * passed as measures, all other attributes group the result. The result table
+	 * is sorted, paged and formatted by the report definition.
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testAggregateReport() throws Exception {
+		DocumentService documentService = mock(DocumentService.class);
+		List<ItemCollection> table = new ArrayList<>();
+		table.add(new ItemCollection().setItemValue("$workflowgroup", "Invoice").setItemValue("_amount", 1500.5)
+				.setItemValue("$uniqueid", 3));
+		table.add(new ItemCollection().setItemValue("$workflowgroup", "Order").setItemValue("_amount", 250.0)
+				.setItemValue("$uniqueid", 12));
+		when(documentService.aggregate(anyString(), Mockito.anyList(), Mockito.anyList())).thenReturn(table);
+
+		ReportService reportService = new ReportService();
+		reportService.documentService = documentService;
+
+		ItemCollection report = new ItemCollection();
+		report.setItemValue("txtname", "totals");
+		report.setItemValue("txtquery", "(type:\"workitem\")");
+		report.setItemValue(ReportService.ITEM_DATASOURCE, ReportService.DATASOURCE_AGGREGATE);
+		List<List<String>> attributes = new ArrayList<>();
+		attributes.add(Arrays.asList("$workflowgroup", "Group", "", "", ""));
+		attributes.add(Arrays.asList("_amount", "Total", "", "<format locale=\"de_DE\">#,##0.00</format>", "sum"));
+		attributes.add(Arrays.asList("$uniqueid", "Count", "", "", "count"));
+		report.setItemValue("attributes", attributes);
+
+		List<ItemCollection> result = reportService.getDataSource(report, 1, 0, "_amount", false, null);
+		assertEquals(1, result.size());
+		assertEquals("Order", result.get(0).getItemValueString("$workflowgroup"));
+		assertEquals("250,00", result.get(0).getItemValueString("_amount"));
+		assertEquals(12, result.get(0).getItemValueInteger("$uniqueid"));
+
+		@SuppressWarnings("rawtypes")
+		ArgumentCaptor<List> groupBy = ArgumentCaptor.forClass(List.class);
+		@SuppressWarnings("rawtypes")
+		ArgumentCaptor<List> measures = ArgumentCaptor.forClass(List.class);
+		verify(documentService).aggregate(eq("(type:\"workitem\")"), groupBy.capture(), measures.capture());
+		assertEquals(Arrays.asList("$workflowgroup"), groupBy.getValue());
+		assertEquals(Arrays.asList(new Aggregate("_amount", "sum"), new Aggregate("$uniqueid", "count")),
+				measures.getValue());
+
+		// invalid aggregate function
+		attributes.set(1, Arrays.asList("_amount", "Total", "", "", "median"));
+		report.setItemValue("attributes", attributes);
+		assertThrows(QueryException.class, () -> reportService.getDataSource(report, 10, 0, null, false, null));
+	}
+
+	private ItemCollection createReport() {
+		ItemCollection report = new ItemCollection();
+		report.setItemValue("txtname", "test");
+		report.setItemValue("txtquery", "(type:\"workitem\")");
+		List<List<String>> attributes = new ArrayList<>();
+		attributes.add(Arrays.asList("txtname", "Name", "", "", ""));
+		report.setItemValue("attributes", attributes);
+		report.setItemValue("xsl", "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>"
+				+ "<xsl:stylesheet xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\" version=\"1.0\">"
+				+ "<xsl:output method=\"text\" />"
+				+ "<xsl:template match=\"/\"><xsl:for-each select=\"/data/document\">"
+				+ "<xsl:value-of select=\"item[@name='txtname']/value\" />;</xsl:for-each></xsl:template>"
+				+ "</xsl:stylesheet>");
+		return report;
+	}
+
+	private List<ItemCollection> createStubs(String... names) {
+		List<ItemCollection> stubs = new ArrayList<>();
+		int i = 1;
+		for (String name : names) {
+			ItemCollection stub = new ItemCollection();
+			stub.setItemValue("$uniqueid", "id-" + i++);
+			stub.setItemValue("txtname", name);
+			stubs.add(stub);
+		}
+		return stubs;
+	}
+
 }
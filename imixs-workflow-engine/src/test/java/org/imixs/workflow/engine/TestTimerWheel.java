@@ -0,0 +1,131 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the TimerWheel. The test verifies that entries are fired not
+ * before and not later than one tick after their due time - also for entries
+ * cascaded from the upper levels.
+ * 
+ * @author rsoika
+ */
+public class TestTimerWheel {
+
+	@Test
+	public void testAdvance() {
+		TimerWheel wheel = new TimerWheel(100, 0);
+		wheel.schedule("a", 250);
+		wheel.schedule("b", 100);
+		wheel.schedule("c", 1000);
+		assertEquals(3, wheel.size());
+
+		assertTrue(wheel.advance(99).isEmpty());
+		assertEquals(Arrays.asList("b"), wheel.advance(100));
+		assertTrue(wheel.advance(299).isEmpty());
+		assertEquals(Arrays.asList("a"), wheel.advance(300));
+		assertEquals(Arrays.asList("c"), wheel.advance(5000));
+		assertEquals(0, wheel.size());
+	}
+
+	/**
+	 * Entries already due are fired with the next call of advance.
+	 */
+	@Test
+	public void testOverdue() {
+		TimerWheel wheel = new TimerWheel(100, 10000);
+		wheel.schedule("a", 500);
+		assertTrue(wheel.advance(10099).isEmpty());
+		assertEquals(Arrays.asList("a"), wheel.advance(10100));
+	}
+
+	@Test
+	public void testCancel() {
+		TimerWheel wheel = new TimerWheel(100, 0);
+		wheel.schedule("a", 200);
+		wheel.schedule("b", 200);
+		assertTrue(wheel.cancel("a"));
+		assertFalse(wheel.cancel("a"));
+		assertEquals(Arrays.asList("b"), wheel.advance(1000));
+
+		// reschedule replaces the existing entry
+		wheel.schedule("c", 2000);
+		wheel.schedule("c", 10000);
+		assertTrue(wheel.advance(9900).isEmpty());
+		assertEquals(Arrays.asList("c"), wheel.advance(10000));
+	}
+
+	/**
+	 * Schedules random due times over all levels including the overflow and
+	 * advances the wheel in random steps.
+	 */
+	@Test
+	public void testCascade() {
+		Random random = new Random(42);
+		long tick = 10;
+		TimerWheel wheel = new TimerWheel(tick, 0);
+		List<Long> dueTimes = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			long due = (long) Math.pow(64, random.nextDouble() * 4.5) * tick + random.nextInt(1000);
+			dueTimes.add(due);
+			wheel.schedule("" + i, due);
+		}
+		long max = dueTimes.stream().mapToLong(Long::longValue).max().getAsLong();
+		long now = 0;
+		int fired = 0;
+		while (now <= max + tick) {
+			now += random.nextInt(64 * 64) * tick;
+			for (String id : wheel.advance(now)) {
+				long due = dueTimes.get(Integer.parseInt(id));
+				assertTrue(due <= now, "fired before due time");
+				fired++;
+			}
+		}
+		assertEquals(2000, fired);
+		assertEquals(0, wheel.size());
+	}
+
+	/**
+	 * Advances the wheel tick by tick and verifies that each entry is fired
+	 * exactly in the tick containing its due time.
+	 */
+	@Test
+	public void testExactTick() {
+		Random random = new Random(7);
+		TimerWheel wheel = new TimerWheel(1, 0);
+		List<Long> dueTimes = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			long due = 1 + random.nextInt(64 * 64 * 64 * 2);
+			dueTimes.add(due);
+			wheel.schedule("" + i, due);
+		}
+		for (long now = 1; wheel.size() > 0; now++) {
+			for (String id : wheel.advance(now)) {
+				assertEquals(dueTimes.get(Integer.parseInt(id)).longValue(), now);
+			}
+		}
+	}
+}
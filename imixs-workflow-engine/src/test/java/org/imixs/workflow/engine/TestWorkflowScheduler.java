@@ -19,10 +19,12 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 
 import org.imixs.workflow.ItemCollection;
+import org.imixs.workflow.bpmn.BPMNUtil;
 import org.imixs.workflow.exceptions.AccessDeniedException;
 import org.imixs.workflow.exceptions.PluginException;
 import org.imixs.workflow.exceptions.ProcessingErrorException;
@@ -273,4 +275,72 @@ public class TestWorkflowScheduler {
 
 	}
 
+	/**
+	 * This test verifies the computation of the earliest due date of all scheduled
+	 * events of a task. Events based on a custom date field are ignored.
+	 */
+	@Test
+	public void testUpdateDueDate() {
+		Calendar created = Calendar.getInstance();
+		created.add(Calendar.DAY_OF_MONTH, -5);
+		ItemCollection doc = new ItemCollection();
+		doc.replaceItemValue("$created", created.getTime());
+		doc.replaceItemValue("$lastEventDate", created.getTime());
+		doc.replaceItemValue("_duedate", created.getTime());
+
+		// 10 days after creation
+		ItemCollection event1 = new ItemCollection();
+		event1.replaceItemValue(BPMNUtil.EVENT_ITEM_TIMER_ACTIVE, true);
+		event1.replaceItemValue("keyActivityDelayUnit", "3");
+		event1.replaceItemValue("keyScheduledBaseObject", "3");
+		event1.replaceItemValue("numActivityDelay", 10);
+		// 2 hours after last event
+		ItemCollection event2 = new ItemCollection();
+		event2.replaceItemValue(BPMNUtil.EVENT_ITEM_TIMER_ACTIVE, true);
+		event2.replaceItemValue("keyActivityDelayUnit", "2");
+		event2.replaceItemValue("keyScheduledBaseObject", "1");
+		event2.replaceItemValue("numActivityDelay", 2);
+		// field based event is ignored
+		ItemCollection event3 = new ItemCollection();
+		event3.replaceItemValue(BPMNUtil.EVENT_ITEM_TIMER_ACTIVE, true);
+		event3.replaceItemValue("keyActivityDelayUnit", "1");
+		event3.replaceItemValue("keyScheduledBaseObject", "4");
+		event3.replaceItemValue("keyTimeCompareField", "_duedate");
+		event3.replaceItemValue("numActivityDelay", 1);
+		// not scheduled
+		ItemCollection event4 = new ItemCollection();
+
+		workflowScheduler.updateDueDate(doc, Arrays.asList(event1, event2, event3, event4));
+		Calendar expected = (Calendar) created.clone();
+		expected.add(Calendar.HOUR, 2);
+		assertEquals(expected.getTime(), doc.getItemValueDate(WorkflowScheduler.ITEM_DUEDATE));
+
+		workflowScheduler.updateDueDate(doc, Arrays.asList(event3, event4));
+		assertFalse(doc.hasItem(WorkflowScheduler.ITEM_DUEDATE));
+	}
+
+	/**
+	 * This test verifies the extension of a selector by a range query on the due
+	 * date.
+	 */
+	@Test
+	public void testExtendByDueDate() {
+		ItemCollection event = new ItemCollection();
+		event.replaceItemValue("keyScheduledBaseObject", "1");
+		String selector = "($taskid:\"1000\" AND $workflowgroup:\"Invoice\")";
+
+		// disabled
+		assertEquals(selector, workflowScheduler.extendByDueDate(selector, event));
+
+		workflowScheduler.dueDateEnabled = true;
+		String searchTerm = workflowScheduler.extendByDueDate(selector, event);
+		assertTrue(searchTerm.startsWith("(" + selector + ") AND ($scheduler.duedate:[* TO "));
+		assertTrue(searchTerm.endsWith(" OR (*:* -$scheduler.duedate:[* TO *]))"));
+
+		// CDI selector
+		assertEquals("org.foo.MySelector", workflowScheduler.extendByDueDate("org.foo.MySelector", event));
+		// field based event
+		event.replaceItemValue("keyScheduledBaseObject", "4");
+		assertEquals(selector, workflowScheduler.extendByDueDate(selector, event));
+	}
 }
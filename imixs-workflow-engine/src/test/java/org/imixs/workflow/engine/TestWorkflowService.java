@@ -16,8 +16,12 @@
 package org.imixs.workflow.engine;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
@@ -35,6 +39,7 @@ import org.imixs.workflow.exceptions.ProcessingErrorException;
 import org.imixs.workflow.plugins.TestApplicationPlugin;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
@@ -112,6 +117,151 @@ public class TestWorkflowService {
 		assertEquals(0, workitem.getEventID());
 	}
 
+	/**
+	 * This test processes a stream of workitems in chunks. The invalid workitem
+	 * and the workitem before it in the same chunk are returned with an error
+	 * code. The next chunk is processed.
+	 */
+	@Test
+	public void testProcessWorkItems() {
+		List<ItemCollection> workitems = new ArrayList<ItemCollection>();
+		workitems.add(new ItemCollection().model("1.0.0").task(100).event(10).setItemValue("_id", 1));
+		// invalid event
+		workitems.add(new ItemCollection().model("1.0.0").task(100).event(99).setItemValue("_id", 2));
+		workitems.add(new ItemCollection().model("1.0.0").task(100).event(10).setItemValue("_id", 3));
+		workitems.add(new ItemCollection().model("1.0.0").task(100).event(10).setItemValue("_id", 4));
+
+		List<ItemCollection> results = new ArrayList<ItemCollection>();
+		int count = workflowEnvironment.workflowService.processWorkItems(workitems.iterator(), 2, results::add);
+
+		assertEquals(2, count);
+		assertEquals(4, results.size());
+		for (int i = 0; i < 4; i++) {
+			assertEquals(i + 1, results.get(i).getItemValueInteger("_id"));
+		}
+		assertEquals(WorkflowService.CHUNK_ROLLED_BACK, results.get(0).getItemValueString("$error_code"));
+		assertFalse(results.get(1).getItemValueString("$error_code").isEmpty());
+		assertEquals(10, results.get(2).getItemValueInteger("$lastEvent"));
+		assertFalse(results.get(2).getUniqueID().isEmpty());
+		assertEquals("", results.get(3).getItemValueString("$error_code"));
+	}
+
+	/**
+	 * This test verifies that no workitem of a rolled back chunk is processed
+	 * twice. The workitems before the failing workitem are returned as rolled
+	 * back, the failing workitem is returned with its error and the workitems
+	 * after the failing workitem are processed once in a new chunk.
+	 */
+	@Test
+	public void testProcessWorkItemsRolledBack() {
+		List<ItemCollection> workitems = new ArrayList<ItemCollection>();
+		workitems.add(new ItemCollection().model("1.0.0").task(100).event(10).setItemValue("_id", 1));
+		workitems.add(new ItemCollection().model("1.0.0").task(100).event(10).setItemValue("_id", 2));
+		// invalid event
+		workitems.add(new ItemCollection().model("1.0.0").task(100).event(99).setItemValue("_id", 3));
+		workitems.add(new ItemCollection().model("1.0.0").task(100).event(10).setItemValue("_id", 4));
+
+		List<ItemCollection> results = new ArrayList<ItemCollection>();
+		int count = workflowEnvironment.workflowService.processWorkItems(workitems.iterator(), 4, results::add);
+
+		assertEquals(1, count);
+		assertEquals(4, results.size());
+		for (int i = 0; i < 4; i++) {
+			assertEquals(i + 1, results.get(i).getItemValueInteger("_id"));
+		}
+		// the rolled back workitems are returned unchanged
+		assertEquals(WorkflowService.CHUNK_ROLLED_BACK, results.get(0).getItemValueString("$error_code"));
+		assertEquals(WorkflowService.CHUNK_ROLLED_BACK, results.get(1).getItemValueString("$error_code"));
+		assertEquals(0, results.get(1).getItemValueInteger("$lastEvent"));
+		assertFalse(results.get(2).getItemValueString("$error_code").isEmpty());
+		assertFalse(WorkflowService.CHUNK_ROLLED_BACK.equals(results.get(2).getItemValueString("$error_code")));
+		// the invalid workitem is returned unchanged
+		assertEquals(99, results.get(2).getEventID());
+		assertEquals(10, results.get(3).getItemValueInteger("$lastEvent"));
+		assertEquals("", results.get(3).getItemValueString("$error_code"));
+		// each workitem is processed only once
+		verify(workflowEnvironment.getDocumentService(), times(3)).save(Mockito.any());
+	}
+
+	/**
+	 * This test verifies the archive of the $eventlog if the configured maximum
+	 * size is exceeded.
+	 */
+	@SuppressWarnings("rawtypes")
+	@Test
+	public void testArchiveEventLog()
+			throws AccessDeniedException, ProcessingErrorException, PluginException, ModelException {
+		workflowEnvironment.workflowService.eventLogMaxSize = 4;
+		ItemCollection workitem = workflowEnvironment.getDocumentService().load("W0000-00001");
+		workitem.replaceItemValue(WorkflowKernel.MODELVERSION, "1.0.0");
+		for (int i = 0; i < 6; i++) {
+			workitem.setTaskID(100);
+			workitem.setEventID(10);
+			workitem = workflowEnvironment.workflowService.processWorkItem(workitem);
+		}
+
+		// 5 entries exceeded the limit - 3 entries are archived
+		List eventLog = workitem.getItemValue(WorkflowKernel.EVENTLOG);
+		assertEquals(3, eventLog.size());
+		List archiveIDs = workitem.getItemValue(WorkflowService.EVENTLOG_ARCHIVE);
+		assertEquals(1, archiveIDs.size());
+
+		// saving the workitem without an ACL change loads no archive
+		workflowEnvironment.workflowService
+				.onDocumentEvent(new DocumentEvent(workitem, DocumentEvent.ON_DOCUMENT_SAVE));
+		verify(workflowEnvironment.getDocumentService(), never()).load((String) archiveIDs.get(0));
+
+		ItemCollection archive = workflowEnvironment.getDocumentService().load((String) archiveIDs.get(0));
+		assertNotNull(archive);
+		assertEquals(WorkflowService.TYPE_EVENTLOG_ARCHIVE, archive.getType());
+		assertEquals(workitem.getUniqueID(), archive.getItemValueString(WorkflowService.UNIQUEIDREF));
+		assertEquals(3, archive.getItemValue(WorkflowKernel.EVENTLOG).size());
+	}
+
+	/**
+	 * This test verifies that the eventlog archive documents follow the ACL of
+	 * the workitem and are deleted together with the workitem.
+	 */
+	@Test
+	public void testArchiveEventLogCascade() throws AccessDeniedException {
+		ItemCollection archive = new ItemCollection();
+		archive.setItemValue(WorkflowKernel.UNIQUEID, "A0000-00001");
+		archive.setType(WorkflowService.TYPE_EVENTLOG_ARCHIVE);
+		archive.setItemValue(WorkflowService.READACCESS, "anna");
+		workflowEnvironment.getDocumentService().save(archive);
+
+		ItemCollection workitem = workflowEnvironment.getDocumentService().load("W0000-00001");
+		workitem.setItemValue(WorkflowService.EVENTLOG_ARCHIVE, "A0000-00001");
+		workitem.setItemValue(WorkflowService.READACCESS, "manfred");
+		workitem.setItemValue(WorkflowService.WRITEACCESS, "manfred");
+
+		// save - the archive inherits the new ACL
+		workflowEnvironment.workflowService
+				.onDocumentEvent(new DocumentEvent(workitem, DocumentEvent.ON_DOCUMENT_SAVE));
+		archive = workflowEnvironment.getDatabase().get("A0000-00001");
+		assertEquals("manfred", archive.getItemValueString(WorkflowService.READACCESS));
+		assertEquals("manfred", archive.getItemValueString(WorkflowService.WRITEACCESS));
+
+		// an unchanged ACL does not load or update the archive
+		workflowEnvironment.workflowService
+				.onDocumentEvent(new DocumentEvent(workitem, DocumentEvent.ON_DOCUMENT_SAVE));
+		verify(workflowEnvironment.getDocumentService(), times(1)).load("A0000-00001");
+		verify(workflowEnvironment.getDocumentService(), times(2)).save(Mockito.any());
+
+		// a changed ACL is cascaded again
+		workitem.setItemValue(WorkflowService.WRITEACCESS, "anna");
+		workflowEnvironment.workflowService
+				.onDocumentEvent(new DocumentEvent(workitem, DocumentEvent.ON_DOCUMENT_SAVE));
+		archive = workflowEnvironment.getDatabase().get("A0000-00001");
+		assertEquals("anna", archive.getItemValueString(WorkflowService.WRITEACCESS));
+		verify(workflowEnvironment.getDocumentService(), times(3)).save(Mockito.any());
+
+		// delete - the archive is deleted too
+		workflowEnvironment.workflowService
+				.onDocumentEvent(new DocumentEvent(workitem, DocumentEvent.ON_DOCUMENT_DELETE));
+		verify(workflowEnvironment.getDocumentService()).remove(archive);
+	}
+
 	/**
 	 * test if the method getEvents returns correct lists of public events.
 	 */
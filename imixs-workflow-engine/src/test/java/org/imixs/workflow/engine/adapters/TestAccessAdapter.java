@@ -20,6 +20,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Vector;
 import java.util.logging.Logger;
@@ -240,4 +241,33 @@ public class TestAccessAdapter {
 		assertEquals(1, writeAccess.size());
 		assertTrue(writeAccess.contains("tom"));
 	}
+
+	/**
+	 * Test uniqueList and mergeFieldList. The order of the entries must be
+	 * preserved and duplicates and empty values removed.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testUniqueMerge() {
+		List<Object> values = new Vector<Object>();
+		values.add("tom");
+		values.add("");
+		values.add("anna");
+		values.add(null);
+		values.add("tom");
+		values.add("manfred");
+		List<?> result = accessAdapter.uniqueList(values);
+		assertEquals(3, result.size());
+		assertEquals("tom", result.get(0));
+		assertEquals("anna", result.get(1));
+		assertEquals("manfred", result.get(2));
+
+		workitem.replaceItemValue("namteam", new Vector<Object>(Arrays.asList("anna", "eddy", "tom", "eddy")));
+		List valueList = new Vector(result);
+		List<String> fieldList = new Vector<String>();
+		fieldList.add("namteam");
+		fieldList.add("[paul, anna]");
+		accessAdapter.mergeFieldList(workitem, valueList, fieldList);
+		assertEquals(List.of("tom", "anna", "manfred", "eddy", "paul"), valueList);
+	}
 }
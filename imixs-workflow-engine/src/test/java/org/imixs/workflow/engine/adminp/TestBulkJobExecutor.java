@@ -0,0 +1,84 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.engine.adminp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.imixs.workflow.ItemCollection;
+import org.imixs.workflow.engine.DocumentService;
+import org.imixs.workflow.engine.index.UpdateService;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the BulkJobExecutor. The test verifies the retry of a failed
+ * chunk document by document.
+ * 
+ * @author rsoika
+ */
+public class TestBulkJobExecutor {
+
+	/**
+	 * A chunk containing an invalid document is processed again one by one. Only
+	 * the invalid document is reported as failed.
+	 */
+	@Test
+	public void testRetryFailedChunk() {
+		List<ItemCollection> documents = new ArrayList<ItemCollection>();
+		for (int i = 1; i <= 5; i++) {
+			ItemCollection document = new ItemCollection();
+			document.setItemValue("$uniqueid", "doc-" + i);
+			documents.add(document);
+		}
+		List<String> failedIds = new ArrayList<String>();
+		List<ItemCollection> updates = BulkJobExecutor.execute(null, 1, BulkJobExecutor.split(documents, 3),
+				chunk -> {
+					List<ItemCollection> result = new ArrayList<ItemCollection>();
+					for (ItemCollection document : chunk) {
+						// the task changes the document before it fails
+						document.setItemValue("_count", document.getItemValueInteger("_count") + 1);
+						if ("doc-2".equals(document.getUniqueID())) {
+							throw new IllegalStateException("invalid document");
+						}
+						result.add(document);
+					}
+					return result;
+				}, mock(UpdateService.class), mock(DocumentService.class), failedIds);
+
+		assertEquals(4, updates.size());
+		assertEquals(Arrays.asList("doc-2"), failedIds);
+		// the retry works on the unchanged documents
+		for (ItemCollection document : updates) {
+			assertEquals(1, document.getItemValueInteger("_count"));
+		}
+	}
+
+	/**
+	 * Failed ids are appended to the job document
+	 */
+	@Test
+	public void testUpdateFailures() {
+		ItemCollection adminp = new ItemCollection();
+		BulkJobExecutor.updateFailures(adminp, Arrays.asList("doc-1"));
+		BulkJobExecutor.updateFailures(adminp, Arrays.asList("doc-2", "doc-3"));
+		assertEquals(3, adminp.getItemValueInteger("numFailed"));
+		assertEquals(3, adminp.getItemValue(BulkJobExecutor.ITEM_FAILED_IDS).size());
+	}
+}
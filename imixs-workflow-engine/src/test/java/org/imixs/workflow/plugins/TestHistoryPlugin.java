@@ -0,0 +1,134 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.plugins;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import org.imixs.workflow.ItemCollection;
+import org.imixs.workflow.WorkflowKernel;
+import org.imixs.workflow.engine.MockWorkflowEnvironment;
+import org.imixs.workflow.engine.plugins.HistoryPlugin;
+import org.imixs.workflow.exceptions.PluginException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the History plug-in.
+ * 
+ * The plug-in adds a new entry into the history log for each event with a
+ * result log.
+ */
+public class TestHistoryPlugin {
+
+	protected HistoryPlugin historyPlugin = null;
+	protected ItemCollection workitem;
+	protected ItemCollection event;
+	protected MockWorkflowEnvironment workflowEngine;
+
+	@BeforeEach
+	public void setUp() throws PluginException {
+		workflowEngine = new MockWorkflowEnvironment();
+		workflowEngine.setUp();
+
+		historyPlugin = new HistoryPlugin();
+		historyPlugin.init(workflowEngine.getWorkflowService());
+
+		workitem = new ItemCollection();
+		event = new ItemCollection();
+		event.replaceItemValue("rtfresultlog", "some comment");
+	}
+
+	/**
+	 * Each event adds a new entry into the stored history list. Both the history
+	 * item and the deprecated item 'txtworkflowhistory' hold the same list.
+	 */
+	@SuppressWarnings("rawtypes")
+	@Test
+	public void testAddEntries() throws PluginException {
+		for (int i = 0; i < 3; i++) {
+			workitem.replaceItemValue(WorkflowKernel.LASTEVENTDATE, createDate(i));
+			workitem = historyPlugin.run(workitem, event);
+		}
+
+		List history = workitem.getItemValue(HistoryPlugin.ITEM_HISTORY_LOG);
+		assertEquals(3, history.size());
+		assertSame(history, workitem.getItemValue("txtworkflowhistory"));
+		assertEquals(createDate(2), ((List) history.get(2)).get(0));
+		assertEquals("some comment", ((List) history.get(2)).get(1));
+	}
+
+	/**
+	 * An older entry is inserted at the matching position.
+	 */
+	@SuppressWarnings("rawtypes")
+	@Test
+	public void testAddOlderEntry() throws PluginException {
+		workitem.replaceItemValue(WorkflowKernel.LASTEVENTDATE, createDate(2));
+		workitem = historyPlugin.run(workitem, event);
+		workitem.replaceItemValue(WorkflowKernel.LASTEVENTDATE, createDate(1));
+		workitem = historyPlugin.run(workitem, event);
+
+		List history = workitem.getItemValue(HistoryPlugin.ITEM_HISTORY_LOG);
+		assertEquals(2, history.size());
+		assertEquals(createDate(1), ((List) history.get(0)).get(0));
+		assertEquals(createDate(2), ((List) history.get(1)).get(0));
+	}
+
+	/**
+	 * A history which was stored as a non modifiable list and a deprecated item
+	 * holding a separate list are both replaced by a new list.
+	 */
+	@SuppressWarnings("rawtypes")
+	@Test
+	public void testUnmodifiableHistory() throws PluginException {
+		List<Object> oldEntry = Arrays.asList(createDate(0), "old comment", "anna");
+		workitem.replaceItemValue(HistoryPlugin.ITEM_HISTORY_LOG, Arrays.asList(oldEntry));
+		workitem.replaceItemValue("txtworkflowhistory", Arrays.asList(oldEntry));
+		workitem.replaceItemValue(WorkflowKernel.LASTEVENTDATE, createDate(1));
+		workitem = historyPlugin.run(workitem, event);
+
+		List history = workitem.getItemValue(HistoryPlugin.ITEM_HISTORY_LOG);
+		assertEquals(2, history.size());
+		assertSame(history, workitem.getItemValue("txtworkflowhistory"));
+	}
+
+	/**
+	 * The deprecated item 'txtworkflowhistory' is migrated into the history item.
+	 */
+	@Test
+	public void testMigrateDeprecatedItem() throws PluginException {
+		List<Object> oldEntry = Arrays.asList(createDate(0), "old comment", "anna");
+		workitem.replaceItemValue("txtworkflowhistory", Arrays.asList(oldEntry));
+		workitem.replaceItemValue(WorkflowKernel.LASTEVENTDATE, createDate(1));
+		workitem = historyPlugin.run(workitem, event);
+
+		assertEquals(2, workitem.getItemValue(HistoryPlugin.ITEM_HISTORY_LOG).size());
+		assertEquals(2, workitem.getItemValue("txtworkflowhistory").size());
+	}
+
+	private Date createDate(int day) {
+		Calendar cal = Calendar.getInstance();
+		cal.set(2024, Calendar.JANUARY, 1 + day, 12, 0, 0);
+		cal.set(Calendar.MILLISECOND, 0);
+		return cal.getTime();
+	}
+}
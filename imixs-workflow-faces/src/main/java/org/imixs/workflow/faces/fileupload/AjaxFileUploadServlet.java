@@ -15,17 +15,21 @@
 
 package org.imixs.workflow.faces.fileupload;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
 import java.net.URLDecoder;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import org.imixs.workflow.FileData;
+import org.imixs.workflow.faces.fileupload.SpooledFile.SizeLimitExceededException;
 
 import jakarta.inject.Inject;
+import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.ServletResponse;
@@ -41,6 +45,12 @@ import jakarta.servlet.http.Part;
  * imixsFileUploadAjax widget. The widget handles the upload of multiple files
  * and supports drag & drop functionality. The servlet is configured with a max
  * file size to 10MB, and a max request size of 50MB.
+ * <p>
+ * Each file is streamed into a temporary {@link SpooledFile} with bounded
+ * memory. The limits can be overwritten by the context-params
+ * 'imixs.fileupload.maxFileSize' and 'imixs.fileupload.maxRequestSize'. The
+ * optional context-param 'imixs.fileupload.maxBytesPerSecond' limits the
+ * throughput of a single upload request.
  * 
  * @author rsoika
  */
@@ -54,6 +64,14 @@ public class AjaxFileUploadServlet extends HttpServlet {
     private static final String CONTENT_TYPE_MULTIPART = "multipart/";
     private static final String CONTENT_DISPOSITION = "content-disposition";
     private static final String CONTENT_DISPOSITION_FILENAME = "filename";
+    private static final String ERROR_FILE_TOO_LARGE = "FILE_TOO_LARGE";
+    private static final String ERROR_REQUEST_TOO_LARGE = "REQUEST_TOO_LARGE";
+    private static final String ERROR_INVALID_REQUEST = "INVALID_REQUEST";
+    private static final String ERROR_UPLOAD_FAILED = "UPLOAD_FAILED";
+
+    public static final String MAX_FILE_SIZE = "imixs.fileupload.maxFileSize";
+    public static final String MAX_REQUEST_SIZE = "imixs.fileupload.maxRequestSize";
+    public static final String MAX_BYTES_PER_SECOND = "imixs.fileupload.maxBytesPerSecond";
 
     private static final Logger logger = Logger.getLogger(AjaxFileUploadServlet.class.getName());
 
@@ -69,38 +87,46 @@ public class AjaxFileUploadServlet extends HttpServlet {
 
         if (isPostFileUploadRequest(httpRequest)) {
             logger.info("......file upload request received...");
-            List<FileData> fileDataList = getFilesFromRequest(httpRequest);
-
-            // null signals a FileTooLargeException from Undertow
-            if (fileDataList == null) {
-                // Read maxFileSize from context-param or fall back to @MultipartConfig
-                String configValue = getServletContext().getInitParameter("imixs.fileupload.maxFileSize");
-                MultipartConfig annotation = this.getClass().getAnnotation(MultipartConfig.class);
-                long maxFileSize = (configValue != null)
-                        ? Long.parseLong(configValue)
-                        : annotation.maxFileSize();
-
-                logger.warning("......upload aborted - file too large, maxFileSize=" + maxFileSize);
-                response.setStatus(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            // Read the limits from context-param or fall back to @MultipartConfig
+            MultipartConfig annotation = this.getClass().getAnnotation(MultipartConfig.class);
+            long maxFileSize = getLimit(MAX_FILE_SIZE, annotation.maxFileSize());
+            long maxRequestSize = getLimit(MAX_REQUEST_SIZE, annotation.maxRequestSize());
+
+            List<SpooledFile> spooledFiles = new ArrayList<SpooledFile>();
+            String error = getFilesFromRequest(httpRequest, spooledFiles, maxFileSize, maxRequestSize,
+                    getLimit(MAX_BYTES_PER_SECOND, 0));
+            if (error != null) {
+                spooledFiles.forEach(SpooledFile::delete);
+                logger.warning("......upload aborted - " + error + ", maxFileSize=" + maxFileSize
+                        + ", maxRequestSize=" + maxRequestSize);
+                if (ERROR_UPLOAD_FAILED.equals(error)) {
+                    response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                } else if (ERROR_INVALID_REQUEST.equals(error)) {
+                    response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                } else {
+                    response.setStatus(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+                }
                 response.setContentType("application/json;charset=UTF-8");
                 PrintWriter out = response.getWriter();
-                out.write("{ \"error\": \"FILE_TOO_LARGE\", \"maxFileSize\": " + maxFileSize + " }");
+                out.write("{ \"error\": \"" + error + "\", \"maxFileSize\": " + maxFileSize
+                        + ", \"maxRequestSize\": " + maxRequestSize + " }");
                 out.close();
                 return;
             }
 
-            logger.info("......processing " + fileDataList.size() + " file(s)...");
-            if (fileUploadController != null) {
-                if (fileUploadController.getWorkitem() != null) {
-                    for (FileData filedata : fileDataList) {
-                        logger.info("......adding fileData: " + filedata.getName());
-                        fileUploadController.addFileUpload(filedata);
-                    }
+            logger.info("......processing " + spooledFiles.size() + " file(s)...");
+            if (fileUploadController != null && fileUploadController.getWorkitem() != null) {
+                for (SpooledFile spooledFile : spooledFiles) {
+                    logger.info("......adding fileData: " + spooledFile.getName());
+                    fileUploadController.addSpooledFile(spooledFile);
+                }
+            } else {
+                spooledFiles.forEach(SpooledFile::delete);
+                if (fileUploadController == null) {
+                    logger.warning("......fileUploadController is null");
                 } else {
                     logger.warning("......workitem is null - files cannot be stored");
                 }
-            } else {
-                logger.warning("......fileUploadController is null");
             }
             writeJsonMetadata(response, httpRequest.getRequestURI());
         }
@@ -123,10 +149,9 @@ public class AjaxFileUploadServlet extends HttpServlet {
             if (fileUploadController != null) {
                 // check workitem... issue
                 if (fileUploadController.getWorkitem() != null) {
-                    FileData fileData = fileUploadController.getFileUpload(filename);
-                    // write contenremoveFile(filename);
-                    if (fileData != null) {
-                        writeFileContent(httpResponse, fileData);
+                    SpooledFile spooledFile = fileUploadController.getSpooledFile(filename);
+                    if (spooledFile != null) {
+                        writeFileContent(httpResponse, spooledFile);
                     } else {
                         httpResponse.sendError(HttpServletResponse.SC_NOT_FOUND);
                     }
@@ -150,23 +175,38 @@ public class AjaxFileUploadServlet extends HttpServlet {
     }
 
     /**
-     * Returns a file attachment located in the property $file of the specified
-     * workitem
+     * Streams the content of an uploaded spool file into the response.
      * 
-     * The file name will be encoded. With a URLDecode the filename is decoded in
-     * different formats and searched in the file list. This is not a nice solution.
-     * 
-     * @param uniqueid
-     * @return
+     * @param response
+     * @param spooledFile
      * @throws IOException
      */
-    private void writeFileContent(ServletResponse response, FileData fileData) throws IOException {
+    private void writeFileContent(ServletResponse response, SpooledFile spooledFile) throws IOException {
         logger.finest("......write file content...");
-        ServletOutputStream output = response.getOutputStream();
-        output.write(fileData.getContent());
-        // now return json string of uploaded files....
-        response.setContentType(fileData.getContentType());
-        output.close();
+        response.setContentType(spooledFile.getContentType());
+        response.setContentLengthLong(spooledFile.getSize());
+        try (InputStream input = spooledFile.openStream(); ServletOutputStream output = response.getOutputStream()) {
+            input.transferTo(output);
+        }
+    }
+
+    /**
+     * Returns the limit defined by a context-param or the given default value.
+     * 
+     * @param param        - name of the context-param
+     * @param defaultValue - default value
+     * @return limit
+     */
+    private long getLimit(String param, long defaultValue) {
+        String configValue = getServletContext().getInitParameter(param);
+        if (configValue != null && !configValue.isBlank()) {
+            try {
+                return Long.parseLong(configValue.trim());
+            } catch (NumberFormatException e) {
+                logger.log(Level.WARNING, "......invalid context-param {0}={1}", new Object[] { param, configValue });
+            }
+        }
+        return defaultValue;
     }
 
     /**
@@ -200,20 +240,26 @@ public class AjaxFileUploadServlet extends HttpServlet {
     }
 
     /**
-     * This method converts mulitple files from the httpRequest into a list of
-     * FileData objects.
+     * This method streams mulitple files from the httpRequest into a list of
+     * spool files. The method returns an error code if a file exceeds the
+     * maxFileSize or all files exceed the maxRequestSize, if the request is no
+     * valid multipart request or if a file can not be read or spooled.
      * 
      * @param httpRequest
-     * @return list of FileData objects
+     * @param spooledFiles      - list to add the spooled files
+     * @param maxFileSize       - max size of a single file
+     * @param maxRequestSize    - max size of all files
+     * @param maxBytesPerSecond - max throughput, 0 = no limit
+     * @return error code or null if all files were spooled
      */
-    private List<FileData> getFilesFromRequest(HttpServletRequest httpRequest) {
+    private String getFilesFromRequest(HttpServletRequest httpRequest, List<SpooledFile> spooledFiles,
+            long maxFileSize, long maxRequestSize, long maxBytesPerSecond) {
         logger.finest("......Looping parts");
-        List<FileData> fileDataList = new ArrayList<FileData>();
+        File tempDir = (File) getServletContext().getAttribute(ServletContext.TEMPDIR);
+        Path spoolDir = (tempDir != null) ? tempDir.toPath() : null;
+        long requestSize = 0;
         try {
             for (Part p : httpRequest.getParts()) {
-                byte[] b = new byte[(int) p.getSize()];
-                p.getInputStream().read(b);
-                p.getInputStream().close();
                 String fileName = getFilename(p);
                 if (fileName != null) {
                     byte fileNameISOBytes[] = fileName.getBytes("iso-8859-1");
@@ -222,22 +268,35 @@ public class AjaxFileUploadServlet extends HttpServlet {
                         logger.finest("......filename seems to be ISO-8859-1 encoded");
                         fileName = new String(fileName.getBytes("iso-8859-1"), "utf-8");
                     }
-                    FileData fileData = new FileData(fileName, b, p.getContentType(), null);
-                    fileDataList.add(fileData);
-                    logger.info("......file added: " + fileName + " size: " + b.length + " bytes");
+                    SpooledFile spooledFile;
+                    try (InputStream input = p.getInputStream()) {
+                        spooledFile = SpooledFile.spool(fileName, p.getContentType(), input, spoolDir,
+                                maxFileSize, maxBytesPerSecond);
+                    }
+                    spooledFiles.add(spooledFile);
+                    logger.info("......file added: " + fileName + " size: " + spooledFile.getSize() + " bytes");
+                    requestSize += spooledFile.getSize();
+                    if (maxRequestSize > 0 && requestSize > maxRequestSize) {
+                        return ERROR_REQUEST_TOO_LARGE;
+                    }
                 }
+                p.delete();
             }
+        } catch (SizeLimitExceededException ex) {
+            logger.warning("......file upload rejected - " + ex.getMessage());
+            return ERROR_FILE_TOO_LARGE;
         } catch (IllegalStateException ex) {
             // Undertow wraps FileTooLargeException in an IllegalStateException
             logger.warning("......file upload rejected - file too large: " + ex.getMessage());
-            // Signal the error to the caller by returning null
-            return null;
+            return ERROR_FILE_TOO_LARGE;
         } catch (IOException ex) {
-            logger.log(Level.SEVERE, null, ex);
+            logger.log(Level.SEVERE, "......file upload failed", ex);
+            return ERROR_UPLOAD_FAILED;
         } catch (ServletException ex) {
-            logger.log(Level.SEVERE, null, ex);
+            logger.log(Level.SEVERE, "......file upload failed", ex);
+            return ERROR_INVALID_REQUEST;
         }
-        return fileDataList;
+        return null;
     }
 
     /**
@@ -276,20 +335,20 @@ public class AjaxFileUploadServlet extends HttpServlet {
             // check workitem... issue
             if (fileUploadController.getWorkitem() != null) {
 
-                List<FileData> fileDataList = fileUploadController.getFileUploads();
+                List<SpooledFile> fileDataList = fileUploadController.getSpooledFiles();
                 logger.finest("......write JSON meta data...");
 
                 String result = "{ \"files\":[";
                 for (int i = 0; i < fileDataList.size(); i++) {
 
-                    FileData fileData = fileDataList.get(i);
+                    SpooledFile fileData = fileDataList.get(i);
                     // we construct a temp file url with the current converstion id....
                     result += "{ \"url\": \"" + context_url + fileData.getName() + "?cid="
                             + fileUploadController.getCID() + "\",";
                     result += "\"thumbnail_url\": \"\",";
                     result += "\"name\": \"" + fileData.getName() + "\",";
                     result += "\"type\": \"" + fileData.getContentType() + "\",";
-                    result += "\"size\": " + fileData.getContent().length + ",";
+                    result += "\"size\": " + fileData.getSize() + ",";
                     result += "\"delete_url\": \"\",";
                     result += "\"delete_type\": \"DELETE\"";
 
@@ -15,12 +15,15 @@
 
 package org.imixs.workflow.faces.fileupload;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -33,6 +36,7 @@ import org.imixs.workflow.exceptions.PluginException;
 import org.imixs.workflow.faces.data.WorkflowController;
 import org.imixs.workflow.faces.data.WorkflowEvent;
 
+import jakarta.annotation.PreDestroy;
 import jakarta.annotation.Priority;
 import jakarta.enterprise.context.Conversation;
 import jakarta.enterprise.context.ConversationScoped;
@@ -56,7 +60,9 @@ import jakarta.servlet.http.Part;
  * AjaxMode:
  * <p>
  * In the ajax mode one or multiple files can be transferred sequentiell in
- * separate ajax request. This mode is more user friendly.
+ * separate ajax request. This mode is more user friendly. The uploaded files
+ * are held as {@link SpooledFile} references to temporary spool files and are
+ * read into the workitem not before the workitem is processed or saved.
  * <p>
  * 
  * <pre>
@@ -79,7 +85,7 @@ public class FileUploadController implements Serializable {
 
     public static final String FILEUPLOAD_ERROR = "FILEUPLOAD_ERROR";
 
-    private ItemCollection uploadData = null; // holds the temporally file list.
+    private List<SpooledFile> uploadData = null; // holds the temporally file list.
     private List<Part> files;
     private ItemCollection workitem = null;
     private boolean isCompleted = true;
@@ -91,7 +97,16 @@ public class FileUploadController implements Serializable {
     private WorkflowController workflowController;
 
     public FileUploadController() {
-        uploadData = new ItemCollection();
+        uploadData = new ArrayList<SpooledFile>();
+    }
+
+    /**
+     * Removes the spool files of uploads which were never attached to a workitem
+     * when the conversation ends.
+     */
+    @PreDestroy
+    void destroy() {
+        reset();
     }
 
     public List<Part> getFiles() {
@@ -168,13 +183,19 @@ public class FileUploadController implements Serializable {
     public void attacheFiles(ItemCollection workitem) throws PluginException {
 
         // Ajax mode - check fileUploads
-        if (uploadData != null && uploadData.getFileData().size() > 0) {
+        if (uploadData != null && uploadData.size() > 0) {
             // In single mode - no upladData exits
-            for (FileData fileData : uploadData.getFileData()) {
-                workitem.addFileData(fileData);
+            try {
+                for (SpooledFile spooledFile : uploadData) {
+                    workitem.addFileData(spooledFile.getFileData());
+                }
+            } catch (IOException e) {
+                throw new PluginException(FileUploadController.class.getSimpleName(),
+                        FILEUPLOAD_ERROR,
+                        "failed to read spooled file: " + e.getMessage(), e);
             }
             // reset uploadData !
-            uploadData = new ItemCollection();
+            reset();
         }
 
         // Single mode - check files object list..
@@ -291,23 +312,34 @@ public class FileUploadController implements Serializable {
                         }
                     }
                 }
-                if (bytes >= 1000000000) {
-                    bytes = (bytes / 1000000000);
-                    return round(bytes) + " GB";
-                } else if (bytes >= 1000000) {
-                    bytes = (bytes / 1000000);
-                    return round(bytes) + " MB";
-                } else if (bytes >= 1000) {
-                    bytes = (bytes / 1000);
-                    return round(bytes) + " KB";
-                } else {
-                    return round(bytes) + " bytes";
-                }
+                return formatFileSize(bytes);
             }
         }
         return "";
     }
 
+    /**
+     * Returns a file size in human readable format. The method is used by the
+     * upload list to show the size of a spool file without reading its content.
+     * 
+     * @param bytes - file size in bytes
+     * @return - filsize in human readable string
+     */
+    public String formatFileSize(double bytes) {
+        if (bytes >= 1000000000) {
+            bytes = (bytes / 1000000000);
+            return round(bytes) + " GB";
+        } else if (bytes >= 1000000) {
+            bytes = (bytes / 1000000);
+            return round(bytes) + " MB";
+        } else if (bytes >= 1000) {
+            bytes = (bytes / 1000);
+            return round(bytes) + " KB";
+        } else {
+            return round(bytes) + " bytes";
+        }
+    }
+
     /**
      * helper method to round for 2 digits.
      * 
@@ -340,41 +372,89 @@ public class FileUploadController implements Serializable {
     /**
      * returns the list of currently new attached files. This list is not equal the
      * $file item!
-     * 
-     * This method is called by the AjaxFileUpload Servlet.
+     * <p>
+     * Note: the content of all files is read from the spool files with each call.
+     * Views should use {@link #getSpooledFiles()} to list the uploads by their
+     * name, size and content type. The content is read into the workitem only by
+     * the method {@link #attacheFiles(ItemCollection)}.
      * 
      * @return
      */
     public List<FileData> getFileUploads() {
-        if (uploadData == null) {
-            uploadData = new ItemCollection();
+        List<FileData> result = new ArrayList<FileData>();
+        for (SpooledFile spooledFile : getSpooledFiles()) {
+            result.add(readFileData(spooledFile));
         }
-        return uploadData.getFileData();
+        return result;
     }
 
     /**
      * returns the single fileData object form the upload list by name
      * 
+     * @return
+     */
+    public FileData getFileUpload(String fileName) {
+        SpooledFile spooledFile = getSpooledFile(fileName);
+        return (spooledFile != null) ? readFileData(spooledFile) : null;
+    }
+
+    /**
+     * returns the list of currently new attached spool files.
+     * 
      * This method is called by the AjaxFileUpload Servlet.
      * 
      * @return
      */
-    public FileData getFileUpload(String fileName) {
+    public List<SpooledFile> getSpooledFiles() {
         if (uploadData == null) {
-            uploadData = new ItemCollection();
+            uploadData = new ArrayList<SpooledFile>();
         }
-        return uploadData.getFileData(fileName);
+        return uploadData;
     }
 
     /**
-     * Adds a FileData object to the uploaded File list
+     * returns the single spool file form the upload list by name
+     * 
+     * This method is called by the AjaxFileUpload Servlet.
+     * 
+     * @return spool file or null if not found
+     */
+    public SpooledFile getSpooledFile(String fileName) {
+        for (SpooledFile spooledFile : getSpooledFiles()) {
+            if (spooledFile.getName().equals(fileName)) {
+                return spooledFile;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds a FileData object to the uploaded File list. The content is moved into
+     * a spool file.
      * 
      * @param document
      * @param aFilename
      */
     public void addFileUpload(FileData fileData) {
-        uploadData.addFileData(fileData);
+        try {
+            SpooledFile spooledFile = SpooledFile.spool(fileData.getName(), fileData.getContentType(),
+                    new ByteArrayInputStream(fileData.getContent()), null, 0, 0);
+            spooledFile.setAttributes(fileData.getAttributes());
+            addSpooledFile(spooledFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to spool file '" + fileData.getName() + "'", e);
+        }
+    }
 
+    /**
+     * Adds a spool file to the uploaded File list. An existing upload with the
+     * same name is replaced.
+     * 
+     * @param spooledFile
+     */
+    public void addSpooledFile(SpooledFile spooledFile) {
+        removeFileUpload(spooledFile.getName());
+        getSpooledFiles().add(spooledFile);
     }
 
     /**
@@ -384,7 +464,29 @@ public class FileUploadController implements Serializable {
      * @param aFilename
      */
     public void removeFileUpload(String aFilename) {
-        uploadData.removeFile(aFilename);
+        SpooledFile spooledFile = getSpooledFile(aFilename);
+        if (spooledFile != null) {
+            spooledFile.delete();
+            uploadData.remove(spooledFile);
+        }
+    }
+
+    /**
+     * Removes all spool files from the uploaded File list
+     */
+    private void reset() {
+        if (uploadData != null) {
+            uploadData.forEach(SpooledFile::delete);
+        }
+        uploadData = new ArrayList<SpooledFile>();
+    }
+
+    private FileData readFileData(SpooledFile spooledFile) {
+        try {
+            return spooledFile.getFileData();
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to read spooled file '" + spooledFile.getName() + "'", e);
+        }
     }
 
 }
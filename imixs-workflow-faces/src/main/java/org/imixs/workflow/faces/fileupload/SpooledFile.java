@@ -0,0 +1,223 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.faces.fileupload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.imixs.workflow.FileData;
+
+import jakarta.xml.bind.DatatypeConverter;
+
+/**
+ * A SpooledFile is a reference to an uploaded file which was streamed into a
+ * temporary spool file. The content is copied in chunks of 64 KB, so the
+ * memory used by an upload is bounded independent of the file size. The MD5
+ * checksum is computed while the content is spooled and has the same format as
+ * {@link FileData#generateMD5()}.
+ * <p>
+ * The content is read lazily - either as a stream by {@link #openStream()} or
+ * as a {@link FileData} object by {@link #getFileData()} when the file is
+ * attached to a workitem. A spool file must be removed by {@link #delete()}
+ * if it is no longer needed.
+ * 
+ * @author rsoika
+ */
+public class SpooledFile implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final Logger logger = Logger.getLogger(SpooledFile.class.getName());
+
+    public static final String ATTRIBUTE_MD5 = "md5checksum";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private String name;
+    private String contentType;
+    private String path;
+    private long size;
+    private String md5;
+    private Map<String, List<Object>> attributes;
+
+    private SpooledFile(String name, String contentType, Path path, long size, String md5) {
+        this.name = name;
+        this.contentType = contentType;
+        this.path = path.toString();
+        this.size = size;
+        this.md5 = md5;
+        this.attributes = new LinkedHashMap<String, List<Object>>();
+    }
+
+    /**
+     * Streams the given input into a new spool file. The input stream is not
+     * closed by this method.
+     * 
+     * @param name              - file name
+     * @param contentType       - content type
+     * @param input             - file content
+     * @param directory         - spool directory, or null for the default
+     *                          temporary-file directory
+     * @param maxSize           - max file size in bytes, 0 = no limit
+     * @param maxBytesPerSecond - max throughput in bytes per second, 0 = no limit
+     * @return the spooled file
+     * @throws SizeLimitExceededException - if the content exceeds the maxSize
+     * @throws IOException                - if the content can not be spooled
+     */
+    public static SpooledFile spool(String name, String contentType, InputStream input, Path directory,
+            long maxSize, long maxBytesPerSecond) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        Path spoolFile = (directory != null) ? Files.createTempFile(directory, "imixs-upload-", ".tmp")
+                : Files.createTempFile("imixs-upload-", ".tmp");
+        long count = 0;
+        try (OutputStream output = Files.newOutputStream(spoolFile)) {
+            long start = System.currentTimeMillis();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = input.read(buffer)) != -1) {
+                count += n;
+                if (maxSize > 0 && count > maxSize) {
+                    throw new SizeLimitExceededException(name, maxSize);
+                }
+                digest.update(buffer, 0, n);
+                output.write(buffer, 0, n);
+                if (maxBytesPerSecond > 0) {
+                    throttle(count, start, maxBytesPerSecond);
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(spoolFile);
+            throw e;
+        }
+        String md5 = DatatypeConverter.printHexBinary(digest.digest());
+        logger.log(Level.FINE, "......spooled file ''{0}'' - {1} bytes, md5={2}",
+                new Object[] { name, count, md5 });
+        return new SpooledFile(name, contentType, spoolFile, count, md5);
+    }
+
+    /**
+     * Pauses the current thread until the throughput of the bytes read so far
+     * falls below the given limit.
+     */
+    private static void throttle(long count, long start, long maxBytesPerSecond) throws InterruptedIOException {
+        long delay = (count * 1000 / maxBytesPerSecond) - (System.currentTimeMillis() - start);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("file upload interrupted");
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the MD5 checksum of the content computed during spooling.
+     * 
+     * @return md5 string
+     */
+    public String getMD5() {
+        return md5;
+    }
+
+    public Map<String, List<Object>> getAttributes() {
+        return attributes;
+    }
+
+    public void setAttributes(Map<String, List<Object>> attributes) {
+        this.attributes = new LinkedHashMap<String, List<Object>>();
+        if (attributes != null) {
+            this.attributes.putAll(attributes);
+        }
+    }
+
+    /**
+     * Opens a new input stream to read the spooled content.
+     * 
+     * @return input stream
+     * @throws IOException - if the spool file can not be read
+     */
+    public InputStream openStream() throws IOException {
+        return Files.newInputStream(Paths.get(path));
+    }
+
+    /**
+     * Reads the spooled content into a new FileData object. The MD5 checksum is
+     * stored in the attribute 'md5checksum'.
+     * 
+     * @return FileData
+     * @throws IOException - if the spool file can not be read
+     */
+    public FileData getFileData() throws IOException {
+        Map<String, List<Object>> fileAttributes = new LinkedHashMap<String, List<Object>>(attributes);
+        List<Object> checksum = new ArrayList<Object>();
+        checksum.add(md5);
+        fileAttributes.put(ATTRIBUTE_MD5, checksum);
+        return new FileData(name, Files.readAllBytes(Paths.get(path)), contentType, fileAttributes);
+    }
+
+    /**
+     * Removes the spool file.
+     */
+    public void delete() {
+        try {
+            Files.deleteIfExists(Paths.get(path));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "......failed to delete spool file ''{0}'': {1}",
+                    new Object[] { path, e.getMessage() });
+        }
+    }
+
+    /**
+     * Signals that the content of a file exceeds the max file size.
+     */
+    public static class SizeLimitExceededException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public SizeLimitExceededException(String name, long maxSize) {
+            super("file '" + name + "' exceeds the max file size of " + maxSize + " bytes");
+        }
+    }
+}
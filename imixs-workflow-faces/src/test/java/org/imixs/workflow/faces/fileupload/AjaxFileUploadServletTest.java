@@ -0,0 +1,168 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.faces.fileupload;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.imixs.workflow.ItemCollection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import jakarta.servlet.ServletConfig;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
+
+/**
+ * Test class for the AjaxFileUploadServlet. The test verifies that a failed
+ * upload is answered with an error status and no spooled file is kept.
+ */
+public class AjaxFileUploadServletTest {
+
+	Path spoolDir = null;
+	AjaxFileUploadServlet servlet = null;
+	HttpServletRequest request = null;
+	HttpServletResponse response = null;
+	StringWriter responseBody = null;
+
+	@BeforeEach
+	public void before() throws IOException, ServletException {
+		spoolDir = Files.createTempDirectory("imixs-upload-test");
+		ServletContext context = mock(ServletContext.class);
+		when(context.getAttribute(ServletContext.TEMPDIR)).thenReturn(spoolDir.toFile());
+		ServletConfig config = mock(ServletConfig.class);
+		when(config.getServletContext()).thenReturn(context);
+
+		servlet = new AjaxFileUploadServlet();
+		servlet.init(config);
+		servlet.fileUploadController = mock(FileUploadController.class);
+		when(servlet.fileUploadController.getWorkitem()).thenReturn(new ItemCollection());
+
+		request = mock(HttpServletRequest.class);
+		when(request.getMethod()).thenReturn("POST");
+		when(request.getContentType()).thenReturn("multipart/form-data; boundary=xyz");
+		when(request.getRequestURI()).thenReturn("/app/fileupload/");
+		response = mock(HttpServletResponse.class);
+		responseBody = new StringWriter();
+		when(response.getWriter()).thenReturn(new PrintWriter(responseBody));
+	}
+
+	@AfterEach
+	public void after() throws IOException {
+		try (var files = Files.list(spoolDir)) {
+			files.forEach(p -> p.toFile().delete());
+		}
+		Files.deleteIfExists(spoolDir);
+	}
+
+	/**
+	 * All files are spooled and passed to the FileUploadController.
+	 */
+	@Test
+	public void testUpload() throws IOException, ServletException {
+		Collection<Part> parts = parts(new ByteArrayInputStream("abc".getBytes()));
+		when(request.getParts()).thenReturn(parts);
+
+		servlet.doPost(request, response);
+
+		verify(response, never()).setStatus(Mockito.anyInt());
+		verify(servlet.fileUploadController, Mockito.times(2)).addSpooledFile(Mockito.any());
+		assertTrue(responseBody.toString().contains("\"files\""));
+		try (var files = Files.list(spoolDir)) {
+			assertEquals(2, files.count());
+		}
+	}
+
+	/**
+	 * An IOException while spooling a file is answered with the status 500 and
+	 * the files spooled before are deleted.
+	 */
+	@Test
+	public void testUploadIOException() throws IOException, ServletException {
+		InputStream broken = new InputStream() {
+			@Override
+			public int read() throws IOException {
+				throw new IOException("connection reset");
+			}
+		};
+		Collection<Part> parts = parts(broken);
+		when(request.getParts()).thenReturn(parts);
+
+		servlet.doPost(request, response);
+
+		verify(response).setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+		assertTrue(responseBody.toString().contains("UPLOAD_FAILED"));
+		verify(servlet.fileUploadController, never()).addSpooledFile(Mockito.any());
+		try (var files = Files.list(spoolDir)) {
+			assertEquals(0, files.count());
+		}
+	}
+
+	/**
+	 * A request which is no valid multipart request is answered with the status
+	 * 400.
+	 */
+	@Test
+	public void testUploadInvalidRequest() throws IOException, ServletException {
+		when(request.getParts()).thenThrow(new ServletException("invalid multipart request"));
+
+		servlet.doPost(request, response);
+
+		verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+		assertTrue(responseBody.toString().contains("INVALID_REQUEST"));
+		verify(servlet.fileUploadController, never()).addSpooledFile(Mockito.any());
+	}
+
+	/**
+	 * Returns a valid file part 'a.txt' followed by the file part 'b.txt' with the
+	 * given content.
+	 */
+	private Collection<Part> parts(InputStream content) throws IOException {
+		List<Part> parts = new ArrayList<Part>();
+		parts.add(part("a.txt", new ByteArrayInputStream("0123456789".getBytes())));
+		parts.add(part("b.txt", content));
+		return parts;
+	}
+
+	private Part part(String fileName, InputStream content) throws IOException {
+		Part part = mock(Part.class);
+		when(part.getHeader("content-disposition"))
+				.thenReturn("form-data; name=\"file\"; filename=\"" + fileName + "\"");
+		when(part.getContentType()).thenReturn("text/plain");
+		when(part.getInputStream()).thenReturn(content);
+		return part;
+	}
+}
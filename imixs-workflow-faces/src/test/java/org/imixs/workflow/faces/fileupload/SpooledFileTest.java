@@ -0,0 +1,120 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.faces.fileupload;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Random;
+
+import org.imixs.workflow.FileData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the SpooledFile
+ * 
+ * @author rsoika
+ * 
+ */
+public class SpooledFileTest {
+
+	Path spoolDir = null;
+	byte[] content = null;
+
+	@BeforeEach
+	public void before() throws IOException {
+		spoolDir = Files.createTempDirectory("imixs-spool-test");
+		// larger than the spool buffer
+		content = new byte[200 * 1024 + 17];
+		new Random(42).nextBytes(content);
+	}
+
+	@AfterEach
+	public void after() throws IOException {
+		try (var files = Files.list(spoolDir)) {
+			files.forEach(p -> p.toFile().delete());
+		}
+		Files.delete(spoolDir);
+	}
+
+	/**
+	 * Spools a file and verifies size, MD5 checksum and content
+	 */
+	@Test
+	public void testSpool() throws IOException, NoSuchAlgorithmException {
+		SpooledFile spooledFile = SpooledFile.spool("test.bin", "application/octet-stream",
+				new ByteArrayInputStream(content), spoolDir, 0, 0);
+
+		assertEquals(content.length, spooledFile.getSize());
+		FileData fileData = spooledFile.getFileData();
+		assertEquals("test.bin", fileData.getName());
+		assertEquals("application/octet-stream", fileData.getContentType());
+		assertArrayEquals(content, fileData.getContent());
+		// the checksum equals FileData.generateMD5
+		assertEquals(fileData.generateMD5(), spooledFile.getMD5());
+		assertTrue(fileData.validateMD5(((List<?>) fileData.getAttribute(SpooledFile.ATTRIBUTE_MD5)).get(0).toString()));
+
+		try (InputStream input = spooledFile.openStream()) {
+			assertArrayEquals(content, input.readAllBytes());
+		}
+
+		spooledFile.delete();
+		assertEquals(0, Files.list(spoolDir).count());
+	}
+
+	/**
+	 * A file exceeding the max size is rejected and no spool file remains
+	 */
+	@Test
+	public void testSizeLimit() throws IOException {
+		assertThrows(SpooledFile.SizeLimitExceededException.class,
+				() -> SpooledFile.spool("test.bin", "application/octet-stream", new ByteArrayInputStream(content),
+						spoolDir, 100 * 1024, 0));
+		assertEquals(0, Files.list(spoolDir).count());
+
+		// exactly the max size is accepted
+		SpooledFile spooledFile = SpooledFile.spool("test.bin", "application/octet-stream",
+				new ByteArrayInputStream(content), spoolDir, content.length, 0);
+		assertFalse(spooledFile.getMD5().isEmpty());
+		spooledFile.delete();
+	}
+
+	/**
+	 * The throughput limit slows down the spooling
+	 */
+	@Test
+	public void testThroughputLimit() throws IOException {
+		long start = System.currentTimeMillis();
+		SpooledFile spooledFile = SpooledFile.spool("test.bin", "application/octet-stream",
+				new ByteArrayInputStream(content), spoolDir, 0, 1024 * 1024);
+		// 200 KB with 1 MB per second takes at least 150ms
+		assertTrue(System.currentTimeMillis() - start >= 150);
+		assertEquals(content.length, spooledFile.getSize());
+		spooledFile.delete();
+	}
+}
@@ -54,6 +54,7 @@ import org.imixs.workflow.engine.adminp.AdminPService;
 import org.imixs.workflow.engine.index.IndexEvent;
 import org.imixs.workflow.engine.index.SchemaService;
 import org.imixs.workflow.engine.jpa.EventLog;
+import org.imixs.workflow.exceptions.AccessDeniedException;
 import org.imixs.workflow.exceptions.IndexException;
 
 import jakarta.ejb.Stateless;
@@ -101,6 +102,9 @@ public class LuceneIndexService {
     @Inject
     private AdminPService adminPService;
 
+    @Inject
+    private DocumentService documentService;
+
     @Inject
     private EventLogService eventLogService;
 
@@ -211,6 +215,36 @@ public class LuceneIndexService {
         }
     }
 
+    /**
+     * This method creates a rebuild index job if no such job is already pending.
+     * The method is called if the index contains segments written by an older
+     * version which can not be sorted (e.g. missing sorted doc values for
+     * $uniqueid).
+     */
+    public void scheduleRebuildIndex() {
+        if (bRebuildIndex) {
+            return;
+        }
+        for (ItemCollection job : documentService.getDocumentsByType("adminp")) {
+            String status = job.getItemValueString("$workflowStatus");
+            if (AdminPService.JOB_REBUILD_INDEX.equals(job.getItemValueString("job"))
+                    && !"COMPLETED".equals(status) && !"FAILED".equals(status)) {
+                // job already pending
+                bRebuildIndex = true;
+                return;
+            }
+        }
+        try {
+            logger.info("...rebuild lucene index job created...");
+            ItemCollection job = new ItemCollection();
+            job.replaceItemValue("job", AdminPService.JOB_REBUILD_INDEX);
+            adminPService.createJob(job);
+            bRebuildIndex = true;
+        } catch (AccessDeniedException e) {
+            logger.log(Level.WARNING, "...unable to create rebuild lucene index job: {0}", e.getMessage());
+        }
+    }
+
     /**
      * This method adds a collection of documents to the Lucene index. The documents
      * are added immediately to the index. Calling this method within a running
@@ -514,6 +548,10 @@ public class LuceneIndexService {
 
         // add $uniqueid not analyzed
         doc.add(new StringField("$uniqueid", document.getItemValueString("$uniqueid"), Store.YES));
+        // $uniqueid is sortable to support keyset paging (see SearchService.searchAfter)
+        if (!indexFieldListNoAnalyze.contains("$uniqueid")) {
+            doc.add(luceneItemAdapter.adaptSortableItemValue("$uniqueid", document.getItemValueString("$uniqueid")));
+        }
 
         // add $readAccess not analyzed
         List<String> vReadAccess = (List<String>) document.getItemValue(DocumentService.READACCESS);
@@ -19,7 +19,11 @@ import java.io.IOException;
 import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -32,6 +36,7 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.facet.FacetResult;
 import org.apache.lucene.facet.Facets;
 import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.FacetsCollector.MatchingDocs;
 import org.apache.lucene.facet.FacetsConfig;
 import org.apache.lucene.facet.LabelAndValue;
 import org.apache.lucene.facet.taxonomy.FastTaxonomyFacetCounts;
@@ -40,8 +45,11 @@ import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyReader;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
@@ -56,6 +64,7 @@ import org.apache.lucene.store.Directory;
 import org.imixs.workflow.ItemCollection;
 import org.imixs.workflow.WorkflowKernel;
 import org.imixs.workflow.engine.DocumentService;
+import org.imixs.workflow.engine.index.Aggregate;
 import org.imixs.workflow.engine.index.Category;
 import org.imixs.workflow.engine.index.DefaultOperator;
 import org.imixs.workflow.engine.index.SchemaService;
@@ -225,7 +234,17 @@ public class LuceneSearchService implements SearchService {
             // TimeLimitingCollector(collector, clock, 10);
 
             // start search....
-            searcher.search(query, collector);
+            try {
+                searcher.search(query, collector);
+            } catch (IllegalStateException e) {
+                // the index contains segments without sorted doc values for the sort
+                // field (e.g. $uniqueid indexed by an older version)
+                searcher.getIndexReader().close();
+                logger.log(Level.WARNING, "Lucene index is not sortable by ''{0}'' - the index will be rebuilt: {1}",
+                        new Object[] { sortOrder.getField(), e.getMessage() });
+                luceneIndexService.scheduleRebuildIndex();
+                throw new QueryException(QueryException.QUERY_NOT_SORTABLE, e.getMessage(), e);
+            }
 
             // get one page
             topDocs = collector.topDocs(startIndex, pageSize);
@@ -338,6 +357,182 @@ public class LuceneSearchService implements SearchService {
         return results;
     }
 
+    /**
+     * Computes an aggregation over all documents matching the provided search
+     * term. The matching documents are collected by a FacetsCollector. The groupBy
+     * and measure values are read from the sorted doc values of each index segment,
+     * so no document is loaded. The groups of a segment are identified by the
+     * ordinals of their values and merged by their terms after the segment was
+     * read.
+     *
+     * @see SearchService#aggregate
+     */
+    @Override
+    public List<ItemCollection> aggregate(String searchTerm, List<String> groupBy, List<Aggregate> measures,
+            DefaultOperator defaultOperator) throws QueryException {
+        long ltime = System.currentTimeMillis();
+        List<ItemCollection> result = new ArrayList<ItemCollection>();
+
+        searchTerm = schemaService.getExtendedSearchTerm(searchTerm);
+        // test if searchtem is provided
+        if (searchTerm == null || "".equals(searchTerm)) {
+            return result;
+        }
+        List<String> groupFields = new ArrayList<String>();
+        if (groupBy != null) {
+            for (String field : groupBy) {
+                groupFields.add(field.toLowerCase().trim());
+            }
+        }
+        if (measures == null) {
+            measures = new ArrayList<Aggregate>();
+        }
+
+        // groups sorted by their values
+        Map<List<String>, AggregateRow> groups = new TreeMap<List<String>, AggregateRow>((a, b) -> {
+            for (int i = 0; i < a.size(); i++) {
+                int c = a.get(i).compareTo(b.get(i));
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return 0;
+        });
+        int[] dateValues = new int[measures.size()];
+        int[] numberValues = new int[measures.size()];
+        try {
+            IndexSearcher searcher = createIndexSearcher();
+            QueryParser parser = createQueryParser(defaultOperator);
+            parser.setAllowLeadingWildcard(true);
+            // set default operator?
+            if (defaultOperator == DefaultOperator.OR) {
+                parser.setDefaultOperator(org.apache.lucene.queryparser.classic.QueryParser.Operator.OR);
+            } else {
+                parser.setDefaultOperator(org.apache.lucene.queryparser.classic.QueryParser.Operator.AND);
+            }
+            Query query = parser.parse(searchTerm);
+            FacetsCollector fc = new FacetsCollector();
+            searcher.search(query, fc);
+
+            for (MatchingDocs matchingDocs : fc.getMatchingDocs()) {
+                DocIdSetIterator docs = matchingDocs.bits.iterator();
+                if (docs == null) {
+                    continue;
+                }
+                LeafReader reader = matchingDocs.context.reader();
+                SortedDocValues[] groupValues = new SortedDocValues[groupFields.size()];
+                for (int i = 0; i < groupValues.length; i++) {
+                    groupValues[i] = reader.getSortedDocValues(groupFields.get(i));
+                }
+                SortedDocValues[] measureValues = new SortedDocValues[measures.size()];
+                double[][] measureCache = new double[measures.size()][];
+                for (int i = 0; i < measureValues.length; i++) {
+                    measureValues[i] = reader.getSortedDocValues(measures.get(i).getField());
+                    if (measureValues[i] != null) {
+                        // the parsed value of each ordinal
+                        measureCache[i] = new double[measureValues[i].getValueCount()];
+                        Arrays.fill(measureCache[i], Double.NEGATIVE_INFINITY);
+                    }
+                }
+
+                // aggregate the segment by the ordinals of the groupBy values
+                Map<List<Integer>, AggregateRow> segmentGroups = new HashMap<List<Integer>, AggregateRow>();
+                for (int doc = docs.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = docs.nextDoc()) {
+                    Integer[] ords = new Integer[groupValues.length];
+                    for (int i = 0; i < groupValues.length; i++) {
+                        ords[i] = -1;
+                        if (groupValues[i] != null && groupValues[i].advanceExact(doc)) {
+                            ords[i] = groupValues[i].ordValue();
+                        }
+                    }
+                    AggregateRow row = segmentGroups.computeIfAbsent(Arrays.asList(ords),
+                            k -> new AggregateRow(measureValues.length));
+                    for (int i = 0; i < measureValues.length; i++) {
+                        if (measureValues[i] == null || !measureValues[i].advanceExact(doc)) {
+                            continue;
+                        }
+                        int ord = measureValues[i].ordValue();
+                        double value = measureCache[i][ord];
+                        if (value == Double.NEGATIVE_INFINITY) {
+                            String term = measureValues[i].lookupOrd(ord).utf8ToString();
+                            value = parseMeasure(term);
+                            if (!Double.isNaN(value)) {
+                                if (isDate(term)) {
+                                    dateValues[i]++;
+                                } else {
+                                    numberValues[i]++;
+                                }
+                            }
+                            measureCache[i][ord] = value;
+                        }
+                        row.add(i, value);
+                    }
+                }
+
+                // merge the segment groups by their terms
+                for (Map.Entry<List<Integer>, AggregateRow> entry : segmentGroups.entrySet()) {
+                    List<String> key = new ArrayList<String>(groupValues.length);
+                    for (int i = 0; i < groupValues.length; i++) {
+                        int ord = entry.getKey().get(i);
+                        key.add(ord < 0 ? "" : groupValues[i].lookupOrd(ord).utf8ToString());
+                    }
+                    AggregateRow row = groups.get(key);
+                    if (row == null) {
+                        groups.put(key, entry.getValue());
+                    } else {
+                        row.merge(entry.getValue());
+                    }
+                }
+            }
+            searcher.getIndexReader().close();
+        } catch (IOException e) {
+            // in case of an IOException we just print an error message and
+            // return an empty result
+            logger.log(Level.SEVERE, "Lucene index error: {0}", e.getMessage());
+            throw new InvalidAccessException(InvalidAccessException.INVALID_INDEX, e.getMessage(), e);
+        } catch (ParseException e) {
+            logger.log(Level.SEVERE, "Lucene search error: {0}", e.getMessage());
+            throw new QueryException(QueryException.QUERY_NOT_UNDERSTANDABLE, e.getMessage(), e);
+        }
+
+        // build the result table
+        SimpleDateFormat luceneDateformat = new SimpleDateFormat("yyyyMMddHHmmss");
+        for (Map.Entry<List<String>, AggregateRow> entry : groups.entrySet()) {
+            ItemCollection row = new ItemCollection();
+            for (int i = 0; i < groupFields.size(); i++) {
+                row.replaceItemValue(groupFields.get(i),
+                        convertIndexValue(entry.getKey().get(i), luceneDateformat));
+            }
+            AggregateRow values = entry.getValue();
+            for (int i = 0; i < measures.size(); i++) {
+                String function = measures.get(i).getFunction();
+                Object value = null;
+                if (Aggregate.COUNT.equals(function)) {
+                    value = values.count[i];
+                } else if (values.numbers[i] > 0) {
+                    if (Aggregate.SUM.equals(function)) {
+                        value = values.sum[i];
+                    } else if (Aggregate.AVG.equals(function)) {
+                        value = values.sum[i] / values.numbers[i];
+                    } else {
+                        double d = Aggregate.MIN.equals(function) ? values.min[i] : values.max[i];
+                        value = d;
+                        if (dateValues[i] > 0 && numberValues[i] == 0) {
+                            value = convertIndexValue(String.valueOf((long) d), luceneDateformat);
+                        }
+                    }
+                }
+                if (value != null) {
+                    row.replaceItemValue(measures.get(i).getName(), value);
+                }
+            }
+            result.add(row);
+        }
+        logger.log(Level.FINE, "...aggregated {0} groups in {1} ms",
+                new Object[]{result.size(), System.currentTimeMillis() - ltime});
+        return result;
+    }
+
     /**
      * Returns the total hits for a given search term from the lucene index. The
      * method did not load any data. The provided search term will we extended with
@@ -500,32 +695,7 @@ public class LuceneSearchService implements SearchService {
 
         List<IndexableField> fields = luceneDoc.getFields();
         for (IndexableField indexableField : fields) {
-
-            Object objectValue = null;
-            String stringValue = indexableField.stringValue();
-            // check for numbers....
-            if (isNumeric(stringValue)) {
-                // is date?
-                if (stringValue.length() == 14 && !stringValue.contains(".")) {
-                    try {
-                        objectValue = luceneDateformat.parse(stringValue);
-                    } catch (java.text.ParseException e) {
-                        // no date!
-                    }
-                }
-                // lets see if it is a number..?
-                if (objectValue == null) {
-                    try {
-                        Number number = NumberFormat.getInstance().parse(stringValue);
-                        objectValue = number;
-                    } catch (java.text.ParseException e) {
-                        // no number - should not happen
-                    }
-                }
-            }
-            if (objectValue == null) {
-                objectValue = stringValue;
-            }
+            Object objectValue = convertIndexValue(indexableField.stringValue(), luceneDateformat);
             logger.log(Level.FINEST, ".........append {0} = {1}", new Object[]{indexableField.name(), objectValue});
             imixsDoc.appendItemValue(indexableField.name(), objectValue);
         }
@@ -536,6 +706,38 @@ public class LuceneSearchService implements SearchService {
         return imixsDoc;
     }
 
+    /**
+     * Converts a string value from the index into a Date or a Number object. If
+     * the value is neither a date nor a number the string is returned.
+     */
+    private Object convertIndexValue(String stringValue, SimpleDateFormat luceneDateformat) {
+        Object objectValue = null;
+        // check for numbers....
+        if (isNumeric(stringValue)) {
+            // is date?
+            if (stringValue.length() == 14 && !stringValue.contains(".")) {
+                try {
+                    objectValue = luceneDateformat.parse(stringValue);
+                } catch (java.text.ParseException e) {
+                    // no date!
+                }
+            }
+            // lets see if it is a number..?
+            if (objectValue == null) {
+                try {
+                    Number number = NumberFormat.getInstance().parse(stringValue);
+                    objectValue = number;
+                } catch (java.text.ParseException e) {
+                    // no number - should not happen
+                }
+            }
+        }
+        if (objectValue == null) {
+            objectValue = stringValue;
+        }
+        return objectValue;
+    }
+
     private Sort buildLuceneSort(org.imixs.workflow.engine.index.SortOrder sortOrder) {
         Sort sort = null;
         // we do not support multi values here - see
@@ -546,6 +748,44 @@ public class LuceneSearchService implements SearchService {
         return sort;
     }
 
+    /**
+     * Parses the term of a measure value. Besides plain numbers the term can be a
+     * negative number or a number in exponent form as written by Double.toString
+     * (e.g. '-250.0' or '1.0E7'). A date is indexed in the format yyyyMMddHHmmss
+     * and is parsed as a number too. Terms which are no finite number (e.g. text,
+     * 'NaN' or '12d') result in NaN.
+     * 
+     * @param term - the indexed term
+     * @return parsed value or NaN
+     */
+    static double parseMeasure(String term) {
+        if (term == null || term.isEmpty() || !Character.isDigit(term.charAt(term.length() - 1))
+                && term.charAt(term.length() - 1) != '.') {
+            return Double.NaN;
+        }
+        try {
+            double value = Double.parseDouble(term);
+            return Double.isInfinite(value) ? Double.NaN : value;
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Returns true if the term is a date indexed in the format yyyyMMddHHmmss
+     */
+    private static boolean isDate(String term) {
+        if (term.length() != 14) {
+            return false;
+        }
+        for (int i = 0; i < term.length(); i++) {
+            if (!Character.isDigit(term.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Helper method to check for numbers.
      * 
@@ -571,4 +811,44 @@ public class LuceneSearchService implements SearchService {
 
     }
 
+    /**
+     * Holds the aggregated values of a single group
+     */
+    private static class AggregateRow {
+        final int[] count;
+        final int[] numbers;
+        final double[] sum;
+        final double[] min;
+        final double[] max;
+
+        AggregateRow(int size) {
+            count = new int[size];
+            numbers = new int[size];
+            sum = new double[size];
+            min = new double[size];
+            max = new double[size];
+            Arrays.fill(min, Double.POSITIVE_INFINITY);
+            Arrays.fill(max, Double.NEGATIVE_INFINITY);
+        }
+
+        void add(int i, double value) {
+            count[i]++;
+            if (!Double.isNaN(value)) {
+                numbers[i]++;
+                sum[i] += value;
+                min[i] = Math.min(min[i], value);
+                max[i] = Math.max(max[i], value);
+            }
+        }
+
+        void merge(AggregateRow other) {
+            for (int i = 0; i < count.length; i++) {
+                count[i] += other.count[i];
+                numbers[i] += other.numbers[i];
+                sum[i] += other.sum[i];
+                min[i] = Math.min(min[i], other.min[i]);
+                max[i] = Math.max(max[i], other.max[i]);
+            }
+        }
+    }
 }
@@ -0,0 +1,171 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.engine.lucene;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.imixs.workflow.ItemCollection;
+import org.imixs.workflow.engine.index.Aggregate;
+import org.imixs.workflow.engine.index.DefaultOperator;
+import org.imixs.workflow.engine.index.SchemaService;
+import org.imixs.workflow.exceptions.QueryException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Test class for the aggregate method of the LuceneSearchService. The test
+ * builds an in-memory index with the sorted doc values written by the
+ * LuceneIndexService and verifies the parsing of the measure values.
+ */
+@ExtendWith(MockitoExtension.class)
+public class TestLuceneAggregate {
+
+	@Mock
+	LuceneIndexService luceneIndexService;
+
+	@Mock
+	SchemaService schemaService;
+
+	@InjectMocks
+	LuceneSearchService luceneSearchService;
+
+	Directory indexDir;
+
+	@BeforeEach
+	public void setUp() throws IOException, QueryException {
+		indexDir = new RAMDirectory();
+		Mockito.lenient().when(luceneIndexService.createIndexDirectory()).thenReturn(indexDir);
+		Mockito.lenient().when(schemaService.getExtendedSearchTerm(Mockito.anyString())).thenAnswer(i -> i.getArgument(0));
+	}
+
+	/**
+	 * Negative numbers and numbers in exponent form are aggregated.
+	 */
+	@Test
+	public void testNegativeAndExponentValues() throws IOException, QueryException {
+		index("a", "-250.0");
+		index("a", "1.0E7");
+		index("a", "100");
+		index("b", "-1.5E-3");
+
+		List<ItemCollection> result = aggregate("amount", Aggregate.SUM, Aggregate.MIN, Aggregate.COUNT);
+		assertEquals(2, result.size());
+		ItemCollection a = result.get(0);
+		assertEquals("a", a.getItemValueString("team"));
+		assertEquals(9999850.0, a.getItemValueDouble("sum_amount"), 0.0001);
+		assertEquals(-250.0, a.getItemValueDouble("min_amount"), 0.0001);
+		assertEquals(3, a.getItemValueInteger("count_amount"));
+		assertEquals(-0.0015, result.get(1).getItemValueDouble("sum_amount"), 0.0000001);
+	}
+
+	/**
+	 * Text values and values which are no finite number are counted but not
+	 * summed.
+	 */
+	@Test
+	public void testTextValues() throws IOException, QueryException {
+		index("a", "12.5");
+		index("a", "abc");
+		index("a", "NaN");
+		index("a", "12d");
+		index("a", "Infinity");
+
+		List<ItemCollection> result = aggregate("amount", Aggregate.SUM, Aggregate.COUNT);
+		assertEquals(1, result.size());
+		assertEquals(12.5, result.get(0).getItemValueDouble("sum_amount"), 0.0001);
+		assertEquals(5, result.get(0).getItemValueInteger("count_amount"));
+	}
+
+	/**
+	 * The min and max of date values are returned as dates.
+	 */
+	@Test
+	public void testDateValues() throws IOException, QueryException {
+		index("a", "20240101120000");
+		index("a", "20240301120000");
+
+		List<ItemCollection> result = aggregate("amount", Aggregate.MAX);
+		assertEquals(1, result.size());
+		assertTrue(result.get(0).getItemValue("max_amount").get(0) instanceof Date);
+	}
+
+	/**
+	 * A negative number with 14 characters is no date.
+	 */
+	@Test
+	public void testNegativeNumberNoDate() throws IOException, QueryException {
+		index("a", "-1234567890123");
+
+		List<ItemCollection> result = aggregate("amount", Aggregate.MAX);
+		assertEquals(1, result.size());
+		assertFalse(result.get(0).getItemValue("max_amount").get(0) instanceof Date);
+		assertEquals(-1234567890123.0, result.get(0).getItemValueDouble("max_amount"), 0);
+	}
+
+	@Test
+	public void testParseMeasure() {
+		assertEquals(-250.0, LuceneSearchService.parseMeasure("-250.0"), 0);
+		assertEquals(1.0E7, LuceneSearchService.parseMeasure("1.0E7"), 0);
+		assertEquals(5.0, LuceneSearchService.parseMeasure("5."), 0);
+		assertTrue(Double.isNaN(LuceneSearchService.parseMeasure("")));
+		assertTrue(Double.isNaN(LuceneSearchService.parseMeasure("1E999")));
+		assertTrue(Double.isNaN(LuceneSearchService.parseMeasure("12f")));
+	}
+
+	/**
+	 * Adds a document with the sorted doc values of a group and a measure item
+	 */
+	private void index(String team, String amount) throws IOException {
+		try (IndexWriter writer = new IndexWriter(indexDir, new IndexWriterConfig(new KeywordAnalyzer()))) {
+			Document doc = new Document();
+			doc.add(new StringField("type", "workitem", Store.NO));
+			doc.add(new SortedDocValuesField("team", new BytesRef(team)));
+			doc.add(new SortedDocValuesField("amount", new BytesRef(amount)));
+			writer.addDocument(doc);
+		}
+	}
+
+	private List<ItemCollection> aggregate(String field, String... functions) throws QueryException {
+		Aggregate[] measures = new Aggregate[functions.length];
+		for (int i = 0; i < functions.length; i++) {
+			measures[i] = new Aggregate(field, functions[i], functions[i] + "_" + field);
+		}
+		return luceneSearchService.aggregate("type:workitem", Arrays.asList("team"), Arrays.asList(measures),
+				DefaultOperator.AND);
+	}
+}
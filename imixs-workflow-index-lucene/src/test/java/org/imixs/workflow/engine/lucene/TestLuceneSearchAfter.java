@@ -0,0 +1,146 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.engine.lucene;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.imixs.workflow.ItemCollection;
+import org.imixs.workflow.engine.DocumentService;
+import org.imixs.workflow.engine.index.DefaultOperator;
+import org.imixs.workflow.engine.index.SchemaService;
+import org.imixs.workflow.exceptions.QueryException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Test class for the keyset paging of the LuceneSearchService (searchAfter).
+ * The test builds an in-memory index with the sortable $uniqueid written by
+ * the LuceneIndexService and verifies the range query sorted by $uniqueid.
+ */
+@ExtendWith(MockitoExtension.class)
+public class TestLuceneSearchAfter {
+
+	@Mock
+	LuceneIndexService luceneIndexService;
+
+	@Mock
+	SchemaService schemaService;
+
+	@Mock
+	DocumentService documentService;
+
+	@InjectMocks
+	LuceneSearchService luceneSearchService;
+
+	LuceneItemAdapter luceneItemAdapter = new LuceneItemAdapter();
+
+	Directory indexDir;
+
+	@BeforeEach
+	public void setUp() throws IOException, QueryException {
+		indexDir = new RAMDirectory();
+		Mockito.lenient().when(luceneIndexService.createIndexDirectory()).thenReturn(indexDir);
+		Mockito.lenient().when(schemaService.getExtendedSearchTerm(Mockito.anyString())).thenAnswer(i -> i.getArgument(0));
+	}
+
+	/**
+	 * The documents are read page by page ordered by $uniqueid independent of
+	 * the order they were indexed.
+	 */
+	@Test
+	public void testSearchAfter() throws IOException, QueryException {
+		index(true, "id-4", "id-1", "id-5");
+		index(true, "id-3", "id-2");
+
+		List<String> result = new ArrayList<String>();
+		String lastUniqueId = null;
+		List<ItemCollection> page;
+		do {
+			page = luceneSearchService.searchAfter("type:workitem", 2, lastUniqueId, DefaultOperator.AND, true);
+			for (ItemCollection stub : page) {
+				lastUniqueId = stub.getUniqueID();
+				result.add(lastUniqueId);
+			}
+		} while (page.size() == 2);
+
+		assertEquals(List.of("id-1", "id-2", "id-3", "id-4", "id-5"), result);
+	}
+
+	/**
+	 * The lower bound of the range is exclusive.
+	 */
+	@Test
+	public void testSearchAfterRange() throws IOException, QueryException {
+		index(true, "id-1", "id-2", "id-3");
+
+		List<ItemCollection> page = luceneSearchService.searchAfter("type:workitem", 10, "id-1", DefaultOperator.AND,
+				true);
+		assertEquals(2, page.size());
+		assertEquals("id-2", page.get(0).getUniqueID());
+		assertEquals("id-3", page.get(1).getUniqueID());
+	}
+
+	/**
+	 * A segment written by an older version has no sorted doc values for
+	 * $uniqueid. The search throws a QueryException and schedules a rebuild of
+	 * the index.
+	 */
+	@Test
+	public void testSearchAfterNotSortable() throws IOException, QueryException {
+		index(false, "id-1", "id-2");
+		index(true, "id-3");
+
+		QueryException e = assertThrows(QueryException.class,
+				() -> luceneSearchService.searchAfter("type:workitem", 2, null, DefaultOperator.AND, true));
+		assertEquals(QueryException.QUERY_NOT_SORTABLE, e.getErrorCode());
+		Mockito.verify(luceneIndexService, Mockito.times(1)).scheduleRebuildIndex();
+	}
+
+	/**
+	 * Adds a segment with one document per $uniqueid
+	 */
+	private void index(boolean sortable, String... uniqueIds) throws IOException {
+		try (IndexWriter writer = new IndexWriter(indexDir, new IndexWriterConfig(new KeywordAnalyzer()))) {
+			for (String uniqueId : uniqueIds) {
+				Document doc = new Document();
+				doc.add(new StringField("type", "workitem", Store.NO));
+				doc.add(new StringField("$uniqueid", uniqueId, Store.YES));
+				if (sortable) {
+					doc.add(luceneItemAdapter.adaptSortableItemValue("$uniqueid", uniqueId));
+				}
+				writer.addDocument(doc);
+			}
+		}
+	}
+}
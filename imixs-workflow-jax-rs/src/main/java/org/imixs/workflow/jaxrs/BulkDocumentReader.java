@@ -0,0 +1,167 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.jaxrs;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.imixs.workflow.ItemCollection;
+import org.imixs.workflow.util.ImixsJSONReader;
+import org.imixs.workflow.xml.XMLDocument;
+import org.imixs.workflow.xml.XMLDocumentAdapter;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Unmarshaller;
+
+/**
+ * The BulkDocumentReader reads documents one by one from a request stream. Only
+ * the current document is held in memory. The reader supports two formats:
+ * <ul>
+ * <li>NDJSON - one Imixs JSON document per line</li>
+ * <li>XML - a sequence of document elements, typically wrapped by a data
+ * element</li>
+ * </ul>
+ * <p>
+ * If the stream contains an invalid document the reader stops and the error can
+ * be read by the method <code>getError()</code>. All documents read before are
+ * still returned.
+ * 
+ * @author rsoika
+ */
+public abstract class BulkDocumentReader implements Iterator<ItemCollection> {
+
+    private ItemCollection next = null;
+    private boolean done = false;
+    private int count = 0;
+    private String error = null;
+
+    /**
+     * Creates a reader for a NDJSON stream
+     */
+    public static BulkDocumentReader ndjson(InputStream input) {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        return new BulkDocumentReader() {
+            @Override
+            protected ItemCollection readDocument() throws Exception {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try (ImixsJSONReader lineReader = new ImixsJSONReader(new StringReader(line))) {
+                        if (!lineReader.hasNext()) {
+                            throw new IOException("a line must contain exactly one document");
+                        }
+                        ItemCollection document = lineReader.next();
+                        if (lineReader.hasNext()) {
+                            throw new IOException("a line must contain exactly one document");
+                        }
+                        return document;
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Creates a reader for a XML stream
+     * 
+     * @throws XMLStreamException
+     * @throws JAXBException
+     */
+    public static BulkDocumentReader xml(InputStream input) throws XMLStreamException, JAXBException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        final XMLStreamReader reader = factory.createXMLStreamReader(input, StandardCharsets.UTF_8.name());
+        final Unmarshaller unmarshaller = JAXBContext.newInstance(XMLDocument.class).createUnmarshaller();
+        return new BulkDocumentReader() {
+            @Override
+            protected ItemCollection readDocument() throws Exception {
+                while (reader.hasNext()) {
+                    if (reader.getEventType() == XMLStreamConstants.START_ELEMENT
+                            && "document".equals(reader.getLocalName())) {
+                        // the unmarshaller moves the reader behind the document element
+                        XMLDocument xmlDocument = unmarshaller.unmarshal(reader, XMLDocument.class).getValue();
+                        return XMLDocumentAdapter.putDocument(xmlDocument);
+                    }
+                    reader.next();
+                }
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Reads the next document from the stream.
+     * 
+     * @return next document or null if the end of the stream is reached
+     */
+    protected abstract ItemCollection readDocument() throws Exception;
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !done) {
+            try {
+                next = readDocument();
+            } catch (Exception e) {
+                error = "invalid document " + (count + 1) + ": " + e.getMessage();
+                next = null;
+            }
+            done = (next == null);
+        }
+        return next != null;
+    }
+
+    @Override
+    public ItemCollection next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ItemCollection result = next;
+        next = null;
+        count++;
+        return result;
+    }
+
+    /**
+     * Returns the number of documents read
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the error message if the stream contains an invalid document, or
+     * null
+     */
+    public String getError() {
+        return error;
+    }
+}
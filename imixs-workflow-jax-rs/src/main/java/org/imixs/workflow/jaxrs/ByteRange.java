@@ -0,0 +1,128 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.jaxrs;
+
+/**
+ * A ByteRange is a single byte range of a HTTP Range request header
+ * (RFC 9110) resolved against the length of a file. Only a single range in the
+ * unit 'bytes' is supported. Multiple ranges are ignored and the full content
+ * is returned.
+ * 
+ * <pre>
+ *   bytes=0-499     - the first 500 bytes
+ *   bytes=500-      - all bytes from offset 500
+ *   bytes=-500      - the last 500 bytes
+ * </pre>
+ * 
+ * @author rsoika
+ */
+public class ByteRange {
+
+    private static final String BYTES_UNIT = "bytes=";
+
+    private final long start;
+    private final long end;
+    private final long length;
+
+    private ByteRange(long start, long end, long length) {
+        this.start = start;
+        this.end = end;
+        this.length = length;
+    }
+
+    /**
+     * Parses a Range header for a content of the given length. The method returns
+     * null if the header is empty, malformed or contains multiple ranges. In this
+     * case the full content should be returned.
+     * 
+     * @param header - value of the Range header
+     * @param length - content length
+     * @return range or null
+     */
+    public static ByteRange parse(String header, long length) {
+        if (header == null || !header.trim().toLowerCase().startsWith(BYTES_UNIT)) {
+            return null;
+        }
+        String spec = header.trim().substring(BYTES_UNIT.length()).trim();
+        int separator = spec.indexOf('-');
+        if (spec.indexOf(',') > -1 || separator == -1) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, separator).trim();
+            String last = spec.substring(separator + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // suffix range
+                long suffix = Long.parseLong(last);
+                if (suffix == 0) {
+                    return new ByteRange(length, length - 1, length);
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+                if (!last.isEmpty() && Long.parseLong(last) < start) {
+                    return null;
+                }
+            }
+            if (start < 0) {
+                return null;
+            }
+            return new ByteRange(start, end, length);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns false if the range starts behind the end of the content. In this case
+     * the server responds with the status 416.
+     */
+    public boolean isSatisfiable() {
+        return start < length && start <= end;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * Returns the number of bytes of this range
+     */
+    public long getRangeLength() {
+        return end - start + 1;
+    }
+
+    /**
+     * Returns the value of the Content-Range header
+     * 
+     * @return 'bytes start-end/length' or 'bytes *&#47;length' if the range is not
+     *         satisfiable
+     */
+    public String getContentRange() {
+        if (!isSatisfiable()) {
+            return "bytes */" + length;
+        }
+        return "bytes " + start + "-" + end + "/" + length;
+    }
+}
@@ -27,6 +27,7 @@ import java.util.logging.Logger;
 import org.imixs.workflow.ItemCollection;
 import org.imixs.workflow.WorkflowKernel;
 import org.imixs.workflow.engine.DocumentService;
+import org.imixs.workflow.engine.ItemPatch;
 import org.imixs.workflow.engine.index.SchemaService;
 import org.imixs.workflow.engine.index.SearchService;
 import org.imixs.workflow.exceptions.AccessDeniedException;
@@ -41,10 +42,13 @@ import jakarta.annotation.Resource;
 import jakarta.ejb.SessionContext;
 import jakarta.ejb.Stateless;
 import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.PATCH;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
@@ -52,6 +56,7 @@ import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
@@ -413,6 +418,142 @@ public class DocumentRestService {
         return postDocument(xmlworkitem, items);
     }
 
+    /**
+     * This method applies item-level changes to an existing document. The caller
+     * need to be assigned to the access role 'org.imixs.ACCESSLEVEL.MANAGERACCESS'
+     * 
+     * @see #patch
+     * @param uniqueid    - id of the document
+     * @param xmldocument - items to be set or appended
+     * @param append      - optional comma separated list of items to be appended
+     * @param remove      - optional comma separated list of items to be removed
+     * @param ifMatch     - optional expected $version
+     * @param format      - optional format string (json|xml)
+     * @return the changed items
+     */
+    @PATCH
+    @Path("/{uniqueid : ([0-9a-f]{8}-.*|[0-9a-f]{11}-.*)}")
+    @Consumes({ MediaType.APPLICATION_XML, MediaType.TEXT_XML, MediaType.APPLICATION_JSON, })
+    public Response patchDocument(@PathParam("uniqueid") String uniqueid, XMLDocument xmldocument,
+            @QueryParam("append") String append, @QueryParam("remove") String remove,
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch, @QueryParam("format") String format) {
+        if (ctx.isCallerInRole("org.imixs.ACCESSLEVEL.MANAGERACCESS") == false) {
+            return Response.status(Response.Status.UNAUTHORIZED).build();
+        }
+        return patch(uniqueid, xmldocument, append, remove, ifMatch, format);
+    }
+
+    /**
+     * This method applies item-level changes to an existing document by the
+     * DocumentService method <code>patch()</code>. Items provided by the given
+     * document are set, or appended if listed in the param 'append'. Items listed
+     * in the param 'remove' are removed.
+     * <p>
+     * The expected $version is read from the 'If-Match' header or the item
+     * $version of the given document. If the document was modified in the
+     * meantime, or the 'If-Match' header is no valid version, the method responds
+     * with the status 412. The response contains
+     * only the changed items and the new $version as ETag.
+     * 
+     * @param uniqueid    - id of the document
+     * @param xmldocument - items to be set or appended
+     * @param append      - optional comma separated list of items to be appended
+     * @param remove      - optional comma separated list of items to be removed
+     * @param ifMatch     - optional expected $version
+     * @param format      - optional format string (json|xml)
+     * @return the changed items
+     */
+    public Response patch(String uniqueid, XMLDocument xmldocument, String append, String remove, String ifMatch,
+            String format) {
+        ItemCollection delta = (xmldocument != null) ? XMLDocumentAdapter.putDocument(xmldocument) : null;
+        if (delta == null) {
+            delta = new ItemCollection();
+        }
+        List<String> appendItems = toLowerCase(RestAPIUtil.getItemList(append));
+        List<ItemPatch> patches = new ArrayList<ItemPatch>();
+        try {
+            for (String itemName : delta.getItemNames()) {
+                if (ItemPatch.isReserved(itemName)) {
+                    continue;
+                }
+                if (appendItems.contains(itemName)) {
+                    patches.add(ItemPatch.append(itemName, delta.getItemValue(itemName)));
+                } else {
+                    patches.add(ItemPatch.set(itemName, delta.getItemValue(itemName)));
+                }
+            }
+            for (String itemName : toLowerCase(RestAPIUtil.getItemList(remove))) {
+                patches.add(ItemPatch.remove(itemName));
+            }
+        } catch (IllegalArgumentException e) {
+            logger.warning(e.getMessage());
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+        if (patches.isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST).build();
+        }
+
+        Integer version;
+        try {
+            version = getVersion(ifMatch);
+        } catch (NumberFormatException e) {
+            logger.log(Level.WARNING, "invalid If-Match header: {0}", ifMatch);
+            return Response.status(Response.Status.PRECONDITION_FAILED).build();
+        }
+        if (version == null && delta.getItemValueInteger(DocumentService.VERSION) > 0) {
+            version = delta.getItemValueInteger(DocumentService.VERSION);
+        }
+        ItemCollection result;
+        try {
+            result = documentService.patch(uniqueid, version, patches);
+        } catch (AccessDeniedException e) {
+            logger.warning(e.getMessage());
+            return Response.status(Response.Status.FORBIDDEN).build();
+        } catch (RuntimeException e) {
+            // the EJB container wraps the OptimisticLockException
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof OptimisticLockException) {
+                    logger.warning(cause.getMessage());
+                    return Response.status(Response.Status.PRECONDITION_FAILED).build();
+                }
+            }
+            throw e;
+        }
+        if (result == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        return Response.fromResponse(convertResult(result, null, format))
+                .tag(new EntityTag(result.getItemValueString(DocumentService.VERSION))).build();
+    }
+
+    /**
+     * Returns the version of an 'If-Match' header like <code>"3"</code> or null
+     * if no header or the wildcard <code>*</code> is provided.
+     * 
+     * @throws NumberFormatException if the header is no valid version
+     */
+    private Integer getVersion(String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        String version = ifMatch.trim();
+        if (version.startsWith("W/")) {
+            version = version.substring(2);
+        }
+        version = version.replace("\"", "").trim();
+        return "*".equals(version) ? null : Integer.valueOf(version);
+    }
+
+    private List<String> toLowerCase(List<String> itemNames) {
+        List<String> result = new ArrayList<String>();
+        if (itemNames != null) {
+            for (String itemName : itemNames) {
+                result.add(itemName.toLowerCase().trim());
+            }
+        }
+        return result;
+    }
+
     /**
      * This method deletes an entity
      * 
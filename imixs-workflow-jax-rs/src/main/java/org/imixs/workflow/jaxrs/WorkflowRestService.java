@@ -20,12 +20,20 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.net.URLDecoder;
+import java.security.NoSuchAlgorithmException;
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.StringTokenizer;
 import java.util.Vector;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 import jakarta.inject.Inject;
@@ -33,6 +41,8 @@ import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.Encoded;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.PATCH;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
@@ -41,10 +51,14 @@ import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.StreamingOutput;
 import jakarta.ws.rs.core.UriInfo;
+import jakarta.ws.rs.ext.RuntimeDelegate;
 
 import org.imixs.workflow.FileData;
 import org.imixs.workflow.ItemCollection;
@@ -54,6 +68,7 @@ import org.imixs.workflow.exceptions.AccessDeniedException;
 import org.imixs.workflow.exceptions.ImixsExceptionHandler;
 import org.imixs.workflow.exceptions.ModelException;
 import org.imixs.workflow.exceptions.PluginException;
+import org.imixs.workflow.util.ImixsJSONBuilder;
 import org.imixs.workflow.util.ImixsJSONParser;
 import org.imixs.workflow.xml.XMLDataCollection;
 import org.imixs.workflow.xml.XMLDataCollectionAdapter;
@@ -62,6 +77,9 @@ import org.imixs.workflow.xml.XMLDocumentAdapter;
 
 import jakarta.ejb.Stateless;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
 import java.util.logging.Level;
 
 /**
@@ -87,6 +105,14 @@ public class WorkflowRestService {
 
     private static final Logger logger = Logger.getLogger(WorkflowRestService.class.getName());
 
+    public static final String FILE_ATTRIBUTE_MD5 = "md5checksum";
+    public static final String MEDIA_TYPE_NDJSON = "application/x-ndjson";
+
+    // items returned by default for each workitem of a bulk request
+    private static final List<String> BULK_RESULT_ITEMS = Arrays.asList(WorkflowKernel.UNIQUEID,
+            WorkflowKernel.TASKID, WorkflowKernel.WORKFLOWSTATUS, WorkflowKernel.MODIFIED, "$error_code",
+            "$error_message");
+
     @GET
     @Produces("text/html")
     public StreamingOutput getHelpHTML() {
@@ -158,6 +184,11 @@ public class WorkflowRestService {
      * <p>
      * The file name will be encoded. With a URLDecode the filename is decoded in
      * different formats and searched in the file list. This is not a nice solution.
+     * <p>
+     * The response contains an ETag derived from the MD5 checksum of the file. A
+     * request with a matching 'If-None-Match' header is answered with the status
+     * 304. A single byte range requested by the 'Range' header is returned with
+     * the status 206 (Partial Content).
      * 
      * @param uniqueid
      * @return
@@ -165,7 +196,8 @@ public class WorkflowRestService {
     @GET
     @Path("/workitem/{uniqueid : ([0-9a-f]{8}-.*|[0-9a-f]{11}-.*)}/file/{file}")
     public Response getWorkItemFile(@PathParam("uniqueid") String uniqueid, @PathParam("file") @Encoded String file,
-            @Context UriInfo uriInfo) {
+            @Context UriInfo uriInfo, @Context Request request, @HeaderParam("Range") String range,
+            @HeaderParam("If-Range") String ifRange) {
 
         ItemCollection workItem;
         try {
@@ -186,10 +218,7 @@ public class WorkflowRestService {
                     fileData = workItem.getFileData(file);
 
                 if (fileData != null) {
-                    // Set content type in order of the contentType stored
-                    // in the $file attribute
-                    Response.ResponseBuilder builder = Response.ok(fileData.getContent(), fileData.getContentType());
-                    return builder.build();
+                    return buildFileResponse(fileData, request, range, ifRange);
                 } else {
                     logger.log(Level.WARNING, "WorkflowRestService unable to open file: ''{0}''"
                             + " in workitem ''{1}'' - error: Filename not found!", new Object[]{file, uniqueid});
@@ -216,6 +245,90 @@ public class WorkflowRestService {
 
     }
 
+    /**
+     * Builds the response for a file download. The method evaluates the
+     * preconditions of the request against the ETag of the file and streams the
+     * full content or the requested byte range.
+     * 
+     * @param fileData - file to be returned
+     * @param request  - the current request
+     * @param range    - optional Range header
+     * @param ifRange  - optional If-Range header
+     * @return response
+     * @throws NoSuchAlgorithmException
+     */
+    Response buildFileResponse(FileData fileData, Request request, String range, String ifRange)
+            throws NoSuchAlgorithmException {
+        EntityTag etag = new EntityTag(getMD5(fileData));
+        // If-None-Match / If-Match
+        Response.ResponseBuilder builder = request.evaluatePreconditions(etag);
+        if (builder != null) {
+            // 304 (Not Modified) or 412 (Precondition Failed)
+            return builder.tag(etag).build();
+        }
+
+        final byte[] content = fileData.getContent();
+        ByteRange byteRange = ByteRange.parse(range, content.length);
+        // a range is only valid for the current version of the file
+        if (byteRange != null && ifRange != null && !matchesEntityTag(ifRange, etag)) {
+            byteRange = null;
+        }
+        if (byteRange == null) {
+            // Set content type in order of the contentType stored
+            // in the $file attribute
+            builder = Response.ok((StreamingOutput) out -> out.write(content), fileData.getContentType())
+                    .header(HttpHeaders.CONTENT_LENGTH, content.length);
+        } else if (!byteRange.isSatisfiable()) {
+            builder = Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header("Content-Range", byteRange.getContentRange());
+        } else {
+            final int offset = (int) byteRange.getStart();
+            final int length = (int) byteRange.getRangeLength();
+            builder = Response.status(Response.Status.PARTIAL_CONTENT)
+                    .entity((StreamingOutput) out -> out.write(content, offset, length))
+                    .type(fileData.getContentType())
+                    .header("Content-Range", byteRange.getContentRange())
+                    .header(HttpHeaders.CONTENT_LENGTH, length);
+        }
+        return builder.header("Accept-Ranges", "bytes").tag(etag).build();
+    }
+
+    /**
+     * Returns true if the If-Range header matches the ETag of the file. An
+     * If-Range header with a date or a weak ETag does not match.
+     * <p>
+     * The header is parsed by the HeaderDelegate of the runtime, which is what the
+     * deprecated method EntityTag.valueOf does.
+     * 
+     * @param ifRange - If-Range header
+     * @param etag    - ETag of the file
+     * @return true if the range can be returned
+     */
+    private static boolean matchesEntityTag(String ifRange, EntityTag etag) {
+        try {
+            return RuntimeDelegate.getInstance().createHeaderDelegate(EntityTag.class).fromString(ifRange.trim())
+                    .equals(etag);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the MD5 checksum of a file. The checksum is taken from the file
+     * attribute 'md5checksum' or computed from the file content.
+     * 
+     * @param fileData
+     * @return md5 checksum
+     * @throws NoSuchAlgorithmException
+     */
+    private String getMD5(FileData fileData) throws NoSuchAlgorithmException {
+        Object checksum = fileData.getAttribute(FILE_ATTRIBUTE_MD5);
+        if (checksum instanceof List && !((List<?>) checksum).isEmpty()) {
+            return ((List<?>) checksum).get(0).toString();
+        }
+        return fileData.generateMD5();
+    }
+
     /**
      * Returns a collection of events of a workitem, visible to the current user
      * 
@@ -542,6 +655,32 @@ public class WorkflowRestService {
         return postWorkitemByUniqueID(uniqueid, xmlworkitem, items);
     }
 
+    /**
+     * Applies item-level changes to an existing workitem without processing it.
+     * Items provided by the given document are set, or appended if listed in the
+     * param 'append'. Items listed in the param 'remove' are removed. The expected
+     * $version can be provided by the 'If-Match' header. System items like
+     * '$writeaccess' or '$taskid' can only be patched by a manager (403).
+     * 
+     * @see DocumentRestService#patch
+     * @param uniqueid    - id of the workitem
+     * @param xmlworkitem - items to be set or appended
+     * @param append      - optional comma separated list of items to be appended
+     * @param remove      - optional comma separated list of items to be removed
+     * @param ifMatch     - optional expected $version
+     * @param format      - optional format string (json|xml)
+     * @return the changed items
+     */
+    @PATCH
+    @Path("/workitem/{uniqueid : ([0-9a-f]{8}-.*|[0-9a-f]{11}-.*)}")
+    @Consumes({ MediaType.APPLICATION_XML, MediaType.TEXT_XML, MediaType.APPLICATION_JSON })
+    public Response patchWorkitemByUniqueID(@PathParam("uniqueid") String uniqueid, XMLDocument xmlworkitem,
+            @QueryParam("append") String append, @QueryParam("remove") String remove,
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch, @QueryParam("format") String format) {
+        logger.log(Level.FINE, "patchWorkitemByUniqueID @PATCH /workitem/{0}", uniqueid);
+        return documentRestService.patch(uniqueid, xmlworkitem, append, remove, ifMatch, format);
+    }
+
     /**
      * This method post a collection of ItemCollection objects to be processed by
      * the WorkflowManager.
@@ -581,6 +720,150 @@ public class WorkflowRestService {
         return postWorkitems(worklist);
     }
 
+    /**
+     * This method processes a stream of workitems in NDJSON format - one Imixs
+     * JSON document per line. The workitems are parsed one by one and processed
+     * in chunks by the WorkflowService method <code>processWorkItems()</code>.
+     * Each chunk is committed in a separate transaction.
+     * <p>
+     * The response is a NDJSON stream with one result per workitem in the order of
+     * the request. A result is written as soon as its chunk was committed. A
+     * workitem which could not be processed is returned with the items
+     * $error_code and $error_message. An invalid document stops the request and is
+     * answered by a final result with the $error_code 'INVALID_FORMAT'.
+     * 
+     * @param requestBodyStream - NDJSON stream
+     * @param chunkSize         - optional number of workitems per transaction
+     * @param items             - optional item list to be returned in the result
+     * @return NDJSON stream
+     */
+    @POST
+    @Path("/workitems/bulk")
+    @Consumes(MEDIA_TYPE_NDJSON)
+    @Produces(MEDIA_TYPE_NDJSON)
+    public Response postWorkitemsNDJSON(InputStream requestBodyStream,
+            @DefaultValue("0") @QueryParam("chunksize") int chunkSize, @QueryParam("items") String items) {
+        logger.fine("postWorkitemsNDJSON @POST /workitems/bulk....");
+        final BulkDocumentReader reader = BulkDocumentReader.ndjson(requestBodyStream);
+        final List<String> itemList = getBulkResultItems(items);
+        StreamingOutput stream = out -> {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            try {
+                processBulk(reader, chunkSize, result -> {
+                    try {
+                        ImixsJSONBuilder.build(getBulkResult(result, itemList), writer);
+                        writer.write('\n');
+                        writer.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+        return Response.ok(stream, MEDIA_TYPE_NDJSON).build();
+    }
+
+    /**
+     * This method processes a stream of workitems in XML format. The request
+     * contains a sequence of document elements, typically wrapped by a data
+     * element. The workitems are parsed one by one with StAX and processed in
+     * chunks like in the method postWorkitemsNDJSON.
+     * <p>
+     * The response is a data element with one document per workitem, written as
+     * soon as its chunk was committed.
+     * 
+     * @see #postWorkitemsNDJSON
+     * @param requestBodyStream - XML stream
+     * @param chunkSize         - optional number of workitems per transaction
+     * @param items             - optional item list to be returned in the result
+     * @return XML stream
+     */
+    @POST
+    @Path("/workitems/bulk")
+    @Consumes({ MediaType.APPLICATION_XML, MediaType.TEXT_XML })
+    @Produces(MediaType.APPLICATION_XML)
+    public Response postWorkitemsXML(InputStream requestBodyStream,
+            @DefaultValue("0") @QueryParam("chunksize") int chunkSize, @QueryParam("items") String items) {
+        logger.fine("postWorkitemsXML @POST /workitems/bulk....");
+        final BulkDocumentReader reader;
+        final Marshaller marshaller;
+        try {
+            reader = BulkDocumentReader.xml(requestBodyStream);
+            marshaller = JAXBContext.newInstance(XMLDocument.class).createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "postWorkitemsXML failed: {0}", e.getMessage());
+            return Response.status(Response.Status.NOT_ACCEPTABLE).build();
+        }
+        final List<String> itemList = getBulkResultItems(items);
+        StreamingOutput stream = out -> {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?><data>");
+            try {
+                processBulk(reader, chunkSize, result -> {
+                    try {
+                        marshaller.marshal(XMLDocumentAdapter.getDocument(getBulkResult(result, itemList)), writer);
+                        writer.flush();
+                    } catch (IOException | JAXBException e) {
+                        throw new UncheckedIOException(new IOException(e));
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.write("</data>");
+            writer.flush();
+        };
+        return Response.ok(stream, MediaType.APPLICATION_XML).build();
+    }
+
+    /**
+     * Processes the workitems of a bulk request and passes the results to the
+     * given handler. An invalid document is reported by a final result.
+     */
+    private void processBulk(BulkDocumentReader reader, int chunkSize,
+            Consumer<ItemCollection> resultHandler) {
+        long l = System.currentTimeMillis();
+        int count = workflowService.processWorkItems(reader, chunkSize, resultHandler);
+        if (reader.getError() != null) {
+            logger.log(Level.WARNING, "bulk request stopped - {0}", reader.getError());
+            ItemCollection error = new ItemCollection();
+            error.replaceItemValue("$error_code", "INVALID_FORMAT");
+            error.replaceItemValue("$error_message", reader.getError());
+            resultHandler.accept(error);
+        }
+        logger.log(Level.INFO, "...{0} of {1} workitems processed in {2}ms",
+                new Object[] { count, reader.getCount(), System.currentTimeMillis() - l });
+    }
+
+    /**
+     * Returns the item names to be returned for each workitem of a bulk request.
+     * The error items are always included.
+     */
+    private List<String> getBulkResultItems(String items) {
+        List<String> itemList = RestAPIUtil.getItemList(items);
+        if (itemList == null) {
+            return BULK_RESULT_ITEMS;
+        }
+        List<String> result = new ArrayList<String>(itemList);
+        result.add("$error_code");
+        result.add("$error_message");
+        return result;
+    }
+
+    private ItemCollection getBulkResult(ItemCollection workitem, List<String> itemList) {
+        ItemCollection result = new ItemCollection();
+        for (String itemName : itemList) {
+            if (workitem.hasItem(itemName)) {
+                result.replaceItemValue(itemName, workitem.getItemValue(itemName));
+            }
+        }
+        return result;
+    }
+
     /**
      * This method expects JSON in BADGARFISH notation to processed by the
      * WorkflowService EJB.
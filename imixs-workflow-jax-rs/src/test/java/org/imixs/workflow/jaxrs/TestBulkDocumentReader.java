@@ -0,0 +1,146 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.jaxrs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.imixs.workflow.ItemCollection;
+import org.junit.jupiter.api.Test;
+
+import jakarta.xml.bind.JAXBException;
+
+/**
+ * Test class for the BulkDocumentReader. The test verifies the reading of
+ * NDJSON and XML streams and the handling of an invalid document.
+ * 
+ * @author rsoika
+ */
+public class TestBulkDocumentReader {
+
+	private static final String XML_DOCUMENT = "<document xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" "
+			+ "xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\">"
+			+ "<item name=\"_id\"><value xsi:type=\"xs:int\">%d</value></item>"
+			+ "<item name=\"_subject\"><value xsi:type=\"xs:string\">Hello %d</value></item></document>";
+
+	/**
+	 * Each line contains one document, blank lines are skipped
+	 */
+	@Test
+	public void testNDJSON() {
+		BulkDocumentReader reader = BulkDocumentReader.ndjson(stream(jsonLine(1) + "\n\n" + jsonLine(2)
+				+ "\r\n   \n" + jsonLine(3) + "\n"));
+
+		for (int i = 1; i <= 3; i++) {
+			assertTrue(reader.hasNext());
+			ItemCollection document = reader.next();
+			assertEquals(i, document.getItemValueInteger("_id"));
+			assertEquals("Hello " + i, document.getItemValueString("_subject"));
+		}
+		assertFalse(reader.hasNext());
+		assertThrows(NoSuchElementException.class, () -> reader.next());
+		assertEquals(3, reader.getCount());
+		assertNull(reader.getError());
+	}
+
+	/**
+	 * An invalid line stops the reader. The documents read before are returned.
+	 */
+	@Test
+	public void testNDJSONInvalid() {
+		BulkDocumentReader reader = BulkDocumentReader
+				.ndjson(stream(jsonLine(1) + "\n" + jsonLine(2) + "\n{\"item\":[{\"name\":\n" + jsonLine(4)));
+
+		assertEquals(1, reader.next().getItemValueInteger("_id"));
+		assertEquals(2, reader.next().getItemValueInteger("_id"));
+		assertFalse(reader.hasNext());
+		assertEquals(2, reader.getCount());
+		assertTrue(reader.getError().startsWith("invalid document 3"));
+		// the reader stays closed
+		assertFalse(reader.hasNext());
+	}
+
+	/**
+	 * A line with more than one document is invalid
+	 */
+	@Test
+	public void testNDJSONMultipleDocuments() {
+		BulkDocumentReader reader = BulkDocumentReader.ndjson(stream(jsonLine(1) + jsonLine(2)));
+
+		assertFalse(reader.hasNext());
+		assertEquals(0, reader.getCount());
+		assertTrue(reader.getError().startsWith("invalid document 1"));
+	}
+
+	/**
+	 * The document elements are split by StAX, independent of the wrapping element
+	 */
+	@Test
+	public void testXML() throws XMLStreamException, JAXBException {
+		BulkDocumentReader reader = BulkDocumentReader.xml(stream("<?xml version=\"1.0\" encoding=\"UTF-8\"?><data>"
+				+ String.format(XML_DOCUMENT, 1, 1) + "\n  " + String.format(XML_DOCUMENT, 2, 2)
+				+ String.format(XML_DOCUMENT, 3, 3) + "</data>"));
+
+		for (int i = 1; i <= 3; i++) {
+			assertTrue(reader.hasNext());
+			ItemCollection document = reader.next();
+			assertEquals(i, document.getItemValueInteger("_id"));
+			assertEquals("Hello " + i, document.getItemValueString("_subject"));
+		}
+		assertFalse(reader.hasNext());
+		assertEquals(3, reader.getCount());
+		assertNull(reader.getError());
+
+		// a single document without a data element
+		reader = BulkDocumentReader.xml(stream(String.format(XML_DOCUMENT, 1, 1)));
+		assertEquals(1, reader.next().getItemValueInteger("_id"));
+		assertFalse(reader.hasNext());
+	}
+
+	/**
+	 * A malformed stream stops the reader after the valid documents
+	 */
+	@Test
+	public void testXMLInvalid() throws XMLStreamException, JAXBException {
+		BulkDocumentReader reader = BulkDocumentReader.xml(stream("<data>" + String.format(XML_DOCUMENT, 1, 1)
+				+ String.format(XML_DOCUMENT, 2, 2) + "<document><item name=\"_id\"></document></data>"));
+
+		assertEquals(1, reader.next().getItemValueInteger("_id"));
+		assertEquals(2, reader.next().getItemValueInteger("_id"));
+		assertFalse(reader.hasNext());
+		assertEquals(2, reader.getCount());
+		assertTrue(reader.getError().startsWith("invalid document 3"));
+	}
+
+	private static String jsonLine(int id) {
+		return "{\"item\":[{\"name\":\"_id\",\"value\":{\"@type\":\"xs:int\",\"$\":\"" + id
+				+ "\"}},{\"name\":\"_subject\",\"value\":{\"@type\":\"xs:string\",\"$\":\"Hello " + id + "\"}}]}";
+	}
+
+	private static InputStream stream(String data) {
+		return new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,105 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.jaxrs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the parsing of HTTP Range headers
+ * 
+ * @author rsoika
+ */
+public class TestByteRange {
+
+	@Test
+	public void testClosedRange() {
+		ByteRange range = ByteRange.parse("bytes=0-499", 1000);
+		assertTrue(range.isSatisfiable());
+		assertEquals(0, range.getStart());
+		assertEquals(499, range.getEnd());
+		assertEquals(500, range.getRangeLength());
+		assertEquals("bytes 0-499/1000", range.getContentRange());
+
+		// the end is limited to the content length
+		range = ByteRange.parse("bytes=900-2000", 1000);
+		assertEquals(999, range.getEnd());
+		assertEquals("bytes 900-999/1000", range.getContentRange());
+	}
+
+	@Test
+	public void testOpenEndedRange() {
+		ByteRange range = ByteRange.parse("bytes=500-", 1000);
+		assertTrue(range.isSatisfiable());
+		assertEquals(500, range.getStart());
+		assertEquals(999, range.getEnd());
+		assertEquals(500, range.getRangeLength());
+	}
+
+	@Test
+	public void testSuffixRange() {
+		ByteRange range = ByteRange.parse("bytes=-300", 1000);
+		assertTrue(range.isSatisfiable());
+		assertEquals(700, range.getStart());
+		assertEquals(999, range.getEnd());
+
+		// a suffix longer than the content returns the full content
+		range = ByteRange.parse("bytes=-5000", 1000);
+		assertEquals(0, range.getStart());
+		assertEquals(1000, range.getRangeLength());
+
+		// an empty suffix can not be satisfied
+		range = ByteRange.parse("bytes=-0", 1000);
+		assertFalse(range.isSatisfiable());
+	}
+
+	/**
+	 * Multiple ranges are not supported - the full content is returned
+	 */
+	@Test
+	public void testMultiRange() {
+		assertNull(ByteRange.parse("bytes=0-99,200-299", 1000));
+		assertNull(ByteRange.parse("bytes=0-99, -100", 1000));
+	}
+
+	@Test
+	public void testUnsatisfiableRange() {
+		ByteRange range = ByteRange.parse("bytes=1000-", 1000);
+		assertFalse(range.isSatisfiable());
+		assertEquals("bytes */1000", range.getContentRange());
+
+		range = ByteRange.parse("bytes=0-", 0);
+		assertFalse(range.isSatisfiable());
+		assertEquals("bytes */0", range.getContentRange());
+	}
+
+	/**
+	 * Malformed headers are ignored - the full content is returned
+	 */
+	@Test
+	public void testInvalidRange() {
+		assertNull(ByteRange.parse(null, 1000));
+		assertNull(ByteRange.parse("", 1000));
+		assertNull(ByteRange.parse("items=0-99", 1000));
+		assertNull(ByteRange.parse("bytes=abc", 1000));
+		assertNull(ByteRange.parse("bytes=a-b", 1000));
+		assertNull(ByteRange.parse("bytes=500-100", 1000));
+	}
+}
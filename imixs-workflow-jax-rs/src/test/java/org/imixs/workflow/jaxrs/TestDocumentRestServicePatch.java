@@ -0,0 +1,116 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.jaxrs;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.imixs.workflow.ItemCollection;
+import org.imixs.workflow.engine.DocumentService;
+import org.imixs.workflow.xml.XMLDocument;
+import org.imixs.workflow.xml.XMLDocumentAdapter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.RuntimeDelegate;
+
+/**
+ * Test class for the If-Match header of the PATCH method of the
+ * DocumentRestService. An If-Match header which is no valid version must not
+ * result in a patch without a precondition.
+ * <p>
+ * The JAX-RS runtime is replaced by a mock, so the test records the calls of
+ * the ResponseBuilder.
+ */
+public class TestDocumentRestServicePatch {
+
+	@Mock
+	private DocumentService documentService;
+
+	@InjectMocks
+	private DocumentRestService documentRestService;
+
+	private Response.ResponseBuilder builder;
+	private AutoCloseable mocks;
+
+	@BeforeEach
+	public void setUp() {
+		mocks = MockitoAnnotations.openMocks(this);
+		builder = Mockito.mock(Response.ResponseBuilder.class, Mockito.RETURNS_SELF);
+		RuntimeDelegate runtimeDelegate = Mockito.mock(RuntimeDelegate.class);
+		when(runtimeDelegate.createResponseBuilder()).thenReturn(builder);
+		RuntimeDelegate.setInstance(runtimeDelegate);
+	}
+
+	@AfterEach
+	public void tearDown() throws Exception {
+		RuntimeDelegate.setInstance(null);
+		mocks.close();
+	}
+
+	/**
+	 * An If-Match header with a strong or weak version is passed to the
+	 * DocumentService.
+	 */
+	@Test
+	public void testIfMatch() throws Exception {
+		documentRestService.patch("1", createDelta(), null, null, "\"3\"", null);
+		documentRestService.patch("2", createDelta(), null, null, "W/\"4\"", null);
+		verify(documentService).patch(eq("1"), eq(3), anyList());
+		verify(documentService).patch(eq("2"), eq(4), anyList());
+	}
+
+	/**
+	 * The wildcard '*' matches any version.
+	 */
+	@Test
+	public void testIfMatchWildcard() throws Exception {
+		documentRestService.patch("1", createDelta(), null, null, "*", null);
+		verify(documentService).patch(eq("1"), isNull(), anyList());
+	}
+
+	/**
+	 * An If-Match header which is no valid version is answered with the status
+	 * 412 and the document is not patched.
+	 */
+	@Test
+	public void testInvalidIfMatch() throws Exception {
+		documentRestService.patch("1", createDelta(), null, null, "\"abc\"", null);
+		documentRestService.patch("1", createDelta(), null, null, "\"3\", \"4\"", null);
+		documentRestService.patch("1", createDelta(), null, null, "", null);
+		verify(builder, Mockito.times(3)).status((Response.StatusType) Response.Status.PRECONDITION_FAILED);
+		verify(documentService, never()).patch(anyString(), anyInt(), anyList());
+		verify(documentService, never()).patch(anyString(), isNull(), anyList());
+	}
+
+	private XMLDocument createDelta() {
+		ItemCollection delta = new ItemCollection();
+		delta.setItemValue("txtname", "Anna");
+		return XMLDocumentAdapter.getDocument(delta);
+	}
+}
@@ -0,0 +1,154 @@
+/****************************************************************************
+ * Copyright (c) 2022-2025 Imixs Software Solutions GmbH and others.
+ * https://www.imixs.com
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0 which is available at
+ * https://www.eclipse.org/legal/epl-2.0
+ *
+ * This Source Code may also be made available under the terms of the
+ * GNU General Public License, version 2 or later (GPL-2.0-or-later),
+ * which is available at https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0-or-later
+ ****************************************************************************/
+
+package org.imixs.workflow.jaxrs;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.security.NoSuchAlgorithmException;
+
+import org.imixs.workflow.FileData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.RuntimeDelegate;
+
+/**
+ * Test class for the file download of the WorkflowRestService. The test
+ * verifies the status and headers of the response for conditional and range
+ * requests.
+ * <p>
+ * The JAX-RS runtime is replaced by a mock, so the test records the calls of
+ * the ResponseBuilder.
+ * 
+ * @author rsoika
+ */
+public class TestWorkflowRestServiceFile {
+
+	private WorkflowRestService workflowRestService;
+	private Response.ResponseBuilder builder;
+	private Request request;
+	private FileData fileData;
+	private EntityTag etag;
+
+	@BeforeEach
+	public void setUp() throws NoSuchAlgorithmException {
+		builder = Mockito.mock(Response.ResponseBuilder.class, Mockito.RETURNS_SELF);
+		RuntimeDelegate runtimeDelegate = Mockito.mock(RuntimeDelegate.class);
+		when(runtimeDelegate.createResponseBuilder()).thenReturn(builder);
+		when(runtimeDelegate.createHeaderDelegate(EntityTag.class)).thenReturn(new EntityTagDelegate());
+		RuntimeDelegate.setInstance(runtimeDelegate);
+
+		request = Mockito.mock(Request.class);
+		workflowRestService = new WorkflowRestService();
+		fileData = new FileData("test.txt", "0123456789".getBytes(), "text/plain", null);
+		etag = new EntityTag(fileData.generateMD5());
+	}
+
+	@AfterEach
+	public void tearDown() {
+		RuntimeDelegate.setInstance(null);
+	}
+
+	/**
+	 * A matching If-None-Match header is answered with the status 304 and the ETag
+	 */
+	@Test
+	public void testNotModified() throws NoSuchAlgorithmException {
+		Response.ResponseBuilder notModified = Mockito.mock(Response.ResponseBuilder.class, Mockito.RETURNS_SELF);
+		when(request.evaluatePreconditions(etag)).thenReturn(notModified);
+
+		workflowRestService.buildFileResponse(fileData, request, "bytes=0-4", null);
+		verify(notModified).tag(etag);
+		verify(notModified).build();
+		verify(builder, never()).build();
+	}
+
+	@Test
+	public void testFullContent() throws NoSuchAlgorithmException {
+		workflowRestService.buildFileResponse(fileData, request, null, null);
+		verify(builder).status((Response.StatusType) Response.Status.OK);
+		verify(builder).header(HttpHeaders.CONTENT_LENGTH, 10);
+		verify(builder).header("Accept-Ranges", "bytes");
+		verify(builder).tag(etag);
+	}
+
+	@Test
+	public void testPartialContent() throws NoSuchAlgorithmException {
+		workflowRestService.buildFileResponse(fileData, request, "bytes=2-5", null);
+		verify(builder).status((Response.StatusType) Response.Status.PARTIAL_CONTENT);
+		verify(builder).header("Content-Range", "bytes 2-5/10");
+		verify(builder).header(HttpHeaders.CONTENT_LENGTH, 4);
+		verify(builder).tag(etag);
+	}
+
+	@Test
+	public void testRangeNotSatisfiable() throws NoSuchAlgorithmException {
+		workflowRestService.buildFileResponse(fileData, request, "bytes=20-", null);
+		verify(builder).status((Response.StatusType) Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE);
+		verify(builder).header("Content-Range", "bytes */10");
+	}
+
+	/**
+	 * A range is returned only if the If-Range header matches the current ETag
+	 */
+	@Test
+	public void testIfRangeMatch() throws NoSuchAlgorithmException {
+		workflowRestService.buildFileResponse(fileData, request, "bytes=2-5", " \"" + etag.getValue() + "\" ");
+		verify(builder).status((Response.StatusType) Response.Status.PARTIAL_CONTENT);
+	}
+
+	/**
+	 * An outdated ETag, a weak ETag or a date in the If-Range header results in
+	 * the full content
+	 */
+	@Test
+	public void testIfRangeMismatch() throws NoSuchAlgorithmException {
+		workflowRestService.buildFileResponse(fileData, request, "bytes=2-5", "\"outdated\"");
+		workflowRestService.buildFileResponse(fileData, request, "bytes=2-5", "W/\"" + etag.getValue() + "\"");
+		workflowRestService.buildFileResponse(fileData, request, "bytes=2-5", "Wed, 21 Oct 2015 07:28:00 GMT");
+		verify(builder, Mockito.times(3)).status((Response.StatusType) Response.Status.OK);
+		verify(builder, never()).status((Response.StatusType) Response.Status.PARTIAL_CONTENT);
+	}
+
+	/**
+	 * Minimal HeaderDelegate parsing an entity tag
+	 */
+	private static class EntityTagDelegate implements RuntimeDelegate.HeaderDelegate<EntityTag> {
+
+		@Override
+		public EntityTag fromString(String value) {
+			boolean weak = value.startsWith("W/");
+			String tag = weak ? value.substring(2) : value;
+			if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+				throw new IllegalArgumentException("invalid entity tag: " + value);
+			}
+			return new EntityTag(tag.substring(1, tag.length() - 1), weak);
+		}
+
+		@Override
+		public String toString(EntityTag value) {
+			return (value.isWeak() ? "W/" : "") + "\"" + value.getValue() + "\"";
+		}
+	}
+}